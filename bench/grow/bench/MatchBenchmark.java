@@ -0,0 +1,142 @@
+package grow.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import grow.Rule;
+import grow.Scene;
+import grow.WorldGenerator;
+import grow.action.Action;
+import grow.action.Print;
+
+/**
+ * Represents: benchmarks for {@link Rule#matches(String)} and
+ * {@link Scene#act(String)}.
+ * <ul>
+ * <li>A realistic scene has a few rules, each with a few short patterns, and
+ * the input is a short command.</li>
+ * <li>A worst case scene has many rules, each with several regular expression
+ * patterns, and the input is a long sentence. The rule that matches is the
+ * last one, so every other rule must be tried first.</li>
+ * </ul>
+ *
+ * @author Jacob Glueck
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchBenchmark {
+
+	/**
+	 * The shape of the scene: {@code realistic} or {@code worst}.
+	 */
+	@Param({ "realistic", "worst" })
+	public String shape;
+
+	/**
+	 * True to match scenes with the linear-time matcher (see
+	 * {@link Scene#setLinear(boolean)}).
+	 */
+	@Param({ "false", "true" })
+	public boolean linear;
+
+	/**
+	 * The scene
+	 */
+	private Scene scene;
+	/**
+	 * The last rule of the scene
+	 */
+	private Rule last;
+	/**
+	 * Input which matches only the last rule
+	 */
+	private String hit;
+	/**
+	 * Input which matches no rule
+	 */
+	private String miss;
+
+	/**
+	 * Effect: builds the scene and the input.
+	 */
+	@Setup
+	public void setup() {
+		Scene.setLinear(linear);
+		Random rnd = new Random(Worlds.SEED);
+		boolean worst = shape.equals("worst");
+		int rules = worst ? 200 : 8;
+		int inputWords = worst ? 60 : 3;
+		scene = new Scene("bench", "A scene for benchmarking.");
+		List<Action> print = Arrays.asList(new Print("Matched."));
+		for (int x = 0; x < rules; x++) {
+			List<String> patterns = new ArrayList<>();
+			if (worst) {
+				for (int p = 0; p < 5; p++) {
+					patterns.add("(" + WorldGenerator.word(rnd) + "|" + WorldGenerator.word(rnd) + ")+ .*" + x + "_" + p);
+				}
+			} else {
+				patterns.add(WorldGenerator.phrase(rnd) + " " + x);
+				patterns.add(WorldGenerator.word(rnd) + x);
+			}
+			scene.rules().add(new Rule(print, patterns.toArray(new String[patterns.size()])));
+		}
+		last = new Rule(print, "magic word");
+		scene.rules().add(last);
+		String sentence = WorldGenerator.sentence(rnd, inputWords);
+		sentence = sentence.substring(0, sentence.length() - 1);
+		hit = sentence + " magic word";
+		miss = sentence + " nothing";
+	}
+
+	/**
+	 * @return true
+	 */
+	@Benchmark
+	public boolean ruleHit() {
+		return last.matches(hit);
+	}
+
+	/**
+	 * @return false
+	 */
+	@Benchmark
+	public boolean ruleMiss() {
+		return last.matches(miss);
+	}
+
+	/**
+	 * @return the actions of the last rule
+	 */
+	@Benchmark
+	public List<Action> sceneHit() {
+		return scene.act(hit);
+	}
+
+	/**
+	 * @return null
+	 */
+	@Benchmark
+	public List<Action> sceneMiss() {
+		return scene.act(miss);
+	}
+}
@@ -0,0 +1,87 @@
+package grow.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import grow.Game;
+import grow.SaveManager;
+
+/**
+ * Represents: a benchmark for {@link SaveManager#linkMedia(Game)}, which runs
+ * every time an adventure is loaded. Every scene has an image, and half of the
+ * scenes have a sound.
+ *
+ * @author Jacob Glueck
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MediaBenchmark {
+
+	/**
+	 * The number of scenes
+	 */
+	@Param({ "10", "100" })
+	public int scenes;
+
+	/**
+	 * The grow root directory
+	 */
+	private File root;
+	/**
+	 * The adventure
+	 */
+	private Game game;
+	/**
+	 * The save manager
+	 */
+	private SaveManager saveManager;
+
+	/**
+	 * Effect: stores the adventure and its media.
+	 *
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	@Setup
+	public void setup() throws IOException {
+		root = Worlds.tempDir();
+		game = Worlds.generator(scenes, 4).images(1).sounds(0.5).install(root);
+		saveManager = new SaveManager(root);
+	}
+
+	/**
+	 * Effect: deletes the grow root.
+	 */
+	@TearDown
+	public void tearDown() {
+		Worlds.delete(root);
+	}
+
+	/**
+	 * @return the adventure
+	 */
+	@Benchmark
+	public Game linkMedia() {
+		saveManager.linkMedia(game);
+		return game;
+	}
+}
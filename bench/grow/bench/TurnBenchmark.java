@@ -0,0 +1,130 @@
+package grow.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import grow.GrowGame;
+import grow.MediaProcessor;
+import grow.StatusUpdater;
+import grow.WorldGenerator;
+import grow.action.Action;
+
+/**
+ * Represents: a benchmark for a whole turn of the game,
+ * {@link GrowGame#doTurn(String, java.util.function.Consumer, MediaProcessor, StatusUpdater)}
+ * , with {@link MediaProcessor#EMPTY}. The input is a fixed script of commands
+ * made from the words used by the adventure, so most turns match a rule, some
+ * move to another scene, and some match nothing. None of the commands asks for
+ * more input.
+ *
+ * @author Jacob Glueck
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnBenchmark {
+
+	/**
+	 * A status updater which does nothing.
+	 */
+	private static final StatusUpdater NO_STATUS = (a, s) -> {
+	};
+
+	/**
+	 * The number of scenes
+	 */
+	@Param({ "100" })
+	public int scenes;
+
+	/**
+	 * The number of rules per scene
+	 */
+	@Param({ "6", "30" })
+	public int rules;
+
+	/**
+	 * The grow root directory
+	 */
+	private File root;
+	/**
+	 * The game
+	 */
+	private GrowGame game;
+	/**
+	 * The input
+	 */
+	private String[] script;
+	/**
+	 * The index of the next line of {@link #script}
+	 */
+	private int next;
+
+	/**
+	 * Effect: stores the adventure and starts the game.
+	 *
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	@Setup
+	public void setup() throws IOException {
+		root = Worlds.tempDir();
+		Worlds.generator(scenes, rules).install(root);
+		game = new GrowGame(new Scanner(""), (e) -> {
+		}, root);
+		game.init(Action.EMPTY_INJECTOR, MediaProcessor.EMPTY, NO_STATUS);
+
+		Random rnd = new Random(Worlds.SEED);
+		script = new String[1024];
+		for (int x = 0; x < script.length; x++) {
+			switch (rnd.nextInt(16)) {
+			case 0:
+				script[x] = ":view";
+				break;
+			case 1:
+				script[x] = "xyzzy";
+				break;
+			default:
+				script[x] = "I want to " + WorldGenerator.phrase(rnd) + " now";
+			}
+		}
+		next = 0;
+	}
+
+	/**
+	 * Effect: deletes the grow root.
+	 */
+	@TearDown
+	public void tearDown() {
+		Worlds.delete(root);
+	}
+
+	/**
+	 * @return true
+	 */
+	@Benchmark
+	public boolean doTurn() {
+		String line = script[next];
+		next = (next + 1) % script.length;
+		return game.doTurn(line, Action.EMPTY_INJECTOR, MediaProcessor.EMPTY, NO_STATUS);
+	}
+}
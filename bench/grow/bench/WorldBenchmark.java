@@ -0,0 +1,119 @@
+package grow.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import exceptions.SyntaxError;
+import grow.Game;
+
+/**
+ * Represents: benchmarks for {@link Game#parseWorld(Scanner)} and
+ * {@link Game#saveWorld(PrintStream)} on synthetic adventures of different
+ * sizes.
+ *
+ * @author Jacob Glueck
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WorldBenchmark {
+
+	/**
+	 * The number of scenes
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int scenes;
+
+	/**
+	 * The number of rules per scene
+	 */
+	@Param({ "6" })
+	public int rules;
+
+	/**
+	 * The adventure
+	 */
+	private Game game;
+	/**
+	 * The saved adventure
+	 */
+	private byte[] saved;
+
+	/**
+	 * Effect: generates and saves the adventure.
+	 */
+	@Setup
+	public void setup() {
+		game = Worlds.generator(scenes, rules).generate();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PrintStream ps = new PrintStream(out);
+		game.saveWorld(ps);
+		ps.close();
+		saved = out.toByteArray();
+	}
+
+	/**
+	 * @return the parsed adventure
+	 * @throws SyntaxError
+	 *             never
+	 */
+	@Benchmark
+	public Game parseWorld() throws SyntaxError {
+		return Game.parseWorld(new Scanner(new ByteArrayInputStream(saved)));
+	}
+
+	/**
+	 * @return the number of bytes written
+	 */
+	@Benchmark
+	public long saveWorld() {
+		Counter c = new Counter();
+		PrintStream ps = new PrintStream(c);
+		game.saveWorld(ps);
+		ps.flush();
+		return c.count;
+	}
+
+	/**
+	 * Represents: an output stream which throws away everything but counts
+	 * the bytes, so that the benchmark measures saving and not copying.
+	 *
+	 * @author Jacob Glueck
+	 */
+	private static class Counter extends OutputStream {
+		/**
+		 * The number of bytes written
+		 */
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package grow.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import grow.WorldGenerator;
+
+/**
+ * Represents: the synthetic adventures used by the benchmarks. They all use
+ * the same seed, so that results from different versions of grow can be
+ * compared.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public final class Worlds {
+
+	/**
+	 * The seed used by the benchmarks.
+	 */
+	public static final long SEED = 42;
+
+	/**
+	 * Not instantiable.
+	 */
+	private Worlds() {
+	}
+
+	/**
+	 * Creates: a generator for an adventure called {@code bench_<scenes>}.
+	 *
+	 * @param scenes
+	 *            the number of scenes
+	 * @param rules
+	 *            the number of rules per scene
+	 * @return the generator
+	 */
+	public static WorldGenerator generator(int scenes, int rules) {
+		return new WorldGenerator(SEED).name("bench_" + scenes).scenes(scenes).rules(rules);
+	}
+
+	/**
+	 * Creates: a new, empty, temporary directory.
+	 *
+	 * @return the directory
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	public static File tempDir() throws IOException {
+		return Files.createTempDirectory("grow_bench").toFile();
+	}
+
+	/**
+	 * Effect: recursively deletes a file and all of the files in it
+	 *
+	 * @param f
+	 *            the file
+	 */
+	public static void delete(File f) {
+		if (f.isDirectory()) {
+			for (File c : f.listFiles()) {
+				delete(c);
+			}
+		}
+		f.delete();
+	}
+}
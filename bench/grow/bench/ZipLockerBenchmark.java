@@ -0,0 +1,152 @@
+package grow.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import util.ZipLocker;
+
+/**
+ * Represents: benchmarks for {@link ZipLocker}. Each operation opens and
+ * closes the zip file, because that is what the game does every time it
+ * touches an adventure file.
+ *
+ * @author Jacob Glueck
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZipLockerBenchmark {
+
+	/**
+	 * The number of files in the zip file
+	 */
+	@Param({ "10", "1000" })
+	public int files;
+
+	/**
+	 * The size of each file, in bytes
+	 */
+	@Param({ "4096" })
+	public int size;
+
+	/**
+	 * The directory which holds the zip file
+	 */
+	private File dir;
+	/**
+	 * The zip file
+	 */
+	private File zip;
+	/**
+	 * The data written to each file
+	 */
+	private byte[] data;
+	/**
+	 * The buffer used for reading
+	 */
+	private byte[] buffer;
+
+	/**
+	 * Effect: makes the zip file.
+	 *
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	@Setup
+	public void setup() throws IOException {
+		dir = Worlds.tempDir();
+		zip = new File(dir, "bench.zip");
+		data = new byte[size];
+		buffer = new byte[8192];
+		for (int x = 0; x < data.length; x++) {
+			data[x] = (byte) x;
+		}
+		ZipLocker locker = new ZipLocker(zip);
+		for (int x = 0; x < files; x++) {
+			OutputStream out = locker.write("file_" + x + ".bin");
+			out.write(data);
+			out.close();
+		}
+		locker.close();
+	}
+
+	/**
+	 * Effect: deletes the zip file.
+	 */
+	@TearDown
+	public void tearDown() {
+		Worlds.delete(dir);
+	}
+
+	/**
+	 * @return the number of bytes read
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	@Benchmark
+	public long read() throws IOException {
+		ZipLocker locker = new ZipLocker(zip);
+		long count = 0;
+		try (InputStream in = locker.read("file_" + (files / 2) + ".bin")) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				count += read;
+			}
+		} finally {
+			locker.close();
+		}
+		return count;
+	}
+
+	/**
+	 * Effect: replaces one of the files.
+	 *
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	@Benchmark
+	public void write() throws IOException {
+		ZipLocker locker = new ZipLocker(zip);
+		try (OutputStream out = locker.write("file_" + (files / 2) + ".bin")) {
+			out.write(data);
+		} finally {
+			locker.close();
+		}
+	}
+
+	/**
+	 * @return the names of the files
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	@Benchmark
+	public List<String> list() throws IOException {
+		ZipLocker locker = new ZipLocker(zip);
+		try {
+			return locker.listFiles();
+		} finally {
+			locker.close();
+		}
+	}
+}
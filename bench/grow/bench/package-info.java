@@ -0,0 +1,7 @@
+/**
+ * Contains the JMH benchmarks for the grow game. Run them with
+ * {@code ant bench}.
+ *
+ * @author Jacob Glueck
+ */
+package grow.bench;
\ No newline at end of file
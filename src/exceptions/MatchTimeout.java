@@ -0,0 +1,25 @@
+package exceptions;
+
+/**
+ * Represents: a pattern taking longer to match than it is allowed to. Unlike
+ * the other grow exceptions, this is unchecked, because it is thrown from
+ * inside the regular expression engine.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class MatchTimeout extends RuntimeException {
+
+	/**
+	 * Default UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates: a new timeout. There is no stack trace, since the timeout is
+	 * always caught, and it would be expensive to fill in.
+	 */
+	public MatchTimeout() {
+		super("The pattern took too long to match.", null, false, false);
+	}
+}
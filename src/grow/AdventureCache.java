@@ -0,0 +1,199 @@
+package grow;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import grow.action.Action;
+import grow.action.Print;
+import javafx.scene.image.Image;
+
+/**
+ * Represents: the adventures which were played recently, kept in memory with
+ * their media and state, so that switching back to one of them does not mean
+ * reading, parsing, and linking it again. Each adventure is kept with a stamp
+ * of its files (see {@link SaveManager#stamp(String)}), and is only used if
+ * the files have not changed since. The adventures are kept in the order they
+ * were used, and the least recently used are dropped once the estimated size
+ * of all of them (see {@link #estimate(Game)}) is more than a budget.
+ *
+ * The adventure being played is never in the cache: it is taken out when it
+ * is played, and put back when the player switches to another one.
+ *
+ * @author Jacob Glueck
+ *
+ */
+class AdventureCache {
+
+	/**
+	 * The budget, in megabytes, by default. Set by the system property
+	 * {@code grow.cache.mb}; 0 turns the cache off.
+	 */
+	static final long BUDGET_MB = Long.getLong("grow.cache.mb", 64);
+
+	/**
+	 * Represents: an adventure in the cache.
+	 *
+	 * @author Jacob Glueck
+	 */
+	private static class Entry {
+		/**
+		 * The adventure
+		 */
+		final Game game;
+		/**
+		 * The stamp of its files
+		 */
+		final long stamp;
+		/**
+		 * Its estimated size, in bytes
+		 */
+		final long bytes;
+
+		/**
+		 * Creates: an entry.
+		 *
+		 * @param game
+		 *            the adventure
+		 * @param stamp
+		 *            the stamp of its files
+		 * @param bytes
+		 *            its estimated size, in bytes
+		 */
+		Entry(Game game, long stamp, long bytes) {
+			this.game = game;
+			this.stamp = stamp;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * The adventures, by name, from the least to the most recently used
+	 */
+	private final Map<String, Entry> entries;
+	/**
+	 * The most bytes the adventures may take up
+	 */
+	private final long budget;
+	/**
+	 * The estimated size of all the adventures, in bytes
+	 */
+	private long bytes;
+
+	/**
+	 * Creates: a new, empty cache.
+	 *
+	 * @param budget
+	 *            the most bytes the adventures may take up
+	 */
+	AdventureCache(long budget) {
+		// In the order the adventures were used, not added
+		entries = new LinkedHashMap<>(16, 0.75f, true);
+		this.budget = budget;
+	}
+
+	/**
+	 * Effect: adds an adventure which is not being played, and drops the
+	 * least recently used adventures until the cache is within its budget. An
+	 * adventure which is bigger than the budget on its own is not kept.
+	 *
+	 * @param g
+	 *            the adventure
+	 * @param stamp
+	 *            the stamp of its files, as they are now
+	 */
+	void put(Game g, long stamp) {
+		remove(g.name());
+		Entry e = new Entry(g, stamp, estimate(g));
+		if (e.bytes > budget) {
+			return;
+		}
+		entries.put(g.name(), e);
+		bytes += e.bytes;
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (bytes > budget) {
+			bytes -= eldest.next().bytes;
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Effect: takes an adventure out of the cache, to be played.
+	 *
+	 * @param name
+	 *            the name of the adventure
+	 * @param stamp
+	 *            the stamp of its files, as they are now
+	 * @return the adventure, or null if it is not in the cache or its files
+	 *         have changed since it was put in
+	 */
+	Game take(String name, long stamp) {
+		Entry e = remove(name);
+		return e == null || e.stamp != stamp ? null : e.game;
+	}
+
+	/**
+	 * Effect: removes an adventure.
+	 *
+	 * @param name
+	 *            the name of the adventure
+	 * @return the entry, or null if there was none
+	 */
+	private Entry remove(String name) {
+		Entry e = entries.remove(name);
+		if (e != null) {
+			bytes -= e.bytes;
+		}
+		return e;
+	}
+
+	/**
+	 * @return the number of adventures in the cache
+	 */
+	int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the estimated size of the adventures in the cache, in bytes
+	 */
+	long bytes() {
+		return bytes;
+	}
+
+	/**
+	 * Estimates how much of the heap an adventure takes up, from the number of
+	 * its scenes, rules, patterns, and actions, the length of its text, and the
+	 * size of its images once they are decoded. The numbers for each are a
+	 * little more than what {@link HeapReport} measures for big adventures,
+	 * which do not count strings which are shared.
+	 *
+	 * @param g
+	 *            the adventure
+	 * @return the estimate, in bytes
+	 */
+	static long estimate(Game g) {
+		long bytes = 0;
+		for (Scene s : g.scenes().values()) {
+			bytes += 256 + 2 * (s.name().length() + s.description().length());
+			Image image = s.image();
+			if (image != null) {
+				// Decoded images take 4 bytes for each pixel
+				bytes += 4 * (long) (image.getWidth() * image.getHeight());
+			}
+			for (Rule r : s.rules()) {
+				bytes += 128;
+				for (String pattern : r.patterns()) {
+					bytes += 48 + 2 * pattern.length();
+				}
+				for (Action a : r.actions()) {
+					bytes += 32;
+					if (a instanceof Print) {
+						bytes += 48 + 2 * ((Print) a).toPrint().length();
+					}
+				}
+			}
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,308 @@
+package grow;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Scanner;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import exceptions.GrowException;
+
+/**
+ * Represents: an adventure being imported from a ZIP file, which is meant to
+ * run on a thread other than the game thread. The ZIP file is read once, as a
+ * stream: each file of the adventure is copied to a new ZIP file next to the
+ * adventures, and the world file is renamed and parsed as it is copied, so an
+ * adventure which is not valid is found before anything is added to the
+ * adventures. Once everything is copied, the new file is renamed to the
+ * adventure file in one step, so the adventures never hold half of a ZIP
+ * file.
+ *
+ * @author Jacob Glueck
+ *
+ */
+class AdventureImport implements Runnable {
+
+	/**
+	 * The number of bytes between two updates of the progress
+	 */
+	private static final long UPDATE_BYTES = 1 << 20;
+
+	/**
+	 * Represents: what is done with an adventure once it is parsed and its
+	 * file is in place, still on the importing thread.
+	 *
+	 * @author Jacob Glueck
+	 */
+	@FunctionalInterface
+	interface Finisher {
+		/**
+		 * Effect: gets the adventure ready to play.
+		 *
+		 * @param g
+		 *            the adventure
+		 * @throws IOException
+		 *             if there is a problem reading its files
+		 * @throws GrowException
+		 *             if they are not valid
+		 */
+		void finish(Game g) throws IOException, GrowException;
+	}
+
+	/**
+	 * The ZIP file to import
+	 */
+	private final File source;
+	/**
+	 * The adventure file to make
+	 */
+	private final File target;
+	/**
+	 * The name the adventure is imported as
+	 */
+	private final String name;
+	/**
+	 * Shows the progress
+	 */
+	private final ImportProgress progress;
+	/**
+	 * Gets the adventure ready to play
+	 */
+	private final Finisher finisher;
+
+	/**
+	 * The number of bytes of the source read so far
+	 */
+	private volatile long read;
+	/**
+	 * True once the import is done, whether it worked or not
+	 */
+	private volatile boolean done;
+	/**
+	 * The adventure, once it is imported
+	 */
+	private Game result;
+	/**
+	 * The problem, if the adventure could not be imported
+	 */
+	private String problem;
+
+	/**
+	 * Creates: an import which has not started.
+	 *
+	 * @param source
+	 *            the ZIP file to import
+	 * @param target
+	 *            the adventure file to make, which must not exist
+	 * @param name
+	 *            the name the adventure is imported as
+	 * @param progress
+	 *            shows the progress
+	 * @param finisher
+	 *            gets the adventure ready to play
+	 */
+	AdventureImport(File source, File target, String name, ImportProgress progress, Finisher finisher) {
+		this.source = source;
+		this.target = target;
+		this.name = name;
+		this.progress = progress;
+		this.finisher = finisher;
+	}
+
+	@Override
+	public void run() {
+		File temp = new File(target.getParentFile(), "." + target.getName() + ".part");
+		try {
+			Game g = copy(temp);
+			if (g == null) {
+				throw new IOException("Invalid ZIP file!");
+			}
+			// An atomic move may replace the target without saying so
+			if (target.exists()) {
+				throw new FileAlreadyExistsException(target.getPath());
+			}
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			g.setName(name);
+			finisher.finish(g);
+			result = g;
+		} catch (FileAlreadyExistsException e) {
+			problem = "An adventure called " + name + " already exists.";
+		} catch (IOException e) {
+			problem = e.getMessage();
+		} catch (GrowException e) {
+			problem = "Problem reading the new adventure: " + e.getMessage();
+		} catch (RuntimeException e) {
+			// A world or state file which is not valid can fail in ways the
+			// parser does not check for
+			problem = "Problem reading the new adventure: " + e;
+		} finally {
+			temp.delete();
+			done = true;
+			progress.finished(name, result != null);
+		}
+	}
+
+	/**
+	 * Effect: copies the files of the adventure into a new ZIP file, renaming
+	 * them for the new name, and parses the world file on the way.
+	 *
+	 * @param temp
+	 *            the new ZIP file
+	 * @return the adventure, or null if the ZIP file has no world file
+	 * @throws IOException
+	 *             if there is a problem reading or writing
+	 * @throws GrowException
+	 *             if the world file is not valid
+	 */
+	private Game copy(File temp) throws IOException, GrowException {
+		String from = source.getName().substring(0, source.getName().length() - ".zip".length());
+		String prefix = from + "/";
+		long total = source.length();
+		Game g = null;
+		byte[] buffer = new byte[64 * 1024];
+		try (InputStream counted = new FilterInputStream(new BufferedInputStream(new FileInputStream(source))) {
+			@Override
+			public int read() throws IOException {
+				int r = super.read();
+				if (r != -1) {
+					counted(1, total);
+				}
+				return r;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int r = super.read(b, off, len);
+				if (r > 0) {
+					counted(r, total);
+				}
+				return r;
+			}
+		}; ZipInputStream in = new ZipInputStream(counted); ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			ZipEntry e;
+			while ((e = in.getNextEntry()) != null) {
+				// Like ZipLocker, only look at the files in the folder named
+				// after the adventure
+				if (!e.getName().startsWith(prefix)) {
+					continue;
+				}
+				String path = e.getName().substring(prefix.length());
+				boolean world = path.equals(from + "_world.txt");
+				out.putNextEntry(new ZipEntry(name + "/" + (world ? name + "_world.txt" : path)));
+				if (world) {
+					InputStream tee = tee(in, out);
+					g = Game.parseWorld(new Scanner(tee));
+					// Copy anything after the last line the parser read
+					while (tee.read(buffer) != -1) {
+					}
+				} else if (!e.isDirectory()) {
+					int r;
+					while ((r = in.read(buffer)) != -1) {
+						out.write(buffer, 0, r);
+					}
+				}
+				out.closeEntry();
+			}
+		}
+		return g;
+	}
+
+	/**
+	 * Effect: counts bytes read from the source, and updates the progress
+	 * every {@link #UPDATE_BYTES}.
+	 *
+	 * @param bytes
+	 *            the number of bytes just read
+	 * @param total
+	 *            the size of the source
+	 */
+	private void counted(int bytes, long total) {
+		long before = read;
+		read = before + bytes;
+		if (before / UPDATE_BYTES != read / UPDATE_BYTES) {
+			progress.update(name, read, total);
+		}
+	}
+
+	/**
+	 * @param in
+	 *            a stream
+	 * @param out
+	 *            another stream
+	 * @return a stream which reads from {@code in} and writes what it reads to
+	 *         {@code out}. Closing it does not close either stream.
+	 */
+	private static InputStream tee(InputStream in, OutputStream out) {
+		return new FilterInputStream(in) {
+			@Override
+			public int read() throws IOException {
+				int r = super.read();
+				if (r != -1) {
+					out.write(r);
+				}
+				return r;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int r = super.read(b, off, len);
+				if (r > 0) {
+					out.write(b, off, r);
+				}
+				return r;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	/**
+	 * @return the name the adventure is imported as
+	 */
+	String name() {
+		return name;
+	}
+
+	/**
+	 * @return the fraction of the ZIP file read so far
+	 */
+	double fraction() {
+		long total = source.length();
+		return total == 0 ? 0 : Math.min(1, (double) read / total);
+	}
+
+	/**
+	 * @return true once the import is done, whether it worked or not
+	 */
+	boolean done() {
+		return done;
+	}
+
+	/**
+	 * @return the adventure, or null if it could not be imported or the import
+	 *         is not done
+	 */
+	Game result() {
+		return done ? result : null;
+	}
+
+	/**
+	 * @return the problem, or null if there was none or the import is not done
+	 */
+	String problem() {
+		return done ? problem : null;
+	}
+}
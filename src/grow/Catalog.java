@@ -0,0 +1,435 @@
+package grow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents: an index of the adventures and state files in a grow root, kept
+ * in a file in the program data, so that listing the adventures and checking
+ * the grow root for stray files do not read the adventures and state
+ * directories, or open any adventure. For each adventure, the index holds the
+ * size of its file, its number of scenes, when it was last played, and whether
+ * it has a state file.
+ *
+ * The index is brought up to date at save time, by {@link #played(Game)}.
+ * Files which are added or removed by anything else change the times the
+ * directories were modified, so when those do not match the times in the
+ * index, the directories are read again; the number of scenes of an adventure
+ * which appears this way is not known until it is played.
+ *
+ * @author Jacob Glueck
+ *
+ */
+class Catalog {
+
+	/**
+	 * The first line of the index file, which changes if its format does
+	 */
+	private static final String HEADER = "grow catalog 1";
+
+	/**
+	 * Represents: what the index knows about an adventure.
+	 *
+	 * @author Jacob Glueck
+	 */
+	static class Entry {
+		/**
+		 * The name of the adventure
+		 */
+		private final String name;
+		/**
+		 * The size of its file, in bytes
+		 */
+		private final long size;
+		/**
+		 * When its file was last modified, in milliseconds
+		 */
+		private final long modified;
+		/**
+		 * The number of its scenes, or -1 if it is not known
+		 */
+		private final int scenes;
+		/**
+		 * When it was last played, in milliseconds, or 0 if it never was
+		 */
+		private final long played;
+		/**
+		 * True if it has a state file
+		 */
+		private final boolean state;
+
+		/**
+		 * Creates: an entry.
+		 *
+		 * @param name
+		 *            the name of the adventure
+		 * @param size
+		 *            the size of its file, in bytes
+		 * @param modified
+		 *            when its file was last modified, in milliseconds
+		 * @param scenes
+		 *            the number of its scenes, or -1 if it is not known
+		 * @param played
+		 *            when it was last played, in milliseconds, or 0 if it
+		 *            never was
+		 * @param state
+		 *            true if it has a state file
+		 */
+		Entry(String name, long size, long modified, int scenes, long played, boolean state) {
+			this.name = name;
+			this.size = size;
+			this.modified = modified;
+			this.scenes = scenes;
+			this.played = played;
+			this.state = state;
+		}
+
+		/**
+		 * @return the name of the adventure
+		 */
+		String name() {
+			return name;
+		}
+
+		/**
+		 * @return the size of its file, in bytes
+		 */
+		long size() {
+			return size;
+		}
+
+		/**
+		 * @return the number of its scenes, or -1 if it is not known
+		 */
+		int scenes() {
+			return scenes;
+		}
+
+		/**
+		 * @return when it was last played, in milliseconds, or 0 if it never
+		 *         was
+		 */
+		long played() {
+			return played;
+		}
+
+		/**
+		 * @return true if it has a state file
+		 */
+		boolean hasState() {
+			return state;
+		}
+	}
+
+	/**
+	 * The directory of the adventures
+	 */
+	private final File adventureDir;
+	/**
+	 * The directory of the state files
+	 */
+	private final File stateDir;
+	/**
+	 * The index file
+	 */
+	private final File file;
+
+	/**
+	 * The adventures, by name
+	 */
+	private Map<String, Entry> adventures;
+	/**
+	 * The files in the adventures directory which are not adventures
+	 */
+	private Set<String> strayAdventureFiles;
+	/**
+	 * The files in the state directory which are not state files
+	 */
+	private Set<String> strayStateFiles;
+	/**
+	 * The state files of adventures which do not exist
+	 */
+	private Set<String> orphanStates;
+	/**
+	 * When the adventures directory was modified, in nanoseconds, when it was
+	 * last read
+	 */
+	private long adventureDirModified;
+	/**
+	 * When the state directory was modified, in nanoseconds, when it was last
+	 * read
+	 */
+	private long stateDirModified;
+
+	/**
+	 * Creates: an index, read from its file if it has one. It is not checked
+	 * against the directories until it is used.
+	 *
+	 * @param adventureDir
+	 *            the directory of the adventures
+	 * @param stateDir
+	 *            the directory of the state files
+	 * @param file
+	 *            the index file
+	 */
+	Catalog(File adventureDir, File stateDir, File file) {
+		this.adventureDir = adventureDir;
+		this.stateDir = stateDir;
+		this.file = file;
+		adventures = new TreeMap<>();
+		strayAdventureFiles = new HashSet<>();
+		strayStateFiles = new HashSet<>();
+		orphanStates = new HashSet<>();
+		// Makes the first use read the directories, unless the file is read
+		adventureDirModified = -1;
+		if (file.exists()) {
+			try {
+				read();
+			} catch (IOException | RuntimeException e) {
+				adventures.clear();
+				strayAdventureFiles.clear();
+				strayStateFiles.clear();
+				orphanStates.clear();
+				adventureDirModified = -1;
+			}
+		}
+	}
+
+	/**
+	 * @return the adventures, in order of their names
+	 */
+	Collection<Entry> adventures() {
+		refresh();
+		return Collections.unmodifiableCollection(adventures.values());
+	}
+
+	/**
+	 * @return the names of the adventures
+	 */
+	Set<String> names() {
+		refresh();
+		return Collections.unmodifiableSet(adventures.keySet());
+	}
+
+	/**
+	 * @return the files in the adventures directory which are not adventures
+	 */
+	Set<String> strayAdventureFiles() {
+		refresh();
+		return Collections.unmodifiableSet(strayAdventureFiles);
+	}
+
+	/**
+	 * @return the files in the state directory which are not state files
+	 */
+	Set<String> strayStateFiles() {
+		refresh();
+		return Collections.unmodifiableSet(strayStateFiles);
+	}
+
+	/**
+	 * @return the state files of adventures which do not exist
+	 */
+	Set<String> orphanStates() {
+		refresh();
+		return Collections.unmodifiableSet(orphanStates);
+	}
+
+	/**
+	 * Effect: reads the directories again if something else has changed them
+	 * since they were last read.
+	 */
+	void refresh() {
+		if (modified(adventureDir) != adventureDirModified || modified(stateDir) != stateDirModified) {
+			scan();
+			write();
+		}
+	}
+
+	/**
+	 * Effect: records that an adventure was just played and saved. Must be
+	 * called right after its files are written. Writing them changes the
+	 * directories, so they are read again first, which also finds anything
+	 * else that changed them since they were last read.
+	 *
+	 * @param g
+	 *            the adventure
+	 */
+	void played(Game g) {
+		File zip = new File(adventureDir, g.name() + ".zip");
+		if (!zip.isFile()) {
+			return;
+		}
+		if (modified(adventureDir) != adventureDirModified || modified(stateDir) != stateDirModified) {
+			scan();
+		}
+		boolean state = new File(stateDir, g.name() + "_state.txt").isFile();
+		adventures.put(g.name(), new Entry(g.name(), zip.length(), zip.lastModified(), g.scenes().size(), System.currentTimeMillis(), state));
+		if (state) {
+			orphanStates.remove(g.name() + "_state.txt");
+		}
+		write();
+	}
+
+	/**
+	 * Effect: reads the directories, and keeps what was known about each
+	 * adventure which is still there. The number of scenes is only kept if the
+	 * file of the adventure has not changed.
+	 */
+	private void scan() {
+		// Read the times first, so that changes made while reading are caught
+		// the next time
+		long adventuresTime = modified(adventureDir);
+		long statesTime = modified(stateDir);
+		Set<String> states = new HashSet<>();
+		Set<String> strayStates = new HashSet<>();
+		for (File f : list(stateDir)) {
+			String str = f.getName();
+			if (!str.startsWith(".")) {
+				if (!str.endsWith("_state.txt")) {
+					strayStates.add(str);
+				} else {
+					states.add(str);
+				}
+			}
+		}
+		Map<String, Entry> found = new TreeMap<>();
+		Set<String> strayAdventures = new HashSet<>();
+		for (File f : list(adventureDir)) {
+			String str = f.getName();
+			if (str.endsWith(".zip")) {
+				String name = str.substring(0, str.length() - ".zip".length());
+				Entry old = adventures.get(name);
+				long size = f.length();
+				long modified = f.lastModified();
+				int scenes = old != null && old.size == size && old.modified == modified ? old.scenes : -1;
+				found.put(name, new Entry(name, size, modified, scenes, old == null ? 0 : old.played, states.contains(name + "_state.txt")));
+			} else if (!str.startsWith(".")) {
+				strayAdventures.add(str);
+			}
+		}
+		Set<String> orphans = new HashSet<>();
+		for (String state : states) {
+			if (!found.containsKey(state.substring(0, state.length() - "_state.txt".length()))) {
+				orphans.add(state);
+			}
+		}
+		adventures = found;
+		strayAdventureFiles = strayAdventures;
+		strayStateFiles = strayStates;
+		orphanStates = orphans;
+		adventureDirModified = adventuresTime;
+		stateDirModified = statesTime;
+	}
+
+	/**
+	 * Effect: reads the index file.
+	 *
+	 * @throws IOException
+	 *             if it cannot be read
+	 */
+	private void read() throws IOException {
+		try (Scanner in = new Scanner(file, "UTF-8")) {
+			if (!HEADER.equals(in.nextLine())) {
+				throw new IOException("Unknown catalog format");
+			}
+			String[] times = in.nextLine().split(" ");
+			while (in.hasNextLine()) {
+				String[] parts = in.nextLine().split("\t");
+				switch (parts[0]) {
+				case "a":
+					adventures.put(parts[1], new Entry(parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]), Integer.parseInt(parts[4]), Long.parseLong(parts[5]),
+							parts[6].equals("s")));
+					break;
+				case "sa":
+					strayAdventureFiles.add(parts[1]);
+					break;
+				case "ss":
+					strayStateFiles.add(parts[1]);
+					break;
+				case "o":
+					orphanStates.add(parts[1]);
+					break;
+				default:
+					throw new IOException("Unknown catalog line: " + parts[0]);
+				}
+			}
+			// Only trust the directories once the whole file is read
+			adventureDirModified = Long.parseLong(times[0]);
+			stateDirModified = Long.parseLong(times[1]);
+		}
+	}
+
+	/**
+	 * Effect: writes the index file. If it cannot be written, the old one is
+	 * kept: its times do not match the directories, so they are read again
+	 * the next time it is used, and the times the adventures were played are
+	 * not lost.
+	 */
+	private void write() {
+		File temp = new File(file.getPath() + ".tmp");
+		try (PrintStream out = new PrintStream(temp, "UTF-8")) {
+			out.println(HEADER);
+			out.println(adventureDirModified + " " + stateDirModified);
+			for (Entry e : adventures.values()) {
+				out.println(String.join("\t", "a", e.name, Long.toString(e.size), Long.toString(e.modified), Integer.toString(e.scenes), Long.toString(e.played),
+						e.state ? "s" : "-"));
+			}
+			for (String str : strayAdventureFiles) {
+				out.println("sa\t" + str);
+			}
+			for (String str : strayStateFiles) {
+				out.println("ss\t" + str);
+			}
+			for (String str : orphanStates) {
+				out.println("o\t" + str);
+			}
+			if (out.checkError()) {
+				throw new IOException("Could not write " + temp);
+			}
+		} catch (IOException e) {
+			temp.delete();
+			return;
+		}
+		try {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * @param dir
+	 *            a directory
+	 * @return its files, or none if it cannot be read
+	 */
+	private static File[] list(File dir) {
+		File[] files = dir.listFiles();
+		return files == null ? new File[0] : files;
+	}
+
+	/**
+	 * @param dir
+	 *            a directory
+	 * @return when it was last modified, in nanoseconds, as precisely as the
+	 *         file system keeps it, or 0 if it cannot be read
+	 */
+	private static long modified(File dir) {
+		try {
+			return Files.getLastModifiedTime(dir.toPath()).to(TimeUnit.NANOSECONDS);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package grow;
+
+import java.util.Collections;
+import java.util.List;
+
+import grow.match.PrefixTrie;
+
+/**
+ * Represents: what a line of input could be completed to: the names of the
+ * commands, for a line which starts with {@code :}, and otherwise the literal
+ * phrases of the patterns of the current scene (see
+ * {@link Rule#literalPhrases(String)}). Both are kept in a
+ * {@link PrefixTrie}, so that completions can be found on every key stroke.
+ *
+ * The phrases are kept up to date one pattern at a time, by listening to the
+ * current scene (see {@link Scene.Listener}). When the game moves to
+ * another scene, only the phrases are replaced; the commands never change. To
+ * catch changes made to the rules some other way, this also keeps the sum of
+ * the hash codes of the patterns it has seen, like {@link SceneWords}.
+ *
+ * The game changes the phrases on its own thread, while the user interface
+ * looks up completions on another, so every method is synchronized.
+ *
+ * @author Jacob Glueck
+ *
+ */
+class Completions implements Scene.Listener {
+
+	/**
+	 * The most completions to find
+	 */
+	static final int LIMIT = 8;
+
+	/**
+	 * The names of the commands, each starting with {@code :}
+	 */
+	private final PrefixTrie commands;
+	/**
+	 * The phrases of the patterns of the current scene
+	 */
+	private final PrefixTrie phrases;
+	/**
+	 * The scene the phrases are from, or null if there is none
+	 */
+	private Scene scene;
+	/**
+	 * The sum of the hash codes of the patterns in {@link #phrases}
+	 */
+	private int signature;
+
+	/**
+	 * Creates: new completions, with the commands of a scene.
+	 *
+	 * @param base
+	 *            the scene with the commands
+	 */
+	Completions(Scene base) {
+		commands = new PrefixTrie();
+		phrases = new PrefixTrie();
+		for (Rule r : base.rules()) {
+			for (String pattern : r.patterns()) {
+				for (String phrase : Rule.literalPhrases(pattern)) {
+					commands.add(":" + phrase);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Effect: makes the phrases those of a scene, if they are not already.
+	 * This is cheap if the scene has not changed, so it can be called after
+	 * every turn.
+	 *
+	 * @param s
+	 *            the scene, or null if there is none
+	 */
+	synchronized void follow(Scene s) {
+		if (s == scene && (s == null || signature == signature(s))) {
+			return;
+		}
+		if (scene != null) {
+			scene.removeListener(this);
+		}
+		phrases.clear();
+		signature = 0;
+		scene = s;
+		if (s != null) {
+			for (Rule r : s.rules()) {
+				for (String pattern : r.patterns()) {
+					patternAdded(s, r, pattern);
+				}
+			}
+			s.addListener(this);
+		}
+	}
+
+	/**
+	 * @param s
+	 *            a scene
+	 * @return the sum of the hash codes of the patterns of its rules
+	 */
+	private static int signature(Scene s) {
+		int sum = 0;
+		for (Rule r : s.rules()) {
+			// The hash code of a set is the sum of the hash codes of its
+			// elements
+			sum += r.patterns().hashCode();
+		}
+		return sum;
+	}
+
+	@Override
+	public synchronized void patternAdded(Scene s, Rule r, String pattern) {
+		for (String phrase : Rule.literalPhrases(pattern)) {
+			phrases.add(phrase);
+		}
+		signature += pattern.hashCode();
+	}
+
+	@Override
+	public synchronized void patternRemoved(Scene s, Rule r, String pattern) {
+		for (String phrase : Rule.literalPhrases(pattern)) {
+			phrases.remove(phrase);
+		}
+		signature -= pattern.hashCode();
+	}
+
+	/**
+	 * Finds what the start of a line could be completed to.
+	 *
+	 * @param prefix
+	 *            the start of the line
+	 * @return the commands which start with it, if it starts with {@code :},
+	 *         or the phrases of the current scene which start with it, in
+	 *         alphabetical order. There are none if the line is blank.
+	 */
+	synchronized List<String> complete(String prefix) {
+		int start = 0;
+		while (start < prefix.length() && Character.isWhitespace(prefix.charAt(start))) {
+			start++;
+		}
+		if (start == prefix.length()) {
+			return Collections.emptyList();
+		}
+		CharSequence rest = prefix.subSequence(start, prefix.length());
+		return (rest.charAt(0) == ':' ? commands : phrases).complete(rest, LIMIT);
+	}
+}
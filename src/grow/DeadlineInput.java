@@ -0,0 +1,110 @@
+package grow;
+
+import exceptions.MatchTimeout;
+
+/**
+ * Represents: a line of input which can only be read until a deadline. The
+ * regular expression engine reads the input one character at a time, so
+ * matching against this instead of the string itself stops a pattern which
+ * backtracks catastrophically (like {@code (A+)+B}) once it runs out of time,
+ * instead of letting it run for minutes. The clock is only checked every
+ * {@value #CHECK_EVERY} characters, so reading stays cheap.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class DeadlineInput implements CharSequence {
+
+	/**
+	 * The number of characters read between checks of the clock
+	 */
+	private static final int CHECK_EVERY = 1024;
+
+	/**
+	 * The input
+	 */
+	private final CharSequence input;
+	/**
+	 * The deadline, from {@link System#nanoTime()}
+	 */
+	private long deadline;
+	/**
+	 * The number of characters which can be read before the clock is checked
+	 */
+	private int countdown;
+
+	/**
+	 * Creates: a new input, with a deadline {@code limit} nanoseconds from now.
+	 *
+	 * @param input
+	 *            the input
+	 * @param limit
+	 *            the time limit, in nanoseconds
+	 */
+	public DeadlineInput(CharSequence input, long limit) {
+		this.input = input;
+		restart(limit);
+	}
+
+	/**
+	 * Creates: a new input, which must be given a deadline with
+	 * {@link #restart(long)} before it is read.
+	 *
+	 * @param input
+	 *            the input
+	 */
+	public DeadlineInput(CharSequence input) {
+		this(input, 0);
+	}
+
+	/**
+	 * Creates: a new input which shares the deadline of another.
+	 *
+	 * @param input
+	 *            the input
+	 * @param other
+	 *            the input with the deadline
+	 */
+	private DeadlineInput(CharSequence input, DeadlineInput other) {
+		this.input = input;
+		deadline = other.deadline;
+		countdown = CHECK_EVERY;
+	}
+
+	/**
+	 * Effect: moves the deadline to {@code limit} nanoseconds from now.
+	 *
+	 * @param limit
+	 *            the time limit, in nanoseconds
+	 */
+	public void restart(long limit) {
+		deadline = System.nanoTime() + limit;
+		countdown = CHECK_EVERY;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (--countdown == 0) {
+			countdown = CHECK_EVERY;
+			if (System.nanoTime() - deadline > 0) {
+				throw new MatchTimeout();
+			}
+		}
+		return input.charAt(index);
+	}
+
+	@Override
+	public int length() {
+		return input.length();
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return new DeadlineInput(input.subSequence(start, end), this);
+	}
+
+	@Override
+	public String toString() {
+		return input.toString();
+	}
+}
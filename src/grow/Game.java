@@ -1,23 +1,39 @@
 package grow;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import exceptions.NoSuchScene;
 import exceptions.SceneExists;
 import exceptions.SyntaxError;
 import grow.action.Util;
+import grow.metrics.CountingOutputStream;
+import grow.metrics.WorldParseEvent;
+import grow.metrics.WorldSaveEvent;
 
 /**
  * Represents: a grow world, which contains named scenes.
  *
+ * Each scene also has an ID, which is its index in a table of the scenes in
+ * the order they were added, so that {@link grow.action.Go} actions can look
+ * up the scene they go to by name once, and then get it from the table each
+ * time (see {@link #id(String)} and {@link #scene(int)}). Scenes are only
+ * removed when the adventure is reloaded (see
+ * {@link #replaceScenes(String, Collection, Collection)}), so an ID stays the
+ * same until the adventure is replaced or reloaded. Each time a scene is added
+ * or the adventure is replaced or reloaded, the game gets a new version (see
+ * {@link #version()}), so that IDs which were looked up before are looked up
+ * again.
+ *
  * @author Jacob Glueck
  *
  */
@@ -26,13 +42,42 @@ public class Game {
 	/**
 	 * The line that separates scenes
 	 */
-	private static final String SCENE_SEPARATOR = new String(new char[] { Util.RESERVED_SEPERATOR, Util.RESERVED_SEPERATOR, Util.RESERVED_SEPERATOR });
+	static final String SCENE_SEPARATOR = new String(new char[] { Util.RESERVED_SEPERATOR, Util.RESERVED_SEPERATOR, Util.RESERVED_SEPERATOR });
+	/**
+	 * The prefix of the lines in the state file which hold rule profiles
+	 */
+	private static final String PROFILE = "Profile: ";
+	/**
+	 * Hands out the versions of all games, so that no two games share a
+	 * version
+	 */
+	private static final AtomicInteger VERSIONS = new AtomicInteger();
 
 	/**
 	 * The map of names to scenes.
 	 */
 	private final Map<String, Scene> world;
 
+	/**
+	 * The scenes, by ID
+	 */
+	private Scene[] table;
+
+	/**
+	 * The number of scenes in the table
+	 */
+	private int count;
+
+	/**
+	 * The version of the scenes and their IDs
+	 */
+	private int version;
+
+	/**
+	 * The graph of which scenes go to which
+	 */
+	private final SceneGraph graph;
+
 	/**
 	 * The score in this world
 	 */
@@ -53,6 +98,16 @@ public class Game {
 	 */
 	private String adventureName;
 
+	/**
+	 * The vocabulary of the adventure
+	 */
+	private Vocabulary vocabulary;
+
+	/**
+	 * The pool of the strings of the adventure
+	 */
+	private StringPool pool;
+
 	/**
 	 * Creates: a new empty world, with a score of 0.
 	 *
@@ -63,6 +118,8 @@ public class Game {
 	 */
 	public Game(Scene start, String adventureName) {
 		world = new HashMap<>();
+		graph = new SceneGraph(world);
+		index();
 		score = new Score();
 		this.start = start;
 		try {
@@ -72,6 +129,8 @@ public class Game {
 		}
 		restart();
 		this.adventureName = adventureName;
+		vocabulary = Vocabulary.EMPTY;
+		pool = new StringPool();
 	}
 
 	/**
@@ -83,12 +142,16 @@ public class Game {
 	 *            the world
 	 * @param adventureName
 	 *            the name of the adventure
+	 * @param pool
+	 *            the pool of the strings of the adventure
 	 * @throws SceneExists
 	 *             if a scene with the same name as start exists in the world,
 	 *             but it not equal to start.
 	 */
-	private Game(Scene start, Map<String, Scene> world, String adventureName) throws SceneExists {
+	private Game(Scene start, Map<String, Scene> world, String adventureName, StringPool pool) throws SceneExists {
 		this.world = world;
+		graph = new SceneGraph(world);
+		index();
 		score = new Score();
 		this.start = start;
 		if (!world.containsKey(start.name())) {
@@ -98,6 +161,8 @@ public class Game {
 		}
 		restart();
 		this.adventureName = adventureName;
+		vocabulary = Vocabulary.EMPTY;
+		this.pool = pool;
 	}
 
 	/**
@@ -107,6 +172,14 @@ public class Game {
 		return Collections.unmodifiableMap(world);
 	}
 
+	/**
+	 * @return the graph of which scenes go to which, which is kept up to date
+	 *         as scenes are added and their rules are changed
+	 */
+	public SceneGraph graph() {
+		return graph;
+	}
+
 	/**
 	 * Effect: sets the current scene to the start scene and sets the score to
 	 * 0.
@@ -123,6 +196,32 @@ public class Game {
 		return adventureName;
 	}
 
+	/**
+	 * @return the vocabulary of the adventure
+	 */
+	public Vocabulary vocabulary() {
+		return vocabulary;
+	}
+
+	/**
+	 * Effect: sets the vocabulary of the adventure, which is used to
+	 * normalize the input before it is matched against the rules of scenes.
+	 *
+	 * @param vocabulary
+	 *            the vocabulary
+	 */
+	public void setVocabulary(Vocabulary vocabulary) {
+		this.vocabulary = vocabulary;
+	}
+
+	/**
+	 * @return the pool of the strings of the adventure, which the patterns
+	 *         and actions of new and edited rules should be kept in
+	 */
+	public StringPool pool() {
+		return pool;
+	}
+
 	/**
 	 * Effect: change the name of this adventure to {@code name}
 	 *
@@ -147,9 +246,70 @@ public class Game {
 			throw new SceneExists(s.name());
 		} else {
 			world.put(s.name(), s);
+			number(s);
+			version = VERSIONS.incrementAndGet();
+			graph.add(s);
 		}
 	}
 
+	/**
+	 * Effect: gives the next ID to a scene, and adds it to the table.
+	 *
+	 * @param s
+	 *            the scene
+	 */
+	private void number(Scene s) {
+		if (count == table.length) {
+			Scene[] bigger = new Scene[2 * count];
+			System.arraycopy(table, 0, bigger, 0, count);
+			table = bigger;
+		}
+		s.setId(count);
+		table[count++] = s;
+	}
+
+	/**
+	 * Effect: gives every scene a new ID, for when they have all been
+	 * replaced.
+	 */
+	private void index() {
+		table = new Scene[Math.max(16, world.size())];
+		count = 0;
+		for (Scene s : world.values()) {
+			number(s);
+		}
+		version = VERSIONS.incrementAndGet();
+	}
+
+	/**
+	 * @param name
+	 *            the name of a scene
+	 * @return the ID of the scene, or -1 if no such scene exists. The ID can be
+	 *         used until the version of the game changes.
+	 */
+	public int id(String name) {
+		Scene s = world.get(name);
+		return s == null ? -1 : s.id();
+	}
+
+	/**
+	 * @param id
+	 *            the ID of a scene
+	 * @return the scene, or null if no scene has the ID
+	 */
+	public Scene scene(int id) {
+		return id >= 0 && id < count ? table[id] : null;
+	}
+
+	/**
+	 * @return the version of the scenes and their IDs, which is different
+	 *         from that of every other game, and changes each time a scene is
+	 *         added or the adventure is replaced
+	 */
+	public int version() {
+		return version;
+	}
+
 	/**
 	 * @param name
 	 *            the name of the scene to get
@@ -189,7 +349,7 @@ public class Game {
 	 *             if the scene is not null and is not contained in the world.
 	 */
 	public void move(Scene next) throws NoSuchScene {
-		if (next != null && !world.containsKey(next.name())) {
+		if (next != null && scene(next.id()) != next) {
 			throw new NoSuchScene(next.name());
 		} else {
 			current = next;
@@ -197,8 +357,11 @@ public class Game {
 	}
 
 	/**
-	 * Effect: writes the state of the game (the score and current scene) to the
-	 * specified output stream.
+	 * Effect: writes the state of the game (the score, current scene, and the
+	 * profiles of the rules which have been tried) to the specified output
+	 * stream. Each profile is saved on its own line, as the scene name, the
+	 * index of the rule in the scene, and the profile (see
+	 * {@link RuleProfile#toString()}).
 	 *
 	 * @param out
 	 *            the stream to write the data to.
@@ -206,6 +369,15 @@ public class Game {
 	public void saveState(PrintStream out) {
 		out.println("Current: " + current.name());
 		out.println("Score: " + score.score());
+		for (Scene scene : world.values()) {
+			int index = 0;
+			for (Rule r : scene.rules()) {
+				if (r.profile().tries() != 0) {
+					out.println(PROFILE + scene.name() + Rule.SAVE_DELIMETER + index + Rule.SAVE_DELIMETER + r.profile());
+				}
+				index++;
+			}
+		}
 	}
 
 	/**
@@ -216,12 +388,20 @@ public class Game {
 	 *            the output stream.
 	 */
 	public void saveWorld(PrintStream out) {
-		out.println("Name: " + adventureName);
-		out.println("Start: " + start.name());
+		WorldSaveEvent event = new WorldSaveEvent();
+		event.begin();
+		// Only count the bytes when the event is being recorded, so that
+		// saving is not slowed down the rest of the time.
+		CountingOutputStream counter = event.isEnabled() ? new CountingOutputStream(out) : null;
+		PrintStream target = counter == null ? out : new PrintStream(counter);
+		target.println("Name: " + adventureName);
+		target.println("Start: " + start.name());
 		for (Entry<String, Scene> scene : world.entrySet()) {
-			scene.getValue().save(out);
-			out.println(SCENE_SEPARATOR);
+			scene.getValue().save(target);
+			target.println(SCENE_SEPARATOR);
 		}
+		target.flush();
+		event.commit(adventureName, counter == null ? 0 : counter.count(), world.size());
 	}
 
 	/**
@@ -247,11 +427,44 @@ public class Game {
 			}
 			current = world.get(currentScene);
 			this.score.set(score);
+			while (in.hasNextLine()) {
+				line++;
+				loadProfile(extract(PROFILE, in.nextLine(), line), line);
+			}
 		} catch (NoSuchElementException | NumberFormatException e) {
 
 		}
 	}
 
+	/**
+	 * Effect: loads the profile of a rule saved by
+	 * {@link #saveState(PrintStream)}. If the scene or rule no longer exists,
+	 * the profile is ignored.
+	 *
+	 * @param saved
+	 *            the saved profile, without the prefix
+	 * @param line
+	 *            the line number to use for the syntax error
+	 * @throws SyntaxError
+	 *             if there is a problem
+	 */
+	private void loadProfile(String saved, int line) throws SyntaxError {
+		String[] parts = saved.split(Rule.SAVE_DELIMETER, 3);
+		if (parts.length != 3) {
+			throw new SyntaxError(line, "Profile format error.");
+		}
+		Scene scene = world.get(parts[0]);
+		int index;
+		try {
+			index = Integer.parseInt(parts[1]);
+		} catch (NumberFormatException e) {
+			throw new SyntaxError(line, "Bad rule number: " + parts[1]);
+		}
+		if (scene != null && index >= 0 && index < scene.rules().size()) {
+			scene.rules().get(index).profile().load(parts[2], line);
+		}
+	}
+
 	/**
 	 * Effect: reads an adventure from a file, and stores it in the current
 	 * game. The score is set to 0 and the current scene is set to the starting
@@ -290,27 +503,115 @@ public class Game {
 	public void loadGame(Scanner state, Scanner adventure) throws SyntaxError, NoSuchScene {
 		Game game = parseGame(state, adventure);
 		restart();
+		game.graph.clear();
 		world.clear();
 		world.putAll(game.world);
+		index();
+		graph.reset();
 		current = game.current;
 		start = game.start;
 		score.set(game.score.score());
 		adventureName = game.adventureName;
+		vocabulary = game.vocabulary;
+		pool = game.pool;
 	}
 
 	/**
-	 * Effect: loads all the data from another game into this game.
+	 * Effect: loads all the data from another game into this game. The scenes
+	 * are not copied, so the other game must not be used afterwards; its
+	 * graph (see {@link #graph()}) no longer follows them.
 	 *
 	 * @param game
 	 *            the game to copy data from.
 	 */
 	public void loadGame(Game game) {
+		game.graph.clear();
 		world.clear();
 		world.putAll(game.world);
+		index();
+		graph.reset();
 		current = game.current;
 		start = game.start;
 		score.set(game.score.score());
 		adventureName = game.adventureName;
+		vocabulary = game.vocabulary;
+		pool = game.pool;
+	}
+
+	/**
+	 * Effect: swaps the adventures of this game and another: this game gets
+	 * the scenes and state of the other, and the other gets those of this
+	 * game, so that it can be kept to play again later. Nothing is copied, and
+	 * both games can be used afterwards.
+	 *
+	 * @param other
+	 *            the other game
+	 */
+	public void swap(Game other) {
+		Map<String, Scene> scenes = new HashMap<>(world);
+		Scene oldStart = start;
+		Scene oldCurrent = current;
+		int oldScore = score.score();
+		String oldName = adventureName;
+		Vocabulary oldVocabulary = vocabulary;
+		StringPool oldPool = pool;
+		loadGame(other);
+		other.world.clear();
+		other.world.putAll(scenes);
+		other.index();
+		other.graph.reset();
+		other.start = oldStart;
+		other.current = oldCurrent;
+		other.score.set(oldScore);
+		other.adventureName = oldName;
+		other.vocabulary = oldVocabulary;
+		other.pool = oldPool;
+	}
+
+	/**
+	 * Effect: replaces some scenes with new versions of them, adds new scenes,
+	 * and removes others, all at once, for when the adventure file has been
+	 * changed by something else. The score is kept, and so is the current
+	 * scene, by name, unless it was removed, in which case the player goes
+	 * back to the start. A new version of a scene keeps the image and sound of
+	 * the old one. If an exception is thrown, this game is unchanged.
+	 *
+	 * @param startName
+	 *            the name of the start scene
+	 * @param changed
+	 *            the new and changed scenes
+	 * @param removed
+	 *            the names of the scenes to remove
+	 * @return true if the current scene is still there
+	 * @throws NoSuchScene
+	 *             if the start scene does not exist afterwards
+	 */
+	public boolean replaceScenes(String startName, Collection<Scene> changed, Collection<String> removed) throws NoSuchScene {
+		Map<String, Scene> next = new HashMap<>(world);
+		next.keySet().removeAll(removed);
+		for (Scene s : changed) {
+			next.put(s.name(), s);
+		}
+		Scene newStart = next.get(startName);
+		if (newStart == null) {
+			throw new NoSuchScene(startName);
+		}
+		for (Scene s : changed) {
+			Scene old = world.get(s.name());
+			if (old != null) {
+				s.setImage(old.image());
+				s.setSound(old.sound());
+			}
+		}
+		graph.clear();
+		world.clear();
+		world.putAll(next);
+		index();
+		graph.reset();
+		start = newStart;
+		Scene now = world.get(current.name());
+		current = now == null ? start : now;
+		return now != null;
 	}
 
 	/**
@@ -345,28 +646,35 @@ public class Game {
 	 *             if there is a problem
 	 */
 	public static Game parseWorld(Scanner input) throws SyntaxError {
+		WorldParseEvent event = new WorldParseEvent();
+		event.begin();
 		int line = 1;
+		// The number of characters read, including the line breaks
+		long size = 0;
 		try {
-			String adventureName = extract("Name: ", input.nextLine(), line);
+			String str = input.nextLine();
+			size += str.length() + 1;
+			String adventureName = extract("Name: ", str, line);
 			line++;
-			String startName = extract("Start: ", input.nextLine(), line);
-			List<Scene> scenes = new LinkedList<>();
+			str = input.nextLine();
+			size += str.length() + 1;
+			String startName = extract("Start: ", str, line);
+			StringPool pool = new StringPool();
+			List<Scene> scenes = new ArrayList<>();
 			try {
+				List<String> block = new ArrayList<>();
 				while (input.hasNextLine()) {
-					line++;
-					String name = extract("Name: ", input.nextLine(), line);
-					line++;
-					String description = extract("Description: ", input.nextLine(), line);
-					String rule;
-					List<Rule> rules = new LinkedList<>();
-					while (!(rule = input.nextLine()).equals(SCENE_SEPARATOR)) {
-						line++;
-						rules.add(Rule.parseRule(rule, line));
+					block.clear();
+					while (!(str = input.nextLine()).equals(SCENE_SEPARATOR)) {
+						size += str.length() + 1;
+						block.add(str);
 					}
-					Scene scene = new Scene(name, description);
-					scene.rules().addAll(rules);
-					scenes.add(scene);
+					size += SCENE_SEPARATOR.length() + 1;
+					scenes.add(parseScene(block, line + 1, pool));
+					line += block.size() + 1;
 				}
+			} catch (SyntaxError e) {
+				throw e;
 			} catch (Exception e) {
 				throw new SyntaxError(line, e.getMessage());
 			}
@@ -385,7 +693,9 @@ public class Game {
 			}
 
 			try {
-				return new Game(world.get(startName), world, adventureName);
+				Game game = new Game(world.get(startName), world, adventureName, pool);
+				event.commit(adventureName, size, world.size());
+				return game;
 			} catch (SceneExists e) {
 				// This should never happen
 				throw new Error();
@@ -395,6 +705,37 @@ public class Game {
 		}
 	}
 
+	/**
+	 * Parses a scene from the lines between two scene separators: its name,
+	 * its description, and then its rules.
+	 *
+	 * @param block
+	 *            the lines
+	 * @param line
+	 *            the line number of the first line, to use for syntax errors
+	 * @param pool
+	 *            the pool to keep the strings of the scene in
+	 * @return the scene
+	 * @throws SyntaxError
+	 *             if there is a problem
+	 */
+	static Scene parseScene(List<String> block, int line, StringPool pool) throws SyntaxError {
+		if (block.size() < 2) {
+			throw new SyntaxError(line + block.size(), "Expected line, but none found.");
+		}
+		String name = pool.intern(extract("Name: ", block.get(0), line));
+		String description = extract("Description: ", block.get(1), line + 1);
+		Scene scene = new Scene(name, description);
+		for (int x = 2; x < block.size(); x++) {
+			try {
+				scene.rules().add(Rule.parseRule(block.get(x), line + x, pool));
+			} catch (RuntimeException e) {
+				throw new SyntaxError(line + x, e.getMessage());
+			}
+		}
+		return scene;
+	}
+
 	/**
 	 * Extracts the suffix from a string that must start with the specified
 	 * prefix. Throws a syntax error if there is a problem.
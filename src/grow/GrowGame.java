@@ -1,6 +1,7 @@
 package grow;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.net.URI;
@@ -8,20 +9,29 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import exceptions.NoSuchScene;
 import grow.action.Action;
+import grow.action.ActionPlan;
 import grow.action.ChangeDescription;
+import grow.action.Complete;
+import grow.action.Dialog;
 import grow.action.Edit;
 import grow.action.Extend;
 import grow.action.Print;
+import grow.action.ProfileDisplay;
 import grow.action.Remove;
 import grow.action.Reorder;
 import grow.action.Restart;
 import grow.action.View;
+import grow.metrics.LatencyHistogram;
+import grow.metrics.Metrics;
+import grow.replay.Recorder;
 import javafx.scene.image.Image;
 
 /**
@@ -37,10 +47,52 @@ public class GrowGame {
 	 */
 	private static final List<String> unknownInput = readList();
 	/**
-	 * A random number generator used to randomly pick a response from
-	 * {@link #unknownInput}.
+	 * Picks the seeds for new games.
 	 */
-	private static final Random rnd = new Random();
+	private static final Random seeds = new Random();
+
+	/**
+	 * The time taken to handle each line of input
+	 */
+	private static final LatencyHistogram LINE = Metrics.latency("line");
+	/**
+	 * The time taken to look up commands in {@link #base}
+	 */
+	private static final LatencyHistogram BASE_LOOKUP = Metrics.latency("lookup.base");
+	/**
+	 * The time taken to match input against the rules of the current scene
+	 */
+	private static final LatencyHistogram SCENE_LOOKUP = Metrics.latency("lookup.scene");
+	/**
+	 * The time taken by {@link Game#move(Scene)}
+	 */
+	private static final LatencyHistogram MOVE = Metrics.latency("move");
+	/**
+	 * The time taken by the {@link MediaProcessor}
+	 */
+	private static final LatencyHistogram MEDIA = Metrics.latency("media");
+	/**
+	 * The time taken by the {@link StatusUpdater}
+	 */
+	private static final LatencyHistogram STATUS = Metrics.latency("status");
+	/**
+	 * The time taken by each type of action, by class
+	 */
+	private static final Map<Class<?>, LatencyHistogram> actionTimes = new ConcurrentHashMap<>();
+
+	/**
+	 * @param a
+	 *            an action
+	 * @return the histogram of the time taken by actions of the same type
+	 */
+	private static LatencyHistogram timer(Action a) {
+		LatencyHistogram h = actionTimes.get(a.getClass());
+		if (h == null) {
+			// Only one thread makes and registers the histogram of a class
+			h = actionTimes.computeIfAbsent(a.getClass(), (c) -> Metrics.latency("action." + a.name()));
+		}
+		return h;
+	}
 
 	/**
 	 * Reads the {@code unknown.txt} file and returns the data to be stored
@@ -61,8 +113,8 @@ public class GrowGame {
 	/**
 	 * @return a random response from {@link #unknownInput}.
 	 */
-	private static String randomResponse() {
-		return unknownInput.get(rnd.nextInt(unknownInput.size()));
+	private String randomResponse() {
+		return unknownInput.get(random.nextInt(unknownInput.size()));
 	}
 
 	/**
@@ -70,9 +122,9 @@ public class GrowGame {
 	 */
 	private final Scanner input;
 	/**
-	 * The print stream used for output from this game
+	 * The output from this game
 	 */
-	private final PrintStream output;
+	private final Output output;
 	/**
 	 * The save manager for this game
 	 */
@@ -85,6 +137,71 @@ public class GrowGame {
 	 * The base scene, with all the built-in commands
 	 */
 	private final Scene base;
+	/**
+	 * The input of the current turn, which is reused every turn
+	 */
+	private final TurnInput turn = new TurnInput();
+	/**
+	 * What lines of input could be completed to
+	 */
+	private final Completions completions;
+	/**
+	 * The dialog waiting for the next line of input, or null if the next line
+	 * starts a new turn.
+	 */
+	private Dialog pending;
+	/**
+	 * True if {@link #pending} is initializing the game.
+	 */
+	private boolean initializing;
+	/**
+	 * The plan of the actions of the current turn, or null if there is no turn
+	 * in progress.
+	 */
+	private ActionPlan plan;
+	/**
+	 * The index of the next step of {@link #plan} to start
+	 */
+	private int step;
+	/**
+	 * The scene which was current when the pending action started.
+	 */
+	private Scene prev;
+	/**
+	 * The histogram for the time spent in {@link #pending}, or null if it is
+	 * not an action.
+	 */
+	private LatencyHistogram pendingTime;
+	/**
+	 * The seed of {@link #random}
+	 */
+	private long seed;
+	/**
+	 * The random number generator used for everything random in this game,
+	 * like picking a response from {@link #unknownInput}. A game given the
+	 * same seed and the same input produces the same output.
+	 */
+	private final Random random;
+	/**
+	 * The recorder, or null if this game is not being recorded.
+	 */
+	private Recorder recorder;
+
+	/**
+	 * Creates: a new game of Grow which does not block for input. Input must
+	 * be passed to
+	 * {@link #feed(String, Consumer, MediaProcessor, StatusUpdater)} one line
+	 * at a time, and the methods which read from an input stream must not be
+	 * used.
+	 *
+	 * @param output
+	 *            the sink which gets the output.
+	 * @param growRoot
+	 *            the root directory for the storage for the game
+	 */
+	public GrowGame(OutputSink output, File growRoot) {
+		this(null, output, growRoot);
+	}
 
 	/**
 	 * Creates: a new game of Grow which reads input from {@code input} and
@@ -98,10 +215,31 @@ public class GrowGame {
 	 *            the root directory for the storage for the game
 	 */
 	public GrowGame(Scanner input, PrintStream output, File growRoot) {
+		this(input, OutputSink.print(output), growRoot);
+	}
+
+	/**
+	 * Creates: a new game of Grow which reads input from {@code input} and
+	 * sends output to {@code output}.
+	 *
+	 * @param input
+	 *            the input.
+	 * @param output
+	 *            the sink which gets the output.
+	 * @param growRoot
+	 *            the root directory for the storage for the game
+	 */
+	public GrowGame(Scanner input, OutputSink output, File growRoot) {
 		this.input = input;
-		this.output = output;
-		saveManager = new SaveManager(growRoot);
+		this.output = new Output(output);
+		seed = seeds.nextLong();
+		random = new Random(seed);
+		saveManager = new SaveManager(growRoot, random);
+		recorder = null;
 		world = null;
+		pending = null;
+		initializing = false;
+		plan = null;
 		base = new Scene("default", "For help and instructions, type \"help\".");
 		String helpString = read(GrowGame.class.getResourceAsStream("help/help.txt"));
 		base.rules().add(new Rule(Arrays.asList(new Print(helpString)), "help"));
@@ -109,23 +247,28 @@ public class GrowGame {
 		base.rules().add(new Rule(Arrays.asList(new Print(read(GrowGame.class.getResourceAsStream("help/about.txt")))), "about"));
 		base.rules().add(new Rule(Arrays.asList(new Print(read(GrowGame.class.getResourceAsStream("help/license.txt")))), "license"));
 		base.rules().add(new Rule(Arrays.asList(saveManager.quitAction()), "quit"));
-		base.rules().add(new Rule(Arrays.asList(new Restart()), "restart"));
+		base.rules().add(new Rule(Arrays.asList(Restart.INSTANCE), "restart"));
 		base.rules().add(new Rule(Arrays.asList(saveManager.readAction()), "change story"));
 		base.rules().add(new Rule(Arrays.asList(saveManager.newAction()), "new"));
-		base.rules().add(new Rule(Arrays.asList(new Extend()), "extend"));
+		base.rules().add(new Rule(Arrays.asList(Extend.INSTANCE), "extend"));
 		base.rules().add(new Rule(Arrays.asList(new Remove()), "remove"));
 		base.rules().add(new Rule(Arrays.asList(new Edit()), "edit"));
 		base.rules().add(new Rule(Arrays.asList(new Reorder()), "reorder"));
 		base.rules().add(new Rule(Arrays.asList(new ChangeDescription()), "description"));
 		base.rules().add(new Rule(Arrays.asList(new Print("Nothing to cancel.")), "cancel"));
-		base.rules().add(new Rule(Arrays.asList(new View()), "view"));
+		base.rules().add(new Rule(Arrays.asList(View.INSTANCE), "view"));
+		base.rules().add(new Rule(Arrays.asList(new ProfileDisplay()), "profile"));
 
 		base.rules().add(new Rule(Arrays.asList(saveManager.importAction()), "import adventure"));
+		base.rules().add(new Rule(Arrays.asList(saveManager.importStatusAction()), "import status"));
 		base.rules().add(new Rule(Arrays.asList(saveManager.saveAction()), "save"));
 		base.rules().add(new Rule(Arrays.asList(saveManager.importPicture()), "import image"));
 		base.rules().add(new Rule(Arrays.asList(saveManager.importMusic()), "import music"));
 		base.rules().add(new Rule(Arrays.asList(saveManager.clearImage()), "clear image"));
 		base.rules().add(new Rule(Arrays.asList(saveManager.clearMusic()), "clear music"));
+		base.rules().add(new Rule(Arrays.asList(new Complete(this::complete)), "complete"));
+		base.rules().add(new Rule(Arrays.asList(saveManager.lintAction()), "lint"));
+		completions = new Completions(base);
 	}
 
 	/**
@@ -152,7 +295,7 @@ public class GrowGame {
 
 	/**
 	 * Initializes the game. Throws an {@link IllegalStateException} if the game
-	 * has already been initialized.
+	 * has already been initialized. Blocks while waiting for input.
 	 *
 	 * @param injector
 	 *            the injector used for prompting the user
@@ -163,30 +306,156 @@ public class GrowGame {
 	 *            the status updater, used to signal scene or adventure changes
 	 */
 	public void init(Consumer<String> injector, MediaProcessor processor, StatusUpdater u) {
-		if (world != null) {
+		start(injector, processor, u);
+		while (awaitingInput()) {
+			feed(input.nextLine(), injector, processor, u);
+		}
+	}
+
+	/**
+	 * Does not display images.
+	 *
+	 * @param injector
+	 *            the injector to use to prompt the user
+	 *
+	 * @see GrowGame#init(Consumer, MediaProcessor, StatusUpdater)
+	 */
+	public void init(Consumer<String> injector) {
+		init(injector, MediaProcessor.EMPTY, (a, s) -> {
+		});
+	}
+
+	/**
+	 * Effect: starts initializing the game, without blocking for input. Any
+	 * input needed to finish initializing must be passed to
+	 * {@link #feed(String, Consumer, MediaProcessor, StatusUpdater)}. Throws
+	 * an {@link IllegalStateException} if the game has already been
+	 * initialized.
+	 *
+	 * @param injector
+	 *            the injector used for prompting the user
+	 * @param processor
+	 *            the processor used to display the initial image, and the sound
+	 * @param u
+	 *            the status updater, used to signal scene or adventure changes
+	 */
+	public void start(Consumer<String> injector, MediaProcessor processor, StatusUpdater u) {
+		if (world != null || pending != null) {
 			throw new IllegalStateException();
 		}
-		world = saveManager.init(input, output, injector);
+		if (recorder != null) {
+			recorder.start(seed);
+			injector = recorder.injector(injector);
+		}
+		initializing = true;
+		pending = saveManager.init(output, injector, (g) -> world = g);
+		if (pending.done()) {
+			initialized(processor, u);
+		}
+		output.flush();
+	}
+
+	/**
+	 * Effect: finishes initializing the game by displaying the media for the
+	 * current scene.
+	 *
+	 * @param processor
+	 *            the processor used to display the initial image, and the sound
+	 * @param u
+	 *            the status updater, used to signal scene or adventure changes
+	 */
+	private void initialized(MediaProcessor processor, StatusUpdater u) {
+		initializing = false;
+		pending = null;
+		show(processor, u);
+	}
+
+	/**
+	 * Effect: displays the media for the current scene, and updates the
+	 * status, for when the adventure has just been loaded.
+	 *
+	 * @param processor
+	 *            the processor used to display the image, and the sound
+	 * @param u
+	 *            the status updater, used to signal scene or adventure changes
+	 */
+	private void show(MediaProcessor processor, StatusUpdater u) {
+		long start = System.nanoTime();
 		processor.process(world.current().image());
 		processor.process(world.current().sound());
+		MEDIA.since(start);
 
 		// We have just loaded, so clear the changed status
 		world.current().clearImageChanged();
 		world.current().clearSoundChanged();
+		start = System.nanoTime();
 		u.update(world.name(), world.current().name());
+		STATUS.since(start);
 	}
 
 	/**
-	 * Does not display images.
+	 * @return the seed of the random number generator of this game
+	 */
+	public long seed() {
+		return seed;
+	}
+
+	/**
+	 * Effect: sets the seed of the random number generator of this game. A
+	 * game given the same seed and the same input produces the same output.
+	 * Must be called before the game is started.
 	 *
-	 * @param injector
-	 *            the injector to use to prompt the user
+	 * @param seed
+	 *            the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		random.setSeed(seed);
+	}
+
+	/**
+	 * Effect: records the game with the specified recorder, which must also be
+	 * the output sink of this game. Must be called before the game is
+	 * started.
 	 *
-	 * @see GrowGame#init(Consumer, MediaProcessor, StatusUpdater)
+	 * @param r
+	 *            the recorder
 	 */
-	public void init(Consumer<String> injector) {
-		init(injector, MediaProcessor.EMPTY, (a, s) -> {
-		});
+	public void record(Recorder r) {
+		recorder = r;
+	}
+
+	/**
+	 * Effect: watches the file of the adventure being played, and brings
+	 * changes made to it outside the game into the game between turns. Must be
+	 * called before the game is started.
+	 *
+	 * @throws IOException
+	 *             if the adventures cannot be watched
+	 */
+	public void watch() throws IOException {
+		saveManager.watch();
+	}
+
+	/**
+	 * Effect: sets what shows the progress of adventures which are imported in
+	 * the background. Must be called before the game is started.
+	 *
+	 * @param progress
+	 *            shows the progress
+	 */
+	public void setImportProgress(ImportProgress progress) {
+		saveManager.setImportProgress(progress);
+	}
+
+	/**
+	 * @return true if the game is in the middle of a dialog, so that the next
+	 *         line passed to
+	 *         {@link #feed(String, Consumer, MediaProcessor, StatusUpdater)} is
+	 *         an answer to a prompt, rather than the start of a new turn.
+	 */
+	public boolean awaitingInput() {
+		return pending != null;
 	}
 
 	/**
@@ -208,55 +477,246 @@ public class GrowGame {
 	 */
 	public boolean doTurn(String line, Consumer<String> injector, MediaProcessor p, StatusUpdater u) {
 		try {
-			List<Action> actions = null;
+			boolean running = advance(line, injector, p, u);
+			output.flush();
+			while (running && awaitingInput()) {
+				running = advance(input.nextLine(), injector, p, u);
+				output.flush();
+			}
+			return running;
+		} catch (Exception e) {
+			report(e);
+			output.flush();
+			// Never return. Force a force quit.
+			while (true) {
+
+			}
+		}
+	}
+
+	/**
+	 * Effect: processes a single line of input without blocking. If the game
+	 * is not {@link #awaitingInput()}, the line starts a new turn. Otherwise,
+	 * the line is the answer to the last prompt. Once the line has been
+	 * handled, the output sink is flushed. If the line results in the
+	 * termination of the game, or if something goes wrong, this method returns
+	 * false, and resets the game so that another call to
+	 * {@link #start(Consumer, MediaProcessor, StatusUpdater)} will restart it.
+	 *
+	 * @param line
+	 *            the line of input
+	 * @param injector
+	 *            the injector to use to prompt the user
+	 * @param p
+	 *            the processor which displays images and plays sound
+	 * @param u
+	 *            the status updater, used to signal scene or adventure changes
+	 * @return true if the game is still going, false if the game is over
+	 */
+	public boolean feed(String line, Consumer<String> injector, MediaProcessor p, StatusUpdater u) {
+		try {
+			return advance(line, injector, p, u);
+		} catch (Exception e) {
+			report(e);
+			world = null;
+			pending = null;
+			pendingTime = null;
+			plan = null;
+			initializing = false;
+			return false;
+		} finally {
+			output.flush();
+		}
+	}
+
+	/**
+	 * Effect: processes a single line of input.
+	 *
+	 * @param line
+	 *            the line of input
+	 * @param injector
+	 *            the injector to use to prompt the user
+	 * @param p
+	 *            the processor which displays images and plays sound
+	 * @param u
+	 *            the status updater, used to signal scene or adventure changes
+	 * @return true if the game is still going, false if the game is over
+	 * @throws Exception
+	 *             if something really bad happens
+	 */
+	private boolean advance(String line, Consumer<String> injector, MediaProcessor p, StatusUpdater u) throws Exception {
+		Metrics.counters().line();
+		long start = System.nanoTime();
+		try {
+			return handle(line, injector, p, u);
+		} finally {
+			LINE.since(start);
+			completions.follow(world == null ? null : world.current());
+		}
+	}
+
+	/**
+	 * Finds what the start of a line of input could be completed to: the
+	 * commands which start with it, if it starts with {@code :}, and otherwise
+	 * the literal phrases of the patterns of the current scene which start
+	 * with it (see {@link Rule#literalPhrases(String)}). This may be called
+	 * from any thread, and is fast enough to call on every key stroke.
+	 *
+	 * @param prefix
+	 *            the start of the line
+	 * @return the completions, in lower case and in alphabetical order
+	 */
+	public List<String> complete(String prefix) {
+		return completions.complete(prefix);
+	}
+
+	/**
+	 * Effect: processes a single line of input, without timing it.
+	 *
+	 * @param line
+	 *            the line of input
+	 * @param injector
+	 *            the injector to use to prompt the user
+	 * @param p
+	 *            the processor which displays images and plays sound
+	 * @param u
+	 *            the status updater, used to signal scene or adventure changes
+	 * @return true if the game is still going, false if the game is over
+	 * @throws Exception
+	 *             if something really bad happens
+	 * @see #advance(String, Consumer, MediaProcessor, StatusUpdater)
+	 */
+	private boolean handle(String line, Consumer<String> injector, MediaProcessor p, StatusUpdater u) throws Exception {
+		if (recorder != null) {
+			recorder.input(line);
+			injector = recorder.injector(injector);
+		}
+		if (pending == null) {
+			saveManager.reload(world, output);
+			saveManager.finishImages(world, output);
+			if (saveManager.finishImports(world, output)) {
+				// The line was meant for the adventure which was just left
+				show(p, u);
+				return true;
+			}
+			Rule matched = null;
+			long start = System.nanoTime();
 			// Check to see if it is a command
+			turn.set(line);
 			if (line.startsWith(":")) {
-				actions = base.act(line.substring(1));
+				matched = base.match(turn.from(1));
+				BASE_LOOKUP.since(start);
 			}
-			actions = actions == null ? world.current().act(line) : actions;
-			if (actions == null) {
-				output.println(randomResponse());
-			} else {
-				for (Action a : actions) {
-					Scene prev = world.current();
-					Scene next = a.act(world.current(), world, input, output, injector);
-					try {
-						world.move(next);
-					} catch (NoSuchScene e) {
-						output.println("Something bad has occurred. Please tell the developer.");
-						e.printStackTrace(output);
-						next = null;
-					}
-					if (next == null) {
-						// The game is over, so reset (allow another call to
-						// init)
-						world = null;
-						return false;
-					} else {
-						if (next.imageChanged() || prev != next) {
-							next.clearImageChanged();
-							p.process(next.image());
-						}
-						if (next.soundChanged() || prev != next) {
-							next.clearSoundChanged();
-							p.process(next.sound());
-						}
-						u.update(world.name(), world.current().name());
+			if (matched == null) {
+				start = System.nanoTime();
+				matched = world.current().match(turn.canonicalize(world.vocabulary()));
+				if (matched == null && Scene.fuzzy() && world.current().correct(turn)) {
+					matched = world.current().match(turn);
+					if (matched != null) {
+						Metrics.counters().corrected();
 					}
 				}
+				SCENE_LOOKUP.since(start);
 			}
-			return true;
-		} catch (Exception e) {
-			output.println("Something really bad happened.");
-			e.printStackTrace(output);
-			output.println("Please tell the developer.");
-			// Never return. Force a force quit.
-			while (true) {
+			if (matched == null) {
+				Metrics.counters().unmatched();
+				output.println(randomResponse());
+				return true;
+			}
+			plan = matched.plan();
+			step = 0;
+		} else {
+			long start = System.nanoTime();
+			pending = pending.feed(line);
+			if (pendingTime != null) {
+				pendingTime.since(start);
+			}
+			if (!pending.done()) {
+				return true;
+			} else if (initializing) {
+				initialized(p, u);
+				return true;
+			} else if (!finish(p, u)) {
+				return false;
+			}
+		}
+		while (step < plan.size()) {
+			Action a = plan.step(step++);
+			prev = world.current();
+			pendingTime = timer(a);
+			long start = System.nanoTime();
+			pending = a.begin(world.current(), world, output, injector);
+			pendingTime.since(start);
+			if (!pending.done()) {
+				// Wait for the user to answer
+				return true;
+			} else if (!finish(p, u)) {
+				return false;
+			}
+		}
+		plan = null;
+		return true;
+	}
 
+	/**
+	 * Effect: moves to the scene that resulted from the finished pending
+	 * action, and displays any new media.
+	 *
+	 * @param p
+	 *            the processor which displays images and plays sound
+	 * @param u
+	 *            the status updater, used to signal scene or adventure changes
+	 * @return true if the game is still going, false if the game is over
+	 */
+	private boolean finish(MediaProcessor p, StatusUpdater u) {
+		Scene next = pending.result();
+		pending = null;
+		pendingTime = null;
+		long start = System.nanoTime();
+		try {
+			world.move(next);
+		} catch (NoSuchScene e) {
+			output.error("Something bad has occurred. Please tell the developer.");
+			e.printStackTrace(output);
+			next = null;
+		}
+		MOVE.since(start);
+		if (next == null) {
+			// The game is over, so reset (allow another call to
+			// init)
+			world = null;
+			plan = null;
+			return false;
+		} else {
+			start = System.nanoTime();
+			if (next.imageChanged() || prev != next) {
+				next.clearImageChanged();
+				p.process(next.image());
 			}
+			if (next.soundChanged() || prev != next) {
+				next.clearSoundChanged();
+				p.process(next.sound());
+			}
+			MEDIA.since(start);
+			start = System.nanoTime();
+			u.update(world.name(), world.current().name());
+			STATUS.since(start);
+			return true;
 		}
 	}
 
+	/**
+	 * Effect: tells the user that something really bad happened.
+	 *
+	 * @param e
+	 *            the exception
+	 */
+	private void report(Exception e) {
+		output.error("Something really bad happened.");
+		e.printStackTrace(output);
+		output.error("Please tell the developer.");
+	}
+
 	/**
 	 * Does not display images
 	 *
@@ -0,0 +1,160 @@
+package grow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Scanner;
+
+import exceptions.GrowException;
+
+/**
+ * Represents: a report of how much of the heap an adventure takes up once it
+ * is loaded, in all and for each scene, rule, pattern, and action, so that
+ * changes to how rules are kept can be checked against the bytes they save.
+ * The heap is measured after a full garbage collection before and after the
+ * adventure is read, so the numbers include everything the adventure holds
+ * on to, and nothing else should be running at the time. Run this class:
+ *
+ * <pre>
+ * java grow.HeapReport [--root &lt;grow root&gt;] &lt;adventure or world file&gt;
+ * </pre>
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class HeapReport {
+
+	/**
+	 * Not instantiable.
+	 */
+	private HeapReport() {
+	}
+
+	/**
+	 * Represents: something which reads an adventure.
+	 *
+	 * @author Jacob Glueck
+	 */
+	@FunctionalInterface
+	public interface Loader {
+		/**
+		 * @return the adventure
+		 * @throws IOException
+		 *             if the adventure cannot be read
+		 * @throws GrowException
+		 *             if the adventure is not valid
+		 */
+		Game load() throws IOException, GrowException;
+	}
+
+	/**
+	 * Effect: reads an adventure, and prints how much of the heap it takes up.
+	 *
+	 * @param loader
+	 *            reads the adventure
+	 * @param out
+	 *            the stream
+	 * @return the adventure
+	 * @throws IOException
+	 *             if the adventure cannot be read
+	 * @throws GrowException
+	 *             if the adventure is not valid
+	 */
+	public static Game print(Loader loader, PrintStream out) throws IOException, GrowException {
+		long before = used();
+		Game g = loader.load();
+		long bytes = used() - before;
+		int rules = 0;
+		int patterns = 0;
+		int actions = 0;
+		for (Scene s : g.scenes().values()) {
+			rules += s.rules().size();
+			for (Rule r : s.rules()) {
+				patterns += r.patterns().size();
+				actions += r.actions().size();
+			}
+		}
+		out.println(String.format("Adventure: %s (%.1f MB)", g.name(), bytes / (1024.0 * 1024.0)));
+		out.println(String.format("  %10d scenes   %8.1f bytes each", g.scenes().size(), perEach(bytes, g.scenes().size())));
+		out.println(String.format("  %10d rules    %8.1f bytes each", rules, perEach(bytes, rules)));
+		out.println(String.format("  %10d patterns %8.1f bytes each", patterns, perEach(bytes, patterns)));
+		out.println(String.format("  %10d actions  %8.1f bytes each", actions, perEach(bytes, actions)));
+		StringPool pool = g.pool();
+		out.println(String.format("  String pool: %d strings, %d copies shared (%d characters)", pool.size(), pool.shared(), pool.sharedChars()));
+		return g;
+	}
+
+	/**
+	 * @param bytes
+	 *            a number of bytes
+	 * @param count
+	 *            a number of things
+	 * @return the number of bytes for each thing, or 0 if there are none
+	 */
+	private static double perEach(long bytes, int count) {
+		return count == 0 ? 0 : (double) bytes / count;
+	}
+
+	/**
+	 * Collects garbage until the heap stops shrinking, and measures it.
+	 *
+	 * @return the number of bytes of the heap in use
+	 */
+	private static long used() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long used = Long.MAX_VALUE;
+		for (int x = 0; x < 10; x++) {
+			memory.gc();
+			long now = memory.getHeapMemoryUsage().getUsed();
+			if (now >= used) {
+				return now;
+			}
+			used = now;
+		}
+		return used;
+	}
+
+	/**
+	 * Prints the report for an adventure in a grow root, or for a world file
+	 * on its own. The flag is {@code --root <grow root>} (by default, the
+	 * current directory), and the last argument is the name of the adventure
+	 * or the path to the world file.
+	 *
+	 * @param args
+	 *            the arguments
+	 * @throws IOException
+	 *             if the adventure cannot be read
+	 * @throws GrowException
+	 *             if the adventure or state is not valid
+	 */
+	public static void main(String[] args) throws IOException, GrowException {
+		File root = new File(".");
+		String adventure = null;
+		for (int x = 0; x < args.length; x++) {
+			switch (args[x]) {
+			case "--root":
+				root = new File(args[++x]);
+				break;
+			default:
+				adventure = args[x];
+			}
+		}
+		if (adventure == null) {
+			System.err.println("Usage: HeapReport [--root <grow root>] <adventure or world file>");
+			return;
+		}
+		File world = new File(adventure);
+		String name = adventure;
+		SaveManager manager = new SaveManager(root);
+		print(() -> {
+			if (world.isFile()) {
+				try (Scanner in = new Scanner(world)) {
+					return Game.parseWorld(in);
+				}
+			}
+			return manager.readGame(name);
+		}, System.out);
+	}
+}
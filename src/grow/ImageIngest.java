@@ -0,0 +1,216 @@
+package grow;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
+import grow.metrics.MediaDecodeEvent;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+
+/**
+ * Represents: an image being imported for a scene, which is meant to run on a
+ * thread other than the game thread. The image is decoded once, made small
+ * enough to show (see {@link #MAX_SIZE}), and encoded as a JPEG. The game
+ * thread then writes the JPEG into the adventure and gives the scene the image
+ * which was already decoded, so the image is never read back from the
+ * adventure.
+ *
+ * The JPEG is not written here, since the game thread writes the adventure
+ * file when it saves, and the two must not write it at the same time.
+ *
+ * @author Jacob Glueck
+ *
+ */
+class ImageIngest implements Runnable {
+
+	/**
+	 * The largest width or height of an image, in pixels; bigger images are
+	 * made smaller to fit. Set by the system property {@code grow.image.max}.
+	 */
+	static final int MAX_SIZE = Integer.getInteger("grow.image.max", 1920);
+
+	/**
+	 * The image to import
+	 */
+	private final URL source;
+	/**
+	 * The name of the adventure the image is for
+	 */
+	private final String adventureName;
+	/**
+	 * The name of the scene the image is for
+	 */
+	private final String sceneName;
+	/**
+	 * Shows when the image is done
+	 */
+	private final ImportProgress progress;
+
+	/**
+	 * True once the import is done, whether it worked or not
+	 */
+	private volatile boolean done;
+	/**
+	 * The image to show, once it is imported
+	 */
+	private Image image;
+	/**
+	 * The image encoded as a JPEG, once it is imported
+	 */
+	private byte[] jpeg;
+	/**
+	 * The problem, if the image could not be imported
+	 */
+	private String problem;
+
+	/**
+	 * Creates: an import which has not started.
+	 *
+	 * @param source
+	 *            the image to import
+	 * @param adventureName
+	 *            the name of the adventure the image is for
+	 * @param sceneName
+	 *            the name of the scene the image is for
+	 * @param progress
+	 *            shows when the image is done
+	 */
+	ImageIngest(URL source, String adventureName, String sceneName, ImportProgress progress) {
+		this.source = source;
+		this.adventureName = adventureName;
+		this.sceneName = sceneName;
+		this.progress = progress;
+	}
+
+	@Override
+	public void run() {
+		try {
+			MediaDecodeEvent event = new MediaDecodeEvent();
+			event.begin();
+			BufferedImage read = ImageIO.read(source);
+			if (read == null) {
+				throw new IOException("Unknown image format!");
+			}
+			event.commit(sceneName, false, read.getWidth(), read.getHeight());
+			BufferedImage fit = fit(read, MAX_SIZE);
+			jpeg = encode(sceneName, fit);
+			image = SwingFXUtils.toFXImage(fit, null);
+		} catch (IOException e) {
+			problem = e.getMessage();
+		} catch (RuntimeException e) {
+			// Image readers throw all sorts of unchecked exceptions on broken
+			// files, and an image can be too big to convert
+			problem = e.toString();
+		} finally {
+			done = true;
+			progress.finishedImage(sceneName, image != null);
+		}
+	}
+
+	/**
+	 * Creates: an image which has no transparency, and is no wider or higher
+	 * than a size. Images which are bigger are scaled down, keeping their
+	 * shape, by halving them until they are less than twice the size, which
+	 * looks better than scaling them down in one step.
+	 *
+	 * @param image
+	 *            the image
+	 * @param max
+	 *            the largest width or height
+	 * @return the image, or a copy of it which fits
+	 */
+	static BufferedImage fit(BufferedImage image, int max) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		double scale = Math.min(1, (double) max / Math.max(width, height));
+		int targetWidth = Math.max(1, (int) Math.round(width * scale));
+		int targetHeight = Math.max(1, (int) Math.round(height * scale));
+		if (scale == 1 && image.getType() == BufferedImage.TYPE_INT_RGB) {
+			return image;
+		}
+		BufferedImage result = image;
+		do {
+			width = Math.max(targetWidth, width / 2);
+			height = Math.max(targetHeight, height / 2);
+			BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = step.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			// JPEG has no transparency, so show it on white, like the GUI does
+			g.drawImage(result, 0, 0, width, height, Color.WHITE, null);
+			g.dispose();
+			result = step;
+		} while (width != targetWidth || height != targetHeight);
+		return result;
+	}
+
+	/**
+	 * @param sceneName
+	 *            the name of the scene the image is for
+	 * @param image
+	 *            an image with no transparency
+	 * @return the image, encoded as a JPEG
+	 * @throws IOException
+	 *             if it cannot be encoded
+	 */
+	static byte[] encode(String sceneName, BufferedImage image) throws IOException {
+		MediaDecodeEvent event = new MediaDecodeEvent();
+		event.begin();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (!ImageIO.write(image, "JPEG", out)) {
+			throw new IOException("Could not encode the image!");
+		}
+		event.commit(sceneName, true, image.getWidth(), image.getHeight());
+		return out.toByteArray();
+	}
+
+	/**
+	 * @return the name of the adventure the image is for
+	 */
+	String adventureName() {
+		return adventureName;
+	}
+
+	/**
+	 * @return the name of the scene the image is for
+	 */
+	String sceneName() {
+		return sceneName;
+	}
+
+	/**
+	 * @return true once the import is done, whether it worked or not
+	 */
+	boolean done() {
+		return done;
+	}
+
+	/**
+	 * @return the image to show, or null if it could not be imported or the
+	 *         import is not done
+	 */
+	Image image() {
+		return done ? image : null;
+	}
+
+	/**
+	 * @return the image encoded as a JPEG, or null if it could not be imported
+	 *         or the import is not done
+	 */
+	byte[] jpeg() {
+		return done ? jpeg : null;
+	}
+
+	/**
+	 * @return the problem, or null if there was none or the import is not done
+	 */
+	String problem() {
+		return done ? problem : null;
+	}
+}
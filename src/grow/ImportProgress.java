@@ -0,0 +1,62 @@
+package grow;
+
+/**
+ * Represents: a way for the grow game to show how the adventures and images
+ * which are being imported in the background are going. The methods are
+ * called from the thread which imports them.
+ *
+ * @author Jacob Glueck
+ */
+public interface ImportProgress {
+	/**
+	 * Shows nothing.
+	 */
+	public static final ImportProgress EMPTY = new ImportProgress() {
+
+		@Override
+		public void update(String adventureName, long read, long total) {
+		}
+
+		@Override
+		public void finished(String adventureName, boolean imported) {
+		}
+
+		@Override
+		public void finishedImage(String sceneName, boolean imported) {
+		}
+	};
+
+	/**
+	 * Effect: shows how much of an adventure has been imported.
+	 *
+	 * @param adventureName
+	 *            the name the adventure is imported as
+	 * @param read
+	 *            the number of bytes of the ZIP file read so far
+	 * @param total
+	 *            the size of the ZIP file, in bytes
+	 */
+	void update(String adventureName, long read, long total);
+
+	/**
+	 * Effect: shows that an adventure is done being imported. The game switches
+	 * to it at the start of the next turn.
+	 *
+	 * @param adventureName
+	 *            the name the adventure is imported as
+	 * @param imported
+	 *            true if it was imported, false if there was a problem
+	 */
+	void finished(String adventureName, boolean imported);
+
+	/**
+	 * Effect: shows that an image is done being imported. The scene gets it at
+	 * the start of the next turn.
+	 *
+	 * @param sceneName
+	 *            the name of the scene the image is for
+	 * @param imported
+	 *            true if it was imported, false if there was a problem
+	 */
+	void finishedImage(String sceneName, boolean imported);
+}
@@ -0,0 +1,303 @@
+package grow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import exceptions.GrowException;
+import grow.action.Go;
+
+/**
+ * Represents: a checker which finds the problems in an adventure which do
+ * not show up until someone plays it:
+ * <ul>
+ * <li>patterns which are not valid regular expressions, or which may take a
+ * very long time to match (see {@link Rule#warning(String)})</li>
+ * <li>rules with no actions or no patterns, which never match</li>
+ * <li>rules which are shadowed: every pattern is either the same as a
+ * pattern of an earlier rule, or is a plain phrase which an earlier rule
+ * matches, so the earlier rule always matches first</li>
+ * <li>{@link Go} actions which go to scenes which do not exist (Grow makes
+ * them the first time they are entered)</li>
+ * <li>scenes which cannot be reached from the start scene</li>
+ * <li>images and sounds bigger than a limit</li>
+ * </ul>
+ * The scenes are checked in parallel on the common fork join pool, and each
+ * problem is reported as soon as it is found. The {@code :lint} command
+ * checks the current adventure; to check an adventure offline, run this
+ * class:
+ *
+ * <pre>
+ * java grow.Lint [--root &lt;grow root&gt;] [--max-media &lt;bytes&gt;] &lt;adventure or world file&gt;
+ * </pre>
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class Lint {
+
+	/**
+	 * The biggest an image or sound may be, in bytes, by default
+	 */
+	public static final long MAX_MEDIA = 8 * 1024 * 1024;
+
+	/**
+	 * Not instantiable.
+	 */
+	private Lint() {
+	}
+
+	/**
+	 * Effect: checks an adventure, and reports each problem as soon as it is
+	 * found. The problems of different scenes are found in parallel, so they
+	 * are not reported in any order, but the reporter is only called by one
+	 * thread at a time.
+	 *
+	 * @param g
+	 *            the adventure
+	 * @param media
+	 *            the size of each image and sound file of the adventure, in
+	 *            bytes, by file name
+	 * @param maxMedia
+	 *            the biggest an image or sound may be, in bytes
+	 * @param report
+	 *            the reporter, which gets a description of each problem
+	 * @return the number of problems found
+	 */
+	public static int check(Game g, Map<String, Long> media, long maxMedia, Consumer<String> report) {
+		AtomicInteger problems = new AtomicInteger();
+		Consumer<String> found = (problem) -> {
+			problems.incrementAndGet();
+			synchronized (report) {
+				report.accept(problem);
+			}
+		};
+		new ArrayList<>(g.scenes().values()).parallelStream().forEach((s) -> checkScene(s, found));
+		SceneGraph graph = g.graph();
+		List<String> dangling = new ArrayList<>(graph.dangling());
+		Collections.sort(dangling);
+		for (String target : dangling) {
+			found.accept(target + ": does not exist, but is gone to by " + sorted(graph.sources(target)));
+		}
+		List<String> unreachable = new ArrayList<>(graph.unreachable(g.start().name()));
+		Collections.sort(unreachable);
+		for (String name : unreachable) {
+			found.accept(name + ": cannot be reached from the start scene " + g.start().name());
+		}
+		List<String> files = new ArrayList<>(media.keySet());
+		Collections.sort(files);
+		for (String file : files) {
+			if (media.get(file) > maxMedia) {
+				found.accept(file + ": is " + megabytes(media.get(file)) + ", which is bigger than " + megabytes(maxMedia));
+			}
+		}
+		return problems.get();
+	}
+
+	/**
+	 * Effect: checks the rules of a scene.
+	 *
+	 * @param s
+	 *            the scene
+	 * @param found
+	 *            the reporter
+	 */
+	private static void checkScene(Scene s, Consumer<String> found) {
+		List<Rule> rules = new ArrayList<>(s.rules());
+		// The rules which have not been reported as broken
+		boolean[] valid = new boolean[rules.size()];
+		for (int x = 0; x < rules.size(); x++) {
+			Rule r = rules.get(x);
+			String where = s.name() + ": rule " + (x + 1) + ": ";
+			valid[x] = true;
+			if (r.actions().isEmpty()) {
+				found.accept(where + "has no actions, so it never matches");
+				valid[x] = false;
+			}
+			if (r.patterns().isEmpty()) {
+				found.accept(where + "has no patterns, so it never matches");
+				valid[x] = false;
+			}
+			for (String pattern : r.patterns()) {
+				String warning = Rule.warning(pattern);
+				if (warning != null) {
+					found.accept(where + "the pattern \"" + pattern + "\" " + warning);
+					try {
+						Pattern.compile(pattern);
+					} catch (PatternSyntaxException e) {
+						valid[x] = false;
+					}
+				}
+			}
+			if (valid[x]) {
+				int by = shadowedBy(rules, valid, x);
+				if (by != -1) {
+					found.accept(where + "is never used, since rule " + (by + 1) + " matches everything it does first");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the earlier rules which shadow a rule: for each of the patterns of
+	 * the rule, either an earlier rule has the same pattern, or the pattern is
+	 * made of plain phrases (see {@link Rule#literalPhrases(String)}) which an
+	 * earlier rule matches. Every input which matches a phrase contains it, so
+	 * the earlier rule matches the input too.
+	 *
+	 * @param rules
+	 *            the rules of the scene
+	 * @param valid
+	 *            true for each earlier rule which can be matched
+	 * @param x
+	 *            the index of the rule
+	 * @return the index of the last of the earlier rules needed to shadow the
+	 *         rule, or -1 if it is not shadowed
+	 */
+	private static int shadowedBy(List<Rule> rules, boolean[] valid, int x) {
+		int last = -1;
+		for (String pattern : rules.get(x).patterns()) {
+			String[] alternatives = pattern.split("\\|", -1);
+			boolean literal = Rule.literalPhrases(pattern).size() == alternatives.length;
+			int by = -1;
+			for (int y = 0; y < x && by == -1; y++) {
+				if (!valid[y]) {
+					continue;
+				}
+				for (String other : rules.get(y).patterns()) {
+					if (other.equalsIgnoreCase(pattern)) {
+						by = y;
+					}
+				}
+				if (by == -1 && literal && matchesAll(rules.get(y), alternatives)) {
+					by = y;
+				}
+			}
+			if (by == -1) {
+				return -1;
+			}
+			last = Math.max(last, by);
+		}
+		return last;
+	}
+
+	/**
+	 * @param r
+	 *            a rule
+	 * @param inputs
+	 *            some inputs
+	 * @return true if the rule matches all of them
+	 */
+	private static boolean matchesAll(Rule r, String[] inputs) {
+		for (String input : inputs) {
+			if (!r.matches(input)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param names
+	 *            some names
+	 * @return the names, sorted and separated by commas
+	 */
+	private static String sorted(Iterable<String> names) {
+		List<String> list = new ArrayList<>();
+		for (String name : names) {
+			list.add(name);
+		}
+		Collections.sort(list);
+		return String.join(", ", list);
+	}
+
+	/**
+	 * @param bytes
+	 *            a number of bytes
+	 * @return the number of megabytes, as text
+	 */
+	private static String megabytes(long bytes) {
+		return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+	}
+
+	/**
+	 * Effect: checks an adventure, and prints a summary at the end.
+	 *
+	 * @param g
+	 *            the adventure
+	 * @param media
+	 *            the size of each image and sound file of the adventure, in
+	 *            bytes, by file name
+	 * @param maxMedia
+	 *            the biggest an image or sound may be, in bytes
+	 * @param out
+	 *            the stream to print the problems to
+	 * @return the number of problems found
+	 */
+	public static int print(Game g, Map<String, Long> media, long maxMedia, PrintStream out) {
+		long start = System.nanoTime();
+		int problems = check(g, media, maxMedia, out::println);
+		out.println(String.format("%d problems found in %d scenes (%.0f ms).", problems, g.scenes().size(), (System.nanoTime() - start) / 1e6));
+		return problems;
+	}
+
+	/**
+	 * Checks an adventure in a grow root, or a world file on its own (without
+	 * its media). The flags are {@code --root <grow root>} (by default, the
+	 * current directory) and {@code --max-media <bytes>} (by default,
+	 * {@value #MAX_MEDIA}), and the last argument is the name of the adventure
+	 * or the path to the world file. Exits with status 1 if there are any
+	 * problems.
+	 *
+	 * @param args
+	 *            the arguments
+	 * @throws IOException
+	 *             if the adventure cannot be read
+	 * @throws GrowException
+	 *             if the adventure or state is not valid
+	 */
+	public static void main(String[] args) throws IOException, GrowException {
+		File root = new File(".");
+		long maxMedia = MAX_MEDIA;
+		String adventure = null;
+		for (int x = 0; x < args.length; x++) {
+			switch (args[x]) {
+			case "--root":
+				root = new File(args[++x]);
+				break;
+			case "--max-media":
+				maxMedia = Long.parseLong(args[++x]);
+				break;
+			default:
+				adventure = args[x];
+			}
+		}
+		if (adventure == null) {
+			System.err.println("Usage: Lint [--root <grow root>] [--max-media <bytes>] <adventure or world file>");
+			return;
+		}
+		File world = new File(adventure);
+		int problems;
+		if (world.isFile()) {
+			try (Scanner in = new Scanner(world)) {
+				problems = print(Game.parseWorld(in), Collections.emptyMap(), maxMedia, System.out);
+			}
+		} else {
+			SaveManager manager = new SaveManager(root);
+			Game g = manager.readGame(adventure);
+			problems = print(g, manager.mediaSizes(adventure), maxMedia, System.out);
+		}
+		if (problems != 0) {
+			System.exit(1);
+		}
+	}
+}
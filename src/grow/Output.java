@@ -0,0 +1,188 @@
+package grow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Represents: the output of a Grow game. Anything printed to this stream is
+ * sent to the sink as {@link OutputEvent.Type#TEXT} events, one per line, so
+ * code which only knows about {@link PrintStream}s still works. Code which
+ * knows what it is printing should use the typed methods instead.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class Output extends PrintStream {
+
+	/**
+	 * The sink which gets the events
+	 */
+	private final OutputSink sink;
+	/**
+	 * The stream which collects the text of the current line
+	 */
+	private final LineStream lines;
+
+	/**
+	 * Creates: a new output which sends events to the specified sink.
+	 *
+	 * @param sink
+	 *            the sink
+	 */
+	public Output(OutputSink sink) {
+		this(sink, new LineStream(sink));
+	}
+
+	/**
+	 * Creates: a new output which sends events to the specified sink.
+	 *
+	 * @param sink
+	 *            the sink
+	 * @param lines
+	 *            the stream which collects the text of the current line
+	 */
+	private Output(OutputSink sink, LineStream lines) {
+		super(lines, true);
+		this.sink = sink;
+		this.lines = lines;
+	}
+
+	/**
+	 * Creates: a new output which prints the text of all the events to the
+	 * specified stream.
+	 *
+	 * @param out
+	 *            the stream
+	 * @return the output
+	 */
+	public static Output of(PrintStream out) {
+		return new Output(OutputSink.print(out));
+	}
+
+	/**
+	 * Effect: sends an event to the sink, after any text that has already been
+	 * printed.
+	 *
+	 * @param e
+	 *            the event
+	 */
+	public void event(OutputEvent e) {
+		synchronized (this) {
+			lines.finishLine();
+			sink.accept(e);
+		}
+	}
+
+	/**
+	 * Effect: announces a change in the score.
+	 *
+	 * @param text
+	 *            the text describing the change
+	 * @param score
+	 *            the new score
+	 */
+	public void score(String text, int score) {
+		event(OutputEvent.score(text, score));
+	}
+
+	/**
+	 * Effect: announces that the player entered a scene.
+	 *
+	 * @param s
+	 *            the scene
+	 */
+	public void enter(Scene s) {
+		event(OutputEvent.scene(s));
+	}
+
+	/**
+	 * Effect: asks the player a question.
+	 *
+	 * @param prompt
+	 *            the question
+	 */
+	public void prompt(String prompt) {
+		event(OutputEvent.of(OutputEvent.Type.PROMPT, prompt));
+	}
+
+	/**
+	 * Effect: tells the player that something did not work.
+	 *
+	 * @param error
+	 *            the error
+	 */
+	public void error(String error) {
+		event(OutputEvent.of(OutputEvent.Type.ERROR, error));
+	}
+
+	/**
+	 * Effect: tells the sink that all of the output for the current line of
+	 * input has been produced. Text which does not end with a new line yet is
+	 * kept until it does.
+	 */
+	@Override
+	public void flush() {
+		super.flush();
+		sink.flush();
+	}
+
+	/**
+	 * Represents: a stream which turns bytes into text events, one per line.
+	 *
+	 * @author Jacob Glueck
+	 */
+	private static class LineStream extends OutputStream {
+		/**
+		 * The sink which gets the events
+		 */
+		private final OutputSink sink;
+		/**
+		 * The bytes of the current line
+		 */
+		private final ByteArrayOutputStream line;
+
+		/**
+		 * Creates: a new line stream which sends events to the sink.
+		 *
+		 * @param sink
+		 *            the sink
+		 */
+		public LineStream(OutputSink sink) {
+			this.sink = sink;
+			line = new ByteArrayOutputStream();
+		}
+
+		@Override
+		public void write(int b) {
+			if (b == '\n') {
+				String text = line.toString();
+				line.reset();
+				// Handle \r\n line separators
+				if (text.endsWith("\r")) {
+					text = text.substring(0, text.length() - 1);
+				}
+				sink.accept(OutputEvent.of(OutputEvent.Type.TEXT, text));
+			} else {
+				line.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (int x = off; x < off + len; x++) {
+				write(b[x]);
+			}
+		}
+
+		/**
+		 * Effect: if there is text which does not end with a new line yet,
+		 * sends it as its own line.
+		 */
+		public void finishLine() {
+			if (line.size() != 0) {
+				write('\n');
+			}
+		}
+	}
+}
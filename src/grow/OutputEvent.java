@@ -0,0 +1,150 @@
+package grow;
+
+/**
+ * Represents: a single piece of output from a Grow game. Every event has the
+ * text which a plain text frontend would print for it, so a frontend only has
+ * to look at the type of the event if it wants to display the event
+ * differently.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class OutputEvent {
+
+	/**
+	 * Represents: the kinds of output.
+	 *
+	 * @author Jacob Glueck
+	 */
+	public enum Type {
+		/**
+		 * A line of text
+		 */
+		TEXT,
+		/**
+		 * A change to the score. The value is the new score.
+		 */
+		SCORE,
+		/**
+		 * The player entered a scene. The name is the name of the scene, and
+		 * the text is its description.
+		 */
+		SCENE,
+		/**
+		 * A question for the player, who is expected to answer it on the next
+		 * line
+		 */
+		PROMPT,
+		/**
+		 * Something the player typed, or something the game tried to do, did
+		 * not work
+		 */
+		ERROR
+	}
+
+	/**
+	 * The type of this event
+	 */
+	private final Type type;
+	/**
+	 * The text of this event, without a trailing new line
+	 */
+	private final String text;
+	/**
+	 * The name of the scene, for {@link Type#SCENE} events
+	 */
+	private final String name;
+	/**
+	 * The value of the event, for {@link Type#SCORE} events
+	 */
+	private final int value;
+
+	/**
+	 * Creates: a new event.
+	 *
+	 * @param type
+	 *            the type
+	 * @param text
+	 *            the text, without a trailing new line
+	 * @param name
+	 *            the scene name, or null
+	 * @param value
+	 *            the value
+	 */
+	private OutputEvent(Type type, String text, String name, int value) {
+		this.type = type;
+		this.text = text;
+		this.name = name;
+		this.value = value;
+	}
+
+	/**
+	 * Creates: a new event with only text.
+	 *
+	 * @param type
+	 *            the type
+	 * @param text
+	 *            the text, without a trailing new line
+	 * @return the event
+	 */
+	public static OutputEvent of(Type type, String text) {
+		return new OutputEvent(type, text, null, 0);
+	}
+
+	/**
+	 * Creates: a new event for a change in score.
+	 *
+	 * @param text
+	 *            the text describing the change
+	 * @param score
+	 *            the new score
+	 * @return the event
+	 */
+	public static OutputEvent score(String text, int score) {
+		return new OutputEvent(Type.SCORE, text, null, score);
+	}
+
+	/**
+	 * Creates: a new event for entering a scene.
+	 *
+	 * @param s
+	 *            the scene
+	 * @return the event
+	 */
+	public static OutputEvent scene(Scene s) {
+		return new OutputEvent(Type.SCENE, s.description(), s.name(), 0);
+	}
+
+	/**
+	 * @return the type of this event
+	 */
+	public Type type() {
+		return type;
+	}
+
+	/**
+	 * @return the text of this event, without a trailing new line
+	 */
+	public String text() {
+		return text;
+	}
+
+	/**
+	 * @return the name of the scene, for {@link Type#SCENE} events
+	 */
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * @return the new score, for {@link Type#SCORE} events
+	 */
+	public int value() {
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return type + ": " + text;
+	}
+}
@@ -0,0 +1,48 @@
+package grow;
+
+import java.io.PrintStream;
+
+/**
+ * Represents: the place where the output of a Grow game goes.
+ *
+ * @author Jacob Glueck
+ */
+public interface OutputSink {
+
+	/**
+	 * Effect: accepts a single event.
+	 *
+	 * @param e
+	 *            the event
+	 */
+	void accept(OutputEvent e);
+
+	/**
+	 * Effect: called once the game has handled a line of input and produced
+	 * all of the output for it. A frontend can collect events until this is
+	 * called and then display them all at once. Does nothing by default.
+	 */
+	default void flush() {
+	}
+
+	/**
+	 * Creates: a sink which prints the text of every event on its own line.
+	 *
+	 * @param out
+	 *            the print stream
+	 * @return the sink
+	 */
+	static OutputSink print(PrintStream out) {
+		return new OutputSink() {
+			@Override
+			public void accept(OutputEvent e) {
+				out.println(e.text());
+			}
+
+			@Override
+			public void flush() {
+				out.flush();
+			}
+		};
+	}
+}
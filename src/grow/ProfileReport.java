@@ -0,0 +1,194 @@
+package grow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+import exceptions.GrowException;
+
+/**
+ * Represents: a report of the rule profiles (see {@link RuleProfile}) of an
+ * adventure, which ranks the rules of each scene by the number of times they
+ * matched and by the time spent trying them, and lists the rules which never
+ * matched and the rules which are slow. The report for one scene is printed by
+ * the {@code :profile} command; the report for a whole adventure is printed by
+ * running this class:
+ *
+ * <pre>
+ * java grow.ProfileReport --root &lt;grow root&gt; [--top &lt;n&gt;] &lt;adventure&gt;
+ * </pre>
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class ProfileReport {
+
+	/**
+	 * Not instantiable.
+	 */
+	private ProfileReport() {
+	}
+
+	/**
+	 * Effect: prints the report for a scene.
+	 *
+	 * @param s
+	 *            the scene
+	 * @param top
+	 *            the number of rules to list in each ranking
+	 * @param out
+	 *            the stream
+	 */
+	public static void printScene(Scene s, int top, PrintStream out) {
+		List<Rule> rules = s.rules();
+		List<Integer> tried = new ArrayList<>();
+		long tries = 0;
+		for (int x = 0; x < rules.size(); x++) {
+			RuleProfile p = rules.get(x).profile();
+			if (p.tries() != 0) {
+				tried.add(x);
+			}
+			tries += p.tries();
+		}
+		out.println(String.format("Scene: %s (%d rules, %d tries, %.3f ms)", s.name(), rules.size(), tries, cost(s) / 1e6));
+		if (tried.isEmpty()) {
+			out.println("  No rules have been tried.");
+			return;
+		}
+		out.println("  By matches:");
+		for (int x : rank(rules, tried, (p) -> p.hits(), top)) {
+			RuleProfile p = rules.get(x).profile();
+			out.println(String.format("  %5s %8d of %8d  %s", (x + 1) + ".", p.hits(), p.tries(), rules.get(x)));
+		}
+		out.println("  By cost:");
+		for (int x : rank(rules, tried, (p) -> p.cost(), top)) {
+			RuleProfile p = rules.get(x).profile();
+			out.println(String.format("  %5s %10.3f ms %10.3f us each  %s", (x + 1) + ".", p.cost() / 1e6, p.mean() / 1e3, rules.get(x)));
+		}
+		List<Integer> never = new ArrayList<>();
+		for (int x = 0; x < rules.size(); x++) {
+			if (rules.get(x).profile().hits() == 0) {
+				never.add(x + 1);
+			}
+		}
+		if (!never.isEmpty()) {
+			out.println("  Never matched: " + never.stream().map((x) -> x.toString()).collect(Collectors.joining(", ")));
+		}
+		List<Integer> slow = new ArrayList<>();
+		for (int x = 0; x < rules.size(); x++) {
+			if (rules.get(x).profile().slow()) {
+				slow.add(x + 1);
+			}
+		}
+		if (!slow.isEmpty()) {
+			out.println("  Slow (stopped after " + Rule.timeLimit() + " ms): " + slow.stream().map((x) -> x + " (" + rules.get(x - 1).profile().timeouts() + " times)").collect(Collectors.joining(", ")));
+		}
+		List<Integer> invalid = new ArrayList<>();
+		for (int x = 0; x < rules.size(); x++) {
+			if (rules.get(x).profile().invalidTries() != 0) {
+				invalid.add(x + 1);
+			}
+		}
+		if (!invalid.isEmpty()) {
+			out.println("  Not valid regular expressions: " + invalid.stream().map((x) -> x + " (" + rules.get(x - 1).profile().invalidTries() + " times)").collect(Collectors.joining(", ")));
+		}
+	}
+
+	/**
+	 * Effect: prints the report for every scene in a game in which rules have
+	 * been tried, starting with the scenes which took the longest to match.
+	 *
+	 * @param g
+	 *            the game
+	 * @param top
+	 *            the number of rules to list in each ranking
+	 * @param out
+	 *            the stream
+	 */
+	public static void printGame(Game g, int top, PrintStream out) {
+		List<Scene> scenes = new ArrayList<>(g.scenes().values());
+		scenes.sort(Comparator.comparingDouble(ProfileReport::cost).reversed().thenComparing(Scene::name));
+		out.println("Adventure: " + g.name());
+		int untried = 0;
+		for (Scene s : scenes) {
+			if (s.rules().stream().anyMatch((r) -> r.profile().tries() != 0)) {
+				printScene(s, top, out);
+			} else {
+				untried++;
+			}
+		}
+		out.println("Scenes in which no rules have been tried: " + untried);
+	}
+
+	/**
+	 * @param s
+	 *            the scene
+	 * @return the estimated time spent trying the rules of the scene, in
+	 *         nanoseconds
+	 */
+	private static double cost(Scene s) {
+		double cost = 0;
+		for (Rule r : s.rules()) {
+			cost += r.profile().cost();
+		}
+		return cost;
+	}
+
+	/**
+	 * Ranks rules.
+	 *
+	 * @param rules
+	 *            the rules
+	 * @param indexes
+	 *            the indexes of the rules to rank
+	 * @param key
+	 *            the key to rank by, highest first
+	 * @param top
+	 *            the number of indexes to return
+	 * @return the indexes of the {@code top} highest ranked rules
+	 */
+	private static List<Integer> rank(List<Rule> rules, List<Integer> indexes, ToDoubleFunction<RuleProfile> key, int top) {
+		return indexes.stream().sorted(Comparator.comparingDouble((Integer x) -> key.applyAsDouble(rules.get(x).profile())).reversed()).limit(top).collect(Collectors.toList());
+	}
+
+	/**
+	 * Prints the report for an adventure in a grow root. The flags are
+	 * {@code --root <grow root>} (by default, the current directory) and
+	 * {@code --top <n>} (the number of rules in each ranking, by default 10),
+	 * and the last argument is the name of the adventure.
+	 *
+	 * @param args
+	 *            the arguments
+	 * @throws IOException
+	 *             if the adventure cannot be read
+	 * @throws GrowException
+	 *             if the adventure or state is not valid
+	 */
+	public static void main(String[] args) throws IOException, GrowException {
+		File root = new File(".");
+		int top = 10;
+		String adventure = null;
+		for (int x = 0; x < args.length; x++) {
+			switch (args[x]) {
+			case "--root":
+				root = new File(args[++x]);
+				break;
+			case "--top":
+				top = Integer.parseInt(args[++x]);
+				break;
+			default:
+				adventure = args[x];
+			}
+		}
+		if (adventure == null) {
+			System.err.println("Usage: ProfileReport [--root <grow root>] [--top <n>] <adventure>");
+			return;
+		}
+		printGame(new SaveManager(root).readGame(adventure), top, System.out);
+	}
+}
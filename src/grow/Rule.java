@@ -1,16 +1,28 @@
 package grow;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
+import exceptions.MatchTimeout;
 import exceptions.SyntaxError;
 import grow.action.Action;
+import grow.action.ActionPlan;
 import grow.action.Util;
+import grow.match.LinearMatcher;
+import grow.match.LinearPattern;
+import grow.metrics.Metrics;
+import util.ArraySet;
+import util.CompactList;
 
 /**
  * Represents: a rule in the grow game.
@@ -26,25 +38,133 @@ public class Rule {
 	public static final String SAVE_DELIMETER = Character.toString(Util.RESERVED_SEPERATOR);
 
 	/**
-	 * The set of strings this rule matches.
+	 * The longest time a pattern may take to match, in nanoseconds, or 0 if
+	 * there is no limit. Set by the system property {@code grow.match.limit},
+	 * in milliseconds; 100 by default.
 	 */
-	private final Set<String> toMatch;
+	private static volatile long timeLimit = Math.max(0, Long.getLong("grow.match.limit", 100)) * 1000000;
+
+	/**
+	 * The set of strings this rule matches, in an array, since there are
+	 * usually only one or two
+	 */
+	private final ArraySet<String> toMatch;
+	/**
+	 * The actions to do when a match is found, in an array exactly as long as
+	 * the list
+	 */
+	private final CompactList<Action> toDo;
+	/**
+	 * The plan compiled from the actions, or null if it has not been made yet
+	 */
+	private ActionPlan plan;
+	/**
+	 * The version of the actions the plan was made from (see
+	 * {@link CompactList#version()})
+	 */
+	private int planVersion;
 	/**
-	 * The action to do when a match is found
+	 * The profile of this rule
 	 */
-	private final List<Action> toDo;
+	private final RuleProfile profile;
+	/**
+	 * The compiled patterns, by pattern. Since the patterns can be changed
+	 * through {@link #patterns()}, this may hold patterns which have been
+	 * removed; they are cleared out when there are too many. It is null until
+	 * the first pattern is compiled, since most rules of a big adventure are
+	 * never tried.
+	 */
+	private Map<String, Compiled> compiled;
+
+	/**
+	 * Represents: the compiled forms of a pattern, each made the first time it
+	 * is needed. A pattern which is not a valid regular expression is only
+	 * compiled once; the problem is kept and thrown again each time.
+	 *
+	 * @author Jacob Glueck
+	 */
+	private static class Compiled {
+		/**
+		 * The pattern, in upper case
+		 */
+		private final String upper;
+		/**
+		 * The regular expression, or null if it has not been compiled yet or
+		 * is not valid
+		 */
+		private Pattern regex;
+		/**
+		 * The problem with the regular expression, or null if it is valid or
+		 * has not been compiled yet
+		 */
+		private PatternSyntaxException invalid;
+		/**
+		 * The linear pattern, or null if it has not been made yet or the
+		 * pattern is not supported by {@link LinearMatcher}
+		 */
+		private LinearPattern linear;
+		/**
+		 * True once the linear pattern has been made, or found to be not
+		 * supported
+		 */
+		private boolean parsed;
+
+		/**
+		 * Creates: the compiled forms of a pattern, none of which are made
+		 * yet.
+		 *
+		 * @param str
+		 *            the pattern
+		 */
+		Compiled(String str) {
+			upper = str.toUpperCase();
+		}
+
+		/**
+		 * @return the regular expression, which matches input with the
+		 *         pattern as a whole word anywhere in it
+		 * @throws PatternSyntaxException
+		 *             if the pattern is not a valid regular expression
+		 */
+		Pattern regex() {
+			if (regex == null && invalid == null) {
+				try {
+					regex = wholeWord(upper);
+				} catch (PatternSyntaxException e) {
+					invalid = e;
+				}
+			}
+			if (invalid != null) {
+				throw invalid;
+			}
+			return regex;
+		}
+
+		/**
+		 * @return the linear pattern, or null if the pattern is not supported
+		 *         by {@link LinearMatcher} or is not a valid regular expression
+		 */
+		LinearPattern linear() {
+			if (!parsed) {
+				linear = LinearPattern.parse(upper);
+				parsed = true;
+			}
+			return linear;
+		}
+	}
 
 	/**
 	 * Creates: a new rule with the specified action and matches.
 	 *
 	 * @param toDo
-	 *            the action
+	 *            the action, which is copied
 	 * @param toMatch
-	 *            the matches
+	 *            the matches, which are copied
 	 */
 	public Rule(List<Action> toDo, Set<String> toMatch) {
-		this.toMatch = toMatch;
-		this.toDo = toDo;
+		this.toMatch = new ArraySet<>(toMatch);
+		this.toDo = new CompactList<>(toDo);
+		profile = new RuleProfile();
 	}
 
 	/**
@@ -54,7 +174,7 @@ public class Rule {
 	 *            the action
 	 */
 	private Rule(List<Action> toDo) {
-		this(toDo, new HashSet<>());
+		this(toDo, Collections.emptySet());
 	}
 
 	/**
@@ -84,26 +204,400 @@ public class Rule {
 		return toDo;
 	}
 
+	/**
+	 * @return the plan compiled from the actions (see {@link ActionPlan}),
+	 *         which is only compiled again once the actions have changed
+	 */
+	public ActionPlan plan() {
+		if (plan == null || planVersion != toDo.version()) {
+			plan = ActionPlan.compile(toDo);
+			planVersion = toDo.version();
+		}
+		return plan;
+	}
+
 	/**
 	 * Determines if this rule matches the input. All matches are case
-	 * insensitive.
+	 * insensitive. The profile of this rule is not changed, except to count
+	 * patterns which take too long or are not valid regular expressions.
 	 *
 	 * @param input
 	 *            the input
 	 * @return true only if this rule should execute.
 	 */
 	public boolean matches(String input) {
+		return matches(TurnInput.local(input));
+	}
+
+	/**
+	 * Just like {@link #matches(String)}, but for input which has already
+	 * been normalized.
+	 *
+	 * @param input
+	 *            the input
+	 * @return true only if this rule should execute.
+	 */
+	public boolean matches(TurnInput input) {
+		return tryPatterns(input, false, false) > 0;
+	}
+
+	/**
+	 * Determines if this rule matches the input, and counts the patterns
+	 * tried to find out. All matches are case insensitive. The try is counted
+	 * in the profile of this rule.
+	 *
+	 * @param input
+	 *            the input
+	 * @return the number of patterns tried if one matched, or minus the
+	 *         number of patterns tried if none did.
+	 */
+	int attempt(TurnInput input) {
+		return attempt(input, false, false);
+	}
+
+	/**
+	 * Just like {@link #attempt(TurnInput)}, but the patterns which are supported
+	 * by {@link LinearMatcher} may have already been tried by one.
+	 *
+	 * @param input
+	 *            the input
+	 * @param linear
+	 *            true if the patterns supported by {@link LinearMatcher}
+	 *            have already been tried
+	 * @param hit
+	 *            true if one of those patterns matched
+	 * @return the number of patterns tried if one matched, or minus the
+	 *         number of patterns tried if none did.
+	 */
+	int attempt(TurnInput input, boolean linear, boolean hit) {
+		boolean timed = profile.next();
+		long start = timed ? System.nanoTime() : 0;
+		int tried = tryPatterns(input, linear, hit);
+		if (timed) {
+			profile.time(System.nanoTime() - start);
+		}
+		if (tried > 0) {
+			profile.hit();
+		}
+		return tried;
+	}
+
+	/**
+	 * Just like {@link #attempt(TurnInput, boolean, boolean)}, but does not
+	 * change the profile.
+	 *
+	 * @param input
+	 *            the input
+	 * @param linear
+	 *            true if the patterns supported by {@link LinearMatcher}
+	 *            have already been tried
+	 * @param hit
+	 *            true if one of those patterns matched
+	 * @return the number of patterns tried if one matched, or minus the
+	 *         number of patterns tried if none did.
+	 */
+	private int tryPatterns(TurnInput input, boolean linear, boolean hit) {
 		// If this rule has no actions, it is equivalent to not matching
 		// anything, since it will not do anything.
 		if (toDo.size() == 0) {
-			return false;
+			return 0;
 		}
+		int tried = 0;
+		if (linear) {
+			for (String str : toMatch) {
+				if (linearPattern(str) != null) {
+					tried++;
+				}
+			}
+			if (hit) {
+				return tried;
+			}
+		}
+		long limit = timeLimit;
 		for (String str : toMatch) {
-			if (Pattern.compile(".*\\b(" + str.toUpperCase() + ")\\b.*").matcher(input.toUpperCase()).matches()) {
-				return true;
+			if (linear && linearPattern(str) != null) {
+				continue;
+			}
+			tried++;
+			try {
+				if (input.matcher(compile(str).regex(), limit).matches()) {
+					return tried;
+				}
+			} catch (MatchTimeout e) {
+				// A pattern which takes too long does not match
+				profile.timeout();
+				Metrics.counters().timeout();
+			} catch (PatternSyntaxException e) {
+				// Neither does one which is not a valid regular expression
+				profile.invalid();
+			}
+		}
+		return -tried;
+	}
+
+	/**
+	 * Gets the compiled forms of a pattern, which are made as they are
+	 * needed.
+	 *
+	 * @param str
+	 *            the pattern
+	 * @return the compiled pattern
+	 */
+	private Compiled compile(String str) {
+		if (compiled == null) {
+			compiled = new HashMap<>(4);
+		}
+		Compiled p = compiled.get(str);
+		if (p == null) {
+			p = new Compiled(str);
+			compiled.put(str, p);
+			if (compiled.size() > toMatch.size()) {
+				compiled.keySet().retainAll(toMatch);
 			}
 		}
-		return false;
+		return p;
+	}
+
+	/**
+	 * @param str
+	 *            one of the patterns of this rule
+	 * @return the pattern for {@link LinearMatcher}, or null if it is not
+	 *         supported or not a valid regular expression
+	 */
+	LinearPattern linearPattern(String str) {
+		return compile(str).linear();
+	}
+
+	/**
+	 * @param upper
+	 *            a pattern, in upper case
+	 * @return the regular expression which matches input with the pattern as a
+	 *         whole word anywhere in it
+	 * @throws PatternSyntaxException
+	 *             if the pattern is not a valid regular expression
+	 */
+	private static Pattern wholeWord(String upper) {
+		return Pattern.compile(".*\\b(" + upper + ")\\b.*");
+	}
+
+	/**
+	 * @param pattern
+	 *            a pattern
+	 * @return true if a rule can use the pattern: if it is a valid regular
+	 *         expression both as it is, and once it is made upper case and put
+	 *         in the regular expression which matches it as a whole word
+	 */
+	public static boolean valid(String pattern) {
+		try {
+			Pattern.compile(pattern);
+			wholeWord(pattern.toUpperCase());
+			return true;
+		} catch (PatternSyntaxException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return the longest time a pattern may take to match, in milliseconds, or
+	 *         0 if there is no limit
+	 */
+	public static long timeLimit() {
+		return timeLimit / 1000000;
+	}
+
+	/**
+	 * Effect: sets the longest time a pattern may take to match. A pattern
+	 * which takes longer is stopped, does not match, and marks its rule as
+	 * slow (see {@link RuleProfile#timeouts()}).
+	 *
+	 * @param millis
+	 *            the time limit, in milliseconds, or 0 for no limit
+	 */
+	public static void setTimeLimit(long millis) {
+		timeLimit = Math.max(0, millis) * 1000000;
+	}
+
+	/**
+	 * Checks a pattern for problems before it is used: if it is not a valid
+	 * regular expression, or if it repeats a group which itself repeats
+	 * something (like {@code (a+)+}, {@code (a*b?)*}, or
+	 * {@code (a{1,3}){1,20}}), which can take time exponential in the length
+	 * of the input to fail to match.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return a description of the problem, or null if there is none
+	 */
+	public static String warning(String pattern) {
+		try {
+			Pattern.compile(pattern);
+		} catch (PatternSyntaxException e) {
+			return "is not a valid regular expression (" + e.getDescription() + ").";
+		}
+		// For each open group, true if the levels outside it repeat something
+		Deque<Boolean> outer = new ArrayDeque<>();
+		// True if this level repeats something
+		boolean repeats = false;
+		// True if the last thing was a group which repeats something
+		boolean repeatingGroup = false;
+		for (int x = 0; x < pattern.length(); x++) {
+			char c = pattern.charAt(x);
+			// True if c starts a quantifier which repeats a variable number of
+			// times (more than ?)
+			boolean repeat = false;
+			switch (c) {
+			case '\\':
+				x++;
+				break;
+			case '[':
+				x = classEnd(pattern, x);
+				break;
+			case '(':
+				outer.push(repeats);
+				repeats = false;
+				break;
+			case ')':
+				if (!outer.isEmpty()) {
+					boolean inner = repeats;
+					repeats = outer.pop() || inner;
+					repeatingGroup = inner;
+					continue;
+				}
+				break;
+			case '*':
+			case '+':
+				repeat = true;
+				break;
+			case '{':
+				int close = pattern.indexOf('}', x);
+				if (close != -1) {
+					String[] bounds = pattern.substring(x + 1, close).split(",", -1);
+					repeat = bounds.length == 2 && !bounds[0].trim().equals(bounds[1].trim());
+					x = close;
+				}
+				break;
+			}
+			if (repeat) {
+				if (repeatingGroup) {
+					return "repeats a group which repeats something, so it may take a very long time to match.";
+				}
+				repeats = true;
+				// Skip the lazy or possessive mark
+				if (x + 1 < pattern.length() && (pattern.charAt(x + 1) == '?' || pattern.charAt(x + 1) == '+')) {
+					x++;
+				}
+			}
+			repeatingGroup = false;
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the literal words of a pattern: the runs of letters and digits
+	 * which the pattern can only match exactly, so not the ones in character
+	 * classes or escapes, or the ones whose last letter is followed by a
+	 * quantifier (like {@code colou?r}).
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return the words, in upper case
+	 */
+	public static List<String> literalWords(String pattern) {
+		List<String> words = new ArrayList<>();
+		int start = -1;
+		for (int x = 0; x <= pattern.length(); x++) {
+			char c = x < pattern.length() ? pattern.charAt(x) : ' ';
+			if (Character.isLetterOrDigit(c)) {
+				if (start == -1) {
+					start = x;
+				}
+				continue;
+			}
+			if (start != -1 && c != '?' && c != '*' && c != '+' && c != '{') {
+				words.add(pattern.substring(start, x).toUpperCase());
+			}
+			start = -1;
+			if (c == '\\') {
+				x++;
+			} else if (c == '[') {
+				x = classEnd(pattern, x);
+			} else if (c == '{') {
+				// A counted repeat, or the name after \p
+				int close = pattern.indexOf('}', x);
+				x = close == -1 ? x : close;
+			} else if (c == '(' && x + 1 < pattern.length() && pattern.charAt(x + 1) == '?') {
+				// Flags, or the kind of a special group
+				x++;
+				while (x + 1 < pattern.length() && Character.isLetter(pattern.charAt(x + 1))) {
+					x++;
+				}
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Finds the literal phrases of a pattern: the pattern itself if it only
+	 * has letters, digits, spaces, apostrophes, and dashes, or each of its
+	 * alternatives which does if it is a list of alternatives separated by
+	 * {@code |} (like {@code open door|open the door}). These are the things
+	 * a player can type to match the pattern exactly. A pattern with groups,
+	 * classes, or escapes has no literal phrases.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return the phrases, in lower case, with single spaces between words
+	 */
+	public static List<String> literalPhrases(String pattern) {
+		List<String> phrases = new ArrayList<>();
+		for (int x = 0; x < pattern.length(); x++) {
+			if ("\\()[]{}".indexOf(pattern.charAt(x)) != -1) {
+				return phrases;
+			}
+		}
+		for (String alternative : pattern.split("\\|")) {
+			String phrase = alternative.trim().replaceAll("\\s+", " ");
+			boolean literal = phrase.length() != 0;
+			for (int x = 0; x < phrase.length() && literal; x++) {
+				char c = phrase.charAt(x);
+				literal = Character.isLetterOrDigit(c) || c == ' ' || c == '\'' || c == '-';
+			}
+			if (literal) {
+				phrases.add(phrase.toLowerCase());
+			}
+		}
+		return phrases;
+	}
+
+	/**
+	 * Finds the end of a character class.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @param start
+	 *            the index of the {@code [} which starts the class
+	 * @return the index of the {@code ]} which ends the class
+	 */
+	private static int classEnd(String pattern, int start) {
+		int depth = 0;
+		for (int x = start; x < pattern.length(); x++) {
+			char c = pattern.charAt(x);
+			if (c == '\\') {
+				x++;
+			} else if (c == '[') {
+				depth++;
+				// A ] right after the [ (or [^) is a literal
+				if (x + 1 < pattern.length() && pattern.charAt(x + 1) == '^') {
+					x++;
+				}
+				if (x + 1 < pattern.length() && pattern.charAt(x + 1) == ']') {
+					x++;
+				}
+			} else if (c == ']' && --depth == 0) {
+				return x;
+			}
+		}
+		return pattern.length();
 	}
 
 	@Override
@@ -131,6 +625,38 @@ public class Rule {
 		toDo.add(a);
 	}
 
+	/**
+	 * Effect: puts the actions in a new order.
+	 *
+	 * @param order
+	 *            the index of the action which goes at each index, which must
+	 *            have each index once
+	 */
+	public void reorderActions(List<Integer> order) {
+		reorder(toDo, order);
+	}
+
+	/**
+	 * Effect: puts the elements of a list in a new order, in one pass.
+	 *
+	 * @param <T>
+	 *            the type of the elements
+	 * @param list
+	 *            the list
+	 * @param order
+	 *            the index of the element which goes at each index, which must
+	 *            have each index once
+	 */
+	static <T> void reorder(List<T> list, List<Integer> order) {
+		if (order.size() != list.size()) {
+			throw new IllegalArgumentException("Not an order of " + list.size() + " elements: " + order);
+		}
+		List<T> old = new ArrayList<>(list);
+		for (int x = 0; x < order.size(); x++) {
+			list.set(x, old.get(order.get(x)));
+		}
+	}
+
 	/**
 	 * @return the patterns.
 	 */
@@ -138,6 +664,14 @@ public class Rule {
 		return toMatch;
 	}
 
+	/**
+	 * @return a number which changes each time the patterns are changed, even
+	 *         through {@link #patterns()}
+	 */
+	int patternVersion() {
+		return toMatch.version();
+	}
+
 	/**
 	 * @return the actions
 	 */
@@ -145,6 +679,13 @@ public class Rule {
 		return toDo;
 	}
 
+	/**
+	 * @return the profile of this rule
+	 */
+	public RuleProfile profile() {
+		return profile;
+	}
+
 	/**
 	 * Parses a rule from a string
 	 *
@@ -157,24 +698,42 @@ public class Rule {
 	 *             if there is a problem
 	 */
 	public static Rule parseRule(String rule, int line) throws SyntaxError {
+		return parseRule(rule, line, null);
+	}
+
+	/**
+	 * Just like {@link #parseRule(String, int)}, but keeps the patterns and
+	 * the text of the actions in a pool.
+	 *
+	 * @param rule
+	 *            the rule
+	 * @param line
+	 *            the line number to use for the syntax error
+	 * @param pool
+	 *            the pool, or null to not pool the strings
+	 * @return the rule
+	 * @throws SyntaxError
+	 *             if there is a problem
+	 */
+	public static Rule parseRule(String rule, int line, StringPool pool) throws SyntaxError {
 		String[] split = rule.split("->");
 		if (split.length != 2) {
 			throw new SyntaxError(line, "Rule format error. No ->");
 		}
 		String[] cl = parseList(split[0], line);
-		Set<String> conditions = new HashSet<>();
+		Set<String> conditions = new ArraySet<>();
 		for (String cond : cl) {
 			if (cond.length() != 0) {
-				conditions.add(cond);
+				conditions.add(pool == null ? cond : pool.intern(cond));
 			}
 		}
 
 		String[] al = parseList(split[1], line);
-		List<Action> actions = new LinkedList<>();
+		List<Action> actions = new ArrayList<>(al.length);
 		for (String a : al) {
 			// Handle no action
 			if (a.length() != 0) {
-				Action action = Action.parseAction(a);
+				Action action = Action.parseAction(a, pool);
 				if (action == null) {
 					throw new SyntaxError(line, "Action not valid: " + a);
 				}
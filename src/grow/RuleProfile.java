@@ -0,0 +1,194 @@
+package grow;
+
+import exceptions.SyntaxError;
+
+/**
+ * Represents: the profile of a rule: how many times it was tried, how many
+ * times it matched, and how long it takes to try. Timing every try would cost
+ * more than most tries, so only one try in {@value #SAMPLE_EVERY} is timed, and
+ * the total cost is estimated from the timed tries.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class RuleProfile {
+
+	/**
+	 * One try in this many is timed. Must be a power of two.
+	 */
+	public static final int SAMPLE_EVERY = 16;
+
+	/**
+	 * The number of times the rule was tried
+	 */
+	private long tries;
+	/**
+	 * The number of times the rule matched
+	 */
+	private long hits;
+	/**
+	 * The number of tries timed
+	 */
+	private long samples;
+	/**
+	 * The total time of the tries timed, in nanoseconds
+	 */
+	private long sampled;
+	/**
+	 * The number of patterns which were stopped for taking too long
+	 */
+	private long timeouts;
+	/**
+	 * The number of patterns which could not be tried because they are not
+	 * valid regular expressions. It is not saved, since the patterns are found
+	 * again the next time they are tried.
+	 */
+	private long invalid;
+
+	/**
+	 * Effect: counts a try.
+	 *
+	 * @return true if the try should be timed
+	 */
+	boolean next() {
+		return (tries++ & (SAMPLE_EVERY - 1)) == 0;
+	}
+
+	/**
+	 * Effect: counts a match.
+	 */
+	void hit() {
+		hits++;
+	}
+
+	/**
+	 * Effect: records the time of a timed try.
+	 *
+	 * @param nanos
+	 *            the time, in nanoseconds
+	 */
+	void time(long nanos) {
+		samples++;
+		sampled += nanos;
+	}
+
+	/**
+	 * Effect: counts a pattern which was stopped for taking too long.
+	 */
+	void timeout() {
+		timeouts++;
+	}
+
+	/**
+	 * Effect: counts a pattern which could not be tried because it is not a
+	 * valid regular expression.
+	 */
+	void invalid() {
+		invalid++;
+	}
+
+	/**
+	 * @return the number of times the rule was tried
+	 */
+	public long tries() {
+		return tries;
+	}
+
+	/**
+	 * @return the number of times the rule matched
+	 */
+	public long hits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of times one of the patterns of the rule was stopped
+	 *         for taking longer than the time limit (see
+	 *         {@link Rule#setTimeLimit(long)})
+	 */
+	public long timeouts() {
+		return timeouts;
+	}
+
+	/**
+	 * @return the number of times one of the patterns of the rule could not be
+	 *         tried because it is not a valid regular expression
+	 */
+	public long invalidTries() {
+		return invalid;
+	}
+
+	/**
+	 * @return true if one of the patterns of the rule has ever taken longer
+	 *         than the time limit
+	 */
+	public boolean slow() {
+		return timeouts != 0;
+	}
+
+	/**
+	 * @return the average time of a try, in nanoseconds
+	 */
+	public double mean() {
+		return samples == 0 ? 0 : sampled / (double) samples;
+	}
+
+	/**
+	 * @return the estimated total time of all the tries, in nanoseconds
+	 */
+	public double cost() {
+		return mean() * tries;
+	}
+
+	/**
+	 * Effect: resets all the counts.
+	 */
+	public void reset() {
+		tries = 0;
+		hits = 0;
+		samples = 0;
+		sampled = 0;
+		timeouts = 0;
+		invalid = 0;
+	}
+
+	/**
+	 * @return the profile, as it is saved: the tries, hits, samples, sampled
+	 *         time, and timeouts, delimited by {@link Rule#SAVE_DELIMETER}.
+	 */
+	@Override
+	public String toString() {
+		return String.join(Rule.SAVE_DELIMETER, Long.toString(tries), Long.toString(hits), Long.toString(samples), Long.toString(sampled), Long.toString(timeouts));
+	}
+
+	/**
+	 * Effect: sets this profile to a saved profile. Profiles saved before
+	 * timeouts were counted are fine.
+	 *
+	 * @param saved
+	 *            the saved profile (see {@link #toString()})
+	 * @param line
+	 *            the line number to use for the syntax error
+	 * @throws SyntaxError
+	 *             if there is a problem
+	 */
+	public void load(String saved, int line) throws SyntaxError {
+		String[] parts = saved.split(Rule.SAVE_DELIMETER);
+		if (parts.length != 4 && parts.length != 5) {
+			throw new SyntaxError(line, "Profile format error.");
+		}
+		long[] values = new long[parts.length];
+		try {
+			for (int x = 0; x < parts.length; x++) {
+				values[x] = Long.parseLong(parts[x]);
+			}
+		} catch (NumberFormatException e) {
+			throw new SyntaxError(line, "Profile format error: " + e.getMessage());
+		}
+		tries = values[0];
+		hits = values[1];
+		samples = values[2];
+		sampled = values[3];
+		timeouts = parts.length == 5 ? values[4] : 0;
+	}
+}
@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -17,27 +18,43 @@ import java.net.URLDecoder;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
-import javax.imageio.ImageIO;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+import exceptions.CanceledException;
+import exceptions.GrowException;
+import exceptions.NoSuchScene;
+import exceptions.SyntaxError;
 import grow.action.Action;
+import grow.action.Dialog;
 import grow.action.Go;
+import grow.action.InteractiveAction;
 import grow.action.Quit;
-import grow.action.Read;
 import grow.action.Save;
 import grow.action.Util;
+import grow.metrics.MediaDecodeEvent;
+import grow.metrics.Metrics;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.Image;
 import util.ZipLocker;
@@ -68,6 +85,10 @@ public class SaveManager {
 	 * information (the above file)
 	 */
 	private static final String PROGRAM_DATA = "program_data";
+	/**
+	 * The name of the file in the program data which indexes the adventures
+	 */
+	private static final String CATALOG_FILE = "catalog.txt";
 	/**
 	 * The name of the folder in the root directory which stores all the
 	 * adventure state data
@@ -82,6 +103,47 @@ public class SaveManager {
 	 * The directory in which all grow files are saved
 	 */
 	private final File growDir;
+	/**
+	 * The random number generator used to name new stories
+	 */
+	private final Random random;
+	/**
+	 * The adventures which were played recently
+	 */
+	private final AdventureCache cache;
+	/**
+	 * The last stamp given to files which could not be read, counting down
+	 * from 0 (see {@link #stamp(String)})
+	 */
+	private long unreadable;
+	/**
+	 * The index of the adventures and state files
+	 */
+	private final Catalog catalog;
+	/**
+	 * The watch on the file of the adventure being played, or null if it is
+	 * not being watched
+	 */
+	private WorldWatcher watcher;
+	/**
+	 * The adventures which are being imported, or are done being imported but
+	 * have not been switched to yet
+	 */
+	private final List<AdventureImport> imports;
+	/**
+	 * The images which are being imported, or are done being imported but
+	 * have not been given to their scenes yet
+	 */
+	private final List<ImageIngest> images;
+	/**
+	 * The thread which imports adventures and images, or null if none have
+	 * been imported
+	 */
+	private ExecutorService importer;
+	/**
+	 * Shows the progress of the adventures which are being imported
+	 */
+	private ImportProgress importProgress;
 
 	/**
 	 * Creates: a new save manager which saves all the files in the specified
@@ -92,32 +154,55 @@ public class SaveManager {
 	 *            the directory in which to store all the grow files
 	 */
 	public SaveManager(File growDir) {
+		this(growDir, new Random());
+	}
+
+	/**
+	 * Creates: a new save manager which saves all the files in the specified
+	 * directory, and uses the specified random number generator to name new
+	 * stories. Makes the grow directory, and any parent directories, if
+	 * needed.
+	 *
+	 * @param growDir
+	 *            the directory in which to store all the grow files
+	 * @param random
+	 *            the random number generator
+	 */
+	public SaveManager(File growDir, Random random) {
 		this.growDir = growDir;
+		this.random = random;
+		cache = new AdventureCache(AdventureCache.BUDGET_MB * 1024 * 1024);
+		imports = new ArrayList<>();
+		images = new ArrayList<>();
+		importProgress = ImportProgress.EMPTY;
 		// Make all the parent directories
 		this.growDir.mkdirs();
 		new File(growDir, PROGRAM_DATA).mkdirs();
 		new File(growDir, ADVENTURE_STATE).mkdirs();
 		new File(growDir, ADVENTURES).mkdirs();
+		catalog = new Catalog(new File(growDir, ADVENTURES), new File(growDir, ADVENTURE_STATE), new File(new File(growDir, PROGRAM_DATA), CATALOG_FILE));
 	}
 
 	/**
-	 * Creates: the initial game and goes to the current location so that the
-	 * initial description is printed out
+	 * Creates: a dialog which creates the initial game and goes to the current
+	 * location so that the initial description is printed out
 	 *
-	 * @param input
-	 *            the input
 	 * @param output
 	 *            the output
 	 * @param injector
 	 *            the injector to use to prompt the user
-	 * @return the initial game
+	 * @param loaded
+	 *            called with the initial game once it has been created
+	 * @return the dialog
 	 */
-	public Game init(Scanner input, PrintStream output, Consumer<String> injector) {
-		clean(input, output);
-		Game result = initGame(input, output);
-		linkMedia(result);
-		new Go(result.current().name()).act(result.current(), result, input, output, injector);
-		return result;
+	public Dialog init(Output output, Consumer<String> injector, Consumer<Game> loaded) {
+		return clean(output, () -> initGame(output, (result) -> {
+			linkMedia(result);
+			linkVocabulary(result, output);
+			follow(result);
+			loaded.accept(result);
+			return new Go(result.current().name()).begin(result.current(), result, output, injector);
+		}));
 	}
 
 	/**
@@ -126,78 +211,56 @@ public class SaveManager {
 	 * corresponding state file. Then, with the user's permission, deletes the
 	 * files.
 	 *
-	 * @param input
-	 *            the input stream
 	 * @param output
 	 *            the output stream
+	 * @param then
+	 *            the rest of the dialog, once the directory is clean
+	 * @return the dialog which asks the user for permission
 	 */
-	public void clean(Scanner input, PrintStream output) {
-		Set<String> states = new HashSet<>();
-		Set<String> adventures = new HashSet<>();
+	public Dialog clean(Output output, Supplier<Dialog> then) {
 		File stateDir = new File(growDir, ADVENTURE_STATE);
-		states.addAll(Arrays.asList(stateDir.listFiles()).stream().map((f) -> f.getName()).collect(Collectors.toList()));
 		File adventureDir = new File(growDir, ADVENTURES);
-		adventures.addAll(Arrays.asList(adventureDir.listFiles()).stream().map((f) -> f.getName()).collect(Collectors.toList()));
-		Set<String> badStateFiles = new HashSet<>();
-		Set<String> badAdventureFiles = new HashSet<>();
-		Set<String> goodStateFiles = new HashSet<>();
-		Set<String> goodAdventureFiles = new HashSet<>();
-		for (String str : states) {
-			if (!str.startsWith(".")) {
-				if (!str.endsWith("_state.txt")) {
-					badStateFiles.add(str);
-				} else {
-					goodStateFiles.add(str);
-				}
-			}
-		}
-		for (String str : adventures) {
-			if (!str.startsWith(".")) {
-				if (!str.endsWith(".zip")) {
-					badAdventureFiles.add(str);
-				} else {
-					goodAdventureFiles.add(str);
-				}
-			}
-		}
-		Set<String> adventureLessStates = new HashSet<>();
-		for (String state : goodStateFiles) {
-			String adventureName = state.substring(0, state.length() - "_state.txt".length());
-			if (!goodAdventureFiles.contains(adventureName + ".zip")) {
-				adventureLessStates.add(state);
-			}
-		}
+		Set<String> badStateFiles = catalog.strayStateFiles();
+		Set<String> badAdventureFiles = catalog.strayAdventureFiles();
+		Set<String> adventureLessStates = catalog.orphanStates();
+
+		return askToRemove(output, "There are game states stored in your grow folder which are named improperly:", badStateFiles, stateDir,
+				() -> askToRemove(output, "There are adventures stored in your grow folder which are named improperly:", badAdventureFiles, adventureDir,
+						() -> askToRemove(output, "There are state files stored in your grow folder which correspond to adventures which do not exist:", adventureLessStates, stateDir,
+								then)));
+	}
 
-		if (badStateFiles.size() != 0) {
-			output.println("There are game states stored in your grow folder which are named improperly:");
-			Util.printNumberedList("", ".", 0, 5, output, badStateFiles);
-			output.println("Would you like to remove them? (y/n)");
-			if (yesNo(input)) {
-				for (String str : badStateFiles) {
-					deleteFile(new File(stateDir, str));
-				}
-			}
-		}
-		if (badAdventureFiles.size() != 0) {
-			output.println("There are adventures stored in your grow folder which are named improperly:");
-			Util.printNumberedList("", ".", 0, 5, output, badAdventureFiles);
-			output.println("Would you like to remove them? (y/n)");
-			if (yesNo(input)) {
-				for (String str : badAdventureFiles) {
-					deleteFile(new File(adventureDir, str));
-				}
-			}
+	/**
+	 * Effect: if there are any files, prints the message and the files, and
+	 * asks the user if they should be removed.
+	 *
+	 * @param output
+	 *            the output stream
+	 * @param message
+	 *            the message explaining what is wrong with the files
+	 * @param files
+	 *            the names of the files
+	 * @param dir
+	 *            the directory which contains the files
+	 * @param then
+	 *            the rest of the dialog
+	 * @return the dialog which asks the user
+	 */
+	private Dialog askToRemove(Output output, String message, Set<String> files, File dir, Supplier<Dialog> then) {
+		if (files.size() == 0) {
+			return then.get();
 		}
-		if (adventureLessStates.size() != 0) {
-			output.println("There are state files stored in your grow folder which correspond to adventures which do not exist:");
-			Util.printNumberedList("", ".", 0, 5, output, adventureLessStates);
-			output.println("Would you like to remove them? (y/n)");
-			if (yesNo(input)) {
-				for (String str : adventureLessStates) {
-					deleteFile(new File(stateDir, str));
+		output.println(message);
+		Util.printNumberedList("", ".", 0, 5, output, files);
+		output.prompt("Would you like to remove them? (y/n)");
+		return (line) -> {
+			if (yesNo(line)) {
+				for (String str : files) {
+					deleteFile(new File(dir, str));
 				}
 			}
-		}
+			return then.get();
+		};
 	}
 
 	/**
@@ -216,12 +279,12 @@ public class SaveManager {
 	}
 
 	/**
-	 * @param input
-	 *            the input
-	 * @return true only if the input is {@code Y} or {@code y}.
+	 * @param line
+	 *            the line the user typed
+	 * @return true only if the line is {@code Y} or {@code y}.
 	 */
-	private static boolean yesNo(Scanner input) {
-		return input.nextLine().equalsIgnoreCase("y");
+	private static boolean yesNo(String line) {
+		return line.equalsIgnoreCase("y");
 	}
 
 	// /**
@@ -250,7 +313,7 @@ public class SaveManager {
 		if (!f.exists()) {
 			return null;
 		} else {
-			return new FileInputStream(f);
+			return Metrics.loading(new FileInputStream(f));
 		}
 	}
 
@@ -265,7 +328,39 @@ public class SaveManager {
 	 *             if there is a problem.
 	 */
 	private InputStream readAdventure(String adventureName) throws IOException {
-		return readImage(adventureName, adventureName + "_world.txt");
+		return Metrics.loading(readImage(adventureName, adventureName + "_world.txt"));
+	}
+
+	/**
+	 * Opens a stream to read the world file of an adventure as it is now,
+	 * without mounting its zip file with a {@link ZipLocker}. Used by the watch
+	 * on the adventure, which reads on a thread of its own while the game
+	 * thread may have the zip file mounted; since the zip file is replaced
+	 * whole when it is written, the stream reads either the old or the new
+	 * file.
+	 *
+	 * @param adventureName
+	 *            the adventure name
+	 * @return the stream, which must be closed
+	 * @throws IOException
+	 *             if there is a problem
+	 * @throws NoSuchFileException
+	 *             if the adventure has no world file
+	 */
+	InputStream readWorldSnapshot(String adventureName) throws IOException {
+		ZipFile zip = new ZipFile(adventureFile(adventureName));
+		ZipEntry entry = zip.getEntry(adventureName + "/" + adventureName + "_world.txt");
+		if (entry == null) {
+			zip.close();
+			throw new NoSuchFileException(adventureName + "_world.txt");
+		}
+		return new FilterInputStream(zip.getInputStream(entry)) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				zip.close();
+			}
+		};
 	}
 
 	/**
@@ -372,7 +467,7 @@ public class SaveManager {
 	 *             if there is a problem
 	 */
 	private OutputStream writeAdventureState(String adventureName) throws FileNotFoundException {
-		return new FileOutputStream(new File(new File(growDir, ADVENTURE_STATE), adventureName + "_state.txt"));
+		return Metrics.saving(new FileOutputStream(new File(new File(growDir, ADVENTURE_STATE), adventureName + "_state.txt")));
 	}
 
 	/**
@@ -386,7 +481,7 @@ public class SaveManager {
 	 *             if there is a problem
 	 */
 	private OutputStream writeAdventure(String adventureName) throws IOException {
-		return writeImage(adventureName, adventureName + "_world.txt");
+		return Metrics.saving(writeImage(adventureName, adventureName + "_world.txt"));
 	}
 
 	/**
@@ -410,6 +505,11 @@ public class SaveManager {
 				stream.write(b);
 			}
 
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				stream.write(b, off, len);
+			}
+
 			@Override
 			public void close() throws IOException {
 				stream.close();
@@ -421,17 +521,18 @@ public class SaveManager {
 	/**
 	 * Creates: the initial game
 	 *
-	 * @param input
-	 *            the input
 	 * @param output
 	 *            the output
-	 * @return the initial game
+	 * @param then
+	 *            the rest of the dialog, which gets the initial game
+	 * @return the dialog which creates the initial game
 	 */
-	private Game initGame(Scanner input, PrintStream output) {
+	private Dialog initGame(Output output, Function<Game, Dialog> then) {
 		File currentFile = currentFile();
 		if (currentFile.exists()) {
 			Scanner state = null;
 			Scanner game = null;
+			Game r = null;
 			try {
 				Scanner s = new Scanner(currentFile);
 				String last = s.nextLine();
@@ -442,12 +543,11 @@ public class SaveManager {
 				}
 				state = new Scanner(readAdventureState(last));
 				game = new Scanner(readAdventure(last));
-				Game r = Game.parseGame(state, game);
+				r = Game.parseGame(state, game);
 				state.close();
 				game.close();
-				return r;
 			} catch (Exception e) {
-				output.println("Error loading last game state: " + e.getMessage());
+				output.error("Error loading last game state: " + e.getMessage());
 				output.println("Will create new game.");
 			} finally {
 				if (state != null) {
@@ -457,11 +557,14 @@ public class SaveManager {
 					game.close();
 				}
 			}
+			if (r != null) {
+				return then.apply(r);
+			}
 		}
 
 		// If we get here, the file did not exist or there was a problem reading
 		// it. So, make a new game.
-		return newGame(input, output);
+		return newGame(output, then::apply);
 	}
 
 	/**
@@ -469,59 +572,224 @@ public class SaveManager {
 	 */
 	public Action saveAction() {
 		return new Action() {
+			@Override
+			public String name() {
+				return "Save";
+			}
 
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
-				try {
-					return new Save(writeAdventureState(world.name()), writeAdventure(world.name())).act(current, world, input, output, injector);
-				} catch (IOException e) {
-					output.println("Error saving: " + e.getMessage());
-					return current;
-				}
+			public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
+				save(world, output);
+				return current;
 			}
 		};
 	}
 
+	/**
+	 * Effect: saves the current grow game properly.
+	 *
+	 * @param world
+	 *            the game to save
+	 * @param output
+	 *            the output stream, for errors
+	 */
+	private void save(Game world, Output output) {
+		Metrics.counters().save();
+		try {
+			catalog.refresh();
+			new Save(writeAdventureState(world.name()), writeAdventure(world.name())).begin(world.current(), world, output, Action.EMPTY_INJECTOR);
+			catalog.played(world);
+			follow(world);
+		} catch (IOException e) {
+			output.error("Error saving: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Effect: starts watching the file of each adventure while it is played,
+	 * so that changes made to it by something else are brought into the game
+	 * (see {@link #reload(Game, Output)}). Must be called before the game is
+	 * started.
+	 *
+	 * @throws IOException
+	 *             if the adventures directory cannot be watched
+	 */
+	public void watch() throws IOException {
+		watcher = new WorldWatcher(new File(growDir, ADVENTURES), this::readWorldSnapshot);
+	}
+
+	/**
+	 * Effect: tells the watch, if there is one, that the file of an adventure
+	 * is the same as the game, because it was just read or saved.
+	 *
+	 * @param g
+	 *            the adventure
+	 */
+	private void follow(Game g) {
+		if (watcher != null) {
+			watcher.follow(g.name());
+		}
+	}
+
+	/**
+	 * Effect: if the file of the adventure is being watched, applies the
+	 * changes made to it by something else since the last turn, and tells the
+	 * player about them, or about a problem with the changed file. Scenes
+	 * which were changed both in the file and in the game since it was last
+	 * saved take the version in the file. Must be called between turns, on
+	 * the game thread.
+	 *
+	 * @param world
+	 *            the game
+	 * @param output
+	 *            the output
+	 */
+	public void reload(Game world, Output output) {
+		if (watcher == null) {
+			return;
+		}
+		String problem = watcher.takeProblem();
+		if (problem != null) {
+			output.error(problem);
+		}
+		WorldWatcher.Reload r = watcher.take();
+		if (r == null || !r.adventureName().equals(world.name())) {
+			return;
+		}
+		try {
+			boolean kept = world.replaceScenes(r.start(), r.changed(), r.removed());
+			output.println(String.format("The adventure was changed: %d scenes reloaded, %d removed.", r.changed().size(), r.removed().size()));
+			if (!kept) {
+				output.println("The scene you were in was removed, so you are back at the start.");
+			}
+		} catch (NoSuchScene e) {
+			output.error("The changed adventure was not loaded, because its start scene does not exist: " + r.start());
+		}
+	}
+
 	/**
 	 * @return an action which prompts the user to pick a new story, and then
 	 *         opens that story.
 	 */
 	public Action readAction() {
-		return new Action() {
+		return new InteractiveAction() {
+			@Override
+			public String name() {
+				return "ChangeStory";
+			}
+
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+			public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
 				return Util.handleCancel(current, output, () -> {
-					Scene modCurrent = current;
 					// Save the current game fist
-					modCurrent = saveAction().act(modCurrent, world, input, output, injector);
+					save(world, output);
 
-					List<File> files = new ArrayList<>();
-					int count = 1;
-					for (File f : new File(growDir, ADVENTURES).listFiles((f) -> f.getName().endsWith(".zip"))) {
-						files.add(f);
-						output.printf("%-5s %s", Integer.toString(count++), f.getName().substring(0, f.getName().lastIndexOf('.')));
+					List<String> names = new ArrayList<>();
+					for (Catalog.Entry e : catalog.adventures()) {
+						names.add(e.name());
+						output.printf("%-5s %-30s %s", Integer.toString(names.size()), e.name(), describe(e));
 						output.println();
 					}
 					output.println();
-					int num = Util.readInt(output, input, "Adventure #:", "Bad story number!", 1, files.size()) - 1;
-					String adventureName = files.get(num).getName();
-					adventureName = adventureName.substring(0, adventureName.lastIndexOf('.'));
-					try {
-						modCurrent = new Read(readAdventureState(adventureName), readAdventure(adventureName)).act(modCurrent, world, input, output, injector);
-					} catch (IOException e) {
-						output.println("Error read adventure: " + e.getMessage());
-						return modCurrent;
-					}
-
-					// Look for any associated images
-					// world.
-					linkMedia(world);
-					return new Go(modCurrent.name()).act(modCurrent, world, input, output, injector);
+					return Util.readInt(output, "Adventure #:", "Bad story number!", 1, names.size(), (number) -> {
+						String adventureName = names.get(number - 1);
+						Game next = cache.take(adventureName, stamp(adventureName));
+						if (next == null) {
+							try (InputStream adventure = readAdventure(adventureName); InputStream state = readAdventureState(adventureName)) {
+								next = Game.parseGame(state == null ? null : new Scanner(state), new Scanner(adventure));
+							} catch (IOException e) {
+								output.error("Error read adventure: " + e.getMessage());
+								return Dialog.finish(current);
+							} catch (GrowException e) {
+								output.error(String.format("Problem with reading state or adventure (%s): %s", adventureName, e.getMessage()));
+								return Dialog.finish(current);
+							}
+							// Look for any associated images
+							linkMedia(next);
+							linkVocabulary(next, output);
+						}
+						play(world, next);
+						follow(world);
+						Scene modCurrent = world.current();
+						return new Go(modCurrent.name()).begin(modCurrent, world, output, injector);
+					});
 				});
 			}
 		};
 	}
 
+	/**
+	 * @param e
+	 *            an adventure in the catalog
+	 * @return its number of scenes, its size, and when it was last played,
+	 *         for the list of adventures
+	 */
+	private static String describe(Catalog.Entry e) {
+		String scenes = e.scenes() < 0 ? "? scenes" : e.scenes() == 1 ? "1 scene" : e.scenes() + " scenes";
+		String played = e.played() == 0 ? "never played" : new SimpleDateFormat("'played' yyyy-MM-dd HH:mm").format(new Date(e.played()));
+		String state = e.hasState() ? "" : ", no saved state";
+		return String.format("%s, %.1f KB, %s%s", scenes, e.size() / 1024.0, played, state);
+	}
+
+	/**
+	 * Effect: starts playing another adventure, and keeps the one which was
+	 * being played, which must have just been saved, in the cache of recently
+	 * played adventures.
+	 *
+	 * @param world
+	 *            the game
+	 * @param next
+	 *            the adventure to play, which is used up
+	 */
+	private void play(Game world, Game next) {
+		if (next.name().equals(world.name())) {
+			world.loadGame(next);
+		} else {
+			long stamp = stamp(world.name());
+			world.swap(next);
+			cache.put(next, stamp);
+		}
+	}
+
+	/**
+	 * @param adventureName
+	 *            the name of an adventure
+	 * @return a stamp of the adventure and state files, which changes when
+	 *         either of them does: their sizes and the times they were
+	 *         modified, to the nanosecond where the file system keeps it, and
+	 *         the checksum of the world file which the ZIP file keeps in its
+	 *         directory, which catches a change to the world which keeps the
+	 *         size and the time on a file system which only keeps the time to
+	 *         the second or so. Nothing but the directory of the ZIP file is
+	 *         read.
+	 */
+	long stamp(String adventureName) {
+		File adventure = adventureFile(adventureName);
+		File state = new File(new File(growDir, ADVENTURE_STATE), adventureName + "_state.txt");
+		long stamp = 1;
+		try {
+			for (File f : new File[] { adventure, state }) {
+				if (f.isFile()) {
+					stamp = 31 * stamp + f.length();
+					stamp = 31 * stamp + Files.getLastModifiedTime(f.toPath()).to(TimeUnit.NANOSECONDS);
+				} else {
+					stamp = 31 * stamp - 1;
+				}
+			}
+			if (adventure.isFile()) {
+				try (ZipFile zip = new ZipFile(adventure)) {
+					ZipEntry world = zip.getEntry(adventureName + "/" + adventureName + "_world.txt");
+					stamp = 31 * stamp + (world == null ? -1 : world.getCrc());
+				}
+			}
+		} catch (IOException e) {
+			// Other stamps are never negative, so this matches nothing, and the
+			// adventure is read again
+			return --unreadable;
+		}
+		return stamp & Long.MAX_VALUE;
+	}
+
 	/**
 	 * Effect: searches for images for all the scenes in the game and links them
 	 * to the scenes in the game.
@@ -535,7 +803,11 @@ public class SaveManager {
 			try {
 				// Throws a no such file exception if there is no image.
 				InputStream imageStream = readImage(g.name(), s + ".jpeg");
-				scenes.get(s).setImage(new Image(imageStream));
+				MediaDecodeEvent event = new MediaDecodeEvent();
+				event.begin();
+				Image image = new Image(imageStream);
+				event.commit(s, false, image.getWidth(), image.getHeight());
+				scenes.get(s).setImage(image);
 				imageStream.close();
 			} catch (IOException e) {
 			}
@@ -544,7 +816,9 @@ public class SaveManager {
 
 	/**
 	 * Effect: saves an image so that it is associated with the specified scene
-	 * in the game.
+	 * in the game. The image is made small enough to show (see
+	 * {@link ImageIngest#MAX_SIZE}), and the scene gets the image which was
+	 * saved.
 	 *
 	 * @param s
 	 *            the scene
@@ -568,31 +842,41 @@ public class SaveManager {
 			return true;
 		}
 
-		try {
-			BufferedImage buff = SwingFXUtils.fromFXImage(i, null);
-			if (buff == null) {
-				return false;
-			}
-			OutputStream imageOut = writeImage(g.name(), s.name() + ".jpeg");
-			boolean success = ImageIO.write(buff, "JPEG", imageOut);
-			imageOut.close();
-			if (!success) {
-				return false;
-			}
-		} catch (IOException e) {
+		BufferedImage buff = SwingFXUtils.fromFXImage(i, null);
+		if (buff == null) {
 			return false;
 		}
-
 		try {
-			InputStream in = readImage(g.name(), s.name() + ".jpeg");
-			s.setImage(new Image(in));
-			in.close();
+			BufferedImage fit = ImageIngest.fit(buff, ImageIngest.MAX_SIZE);
+			saveImage(s, g, ImageIngest.encode(s.name(), fit), fit == buff ? i : SwingFXUtils.toFXImage(fit, null));
 		} catch (IOException e) {
-			e.printStackTrace();
+			return false;
 		}
 		return true;
 	}
 
+	/**
+	 * Effect: writes the JPEG of the image of a scene into the adventure, and
+	 * gives the scene the image.
+	 *
+	 * @param s
+	 *            the scene
+	 * @param g
+	 *            the game
+	 * @param jpeg
+	 *            the image, encoded as a JPEG
+	 * @param image
+	 *            the same image, decoded
+	 * @throws IOException
+	 *             if the image cannot be written
+	 */
+	private void saveImage(Scene s, Game g, byte[] jpeg, Image image) throws IOException {
+		try (OutputStream imageOut = writeImage(g.name(), s.name() + ".jpeg")) {
+			imageOut.write(jpeg);
+		}
+		s.setImage(image);
+	}
+
 	/**
 	 * Effect: searches for sounds for all the scenes in the game and links them
 	 * to the scenes in the game.
@@ -692,30 +976,131 @@ public class SaveManager {
 	}
 
 	/**
-	 * Links the images and the sounds
+	 * @param adventureName
+	 *            the name of an adventure
+	 * @return the size of each image and sound file stored in the adventure
+	 *         file, in bytes, by file name
+	 * @throws IOException
+	 *             if there is a problem reading the adventure file
+	 */
+	public Map<String, Long> mediaSizes(String adventureName) throws IOException {
+		Map<String, Long> sizes = new HashMap<>();
+		ZipLocker zip = new ZipLocker(adventureFile(adventureName));
+		try {
+			for (String file : zip.listFiles()) {
+				String extension = file.substring(file.lastIndexOf('.') + 1);
+				if (extension.equals("jpeg") || SOUND_FILES.contains(extension)) {
+					sizes.put(file, zip.size(file));
+				}
+			}
+		} finally {
+			zip.close();
+		}
+		return sizes;
+	}
+
+	/**
+	 * @return an action which checks the current adventure for problems (see
+	 *         {@link Lint})
+	 */
+	public Action lintAction() {
+		return new Action() {
+			@Override
+			public String name() {
+				return "Lint";
+			}
+
+			@Override
+			public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
+				Map<String, Long> media;
+				try {
+					media = mediaSizes(world.name());
+				} catch (IOException e) {
+					output.error("Problem reading the media: " + e.getMessage());
+					media = Collections.emptyMap();
+				}
+				Lint.print(world, media, Lint.MAX_MEDIA, output);
+				return current;
+			}
+		};
+	}
+
+	/**
+	 * Effect: links the images and the sounds stored in the adventure file of
+	 * {@code g} to the scenes in {@code g}.
 	 *
 	 * @param g
 	 *            the game
 	 */
-	private void linkMedia(Game g) {
+	public void linkMedia(Game g) {
 		linkImages(g);
 		linkSounds(g);
 	}
 
+	/**
+	 * Effect: reads the vocabulary stored in the adventure file of {@code g}
+	 * and gives it to {@code g}. If there is no vocabulary, {@code g} gets the
+	 * empty one; if the vocabulary is not valid, the problem is reported, and
+	 * {@code g} gets the empty one too.
+	 *
+	 * @param g
+	 *            the game
+	 * @param output
+	 *            the output, for errors
+	 */
+	public void linkVocabulary(Game g, Output output) {
+		try {
+			g.setVocabulary(readVocabulary(g.name()));
+		} catch (IOException | SyntaxError e) {
+			output.error("Problem reading the vocabulary: " + e.getMessage());
+			g.setVocabulary(Vocabulary.EMPTY);
+		}
+	}
+
+	/**
+	 * Reads the vocabulary stored in an adventure file.
+	 *
+	 * @param adventureName
+	 *            the name of the adventure
+	 * @return the vocabulary, or the empty vocabulary if there is none
+	 * @throws IOException
+	 *             if there is a problem reading it
+	 * @throws SyntaxError
+	 *             if it is not valid
+	 */
+	private Vocabulary readVocabulary(String adventureName) throws IOException, SyntaxError {
+		InputStream in;
+		try {
+			in = readImage(adventureName, Vocabulary.FILE);
+		} catch (NoSuchFileException e) {
+			return Vocabulary.EMPTY;
+		}
+		try (Scanner words = new Scanner(in)) {
+			return Vocabulary.parse(words);
+		}
+	}
+
 	/**
 	 * @return an action which prompts the user to create a new story and saves
 	 *         the new story.
 	 */
 	public Action newAction() {
-		return new Action() {
+		return new InteractiveAction() {
+			@Override
+			public String name() {
+				return "New";
+			}
+
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+			public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
 				// Save the current game fist
-				current = saveAction().act(current, world, input, output, injector);
+				save(world, output);
 
-				world.loadGame(newGame(input, output));
-				current = saveAction().act(current, world, input, output, injector);
-				return new Go(world.start().name()).act(current, world, input, output, injector);
+				return newGame(output, (game) -> {
+					play(world, game);
+					save(world, output);
+					return new Go(world.start().name()).begin(current, world, output, injector);
+				});
 			}
 		};
 	}
@@ -727,105 +1112,246 @@ public class SaveManager {
 	 * @return the import action
 	 */
 	public Action importAction() {
-		return new Action() {
+		return new InteractiveAction() {
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
-				File adventureZip;
-				try {
-					adventureZip = new File(new URI(input.nextLine()));
-				} catch (URISyntaxException e2) {
-					output.println("Bad URI Syntax: " + e2.getMessage());
-					return current;
-				}
+			public String name() {
+				return "ImportAdventure";
+			}
 
-				Set<String> fileNames = adventureFileNames();
-				// Remove the trailing .zip
-				if (!adventureZip.getName().endsWith(".zip") || !adventureZip.exists()) {
-					output.println("Bad file!");
-					return current;
-				}
-				String baseName = adventureZip.getName().substring(0, adventureZip.getName().length() - ".zip".length());
-				String genName = baseName;
-				int v = 1;
-				// Only worry about version numbers if the base name exists
-				if (fileNames.contains(genName + ".zip")) {
-					Matcher m = Pattern.compile(".*_v(\\d+)$").matcher(baseName);
-					if (m.matches()) {
-						v = Integer.parseInt(m.group(1));
-						// Remove the version number
-						baseName = baseName.substring(0, baseName.length() - m.group(1).length() - "_v".length());
+			@Override
+			public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
+				return (uri) -> {
+					File adventureZip;
+					try {
+						adventureZip = new File(new URI(uri));
+					} catch (URISyntaxException e2) {
+						output.error("Bad URI Syntax: " + e2.getMessage());
+						return Dialog.finish(current);
 					}
-				}
-				while (fileNames.contains(genName + ".zip")) {
-					genName = baseName + "_v" + (++v);
-				}
 
-				String fileName = adventureZip.getName();
-				while (fileNames.contains(fileName)) {
-					output.println("You already have an adventure called " + fileName.substring(0, fileName.length() - ".zip".length()));
-					output.println("What would you like to rename the adventure to? (Hit enter for " + genName + ")");
-					fileName = input.nextLine();
-					if (fileName.length() == 0) {
-						fileName = genName + ".zip";
-					} else {
-						fileName += ".zip";
+					Set<String> fileNames = adventureFileNames();
+					// Remove the trailing .zip
+					if (!adventureZip.getName().endsWith(".zip") || !adventureZip.exists()) {
+						output.error("Bad file!");
+						return Dialog.finish(current);
+					}
+					String baseName = adventureZip.getName().substring(0, adventureZip.getName().length() - ".zip".length());
+					String genName = baseName;
+					int v = 1;
+					// Only worry about version numbers if the base name exists
+					if (fileNames.contains(genName + ".zip")) {
+						Matcher m = Pattern.compile(".*_v(\\d+)$").matcher(baseName);
+						if (m.matches()) {
+							v = Integer.parseInt(m.group(1));
+							// Remove the version number
+							baseName = baseName.substring(0, baseName.length() - m.group(1).length() - "_v".length());
+						}
+					}
+					while (fileNames.contains(genName + ".zip")) {
+						genName = baseName + "_v" + (++v);
 					}
-				}
 
-				String newAdventureName = fileName.substring(0, fileName.length() - ".zip".length());
+					return pickName(adventureZip.getName(), genName, fileNames, current, world, output, injector, adventureZip);
+				};
+			}
 
-				ZipLocker zip = null;
-				ZipLocker original = null;
+			/**
+			 * Effect: asks the user to rename the adventure until it has a
+			 * name which is not taken, and then imports it.
+			 *
+			 * @param fileName
+			 *            the current file name
+			 * @param genName
+			 *            the generated name to use if the user hits enter
+			 * @param fileNames
+			 *            the names which are taken
+			 * @param current
+			 *            the current scene
+			 * @param world
+			 *            the world
+			 * @param output
+			 *            the output
+			 * @param injector
+			 *            the injector
+			 * @param adventureZip
+			 *            the zip file to import
+			 * @return the dialog which imports the adventure
+			 */
+			private Dialog pickName(String fileName, String genName, Set<String> fileNames, Scene current, Game world, Output output, Consumer<String> injector, File adventureZip) {
+				if (!fileNames.contains(fileName)) {
+					return importAdventure(fileName, current, world, output, injector, adventureZip);
+				}
+				output.println("You already have an adventure called " + fileName.substring(0, fileName.length() - ".zip".length()));
+				output.prompt("What would you like to rename the adventure to? (Hit enter for " + genName + ")");
+				return (line) -> pickName(line.length() == 0 ? genName + ".zip" : line + ".zip", genName, fileNames, current, world, output, injector, adventureZip);
+			}
 
-				try {
-					zip = new ZipLocker(adventureFile(newAdventureName));
-					original = new ZipLocker(adventureZip);
-					zip.copy(original);
-					original.close();
-					try {
-						String originalStoryName = adventureZip.getName().substring(0, adventureZip.getName().length() - ".zip".length()) + "_world.txt";
-						if (!originalStoryName.equals(newAdventureName + "_world.txt")) {
-							InputStream i = zip.read(originalStoryName);
-							OutputStream o = zip.write(newAdventureName + "_world.txt");
-							int r;
-							// Copy the file
-							while ((r = i.read()) != -1) {
-								o.write(r);
-							}
-							i.close();
-							o.close();
-							zip.delete(originalStoryName);
-						} else {
-							// Just make sure the file exists
-							zip.read(originalStoryName).close();
+			/**
+			 * Effect: starts importing the adventure with the specified name
+			 * in the background. The game switches to it at the start of the
+			 * first turn after it is done (see
+			 * {@link SaveManager#finishImports(Game, Output)}).
+			 *
+			 * @param fileName
+			 *            the name of the new adventure file
+			 * @param current
+			 *            the current scene
+			 * @param world
+			 *            the world
+			 * @param output
+			 *            the output
+			 * @param injector
+			 *            the injector
+			 * @param adventureZip
+			 *            the zip file to import
+			 * @return the finished dialog
+			 */
+			private Dialog importAdventure(String fileName, Scene current, Game world, Output output, Consumer<String> injector, File adventureZip) {
+				String newAdventureName = fileName.substring(0, fileName.length() - ".zip".length());
+				AdventureImport job = new AdventureImport(adventureZip, adventureFile(newAdventureName), newAdventureName, importProgress, (g) -> {
+					linkMedia(g);
+					try (InputStream state = readAdventureState(g.name())) {
+						if (state != null) {
+							g.loadState(new Scanner(state));
 						}
-					} catch (NoSuchFileException e1) {
-						output.println("Invalid ZIP file!");
-						return current;
-					}
-				} catch (IOException e) {
-					output.println("Problem importing");
-					return current;
-				} finally {
-					try {
-						zip.close();
-					} catch (IOException e) {
-						output.println("Problem closing ZIP file: " + e.getMessage());
-						return current;
 					}
+				});
+				imports.add(job);
+				importer().execute(job);
+				output.println("Importing " + newAdventureName + ". You can keep playing; the game will switch to it once it is ready.");
+				return Dialog.finish(current);
+			}
+		};
+	}
+
+	/**
+	 * @return the thread which imports adventures and images, which is started
+	 *         the first time it is needed
+	 */
+	private ExecutorService importer() {
+		if (importer == null) {
+			importer = Executors.newSingleThreadExecutor((r) -> {
+				Thread t = new Thread(r, "grow-import");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return importer;
+	}
+
+	/**
+	 * Effect: sets what shows the progress of the adventures and images which
+	 * are being imported. Must be called before any are imported.
+	 *
+	 * @param progress
+	 *            shows the progress
+	 */
+	public void setImportProgress(ImportProgress progress) {
+		importProgress = progress;
+	}
+
+	/**
+	 * Effect: tells the player about each of the adventures which are done
+	 * being imported, and switches to the last one which worked, after saving
+	 * the current adventure. The others are in the list of adventures to
+	 * change to. Must be called between turns, on the game thread.
+	 *
+	 * @param world
+	 *            the game
+	 * @param output
+	 *            the output
+	 * @return true if the game switched to another adventure
+	 */
+	public boolean finishImports(Game world, Output output) {
+		Game next = null;
+		int imported = 0;
+		for (Iterator<AdventureImport> i = imports.iterator(); i.hasNext();) {
+			AdventureImport job = i.next();
+			if (job.done()) {
+				i.remove();
+				if (job.result() == null) {
+					output.error("Problem importing " + job.name() + ": " + job.problem());
+				} else {
+					output.println("Imported " + job.name() + "!");
+					next = job.result();
+					imported++;
 				}
-				try {
-					current = new Read(readAdventureState(newAdventureName), readAdventure(newAdventureName)).act(current, world, input, output, injector);
-					output.println("Imported adventure!");
-					// Link the images
-					linkMedia(world);
-					// Change the name
-					world.setName(newAdventureName);
-					return new Go(current.name()).act(current, world, input, output, injector);
-				} catch (IOException e) {
-					output.println("Problem reading the new adventure: " + e.getMessage());
-					return current;
+			}
+		}
+		if (next == null) {
+			return false;
+		}
+		save(world, output);
+		linkVocabulary(next, output);
+		play(world, next);
+		catalog.played(world);
+		follow(world);
+		if (imported > 1) {
+			output.println("Playing " + world.name() + "; use :change story to play the others.");
+		}
+		new Go(world.current().name()).begin(world.current(), world, output, Action.EMPTY_INJECTOR);
+		return true;
+	}
+
+	/**
+	 * Effect: writes the images which are done being imported into their
+	 * adventures, and gives them to their scenes, if the scenes are in the
+	 * adventure being played. Must be called between turns, on the game
+	 * thread, since it writes the adventure files.
+	 *
+	 * @param world
+	 *            the game
+	 * @param output
+	 *            the output
+	 */
+	public void finishImages(Game world, Output output) {
+		for (Iterator<ImageIngest> i = images.iterator(); i.hasNext();) {
+			ImageIngest job = i.next();
+			if (!job.done()) {
+				continue;
+			}
+			i.remove();
+			if (job.image() == null) {
+				output.error("Problem importing the image of " + job.sceneName() + ": " + job.problem());
+				continue;
+			}
+			Scene s = world.name().equals(job.adventureName()) ? world.scenes().get(job.sceneName()) : null;
+			if (s == null) {
+				output.error("Problem importing the image of " + job.sceneName() + ": the scene is no longer there.");
+				continue;
+			}
+			try {
+				saveImage(s, world, job.jpeg(), job.image());
+				output.println("Imported image!");
+			} catch (IOException e) {
+				output.error("Failed to save image!");
+			}
+		}
+	}
+
+	/**
+	 * @return an action which tells the player how the adventures and images
+	 *         which are being imported are going
+	 */
+	public Action importStatusAction() {
+		return new Action() {
+			@Override
+			public String name() {
+				return "ImportStatus";
+			}
+
+			@Override
+			public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
+				if (imports.isEmpty() && images.isEmpty()) {
+					output.println("Nothing is being imported.");
+				}
+				for (AdventureImport job : imports) {
+					output.println(String.format("Importing %s: %.0f%%", job.name(), 100 * job.fraction()));
+				}
+				for (ImageIngest job : images) {
+					output.println("Importing the image of " + job.sceneName());
 				}
+				return current;
 			}
 		};
 	}
@@ -834,38 +1360,53 @@ public class SaveManager {
 	 * @return an action to import music
 	 */
 	public Action importMusic() {
-		return new Action() {
+		return new InteractiveAction() {
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
-				try {
-					if (!saveSound(current, world, new URI(input.nextLine()))) {
-						output.println("Failed to import music.");
+			public String name() {
+				return "ImportMusic";
+			}
+
+			@Override
+			public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
+				return (line) -> {
+					try {
+						if (!saveSound(current, world, new URI(line))) {
+							output.error("Failed to import music.");
+						}
+					} catch (URISyntaxException e) {
+						output.error("Bad URI syntax: " + e.getMessage());
 					}
-				} catch (URISyntaxException e) {
-					output.println("Bad URI syntax: " + e.getMessage());
-				}
-				return current;
+					return Dialog.finish(current);
+				};
 			}
 		};
 	}
 
 	/**
-	 * @return an action to import pictures
+	 * @return an action to import pictures, which are decoded and encoded in
+	 *         the background, and given to the scene at the start of the first
+	 *         turn after they are ready (see
+	 *         {@link #finishImages(Game, Output)})
 	 */
 	public Action importPicture() {
-		return new Action() {
+		return new InteractiveAction() {
+			@Override
+			public String name() {
+				return "ImportImage";
+			}
 
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
-				try {
-					Image i = new Image(new URI(input.nextLine()).toURL().toString());
-					if (!saveImage(current, world, i)) {
-						output.println("Failed to save image!");
+			public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
+				return (line) -> {
+					try {
+						ImageIngest job = new ImageIngest(new URI(line).toURL(), world.name(), current.name(), importProgress);
+						images.add(job);
+						importer().execute(job);
+					} catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+						output.error("Error importing image!");
 					}
-				} catch (MalformedURLException | URISyntaxException e) {
-					output.println("Error importing image!");
-				}
-				return current;
+					return Dialog.finish(current);
+				};
 			}
 		};
 	}
@@ -875,9 +1416,13 @@ public class SaveManager {
 	 */
 	public Action clearMusic() {
 		return new Action() {
+			@Override
+			public String name() {
+				return "ClearMusic";
+			}
 
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+			public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 				saveSound(current, world, null);
 				return current;
 			}
@@ -889,9 +1434,13 @@ public class SaveManager {
 	 */
 	public Action clearImage() {
 		return new Action() {
+			@Override
+			public String name() {
+				return "ClearImage";
+			}
 
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+			public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 				saveImage(current, world, null);
 				return current;
 			}
@@ -910,41 +1459,71 @@ public class SaveManager {
 	}
 
 	/**
-	 * Creates: a new game
+	 * Reads an adventure, its vocabulary, and its state if it has been saved.
+	 * The media are not linked.
+	 *
+	 * @param adventureName
+	 *            the adventure name
+	 * @return the game
+	 * @throws IOException
+	 *             if the adventure cannot be read
+	 * @throws GrowException
+	 *             if the adventure or state is not valid
+	 */
+	public Game readGame(String adventureName) throws IOException, GrowException {
+		InputStream state = readAdventureState(adventureName);
+		try (InputStream adventure = readAdventure(adventureName)) {
+			Game g = Game.parseGame(state == null ? null : new Scanner(state), new Scanner(adventure));
+			g.setVocabulary(readVocabulary(adventureName));
+			return g;
+		} finally {
+			if (state != null) {
+				state.close();
+			}
+		}
+	}
+
+	/**
+	 * Creates: a dialog which asks the user to name a new game
 	 *
-	 * @param input
-	 *            the input stream for user input
 	 * @param output
 	 *            the output stream for user input
-	 * @return the new game
+	 * @param then
+	 *            the rest of the dialog, which gets the new game
+	 * @return the dialog
 	 */
-	private Game newGame(Scanner input, PrintStream output) {
+	private Dialog newGame(Output output, Util.Then<Game> then) {
 		Set<String> fileNames = adventureFileNames();
 		String fileName;
 		do {
 			fileName = "story_" + randomAlphNum() + randomAlphNum() + randomAlphNum() + randomAlphNum() + randomAlphNum() + randomAlphNum();
 		} while (fileNames.contains(fileName + ".zip"));
-		output.println("What would you like to name your story (hit enter for " + fileName + ")?");
-		String line = "";
-		while (true) {
-			line = input.nextLine();
-			if (fileNames.contains(line + ".zip")) {
-				output.println("That name is already taken. Pick a different name or hit enter.");
-			} else {
-				break;
+		output.prompt("What would you like to name your story (hit enter for " + fileName + ")?");
+		String generated = fileName;
+		return new Dialog() {
+			@Override
+			public Dialog feed(String line) throws CanceledException {
+				if (fileNames.contains(line + ".zip")) {
+					output.error("That name is already taken. Pick a different name or hit enter.");
+					return this;
+				}
+				return then.then(new Game(new Scene("start", "Welcome to grow! Your world is empty :(. But, you can fill it with stuff! To get started, type \":help\"!"),
+						line.length() == 0 ? generated : line));
 			}
-		}
-		fileName = line.length() == 0 ? fileName : line;
-		return new Game(new Scene("start", "Welcome to grow! Your world is empty :(. But, you can fill it with stuff! To get started, type \":help\"!"), fileName);
+		};
 	}
 
 	/**
-	 * @return the names of all the existing adventures.
+	 * @return the file names of all the existing adventures, and of those
+	 *         being imported.
 	 */
 	private Set<String> adventureFileNames() {
 		Set<String> fileNames = new HashSet<>();
-		for (File f : new File(growDir, ADVENTURES).listFiles()) {
-			fileNames.add(f.getName());
+		for (String name : catalog.names()) {
+			fileNames.add(name + ".zip");
+		}
+		for (AdventureImport job : imports) {
+			fileNames.add(job.name() + ".zip");
 		}
 		return fileNames;
 	}
@@ -953,8 +1532,8 @@ public class SaveManager {
 	 * @return a random character, chosen from the numerals, the upppercase
 	 *         letters, and the lowercase letters.
 	 */
-	private static char randomAlphNum() {
-		int x = (int) (Math.random() * 62);
+	private char randomAlphNum() {
+		int x = random.nextInt(62);
 		if (x < 26) {
 			return (char) ('a' + x);
 		} else if (x < 52) {
@@ -970,7 +1549,12 @@ public class SaveManager {
 	public Action quitAction() {
 		return new Action() {
 			@Override
-			public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+			public String name() {
+				return "Quit";
+			}
+
+			@Override
+			public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 				// Save the current game fist
 				current = saveAction().act(current, world, input, output, injector);
 				try {
@@ -978,11 +1562,11 @@ public class SaveManager {
 					currentFile.println(world.name());
 					currentFile.close();
 				} catch (FileNotFoundException e) {
-					output.println("Something strange has happened!");
+					output.error("Something strange has happened!");
 					e.printStackTrace(output);
 					output.println("When you start up the program next time, it may not remember where you left off. Please send the above information to the developer.");
 				}
-				return new Quit().act(current, world, input, output, injector);
+				return Quit.INSTANCE.act(current, world, input, output, injector);
 			}
 		};
 	}
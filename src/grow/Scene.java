@@ -2,10 +2,14 @@ package grow;
 
 import java.io.PrintStream;
 import java.net.URI;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 
 import grow.action.Action;
+import grow.match.LinearMatcher;
+import grow.metrics.RuleMatchEvent;
 import javafx.scene.image.Image;
 
 /**
@@ -16,6 +20,85 @@ import javafx.scene.image.Image;
  */
 public class Scene {
 
+	/**
+	 * Represents: something which is told about the patterns and actions which
+	 * are added to and removed from the rules of a scene through
+	 * {@link Scene#addRule(Rule)}, {@link Scene#removeRule(int)},
+	 * {@link Scene#addPattern(Rule, String)},
+	 * {@link Scene#removePattern(Rule, String)},
+	 * {@link Scene#addAction(Rule, Action)}, and
+	 * {@link Scene#removeAction(Rule, int)}. Adding or removing a rule tells
+	 * the listener about each of its patterns and actions. Each method does
+	 * nothing by default.
+	 *
+	 * @author Jacob Glueck
+	 */
+	public interface Listener {
+		/**
+		 * Effect: handles a pattern which was added.
+		 *
+		 * @param s
+		 *            the scene
+		 * @param r
+		 *            the rule
+		 * @param pattern
+		 *            the pattern
+		 */
+		default void patternAdded(Scene s, Rule r, String pattern) {
+		}
+
+		/**
+		 * Effect: handles a pattern which was removed.
+		 *
+		 * @param s
+		 *            the scene
+		 * @param r
+		 *            the rule
+		 * @param pattern
+		 *            the pattern
+		 */
+		default void patternRemoved(Scene s, Rule r, String pattern) {
+		}
+
+		/**
+		 * Effect: handles an action which was added.
+		 *
+		 * @param s
+		 *            the scene
+		 * @param r
+		 *            the rule
+		 * @param a
+		 *            the action
+		 */
+		default void actionAdded(Scene s, Rule r, Action a) {
+		}
+
+		/**
+		 * Effect: handles an action which was removed.
+		 *
+		 * @param s
+		 *            the scene
+		 * @param r
+		 *            the rule
+		 * @param a
+		 *            the action
+		 */
+		default void actionRemoved(Scene s, Rule r, Action a) {
+		}
+	}
+
+	/**
+	 * True if the rules are matched with {@link LinearMatcher}. Set by the
+	 * system property {@code grow.match.linear}; false by default.
+	 */
+	private static volatile boolean linear = Boolean.getBoolean("grow.match.linear");
+	/**
+	 * True if misspelled words are corrected when no rule matches (see
+	 * {@link #correct(TurnInput)}). Set by the system property
+	 * {@code grow.match.fuzzy}; false by default.
+	 */
+	private static volatile boolean fuzzy = Boolean.getBoolean("grow.match.fuzzy");
+
 	/**
 	 * The name of this scene.
 	 */
@@ -27,7 +110,8 @@ public class Scene {
 	private String description;
 
 	/**
-	 * The action map for this scene
+	 * The action map for this scene, in an array, so that rules can be found by
+	 * number and tried in order without following links
 	 */
 	private final List<Rule> rules;
 
@@ -51,6 +135,26 @@ public class Scene {
 	 */
 	private boolean soundChanged;
 
+	/**
+	 * The matcher for the rules, or null if it has not been made yet or the
+	 * rules have been changed since
+	 */
+	private SceneMatcher matcher;
+	/**
+	 * The index of the words of the patterns, or null if it has not been made
+	 * yet
+	 */
+	private SceneWords words;
+	/**
+	 * The listeners which are told about changes to the rules
+	 */
+	private final List<Listener> listeners;
+	/**
+	 * The ID of this scene in the game it is in (see {@link Game#id(String)}),
+	 * or -1 if it is not in a game
+	 */
+	private int id;
+
 	/**
 	 * Creates: a new scene with no actions with the specified name and an empty
 	 * action map.
@@ -65,7 +169,9 @@ public class Scene {
 	 */
 	public Scene(String name, String description, Image image) {
 		this.name = name;
-		rules = new LinkedList<>();
+		rules = new ArrayList<>();
+		listeners = new ArrayList<>(1);
+		id = -1;
 		this.description = description;
 		setImage(image);
 		setSound(null);
@@ -164,6 +270,24 @@ public class Scene {
 		return name;
 	}
 
+	/**
+	 * @return the ID of this scene in the game it is in, or -1 if it is not in
+	 *         a game
+	 */
+	int id() {
+		return id;
+	}
+
+	/**
+	 * Effect: sets the ID of this scene in the game it is in.
+	 *
+	 * @param id
+	 *            the ID
+	 */
+	void setId(int id) {
+		this.id = id;
+	}
+
 	/**
 	 * @return the text to be displayed when the user first enters the room.
 	 */
@@ -183,21 +307,125 @@ public class Scene {
 
 	/**
 	 * Determines the action that should occur based on the user input. Returns
-	 * null if no actions match.
+	 * null if no actions match. If linear matching is on (see
+	 * {@link #setLinear(boolean)}), the patterns which {@link LinearMatcher}
+	 * supports are all tried at once, first, and only the other patterns are
+	 * tried with {@link java.util.regex}; either way, the first rule which
+	 * matches is the same.
 	 *
 	 * @param input
 	 *            the input.
 	 * @return the action that should occur, or null if no action would occur.
 	 */
 	public List<Action> act(String input) {
-		for (Rule r : rules) {
-			if (r.matches(input)) {
-				return r.toDo();
+		return act(TurnInput.local(input));
+	}
+
+	/**
+	 * Just like {@link #act(String)}, but for input which has already been
+	 * normalized, so that it can be shared by every scene which tries to match
+	 * it.
+	 *
+	 * @param input
+	 *            the input.
+	 * @return the action that should occur, or null if no action would occur.
+	 */
+	public List<Action> act(TurnInput input) {
+		Rule r = match(input);
+		return r == null ? null : r.toDo();
+	}
+
+	/**
+	 * Just like {@link #act(TurnInput)}, but finds the rule which matches the
+	 * input, rather than its actions.
+	 *
+	 * @param input
+	 *            the input.
+	 * @return the first rule which matches, or null if none do.
+	 */
+	public Rule match(TurnInput input) {
+		RuleMatchEvent event = new RuleMatchEvent();
+		event.begin();
+		BitSet hits = null;
+		if (linear) {
+			if (matcher == null || !matcher.current(rules)) {
+				matcher = new SceneMatcher(rules);
 			}
+			hits = matcher.hits(input);
 		}
+		int index = 0;
+		int tried = 0;
+		for (; index < rules.size(); index++) {
+			Rule r = rules.get(index);
+			int attempt = hits == null ? r.attempt(input) : r.attempt(input, true, hits.get(index));
+			if (attempt > 0) {
+				event.commit(name, index, tried + attempt);
+				return r;
+			}
+			tried -= attempt;
+		}
+		event.commit(name, -1, tried);
 		return null;
 	}
 
+	/**
+	 * @return true if rules are matched with {@link LinearMatcher}
+	 */
+	public static boolean linear() {
+		return linear;
+	}
+
+	/**
+	 * Effect: sets whether rules are matched with {@link LinearMatcher}, which
+	 * takes time linear in the length of the input, no matter what the
+	 * patterns are. Patterns which it does not support are still matched with
+	 * {@link java.util.regex}.
+	 *
+	 * @param linear
+	 *            true to match rules with {@link LinearMatcher}
+	 */
+	public static void setLinear(boolean linear) {
+		Scene.linear = linear;
+	}
+
+	/**
+	 * @return true if misspelled words are corrected when no rule matches
+	 */
+	public static boolean fuzzy() {
+		return fuzzy;
+	}
+
+	/**
+	 * Effect: sets whether misspelled words are corrected when no rule
+	 * matches, so that the input can be matched again (see
+	 * {@link #correct(TurnInput)}).
+	 *
+	 * @param fuzzy
+	 *            true to correct misspelled words
+	 */
+	public static void setFuzzy(boolean fuzzy) {
+		Scene.fuzzy = fuzzy;
+	}
+
+	/**
+	 * Effect: corrects the misspelled words of the input: each word which is
+	 * not in a pattern of this scene, but is close to a word which is, is
+	 * replaced by it. Words of at least four letters are corrected if they
+	 * are off by one character, and words of at least eight letters if they
+	 * are off by two.
+	 *
+	 * @param input
+	 *            the input
+	 * @return true if any word was corrected, in which case the input should
+	 *         be matched again
+	 */
+	public boolean correct(TurnInput input) {
+		if (words == null || !words.current(rules)) {
+			words = new SceneWords(rules);
+		}
+		return input.replace(words);
+	}
+
 	/**
 	 * @return an unmodifiable view of the action map.
 	 */
@@ -205,6 +433,231 @@ public class Scene {
 		return rules;
 	}
 
+	/**
+	 * Effect: adds a rule to the end of the rules, adds its patterns to the
+	 * index of words used to correct misspelled words, and tells the
+	 * listeners (see {@link Listener}).
+	 *
+	 * @param r
+	 *            the rule
+	 */
+	public void addRule(Rule r) {
+		rules.add(r);
+		matcher = null;
+		for (String pattern : r.patterns()) {
+			added(r, pattern);
+		}
+		for (Listener l : listeners) {
+			for (Action a : r.actions()) {
+				l.actionAdded(this, r, a);
+			}
+		}
+	}
+
+	/**
+	 * Effect: removes a rule, and removes its patterns from the index of words
+	 * used to correct misspelled words, and tells the listeners.
+	 *
+	 * @param index
+	 *            the index of the rule
+	 * @return the rule
+	 */
+	public Rule removeRule(int index) {
+		Rule r = rules.remove(index);
+		forget(r);
+		return r;
+	}
+
+	/**
+	 * Effect: removes some rules at once, moving each of the rules which are
+	 * left at most once, and removes their patterns from the index of words
+	 * used to correct misspelled words, and tells the listeners.
+	 *
+	 * @param indexes
+	 *            the indexes of the rules
+	 * @return the rules which were removed, in order
+	 */
+	public List<Rule> removeRules(Collection<Integer> indexes) {
+		BitSet remove = new BitSet(rules.size());
+		for (int index : indexes) {
+			remove.set(index);
+		}
+		List<Rule> removed = new ArrayList<>(remove.cardinality());
+		int kept = 0;
+		for (int x = 0; x < rules.size(); x++) {
+			if (remove.get(x)) {
+				removed.add(rules.get(x));
+			} else {
+				rules.set(kept++, rules.get(x));
+			}
+		}
+		rules.subList(kept, rules.size()).clear();
+		for (Rule r : removed) {
+			forget(r);
+		}
+		return removed;
+	}
+
+	/**
+	 * Effect: puts the rules in a new order. The patterns and actions do not
+	 * change, so the listeners are not told.
+	 *
+	 * @param order
+	 *            the index of the rule which goes at each index, which must
+	 *            have each index once
+	 */
+	public void reorderRules(List<Integer> order) {
+		Rule.reorder(rules, order);
+		matcher = null;
+	}
+
+	/**
+	 * Effect: removes the patterns of a rule which was removed from the index
+	 * of words, and tells the listeners about its patterns and actions.
+	 *
+	 * @param r
+	 *            the rule
+	 */
+	private void forget(Rule r) {
+		matcher = null;
+		for (String pattern : r.patterns()) {
+			removed(r, pattern);
+		}
+		for (Listener l : listeners) {
+			for (Action a : r.actions()) {
+				l.actionRemoved(this, r, a);
+			}
+		}
+	}
+
+	/**
+	 * Effect: adds a pattern to one of the rules, and to the index of words
+	 * used to correct misspelled words, and tells the listeners.
+	 *
+	 * @param r
+	 *            the rule
+	 * @param pattern
+	 *            the pattern
+	 * @return true if the rule did not already have the pattern
+	 */
+	public boolean addPattern(Rule r, String pattern) {
+		boolean added = r.patterns().add(pattern);
+		if (added) {
+			matcher = null;
+			added(r, pattern);
+		}
+		return added;
+	}
+
+	/**
+	 * Effect: removes a pattern from one of the rules, and from the index of
+	 * words used to correct misspelled words, and tells the listeners.
+	 *
+	 * @param r
+	 *            the rule
+	 * @param pattern
+	 *            the pattern
+	 * @return true if the rule had the pattern
+	 */
+	public boolean removePattern(Rule r, String pattern) {
+		boolean removed = r.patterns().remove(pattern);
+		if (removed) {
+			matcher = null;
+			removed(r, pattern);
+		}
+		return removed;
+	}
+
+	/**
+	 * Effect: adds an action to the end of one of the rules, and tells the
+	 * listeners.
+	 *
+	 * @param r
+	 *            the rule
+	 * @param a
+	 *            the action
+	 */
+	public void addAction(Rule r, Action a) {
+		r.actions().add(a);
+		for (Listener l : listeners) {
+			l.actionAdded(this, r, a);
+		}
+	}
+
+	/**
+	 * Effect: removes an action from one of the rules, and tells the
+	 * listeners.
+	 *
+	 * @param r
+	 *            the rule
+	 * @param index
+	 *            the index of the action
+	 * @return the action
+	 */
+	public Action removeAction(Rule r, int index) {
+		Action a = r.actions().remove(index);
+		for (Listener l : listeners) {
+			l.actionRemoved(this, r, a);
+		}
+		return a;
+	}
+
+	/**
+	 * Effect: adds a pattern to the index of words, and tells the listeners.
+	 *
+	 * @param r
+	 *            the rule
+	 * @param pattern
+	 *            the pattern which was added
+	 */
+	private void added(Rule r, String pattern) {
+		if (words != null) {
+			words.add(pattern);
+		}
+		for (Listener l : listeners) {
+			l.patternAdded(this, r, pattern);
+		}
+	}
+
+	/**
+	 * Effect: removes a pattern from the index of words, and tells the
+	 * listeners.
+	 *
+	 * @param r
+	 *            the rule
+	 * @param pattern
+	 *            the pattern which was removed
+	 */
+	private void removed(Rule r, String pattern) {
+		if (words != null) {
+			words.remove(pattern);
+		}
+		for (Listener l : listeners) {
+			l.patternRemoved(this, r, pattern);
+		}
+	}
+
+	/**
+	 * Effect: adds a listener which is told about the patterns and actions
+	 * added to and removed from the rules of this scene.
+	 *
+	 * @param l
+	 *            the listener
+	 */
+	public void addListener(Listener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * Effect: removes a listener.
+	 *
+	 * @param l
+	 *            the listener
+	 */
+	public void removeListener(Listener l) {
+		listeners.remove(l);
+	}
+
 	/**
 	 * Effect: saves this to the specified output stream.
 	 *
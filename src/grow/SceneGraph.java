@@ -0,0 +1,274 @@
+package grow;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import grow.action.Action;
+import grow.action.Go;
+
+/**
+ * Represents: the scenes of a game as a graph, with an edge from one scene to
+ * another for each {@link Go} action in the rules of the first which goes to
+ * the second. Each edge is kept both ways, so the scenes which lead to a scene,
+ * and the rules which do, can be found without looking through every action
+ * of every scene. The graph also keeps the names which {@link Go} actions go
+ * to, but which are not scenes yet (Grow makes them the first time they are
+ * entered).
+ *
+ * The graph is kept up to date one action at a time, by listening to each
+ * scene (see {@link Scene.Listener}), so rules must be changed through the
+ * methods of {@link Scene} for the graph to see the change. Each edge is
+ * counted, so a rule may go to the same scene more than once.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class SceneGraph implements Scene.Listener {
+
+	/**
+	 * The scenes of the game, by name
+	 */
+	private final Map<String, Scene> scenes;
+	/**
+	 * The scenes which are being listened to
+	 */
+	private final Set<Scene> watched;
+	/**
+	 * The number of edges from each scene to each other scene, by name
+	 */
+	private final Map<String, Map<String, Integer>> targets;
+	/**
+	 * The number of edges to each scene from each other scene, by name
+	 */
+	private final Map<String, Map<String, Integer>> sources;
+	/**
+	 * The number of edges to each scene from each rule
+	 */
+	private final Map<String, Map<Rule, Integer>> rules;
+	/**
+	 * The names which are gone to, but are not scenes
+	 */
+	private final Set<String> dangling;
+
+	/**
+	 * Creates: a new graph of the scenes of a game.
+	 *
+	 * @param scenes
+	 *            the scenes of the game, by name. The map is not copied, and
+	 *            each scene which is added to it must also be added to the
+	 *            graph (see {@link #add(Scene)}).
+	 */
+	public SceneGraph(Map<String, Scene> scenes) {
+		this.scenes = scenes;
+		watched = Collections.newSetFromMap(new IdentityHashMap<>());
+		targets = new HashMap<>();
+		sources = new HashMap<>();
+		rules = new HashMap<>();
+		dangling = new HashSet<>();
+		reset();
+	}
+
+	/**
+	 * Effect: stops listening to the scenes, and removes all the edges.
+	 */
+	public void clear() {
+		for (Scene s : watched) {
+			s.removeListener(this);
+		}
+		watched.clear();
+		targets.clear();
+		sources.clear();
+		rules.clear();
+		dangling.clear();
+	}
+
+	/**
+	 * Effect: rebuilds the graph from the scenes of the game, for when they
+	 * have all been replaced.
+	 */
+	public void reset() {
+		clear();
+		for (Scene s : scenes.values()) {
+			add(s);
+		}
+	}
+
+	/**
+	 * Effect: adds the edges of a scene which was just added to the game, and
+	 * starts listening to it.
+	 *
+	 * @param s
+	 *            the scene
+	 */
+	public void add(Scene s) {
+		if (!watched.add(s)) {
+			return;
+		}
+		dangling.remove(s.name());
+		for (Rule r : s.rules()) {
+			for (Action a : r.actions()) {
+				actionAdded(s, r, a);
+			}
+		}
+		s.addListener(this);
+	}
+
+	@Override
+	public void actionAdded(Scene s, Rule r, Action a) {
+		if (!(a instanceof Go)) {
+			return;
+		}
+		String target = ((Go) a).target();
+		count(targets, s.name(), target, 1);
+		count(sources, target, s.name(), 1);
+		count(rules, target, r, 1);
+		if (!scenes.containsKey(target)) {
+			dangling.add(target);
+		}
+	}
+
+	@Override
+	public void actionRemoved(Scene s, Rule r, Action a) {
+		if (!(a instanceof Go)) {
+			return;
+		}
+		String target = ((Go) a).target();
+		count(targets, s.name(), target, -1);
+		count(sources, target, s.name(), -1);
+		count(rules, target, r, -1);
+		if (!sources.containsKey(target)) {
+			dangling.remove(target);
+		}
+	}
+
+	/**
+	 * Effect: changes the count of an edge, and removes it once the count is
+	 * 0.
+	 *
+	 * @param <T>
+	 *            the type of the other end of the edge
+	 * @param edges
+	 *            the edges
+	 * @param from
+	 *            the name of the scene at one end of the edge
+	 * @param to
+	 *            the other end of the edge
+	 * @param change
+	 *            the change in the count
+	 */
+	private static <T> void count(Map<String, Map<T, Integer>> edges, String from, T to, int change) {
+		Map<T, Integer> counts = edges.get(from);
+		if (counts == null) {
+			counts = new HashMap<>();
+			edges.put(from, counts);
+		}
+		int count = counts.getOrDefault(to, 0) + change;
+		if (count > 0) {
+			counts.put(to, count);
+		} else {
+			counts.remove(to);
+			if (counts.isEmpty()) {
+				edges.remove(from);
+			}
+		}
+	}
+
+	/**
+	 * @param scene
+	 *            the name of a scene
+	 * @return an unmodifiable view of the names which the rules of the scene
+	 *         go to
+	 */
+	public Set<String> targets(String scene) {
+		return view(targets.get(scene));
+	}
+
+	/**
+	 * @param scene
+	 *            the name of a scene, or of a scene which does not exist yet
+	 * @return an unmodifiable view of the names of the scenes which have a
+	 *         rule which goes to it
+	 */
+	public Set<String> sources(String scene) {
+		return view(sources.get(scene));
+	}
+
+	/**
+	 * @param scene
+	 *            the name of a scene, or of a scene which does not exist yet
+	 * @return an unmodifiable view of the rules which go to it
+	 */
+	public Set<Rule> rulesTo(String scene) {
+		return view(rules.get(scene));
+	}
+
+	/**
+	 * @param <T>
+	 *            the type of the other ends of some edges
+	 * @param counts
+	 *            the edges, or null if there are none
+	 * @return an unmodifiable view of the other ends
+	 */
+	private static <T> Set<T> view(Map<T, Integer> counts) {
+		return counts == null ? Collections.emptySet() : Collections.unmodifiableSet(counts.keySet());
+	}
+
+	/**
+	 * @return an unmodifiable view of the names which rules go to, but which
+	 *         are not scenes
+	 */
+	public Set<String> dangling() {
+		return Collections.unmodifiableSet(dangling);
+	}
+
+	/**
+	 * Finds the scenes which can be reached from a scene by following the
+	 * edges, in time linear in the size of the graph.
+	 *
+	 * @param start
+	 *            the name of the scene
+	 * @return the names of the scenes which can be reached, including the
+	 *         scene itself. Names which are not scenes are left out.
+	 */
+	public Set<String> reachable(String start) {
+		Set<String> seen = new HashSet<>();
+		ArrayDeque<String> left = new ArrayDeque<>();
+		if (scenes.containsKey(start)) {
+			seen.add(start);
+			left.add(start);
+		}
+		while (!left.isEmpty()) {
+			Map<String, Integer> out = targets.get(left.remove());
+			if (out == null) {
+				continue;
+			}
+			for (String next : out.keySet()) {
+				if (scenes.containsKey(next) && seen.add(next)) {
+					left.add(next);
+				}
+			}
+		}
+		return seen;
+	}
+
+	/**
+	 * @param start
+	 *            the name of a scene
+	 * @return the names of the scenes which cannot be reached from it
+	 */
+	public Set<String> unreachable(String start) {
+		Set<String> reachable = reachable(start);
+		Set<String> unreachable = new HashSet<>();
+		for (String name : scenes.keySet()) {
+			if (!reachable.contains(name)) {
+				unreachable.add(name);
+			}
+		}
+		return unreachable;
+	}
+}
@@ -0,0 +1,117 @@
+package grow;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import grow.match.LinearMatcher;
+import grow.match.LinearPattern;
+
+/**
+ * Represents: the patterns of all the rules of a scene which are supported by
+ * {@link LinearMatcher}, compiled into one matcher, so that they can all be
+ * tried at once in time linear in the length of the input. The matcher is
+ * made for the rules as they are when it is made; use
+ * {@link #current(List)} to check that they have not been changed since.
+ *
+ * @author Jacob Glueck
+ *
+ */
+class SceneMatcher {
+
+	/**
+	 * The rules
+	 */
+	private final Rule[] rules;
+	/**
+	 * The version of the patterns of each rule (see
+	 * {@link Rule#patternVersion()})
+	 */
+	private final int[] versions;
+	/**
+	 * The index of the rule of each pattern in the matcher
+	 */
+	private final int[] owners;
+	/**
+	 * The matcher
+	 */
+	private final LinearMatcher matcher;
+	/**
+	 * The patterns which matched, reused by {@link #hits(TurnInput)}
+	 */
+	private final BitSet patterns;
+	/**
+	 * The rules which matched, reused by {@link #hits(TurnInput)}
+	 */
+	private final BitSet hits;
+
+	/**
+	 * Creates: a new matcher for some rules.
+	 *
+	 * @param rules
+	 *            the rules
+	 */
+	SceneMatcher(List<Rule> rules) {
+		this.rules = rules.toArray(new Rule[rules.size()]);
+		versions = new int[this.rules.length];
+		List<LinearPattern> patterns = new ArrayList<>();
+		List<Integer> owners = new ArrayList<>();
+		for (int x = 0; x < this.rules.length; x++) {
+			Rule r = this.rules[x];
+			versions[x] = r.patternVersion();
+			for (String str : r.patterns()) {
+				LinearPattern p = r.linearPattern(str);
+				if (p != null) {
+					patterns.add(p);
+					owners.add(x);
+				}
+			}
+		}
+		this.owners = owners.stream().mapToInt((x) -> x).toArray();
+		matcher = new LinearMatcher(patterns);
+		this.patterns = new BitSet(patterns.size());
+		hits = new BitSet(this.rules.length);
+	}
+
+	/**
+	 * @param rules
+	 *            the rules of the scene
+	 * @return true if this matcher was made for the rules, and their patterns
+	 *         have not been changed since
+	 */
+	boolean current(List<Rule> rules) {
+		if (rules.size() != this.rules.length) {
+			return false;
+		}
+		int x = 0;
+		for (Rule r : rules) {
+			if (r != this.rules[x] || r.patternVersion() != versions[x]) {
+				return false;
+			}
+			x++;
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the rules which have a pattern supported by {@link LinearMatcher}
+	 * which matches the input.
+	 *
+	 * @param input
+	 *            the input
+	 * @return the indexes of the rules, or null if the input is not supported
+	 *         by {@link LinearMatcher}. The set is reused by the next call.
+	 */
+	BitSet hits(TurnInput input) {
+		if (!input.simple()) {
+			return null;
+		}
+		patterns.clear();
+		matcher.match(input, patterns, input.scratch(matcher.scratchSize()));
+		hits.clear();
+		for (int p = patterns.nextSetBit(0); p >= 0; p = patterns.nextSetBit(p + 1)) {
+			hits.set(owners[p]);
+		}
+		return hits;
+	}
+}
@@ -0,0 +1,116 @@
+package grow;
+
+import java.util.List;
+
+import grow.match.BKTree;
+
+/**
+ * Represents: the literal words of the patterns of all the rules of a scene
+ * (see {@link Rule#literalWords(String)}), kept in a {@link BKTree} so that a
+ * misspelled word of the input can be corrected to the closest of them. The
+ * index is kept up to date one pattern at a time as patterns are added and
+ * removed; to catch changes made to the rules some other way, it also keeps
+ * the sum of the hash codes of the patterns it has seen, which
+ * {@link #current(List)} compares to the rules.
+ *
+ * @author Jacob Glueck
+ *
+ */
+class SceneWords implements TurnInput.Replacer {
+
+	/**
+	 * The shortest word which is corrected. Shorter words have too many near
+	 * misses.
+	 */
+	private static final int MIN_LENGTH = 4;
+	/**
+	 * Words at least this long may be off by two characters; shorter words
+	 * may only be off by one.
+	 */
+	private static final int LONG_LENGTH = 8;
+
+	/**
+	 * The words
+	 */
+	private final BKTree words;
+	/**
+	 * The sum of the hash codes of the patterns in the index
+	 */
+	private int signature;
+
+	/**
+	 * Creates: a new index of the words of some rules.
+	 *
+	 * @param rules
+	 *            the rules
+	 */
+	SceneWords(List<Rule> rules) {
+		words = new BKTree();
+		for (Rule r : rules) {
+			for (String pattern : r.patterns()) {
+				add(pattern);
+			}
+		}
+	}
+
+	/**
+	 * Effect: adds the words of a pattern.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 */
+	void add(String pattern) {
+		for (String word : Rule.literalWords(pattern)) {
+			words.add(word);
+		}
+		signature += pattern.hashCode();
+	}
+
+	/**
+	 * Effect: removes the words of a pattern.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 */
+	void remove(String pattern) {
+		for (String word : Rule.literalWords(pattern)) {
+			words.remove(word);
+		}
+		signature -= pattern.hashCode();
+	}
+
+	/**
+	 * @param rules
+	 *            the rules of the scene
+	 * @return true if the index holds the words of the patterns of the rules
+	 */
+	boolean current(List<Rule> rules) {
+		int sum = 0;
+		for (Rule r : rules) {
+			// The hash code of a set is the sum of the hash codes of its
+			// elements
+			sum += r.patterns().hashCode();
+		}
+		return sum == signature;
+	}
+
+	/**
+	 * @return the number of different words
+	 */
+	int size() {
+		return words.size();
+	}
+
+	/**
+	 * Finds the correction of a word: the closest word of the patterns, if it
+	 * is close enough and the word is not one of them already.
+	 */
+	@Override
+	public String replace(char[] text, int start, int end) {
+		int length = end - start;
+		if (length < MIN_LENGTH) {
+			return null;
+		}
+		return words.nearest(text, start, end, length < LONG_LENGTH ? 1 : 2);
+	}
+}
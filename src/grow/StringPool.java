@@ -0,0 +1,85 @@
+package grow;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represents: a pool of the strings of an adventure, which gives back one copy
+ * of each string no matter how many times it is added, so that text which is
+ * repeated across scenes, like the names of the scenes which {@code g}
+ * actions go to, the patterns of common commands, and the text of common
+ * {@code p} actions, is only kept once. Strings are pooled when an adventure
+ * is parsed and when its rules are edited. Unlike {@link String#intern()},
+ * each adventure has its own pool, which goes away with it. A pool is not
+ * thread safe.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class StringPool {
+
+	/**
+	 * The copy of each string
+	 */
+	private final Map<String, String> strings;
+	/**
+	 * The number of strings which were given back as a copy already in the
+	 * pool
+	 */
+	private long shared;
+	/**
+	 * The number of characters in the strings which were given back as a copy
+	 */
+	private long sharedChars;
+
+	/**
+	 * Creates: a new, empty pool.
+	 */
+	public StringPool() {
+		strings = new HashMap<>();
+	}
+
+	/**
+	 * @param s
+	 *            a string, or null
+	 * @return the copy of the string in the pool, which is the string itself
+	 *         if it is new, or null if it is null
+	 */
+	public String intern(String s) {
+		if (s == null) {
+			return null;
+		}
+		String copy = strings.putIfAbsent(s, s);
+		if (copy == null) {
+			return s;
+		}
+		if (copy != s) {
+			shared++;
+			sharedChars += s.length();
+		}
+		return copy;
+	}
+
+	/**
+	 * @return the number of different strings in the pool
+	 */
+	public int size() {
+		return strings.size();
+	}
+
+	/**
+	 * @return the number of strings which were given back as a copy already in
+	 *         the pool, so that they could be freed
+	 */
+	public long shared() {
+		return shared;
+	}
+
+	/**
+	 * @return the number of characters in the strings which were given back as
+	 *         a copy already in the pool
+	 */
+	public long sharedChars() {
+		return sharedChars;
+	}
+}
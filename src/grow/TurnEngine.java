@@ -0,0 +1,179 @@
+package grow;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Represents: an engine which runs many games of Grow on a small, fixed pool of
+ * threads. No thread ever waits for a player to type: each line of input is a
+ * small task, and a game waiting for input is nothing more than its
+ * {@link GrowGame} object. Lines for the same game are always processed one at
+ * a time, in the order in which they were submitted.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class TurnEngine {
+
+	/**
+	 * The threads which run the turns
+	 */
+	private final ExecutorService pool;
+
+	/**
+	 * Creates: a new engine with the specified number of threads.
+	 *
+	 * @param threads
+	 *            the number of threads
+	 */
+	public TurnEngine(int threads) {
+		pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r);
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Effect: starts a game on this engine. The game must have been created
+	 * with {@link GrowGame#GrowGame(OutputSink, java.io.File)}.
+	 *
+	 * @param game
+	 *            the game
+	 * @param injector
+	 *            the injector used to prompt the user
+	 * @param p
+	 *            the processor which displays images and plays sound
+	 * @param u
+	 *            the status updater, used to signal scene or adventure changes
+	 * @return the session, which accepts input for the game
+	 */
+	public Session open(GrowGame game, Consumer<String> injector, MediaProcessor p, StatusUpdater u) {
+		Session s = new Session(game, injector, p, u);
+		s.schedule();
+		return s;
+	}
+
+	/**
+	 * Effect: stops accepting new work. Turns which have already been
+	 * submitted still run.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Represents: a game running on a {@link TurnEngine}.
+	 *
+	 * @author Jacob Glueck
+	 */
+	public class Session {
+		/**
+		 * The game
+		 */
+		private final GrowGame game;
+		/**
+		 * The injector used to prompt the user
+		 */
+		private final Consumer<String> injector;
+		/**
+		 * The processor which displays images and plays sound
+		 */
+		private final MediaProcessor processor;
+		/**
+		 * The status updater
+		 */
+		private final StatusUpdater updater;
+		/**
+		 * The lines which have been submitted but not processed.
+		 */
+		private final Queue<String> lines;
+		/**
+		 * True if a task which processes {@link #lines} is scheduled or
+		 * running.
+		 */
+		private final AtomicBoolean scheduled;
+		/**
+		 * True if the game has not started yet.
+		 */
+		private boolean starting;
+		/**
+		 * False once the game is over.
+		 */
+		private volatile boolean running;
+
+		/**
+		 * Creates: a new session for the specified game.
+		 *
+		 * @param game
+		 *            the game
+		 * @param injector
+		 *            the injector used to prompt the user
+		 * @param processor
+		 *            the processor which displays images and plays sound
+		 * @param updater
+		 *            the status updater
+		 */
+		private Session(GrowGame game, Consumer<String> injector, MediaProcessor processor, StatusUpdater updater) {
+			this.game = game;
+			this.injector = injector;
+			this.processor = processor;
+			this.updater = updater;
+			lines = new ConcurrentLinkedQueue<>();
+			scheduled = new AtomicBoolean(false);
+			starting = true;
+			running = true;
+		}
+
+		/**
+		 * Effect: queues a line of input for the game. Does not block.
+		 *
+		 * @param line
+		 *            the line
+		 */
+		public void submit(String line) {
+			lines.add(line);
+			schedule();
+		}
+
+		/**
+		 * @return false once the game is over
+		 */
+		public boolean running() {
+			return running;
+		}
+
+		/**
+		 * Effect: makes sure a task is processing the lines of this session.
+		 */
+		private void schedule() {
+			if (scheduled.compareAndSet(false, true)) {
+				pool.execute(this::drain);
+			}
+		}
+
+		/**
+		 * Effect: processes all the queued lines.
+		 */
+		private void drain() {
+			if (starting) {
+				starting = false;
+				game.start(injector, processor, updater);
+			}
+			String line;
+			while (running && (line = lines.poll()) != null) {
+				running = game.feed(line, injector, processor, updater);
+			}
+			scheduled.set(false);
+			// A line may have been submitted after the loop stopped, but
+			// before scheduled was cleared.
+			if (running && !lines.isEmpty()) {
+				schedule();
+			}
+		}
+	}
+}
@@ -0,0 +1,500 @@
+package grow;
+
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Represents: a line of input, normalized once per turn so that every scene
+ * and every rule which tries to match it can share the work: the upper case
+ * text (which is what patterns are matched against), where each word starts
+ * and ends, and the words themselves. The buffers are reused from one line to
+ * the next, so once they are big enough, a turn of plain ASCII input does not
+ * allocate anything to be matched.
+ *
+ * The input is a {@link CharSequence} of its upper case text. It can be viewed
+ * from an offset (see {@link #from(int)}), so that commands can be matched
+ * without the {@code :} which starts them, and its words can be replaced by
+ * their canonical words in the vocabulary of an adventure (see
+ * {@link #canonicalize(Vocabulary)}).
+ *
+ * An input is not thread safe; each game has its own, and
+ * {@link #local(String)} gives each thread its own for matching a string
+ * outside of a game.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class TurnInput implements CharSequence {
+
+	/**
+	 * Represents: something which decides what to replace the words of the
+	 * input with, without allocating anything.
+	 *
+	 * @author Jacob Glueck
+	 */
+	public interface Replacer {
+		/**
+		 * @param text
+		 *            the upper case text
+		 * @param start
+		 *            the index of the first character of a word
+		 * @param end
+		 *            the index after the last character of the word
+		 * @return the word to replace it with, or null to leave it alone
+		 */
+		String replace(char[] text, int start, int end);
+	}
+
+	/**
+	 * The languages in which changing the case of a letter depends on more
+	 * than the letter (like the dotted and dotless i in Turkish), so that
+	 * ASCII input cannot be changed one character at a time
+	 */
+	private static final String[] SPECIAL_CASE = { "tr", "az", "lt" };
+
+	/**
+	 * The most matchers to keep before they are cleared out
+	 */
+	private static final int MAX_MATCHERS = 4096;
+
+	/**
+	 * The input of each thread, for {@link #local(String)}
+	 */
+	private static final ThreadLocal<TurnInput> LOCAL = ThreadLocal.withInitial(TurnInput::new);
+
+	/**
+	 * The line, as it was entered
+	 */
+	private String line;
+	/**
+	 * The upper case text
+	 */
+	private char[] upper;
+	/**
+	 * The buffer the canonical text is built in, which is swapped with
+	 * {@link #upper}
+	 */
+	private char[] spare;
+	/**
+	 * The length of the upper case text
+	 */
+	private int length;
+	/**
+	 * The index of the first character of the view (see {@link #from(int)})
+	 */
+	private int start;
+	/**
+	 * True if the text is all ASCII, with no line breaks
+	 */
+	private boolean simple;
+	/**
+	 * The index of the first character of each word
+	 */
+	private int[] wordStarts;
+	/**
+	 * The index after the last character of each word
+	 */
+	private int[] wordEnds;
+	/**
+	 * The number of words
+	 */
+	private int words;
+	/**
+	 * The words, or null if they have not been made yet this turn
+	 */
+	private String[] tokens;
+	/**
+	 * The view of this input with a deadline, for matching patterns which
+	 * might take too long
+	 */
+	private final DeadlineInput bounded;
+	/**
+	 * The matchers used to match this input, by pattern
+	 */
+	private final Map<Pattern, Matcher> matchers;
+	/**
+	 * Scratch space for {@link grow.match.LinearMatcher}
+	 */
+	private int[] scratch;
+
+	/**
+	 * Creates: a new, empty input.
+	 */
+	public TurnInput() {
+		upper = new char[128];
+		spare = new char[128];
+		wordStarts = new int[16];
+		wordEnds = new int[16];
+		scratch = new int[0];
+		bounded = new DeadlineInput(this);
+		matchers = new IdentityHashMap<>();
+		set("");
+	}
+
+	/**
+	 * Creates: a new input, set to a line.
+	 *
+	 * @param line
+	 *            the line
+	 */
+	public TurnInput(String line) {
+		this();
+		set(line);
+	}
+
+	/**
+	 * Gets the input of this thread, set to a line. It is the same object
+	 * every time, so it must not be kept.
+	 *
+	 * @param line
+	 *            the line
+	 * @return the input
+	 */
+	public static TurnInput local(String line) {
+		return LOCAL.get().set(line);
+	}
+
+	/**
+	 * Effect: sets this input to a new line, viewed from the start.
+	 *
+	 * @param line
+	 *            the line
+	 * @return this input
+	 */
+	public TurnInput set(String line) {
+		this.line = line;
+		start = 0;
+		tokens = null;
+		simple = true;
+		for (int x = 0; x < line.length() && simple; x++) {
+			char c = line.charAt(x);
+			simple = c < 128 && c != '\n' && c != '\r';
+		}
+		if (simple && !specialCase()) {
+			ensure(line.length());
+			for (int x = 0; x < line.length(); x++) {
+				char c = line.charAt(x);
+				upper[x] = c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+			}
+			length = line.length();
+		} else {
+			// The case of some characters cannot be changed one at a time,
+			// like the German sharp s, which becomes two
+			String u = line.toUpperCase();
+			ensure(u.length());
+			u.getChars(0, u.length(), upper, 0);
+			length = u.length();
+		}
+		findWords();
+		return this;
+	}
+
+	/**
+	 * @return true if the case of ASCII letters in the default locale depends
+	 *         on more than the letter
+	 */
+	private static boolean specialCase() {
+		String language = Locale.getDefault().getLanguage();
+		for (String special : SPECIAL_CASE) {
+			if (special.equals(language)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Effect: makes sure the text buffer can hold {@code size} characters.
+	 *
+	 * @param size
+	 *            the size
+	 */
+	private void ensure(int size) {
+		if (upper.length < size) {
+			upper = new char[Math.max(size, 2 * upper.length)];
+		}
+	}
+
+	/**
+	 * Effect: finds the words in the upper case text.
+	 */
+	private void findWords() {
+		words = 0;
+		int x = 0;
+		while (x < length) {
+			while (x < length && !word(upper[x])) {
+				x++;
+			}
+			if (x == length) {
+				break;
+			}
+			int begin = x;
+			while (x < length && word(upper[x])) {
+				x++;
+			}
+			if (words == wordStarts.length) {
+				int[] biggerStarts = new int[2 * words];
+				int[] biggerEnds = new int[2 * words];
+				System.arraycopy(wordStarts, 0, biggerStarts, 0, words);
+				System.arraycopy(wordEnds, 0, biggerEnds, 0, words);
+				wordStarts = biggerStarts;
+				wordEnds = biggerEnds;
+			}
+			wordStarts[words] = begin;
+			wordEnds[words] = x;
+			words++;
+		}
+	}
+
+	/**
+	 * @param c
+	 *            a character
+	 * @return true if the character is part of a word, as {@code \b} decides
+	 */
+	static boolean word(char c) {
+		if (c < 128) {
+			return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+		}
+		return Character.isLetterOrDigit(c);
+	}
+
+	/**
+	 * Effect: views this input from an index of the upper case text, so that
+	 * the characters before it, and the words which start before it, are left
+	 * out.
+	 *
+	 * @param index
+	 *            the index
+	 * @return this input
+	 */
+	public TurnInput from(int index) {
+		start = Math.min(index, length);
+		tokens = null;
+		return this;
+	}
+
+	/**
+	 * Effect: replaces each word which is in a vocabulary by its canonical
+	 * word, and views this input from the start. The line as it was entered
+	 * is not changed.
+	 *
+	 * @param vocabulary
+	 *            the vocabulary
+	 * @return this input
+	 */
+	public TurnInput canonicalize(Vocabulary vocabulary) {
+		from(0);
+		if (!vocabulary.isEmpty()) {
+			replace(vocabulary);
+		}
+		return this;
+	}
+
+	/**
+	 * Effect: replaces words of the upper case text, and views this input from
+	 * the start.
+	 *
+	 * @param replacer
+	 *            what to replace each word with
+	 * @return true if any word was changed
+	 */
+	boolean replace(Replacer replacer) {
+		from(0);
+		int size = 0;
+		int copied = 0;
+		boolean changed = false;
+		for (int w = 0; w < words; w++) {
+			String canonical = replacer.replace(upper, wordStarts[w], wordEnds[w]);
+			if (canonical == null || canonical.length() == wordEnds[w] - wordStarts[w] && equals(canonical, wordStarts[w])) {
+				continue;
+			}
+			// Copy everything since the last replaced word, then the
+			// replacement
+			int gap = wordStarts[w] - copied;
+			spare = fit(spare, size + gap + canonical.length());
+			System.arraycopy(upper, copied, spare, size, gap);
+			size += gap;
+			canonical.getChars(0, canonical.length(), spare, size);
+			size += canonical.length();
+			copied = wordEnds[w];
+			changed = true;
+		}
+		if (!changed) {
+			return false;
+		}
+		spare = fit(spare, size + length - copied);
+		System.arraycopy(upper, copied, spare, size, length - copied);
+		size += length - copied;
+		char[] temp = upper;
+		upper = spare;
+		spare = temp;
+		length = size;
+		for (int x = 0; x < length && simple; x++) {
+			simple = upper[x] < 128;
+		}
+		findWords();
+		return true;
+	}
+
+	/**
+	 * @param word
+	 *            a word
+	 * @param index
+	 *            an index of the upper case text
+	 * @return true if the word is at the index
+	 */
+	private boolean equals(String word, int index) {
+		for (int x = 0; x < word.length(); x++) {
+			if (upper[index + x] != word.charAt(x)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param buffer
+	 *            a buffer
+	 * @param size
+	 *            the size needed
+	 * @return the buffer, or a bigger copy of it if it is not big enough
+	 */
+	private static char[] fit(char[] buffer, int size) {
+		if (buffer.length >= size) {
+			return buffer;
+		}
+		char[] bigger = new char[Math.max(size, 2 * buffer.length)];
+		System.arraycopy(buffer, 0, bigger, 0, buffer.length);
+		return bigger;
+	}
+
+	/**
+	 * @return the line, as it was entered
+	 */
+	public String line() {
+		return line;
+	}
+
+	/**
+	 * @return true if the text is all ASCII, with no line breaks
+	 */
+	public boolean simple() {
+		return simple;
+	}
+
+	/**
+	 * @return the number of words in the view
+	 */
+	public int words() {
+		return words - firstWord();
+	}
+
+	/**
+	 * @param index
+	 *            the number of a word in the view
+	 * @return the index of the first character of the word in the view
+	 */
+	public int wordStart(int index) {
+		return wordStarts[firstWord() + index] - start;
+	}
+
+	/**
+	 * @param index
+	 *            the number of a word in the view
+	 * @return the index after the last character of the word in the view
+	 */
+	public int wordEnd(int index) {
+		return wordEnds[firstWord() + index] - start;
+	}
+
+	/**
+	 * @return the words of the view, in upper case. The array is made the
+	 *         first time it is needed each turn, and must not be changed.
+	 */
+	public String[] tokens() {
+		if (tokens == null) {
+			int first = firstWord();
+			tokens = new String[words - first];
+			for (int x = 0; x < tokens.length; x++) {
+				tokens[x] = new String(upper, wordStarts[first + x], wordEnds[first + x] - wordStarts[first + x]);
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * @return the number of the first word which starts in the view
+	 */
+	private int firstWord() {
+		int first = 0;
+		while (first < words && wordStarts[first] < start) {
+			first++;
+		}
+		return first;
+	}
+
+	/**
+	 * Gets a matcher for a pattern, reset to match this input. The matchers
+	 * are kept, so matching does not make a new one every time.
+	 *
+	 * @param p
+	 *            the pattern
+	 * @param limit
+	 *            the longest time the matcher may take, in nanoseconds, or 0
+	 *            if there is no limit
+	 * @return the matcher
+	 */
+	Matcher matcher(Pattern p, long limit) {
+		Matcher m = matchers.get(p);
+		if (m == null) {
+			if (matchers.size() == MAX_MATCHERS) {
+				matchers.clear();
+			}
+			m = p.matcher(this);
+			matchers.put(p, m);
+		}
+		if (limit == 0) {
+			return m.reset(this);
+		}
+		bounded.restart(limit);
+		return m.reset(bounded);
+	}
+
+	/**
+	 * @param size
+	 *            the number of ints needed
+	 * @return scratch space of at least that size, which is reused
+	 */
+	int[] scratch(int size) {
+		if (scratch.length < size) {
+			scratch = new int[size];
+		}
+		return scratch;
+	}
+
+	@Override
+	public int length() {
+		return length - start;
+	}
+
+	@Override
+	public char charAt(int index) {
+		return upper[start + index];
+	}
+
+	@Override
+	public CharSequence subSequence(int begin, int end) {
+		return new String(upper, start + begin, end - begin);
+	}
+
+	/**
+	 * @return the upper case text of the view
+	 */
+	@Override
+	public String toString() {
+		return new String(upper, start, length - start);
+	}
+}
@@ -0,0 +1,379 @@
+package grow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import exceptions.SyntaxError;
+
+/**
+ * Represents: the vocabulary of an adventure: the synonyms of the words which
+ * its patterns use, and the suffixes which can be taken off of words, so that
+ * a pattern like {@code take} can match "grab", "get", and "takes" without
+ * listing them all. Before the input is matched against the rules of a scene,
+ * every word in it which is a synonym, or a synonym with a suffix, is replaced
+ * by its canonical word (see {@link TurnInput#canonicalize(Vocabulary)}).
+ *
+ * The vocabulary is stored in the adventure file as {@value #FILE}. Each line
+ * is either a canonical word, a colon, and its synonyms, or the suffixes:
+ *
+ * <pre>
+ * Suffixes: s es ing ed
+ * take: grab get snatch
+ * look: examine inspect
+ * </pre>
+ *
+ * Words may be separated by spaces or commas, and blank lines are ignored. A
+ * word may only be the synonym of one canonical word, and a canonical word may
+ * not be a synonym. A suffix is only taken off if what is left is a word in
+ * the vocabulary, so words the vocabulary does not know are never changed.
+ *
+ * When the vocabulary is read, it is compiled into an open addressing hash
+ * table which can look up a word straight from the input buffer, so looking
+ * up words does not allocate anything.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class Vocabulary implements TurnInput.Replacer {
+
+	/**
+	 * The name of the file in the adventure file which holds the vocabulary
+	 */
+	public static final String FILE = "words.txt";
+
+	/**
+	 * The empty vocabulary, which changes nothing
+	 */
+	public static final Vocabulary EMPTY = new Vocabulary(new LinkedHashMap<>(), new ArrayList<>());
+
+	/**
+	 * The prefix of the line which lists the suffixes
+	 */
+	private static final String SUFFIXES = "Suffixes:";
+	/**
+	 * The shortest a word may be once a suffix is taken off
+	 */
+	private static final int MIN_STEM = 2;
+
+	/**
+	 * The synonyms of each canonical word, in upper case, in the order they
+	 * were read
+	 */
+	private final Map<String, List<String>> synonyms;
+	/**
+	 * The suffixes, in upper case, longest first
+	 */
+	private final String[] suffixes;
+	/**
+	 * The words in the table, in upper case, or null for an empty slot
+	 */
+	private final String[] keys;
+	/**
+	 * The canonical word of each word in the table
+	 */
+	private final String[] values;
+	/**
+	 * The length of the table minus one
+	 */
+	private final int mask;
+
+	/**
+	 * Creates: a new vocabulary, and compiles its table.
+	 *
+	 * @param synonyms
+	 *            the synonyms of each canonical word, in upper case
+	 * @param suffixes
+	 *            the suffixes, in upper case
+	 */
+	private Vocabulary(Map<String, List<String>> synonyms, List<String> suffixes) {
+		this.synonyms = synonyms;
+		List<String> sorted = new ArrayList<>(suffixes);
+		sorted.sort(Comparator.comparingInt(String::length).reversed());
+		this.suffixes = sorted.toArray(new String[sorted.size()]);
+		int words = 0;
+		for (List<String> s : synonyms.values()) {
+			words += s.size() + 1;
+		}
+		// Keep the table at most half full
+		int size = Integer.highestOneBit(Math.max(2, 2 * words - 1)) << 1;
+		keys = new String[size];
+		values = new String[size];
+		mask = size - 1;
+		for (Map.Entry<String, List<String>> e : synonyms.entrySet()) {
+			put(e.getKey(), e.getKey());
+			for (String synonym : e.getValue()) {
+				put(synonym, e.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Effect: puts a word in the table.
+	 *
+	 * @param word
+	 *            the word
+	 * @param canonical
+	 *            its canonical word
+	 */
+	private void put(String word, String canonical) {
+		int slot = hash(word, 0, word.length()) & mask;
+		while (keys[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = word;
+		values[slot] = canonical;
+	}
+
+	/**
+	 * @param text
+	 *            some text
+	 * @param start
+	 *            the index of the first character
+	 * @param end
+	 *            the index after the last character
+	 * @return the hash of the characters from {@code start} to {@code end}
+	 */
+	private static int hash(CharSequence text, int start, int end) {
+		int h = 0;
+		for (int x = start; x < end; x++) {
+			h = 31 * h + text.charAt(x);
+		}
+		// Spread the high bits into the low ones, which pick the slot
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @param text
+	 *            the text
+	 * @param start
+	 *            the index of the first character
+	 * @param end
+	 *            the index after the last character
+	 * @param extra
+	 *            a character to add to the end, or 0 for none
+	 * @return the canonical word of the characters from {@code start} to
+	 *         {@code end} followed by {@code extra}, or null if they are not
+	 *         in the table
+	 */
+	private String get(char[] text, int start, int end, char extra) {
+		int length = end - start;
+		int h = 0;
+		for (int x = start; x < end; x++) {
+			h = 31 * h + text[x];
+		}
+		if (extra != 0) {
+			h = 31 * h + extra;
+		}
+		int slot = (h ^ (h >>> 16)) & mask;
+		String key;
+		while ((key = keys[slot]) != null) {
+			if (key.length() == (extra == 0 ? length : length + 1)) {
+				int x = 0;
+				while (x < length && key.charAt(x) == text[start + x]) {
+					x++;
+				}
+				if (x == length && (extra == 0 || key.charAt(length) == extra)) {
+					return values[slot];
+				}
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Looks up the canonical word of a word in some upper case text. If the
+	 * word is not in the vocabulary, each suffix which it ends with is taken
+	 * off, longest first, until what is left is. Like in English, what is left
+	 * may also have a doubled last letter (like "grabb" from "grabbing") or
+	 * be missing an E (like "tak" from "taking").
+	 *
+	 * @param text
+	 *            the upper case text
+	 * @param start
+	 *            the index of the first character of the word
+	 * @param end
+	 *            the index after the last character of the word
+	 * @return the canonical word, or null if the word is not in the vocabulary
+	 */
+	String canonical(char[] text, int start, int end) {
+		String canonical = get(text, start, end, (char) 0);
+		if (canonical != null) {
+			return canonical;
+		}
+		for (String suffix : suffixes) {
+			int stem = end - suffix.length();
+			if (stem - start < MIN_STEM || !endsWith(text, end, suffix)) {
+				continue;
+			}
+			canonical = get(text, start, stem, (char) 0);
+			if (canonical == null && stem - start > MIN_STEM && text[stem - 1] == text[stem - 2]) {
+				canonical = get(text, start, stem - 1, (char) 0);
+			}
+			if (canonical == null) {
+				canonical = get(text, start, stem, 'E');
+			}
+			if (canonical != null) {
+				return canonical;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String replace(char[] text, int start, int end) {
+		return canonical(text, start, end);
+	}
+
+	/**
+	 * @param text
+	 *            the text
+	 * @param end
+	 *            the index after the last character of a word
+	 * @param suffix
+	 *            a suffix
+	 * @return true if the word ends with the suffix
+	 */
+	private static boolean endsWith(char[] text, int end, String suffix) {
+		int start = end - suffix.length();
+		for (int x = 0; x < suffix.length(); x++) {
+			if (text[start + x] != suffix.charAt(x)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if this vocabulary has no words
+	 */
+	public boolean isEmpty() {
+		return synonyms.isEmpty();
+	}
+
+	/**
+	 * @return an unmodifiable view of the synonyms of each canonical word, in
+	 *         upper case
+	 */
+	public Map<String, List<String>> synonyms() {
+		return Collections.unmodifiableMap(synonyms);
+	}
+
+	/**
+	 * @param word
+	 *            a word
+	 * @return the canonical word of the word, in upper case, or null if the
+	 *         word is not in the vocabulary
+	 */
+	public String canonical(String word) {
+		char[] upper = word.toUpperCase().toCharArray();
+		return canonical(upper, 0, upper.length);
+	}
+
+	/**
+	 * @return the vocabulary, as it is saved (see {@link #parse(Scanner)})
+	 */
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		if (suffixes.length != 0) {
+			b.append(SUFFIXES);
+			for (String s : suffixes) {
+				b.append(' ').append(s.toLowerCase());
+			}
+			b.append('\n');
+		}
+		for (Map.Entry<String, List<String>> e : synonyms.entrySet()) {
+			b.append(e.getKey().toLowerCase()).append(':');
+			for (String s : e.getValue()) {
+				b.append(' ').append(s.toLowerCase());
+			}
+			b.append('\n');
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Parses a vocabulary.
+	 *
+	 * @param in
+	 *            the input
+	 * @return the vocabulary
+	 * @throws SyntaxError
+	 *             if there is a problem
+	 */
+	public static Vocabulary parse(Scanner in) throws SyntaxError {
+		Map<String, List<String>> synonyms = new LinkedHashMap<>();
+		Map<String, String> canonical = new LinkedHashMap<>();
+		List<String> suffixes = new ArrayList<>();
+		int line = 0;
+		while (in.hasNextLine()) {
+			line++;
+			String str = in.nextLine().trim();
+			if (str.length() == 0) {
+				continue;
+			}
+			int colon = str.indexOf(':');
+			if (colon == -1) {
+				throw new SyntaxError(line, "Vocabulary format error. No :");
+			}
+			if (str.startsWith(SUFFIXES)) {
+				for (String suffix : words(str.substring(SUFFIXES.length()), line)) {
+					suffixes.add(suffix);
+				}
+				continue;
+			}
+			List<String> head = words(str.substring(0, colon), line);
+			if (head.size() != 1) {
+				throw new SyntaxError(line, "Vocabulary format error. There must be one word before the :");
+			}
+			String word = head.get(0);
+			if (canonical.containsKey(word)) {
+				throw new SyntaxError(line, "Word already in the vocabulary: " + word.toLowerCase());
+			}
+			List<String> list = new ArrayList<>();
+			canonical.put(word, word);
+			for (String synonym : words(str.substring(colon + 1), line)) {
+				if (canonical.containsKey(synonym)) {
+					throw new SyntaxError(line, "Word already in the vocabulary: " + synonym.toLowerCase());
+				}
+				canonical.put(synonym, word);
+				list.add(synonym);
+			}
+			synonyms.put(word, list);
+		}
+		return new Vocabulary(synonyms, suffixes);
+	}
+
+	/**
+	 * Splits a list of words.
+	 *
+	 * @param list
+	 *            the list, separated by spaces or commas
+	 * @param line
+	 *            the line number to use for the syntax error
+	 * @return the words, in upper case
+	 * @throws SyntaxError
+	 *             if one of them is not a word
+	 */
+	private static List<String> words(String list, int line) throws SyntaxError {
+		List<String> words = new ArrayList<>();
+		for (String w : list.split("[\\s,]+")) {
+			if (w.length() == 0) {
+				continue;
+			}
+			for (int x = 0; x < w.length(); x++) {
+				if (!TurnInput.word(w.charAt(x))) {
+					throw new SyntaxError(line, "Not a word: " + w);
+				}
+			}
+			words.add(w.toUpperCase());
+		}
+		return words;
+	}
+}
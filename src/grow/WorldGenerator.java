@@ -0,0 +1,639 @@
+package grow;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+
+import exceptions.SceneExists;
+import grow.action.Action;
+import grow.action.Go;
+import grow.action.Print;
+import grow.action.ScoreChange;
+import util.ZipLocker;
+
+/**
+ * Represents: a generator of large, synthetic adventures, for testing how grow
+ * behaves at scale. The adventures are built from {@link Scene}s and
+ * {@link Rule}s and saved with {@link Game#saveWorld(PrintStream)}, so they are
+ * always valid. The same settings and seed always make the same adventure, so
+ * that results from different versions of grow can be compared.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class WorldGenerator {
+
+	/**
+	 * Represents: the shape of the graph made by the {@link Go} actions.
+	 *
+	 * @author Jacob Glueck
+	 */
+	public enum Shape {
+		/**
+		 * Every scene goes to the next scene, and sometimes back to the
+		 * previous one. The last scene goes back to the first.
+		 */
+		CHAIN,
+		/**
+		 * A binary tree: every scene goes to its two children, and back to its
+		 * parent.
+		 */
+		TREE,
+		/**
+		 * Every scene goes to the next scene, and to random other scenes.
+		 */
+		RANDOM
+	}
+
+	/**
+	 * The words used to build patterns, descriptions, and text.
+	 */
+	public static final List<String> WORDS = Collections.unmodifiableList(Arrays.asList("north", "south", "east", "west", "up", "down", "look", "take", "drop", "open",
+			"close", "lamp", "key", "door", "chest", "sword", "read", "book", "climb", "tree", "talk", "wizard", "eat", "bread", "light", "fire", "swim", "river", "pull", "lever"));
+
+	/**
+	 * The seed
+	 */
+	private final long seed;
+	/**
+	 * The name of the adventure
+	 */
+	private String name;
+	/**
+	 * The number of scenes
+	 */
+	private int scenes;
+	/**
+	 * The number of rules per scene
+	 */
+	private int rules;
+	/**
+	 * The number of patterns per rule
+	 */
+	private int patterns;
+	/**
+	 * The fraction of patterns which are regular expressions
+	 */
+	private double regex;
+	/**
+	 * The shape of the graph
+	 */
+	private Shape shape;
+	/**
+	 * The fraction of rules which go to another scene
+	 */
+	private double gos;
+	/**
+	 * The fraction of rules which go to a scene which does not exist
+	 */
+	private double dangling;
+	/**
+	 * The fraction of scenes with an image
+	 */
+	private double images;
+	/**
+	 * The fraction of scenes with a sound
+	 */
+	private double sounds;
+
+	/**
+	 * Creates: a new generator with the specified seed. By default, it makes
+	 * an adventure called {@code generated} with 100 scenes, 6 rules per
+	 * scene, 2 patterns per rule, a quarter of the patterns regular
+	 * expressions, half of the rules going to a random scene, and no media.
+	 *
+	 * @param seed
+	 *            the seed
+	 */
+	public WorldGenerator(long seed) {
+		this.seed = seed;
+		name = "generated";
+		scenes = 100;
+		rules = 6;
+		patterns = 2;
+		regex = 0.25;
+		shape = Shape.RANDOM;
+		gos = 0.5;
+		dangling = 0;
+		images = 0;
+		sounds = 0;
+	}
+
+	/**
+	 * Effect: sets the name of the adventure.
+	 *
+	 * @param name
+	 *            the name
+	 * @return this
+	 */
+	public WorldGenerator name(String name) {
+		this.name = name;
+		return this;
+	}
+
+	/**
+	 * Effect: sets the number of scenes. Must be at least 1.
+	 *
+	 * @param scenes
+	 *            the number of scenes
+	 * @return this
+	 */
+	public WorldGenerator scenes(int scenes) {
+		if (scenes < 1) {
+			throw new IllegalArgumentException("There must be at least one scene.");
+		}
+		this.scenes = scenes;
+		return this;
+	}
+
+	/**
+	 * Effect: sets the number of rules per scene.
+	 *
+	 * @param rules
+	 *            the number of rules
+	 * @return this
+	 */
+	public WorldGenerator rules(int rules) {
+		this.rules = rules;
+		return this;
+	}
+
+	/**
+	 * Effect: sets the number of patterns per rule. Must be at least 1.
+	 *
+	 * @param patterns
+	 *            the number of patterns
+	 * @return this
+	 */
+	public WorldGenerator patterns(int patterns) {
+		if (patterns < 1) {
+			throw new IllegalArgumentException("There must be at least one pattern.");
+		}
+		this.patterns = patterns;
+		return this;
+	}
+
+	/**
+	 * Effect: sets the fraction of patterns which are regular expressions. The
+	 * rest are literal words or phrases.
+	 *
+	 * @param regex
+	 *            the fraction, between 0 and 1
+	 * @return this
+	 */
+	public WorldGenerator regex(double regex) {
+		this.regex = fraction(regex);
+		return this;
+	}
+
+	/**
+	 * Effect: sets the shape of the graph made by the {@link Go} actions.
+	 *
+	 * @param shape
+	 *            the shape
+	 * @return this
+	 */
+	public WorldGenerator shape(Shape shape) {
+		this.shape = shape;
+		return this;
+	}
+
+	/**
+	 * Effect: sets the fraction of rules which go to another scene, in
+	 * addition to the rules needed to make the shape.
+	 *
+	 * @param gos
+	 *            the fraction, between 0 and 1
+	 * @return this
+	 */
+	public WorldGenerator gos(double gos) {
+		this.gos = fraction(gos);
+		return this;
+	}
+
+	/**
+	 * Effect: sets the fraction of rules which go to a scene which does not
+	 * exist. When played, such a rule asks the user to describe the new
+	 * scene.
+	 *
+	 * @param dangling
+	 *            the fraction, between 0 and 1
+	 * @return this
+	 */
+	public WorldGenerator dangling(double dangling) {
+		this.dangling = fraction(dangling);
+		return this;
+	}
+
+	/**
+	 * Effect: sets the fraction of scenes which get a dummy image.
+	 *
+	 * @param images
+	 *            the fraction, between 0 and 1
+	 * @return this
+	 */
+	public WorldGenerator images(double images) {
+		this.images = fraction(images);
+		return this;
+	}
+
+	/**
+	 * Effect: sets the fraction of scenes which get a dummy sound file. The
+	 * sound files are not real sounds, and will not play.
+	 *
+	 * @param sounds
+	 *            the fraction, between 0 and 1
+	 * @return this
+	 */
+	public WorldGenerator sounds(double sounds) {
+		this.sounds = fraction(sounds);
+		return this;
+	}
+
+	/**
+	 * @param f
+	 *            a number
+	 * @return {@code f}, if it is between 0 and 1
+	 */
+	private static double fraction(double f) {
+		if (f < 0 || f > 1) {
+			throw new IllegalArgumentException("Not a fraction: " + f);
+		}
+		return f;
+	}
+
+	/**
+	 * @param x
+	 *            the index of the scene
+	 * @return the name of the scene
+	 */
+	public static String sceneName(int x) {
+		return "scene_" + x;
+	}
+
+	/**
+	 * Creates: the adventure. The start scene is {@link #sceneName(int)
+	 * sceneName(0)}.
+	 *
+	 * @return the adventure
+	 */
+	public Game generate() {
+		Random rnd = new Random(seed);
+		List<Scene> all = new ArrayList<>(scenes);
+		for (int x = 0; x < scenes; x++) {
+			all.add(new Scene(sceneName(x), "You are in room " + x + ". " + sentence(rnd, 12)));
+		}
+		int missing = 0;
+		for (int x = 0; x < scenes; x++) {
+			Scene s = all.get(x);
+			for (int r = 0; r < rules; r++) {
+				Set<String> toMatch = new HashSet<>();
+				for (int p = 0; p < patterns; p++) {
+					toMatch.add(rnd.nextDouble() < regex ? regularExpression(rnd) : phrase(rnd));
+				}
+				List<Action> actions = new ArrayList<>(3);
+				actions.add(new Print(sentence(rnd, 8)));
+				if (rnd.nextInt(3) == 0) {
+					actions.add(new ScoreChange(rnd.nextInt(11) - 5));
+				}
+				if (rnd.nextDouble() < dangling) {
+					actions.add(new Go("missing_" + missing++));
+				} else {
+					int target = target(x, r, rnd);
+					if (target >= 0) {
+						actions.add(new Go(sceneName(target)));
+					}
+				}
+				s.rules().add(new Rule(actions, toMatch));
+			}
+		}
+		Game g = new Game(all.get(0), name);
+		try {
+			for (Scene s : all.subList(1, all.size())) {
+				g.addScene(s);
+			}
+		} catch (SceneExists e) {
+			// The names are all different
+			throw new Error(e);
+		}
+		return g;
+	}
+
+	/**
+	 * @param x
+	 *            the index of the scene
+	 * @param r
+	 *            the index of the rule
+	 * @param rnd
+	 *            the random number generator
+	 * @return the index of the scene which the rule should go to, or -1 if
+	 *         the rule should not go anywhere
+	 */
+	private int target(int x, int r, Random rnd) {
+		boolean extra = rnd.nextDouble() < gos;
+		switch (shape) {
+		case CHAIN:
+			if (r == 0) {
+				return (x + 1) % scenes;
+			}
+			return extra ? Math.max(x - 1, 0) : -1;
+		case TREE:
+			if (r < 2 && 2 * x + r + 1 < scenes) {
+				return 2 * x + r + 1;
+			}
+			return extra || r < 2 ? (x - 1) / 2 : -1;
+		case RANDOM:
+		default:
+			if (r == 0) {
+				return (x + 1) % scenes;
+			}
+			return extra ? rnd.nextInt(scenes) : -1;
+		}
+	}
+
+	/**
+	 * @param rnd
+	 *            the random number generator
+	 * @return a random word from {@link #WORDS}
+	 */
+	public static String word(Random rnd) {
+		return WORDS.get(rnd.nextInt(WORDS.size()));
+	}
+
+	/**
+	 * @param rnd
+	 *            the random number generator
+	 * @return one or two random words from {@link #WORDS}
+	 */
+	public static String phrase(Random rnd) {
+		return rnd.nextBoolean() ? word(rnd) : word(rnd) + " " + word(rnd);
+	}
+
+	/**
+	 * @param rnd
+	 *            the random number generator
+	 * @return a regular expression made from {@link #WORDS}, like the ones
+	 *         people write by hand
+	 */
+	public static String regularExpression(Random rnd) {
+		switch (rnd.nextInt(3)) {
+		case 0:
+			return "(" + word(rnd) + "|" + word(rnd) + ") (the )?" + word(rnd);
+		case 1:
+			return word(rnd) + ".*";
+		default:
+			return word(rnd) + "s?|" + word(rnd);
+		}
+	}
+
+	/**
+	 * @param rnd
+	 *            the random number generator
+	 * @param words
+	 *            the number of words
+	 * @return a sentence made of random words from {@link #WORDS}
+	 */
+	public static String sentence(Random rnd, int words) {
+		StringBuilder b = new StringBuilder();
+		for (int x = 0; x < words; x++) {
+			if (x != 0) {
+				b.append(' ');
+			}
+			b.append(word(rnd));
+		}
+		return b.append('.').toString();
+	}
+
+	/**
+	 * Effect: generates the adventure and saves it as {@code <name>_world.txt}
+	 * in the specified directory.
+	 *
+	 * @param dir
+	 *            the directory
+	 * @return the file
+	 * @throws FileNotFoundException
+	 *             if the file cannot be written
+	 */
+	public File writeWorld(File dir) throws FileNotFoundException {
+		dir.mkdirs();
+		File f = new File(dir, name + "_world.txt");
+		PrintStream out = new PrintStream(f);
+		generate().saveWorld(out);
+		out.close();
+		return f;
+	}
+
+	/**
+	 * Effect: generates the adventure and saves it, along with its media, as
+	 * {@code <name>.zip} in the specified directory. The zip file can be
+	 * imported with {@code import adventure}.
+	 *
+	 * @param dir
+	 *            the directory
+	 * @return the zip file
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	public File writeZip(File dir) throws IOException {
+		dir.mkdirs();
+		File f = new File(dir, name + ".zip");
+		writeZip(generate(), f);
+		return f;
+	}
+
+	/**
+	 * Effect: generates the adventure and stores it in a grow root directory,
+	 * just like the game would, and makes it the current adventure. The next
+	 * game started with that root plays it.
+	 *
+	 * @param growRoot
+	 *            the grow root directory
+	 * @return the adventure
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	public Game install(File growRoot) throws IOException {
+		Game g = generate();
+		writeZip(g, new SaveManager(growRoot).adventureFile(name));
+		// The same layout as SaveManager
+		PrintStream state = new PrintStream(new File(new File(growRoot, "state"), name + "_state.txt"));
+		g.saveState(state);
+		state.close();
+		PrintStream current = new PrintStream(new File(new File(growRoot, "program_data"), "current_adventure.txt"));
+		current.println(name);
+		current.close();
+		return g;
+	}
+
+	/**
+	 * Effect: saves the adventure and its media in a zip file, replacing the
+	 * zip file if it exists.
+	 *
+	 * @param g
+	 *            the adventure
+	 * @param f
+	 *            the zip file
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	private void writeZip(Game g, File f) throws IOException {
+		Files.deleteIfExists(f.toPath());
+		ZipLocker zip = new ZipLocker(f);
+		try {
+			PrintStream world = new PrintStream(zip.write(name + "_world.txt"));
+			g.saveWorld(world);
+			world.close();
+
+			// Use a different generator, so that adding media does not change
+			// the adventure
+			Random rnd = new Random(seed + 1);
+			byte[] image = images > 0 ? image(64, 48) : null;
+			byte[] sound = new byte[4096];
+			for (int x = 0; x < scenes; x++) {
+				if (rnd.nextDouble() < images) {
+					OutputStream out = zip.write(sceneName(x) + ".jpeg");
+					out.write(image);
+					out.close();
+				}
+				if (rnd.nextDouble() < sounds) {
+					OutputStream out = zip.write(sceneName(x) + ".mp3");
+					out.write(sound);
+					out.close();
+				}
+			}
+		} finally {
+			zip.close();
+		}
+	}
+
+	/**
+	 * @param width
+	 *            the width
+	 * @param height
+	 *            the height
+	 * @return a JPEG image with a gradient
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	public static byte[] image(int width, int height) throws IOException {
+		BufferedImage b = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				b.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(b, "JPEG", out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Generates an adventure. Every flag takes one argument:
+	 * <ul>
+	 * <li>{@code --out <dir>}: where to put the adventure (the current
+	 * directory by default)</li>
+	 * <li>{@code --format <zip|world|install>}: save a zip file (the default),
+	 * only the {@code _world.txt} file, or install the adventure into the
+	 * grow root {@code --out}</li>
+	 * <li>{@code --seed}, {@code --name}, {@code --scenes}, {@code --rules},
+	 * {@code --patterns}, {@code --regex}, {@code --shape <chain|tree|random>},
+	 * {@code --gos}, {@code --dangling}, {@code --images},
+	 * {@code --sounds}: see the methods with the same names</li>
+	 * </ul>
+	 *
+	 * @param args
+	 *            the arguments
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length % 2 != 0) {
+			System.err.println("Every flag takes one argument.");
+			return;
+		}
+		long seed = 42;
+		for (int x = 0; x < args.length; x += 2) {
+			if (args[x].equals("--seed")) {
+				seed = Long.parseLong(args[x + 1]);
+			}
+		}
+		WorldGenerator gen = new WorldGenerator(seed);
+		File out = new File(".");
+		String format = "zip";
+		for (int x = 0; x < args.length; x += 2) {
+			String value = args[x + 1];
+			switch (args[x]) {
+			case "--seed":
+				break;
+			case "--out":
+				out = new File(value);
+				break;
+			case "--format":
+				format = value;
+				break;
+			case "--name":
+				gen.name(value);
+				break;
+			case "--scenes":
+				gen.scenes(Integer.parseInt(value));
+				break;
+			case "--rules":
+				gen.rules(Integer.parseInt(value));
+				break;
+			case "--patterns":
+				gen.patterns(Integer.parseInt(value));
+				break;
+			case "--regex":
+				gen.regex(Double.parseDouble(value));
+				break;
+			case "--shape":
+				gen.shape(Shape.valueOf(value.toUpperCase(Locale.ROOT)));
+				break;
+			case "--gos":
+				gen.gos(Double.parseDouble(value));
+				break;
+			case "--dangling":
+				gen.dangling(Double.parseDouble(value));
+				break;
+			case "--images":
+				gen.images(Double.parseDouble(value));
+				break;
+			case "--sounds":
+				gen.sounds(Double.parseDouble(value));
+				break;
+			default:
+				System.err.println("Unrecognized flag: " + args[x]);
+				return;
+			}
+		}
+		switch (format) {
+		case "world":
+			System.out.println("Wrote " + gen.writeWorld(out));
+			break;
+		case "install":
+			gen.install(out);
+			System.out.println("Installed " + gen.name + " in " + out);
+			break;
+		case "zip":
+			System.out.println("Wrote " + gen.writeZip(out));
+			break;
+		default:
+			System.err.println("Unrecognized format: " + format);
+		}
+	}
+}
@@ -0,0 +1,485 @@
+package grow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import exceptions.SyntaxError;
+
+/**
+ * Represents: a watch on the file of the adventure being played, so that
+ * changes made to its world file by something else, like an editor, are
+ * brought into the game while it runs. When the file changes, its scenes are
+ * hashed, one block between two scene separators at a time, and compared with
+ * the hashes of the file as it was when the game last read or saved it; only
+ * the scenes whose blocks changed are parsed again. The file is read, hashed,
+ * and parsed on a thread of its own, and the result is kept as a
+ * {@link Reload} until the game thread takes it (see {@link #take()}) and
+ * applies it between turns.
+ *
+ * The game must call {@link #follow(String)} each time it reads or saves the
+ * adventure, since the file is then the same as the game, and what the game
+ * writes should not be loaded again. Each call starts a new generation: a
+ * check which was reading the file when the game saved it is thrown away, and
+ * no check compares the file with the hashes of an older generation.
+ *
+ * The file is read on a thread other than the game thread, so the source must
+ * not mount the ZIP file of the adventure, which the game thread may have
+ * mounted (see {@link SaveManager#readWorldSnapshot(String)}).
+ *
+ * @author Jacob Glueck
+ *
+ */
+class WorldWatcher {
+
+	/**
+	 * How long to wait after the file changes before reading it, in
+	 * milliseconds, since editors often write a file in several steps
+	 */
+	private static final long SETTLE_MS = 250;
+	/**
+	 * The starting value of a 64 bit FNV-1a hash
+	 */
+	private static final long FNV_BASIS = 0xcbf29ce484222325L;
+
+	/**
+	 * Represents: something which opens the world file of an adventure.
+	 *
+	 * @author Jacob Glueck
+	 */
+	@FunctionalInterface
+	interface Source {
+		/**
+		 * @param adventureName
+		 *            the name of the adventure
+		 * @return the stream, which must be closed
+		 * @throws IOException
+		 *             if the file cannot be read
+		 */
+		InputStream open(String adventureName) throws IOException;
+	}
+
+	/**
+	 * Represents: the changes to an adventure which have not been applied to
+	 * the game yet.
+	 *
+	 * @author Jacob Glueck
+	 */
+	static class Reload {
+		/**
+		 * The name of the adventure
+		 */
+		private final String adventureName;
+		/**
+		 * The name of the start scene
+		 */
+		private final String start;
+		/**
+		 * The new and changed scenes, by name
+		 */
+		private final Map<String, Scene> changed;
+		/**
+		 * The names of the scenes which were removed
+		 */
+		private final Set<String> removed;
+
+		/**
+		 * Creates: a reload.
+		 *
+		 * @param adventureName
+		 *            the name of the adventure
+		 * @param start
+		 *            the name of the start scene
+		 * @param changed
+		 *            the new and changed scenes, by name
+		 * @param removed
+		 *            the names of the scenes which were removed
+		 */
+		Reload(String adventureName, String start, Map<String, Scene> changed, Set<String> removed) {
+			this.adventureName = adventureName;
+			this.start = start;
+			this.changed = changed;
+			this.removed = removed;
+		}
+
+		/**
+		 * Creates: the changes of this reload followed by those of a later
+		 * one.
+		 *
+		 * @param later
+		 *            the later reload, of the same adventure
+		 * @return the reload
+		 */
+		Reload then(Reload later) {
+			Map<String, Scene> allChanged = new HashMap<>(changed);
+			allChanged.keySet().removeAll(later.removed);
+			allChanged.putAll(later.changed);
+			Set<String> allRemoved = new HashSet<>(removed);
+			allRemoved.addAll(later.removed);
+			allRemoved.removeAll(later.changed.keySet());
+			return new Reload(adventureName, later.start, allChanged, allRemoved);
+		}
+
+		/**
+		 * @return the name of the adventure
+		 */
+		String adventureName() {
+			return adventureName;
+		}
+
+		/**
+		 * @return the name of the start scene
+		 */
+		String start() {
+			return start;
+		}
+
+		/**
+		 * @return the new and changed scenes
+		 */
+		Collection<Scene> changed() {
+			return Collections.unmodifiableCollection(changed.values());
+		}
+
+		/**
+		 * @return the names of the scenes which were removed
+		 */
+		Set<String> removed() {
+			return Collections.unmodifiableSet(removed);
+		}
+	}
+
+	/**
+	 * Opens the world files
+	 */
+	private final Source source;
+	/**
+	 * Reads, hashes, and parses the world files
+	 */
+	private final ScheduledExecutorService worker;
+	/**
+	 * Tells the watch thread about changes to the directory
+	 */
+	private final WatchService watch;
+	/**
+	 * The name of the adventure being watched, or null if there is none yet
+	 */
+	private volatile String adventureName;
+	/**
+	 * The hash of each scene block of the world file as the game last had it,
+	 * by scene name. Only used by {@link #worker}.
+	 */
+	private Map<String, Long> hashes;
+	/**
+	 * The generation {@link #hashes} belong to. Only used by {@link #worker}.
+	 */
+	private long hashed;
+	/**
+	 * The number of times the game has read or saved the adventure; guarded
+	 * by this watch
+	 */
+	private long generation;
+	/**
+	 * The check which is waiting for the file to settle, or null
+	 */
+	private ScheduledFuture<?> check;
+	/**
+	 * The changes waiting to be applied, or null if there are none
+	 */
+	private final AtomicReference<Reload> pending;
+	/**
+	 * The last problem with the file, which has not been told to the player
+	 * yet, or null
+	 */
+	private final AtomicReference<String> problem;
+
+	/**
+	 * Creates: a watch on a directory of adventures, which starts watching an
+	 * adventure once it is told to follow one.
+	 *
+	 * @param adventureDir
+	 *            the directory of the adventures
+	 * @param source
+	 *            opens the world files
+	 * @throws IOException
+	 *             if the directory cannot be watched
+	 */
+	WorldWatcher(File adventureDir, Source source) throws IOException {
+		this.source = source;
+		hashes = Collections.emptyMap();
+		pending = new AtomicReference<>();
+		problem = new AtomicReference<>();
+		worker = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "grow-reload");
+			t.setDaemon(true);
+			return t;
+		});
+		watch = FileSystems.getDefault().newWatchService();
+		adventureDir.toPath().register(watch, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		Thread watcher = new Thread(this::run, "grow-watch");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	/**
+	 * Effect: watches an adventure, whose file is now the same as the game.
+	 * Must be called each time the game reads or saves the adventure.
+	 *
+	 * @param adventureName
+	 *            the name of the adventure
+	 */
+	void follow(String adventureName) {
+		long gen;
+		synchronized (this) {
+			gen = ++generation;
+			if (!adventureName.equals(this.adventureName)) {
+				pending.set(null);
+				problem.set(null);
+			}
+			this.adventureName = adventureName;
+		}
+		worker.execute(() -> {
+			try {
+				hashes = hash(read(adventureName));
+			} catch (IOException | SyntaxError | RuntimeException e) {
+				hashes = Collections.emptyMap();
+				problem(gen, "Could not read the adventure to watch it: " + e.getMessage());
+			}
+			hashed = gen;
+		});
+	}
+
+	/**
+	 * Effect: takes the changes which are waiting to be applied.
+	 *
+	 * @return the changes, or null if there are none
+	 */
+	Reload take() {
+		return pending.getAndSet(null);
+	}
+
+	/**
+	 * Effect: takes the last problem with the file, which is told to the
+	 * player once.
+	 *
+	 * @return the problem, or null if there is none
+	 */
+	String takeProblem() {
+		return problem.getAndSet(null);
+	}
+
+	/**
+	 * Effect: waits for changes to the directory, and checks the file of the
+	 * adventure once it has settled, for as long as the program runs.
+	 */
+	private void run() {
+		try {
+			while (true) {
+				WatchKey key = watch.take();
+				String name = adventureName;
+				for (WatchEvent<?> e : key.pollEvents()) {
+					if (name != null && e.context() instanceof Path && ((Path) e.context()).toString().equals(name + ".zip")) {
+						schedule(name);
+					}
+				}
+				if (!key.reset()) {
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stop watching
+		}
+	}
+
+	/**
+	 * Effect: checks an adventure once its file has not changed for
+	 * {@link #SETTLE_MS}.
+	 *
+	 * @param name
+	 *            the name of the adventure
+	 */
+	private synchronized void schedule(String name) {
+		if (check != null) {
+			check.cancel(false);
+		}
+		check = worker.schedule(() -> check(name), SETTLE_MS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Effect: reads the file of an adventure, parses the scenes which are
+	 * different from the last time, and adds them to the changes waiting to
+	 * be applied. Runs on {@link #worker}.
+	 *
+	 * @param name
+	 *            the name of the adventure
+	 */
+	private void check(String name) {
+		long gen;
+		synchronized (this) {
+			if (!name.equals(adventureName)) {
+				return;
+			}
+			gen = generation;
+		}
+		if (hashed != gen) {
+			// The game has just read or saved the file, and its hashes are
+			// not ready yet
+			schedule(name);
+			return;
+		}
+		try {
+			List<String> lines = read(name);
+			// The header is hashed too, so a new start scene is a change
+			Map<String, Long> now = hash(lines);
+			if (now.equals(hashes)) {
+				return;
+			}
+			String start = Game.extract("Start: ", lines.get(1), 2);
+			if (!now.containsKey(start)) {
+				throw new SyntaxError(2, "The start scene is not defined!");
+			}
+			StringPool pool = new StringPool();
+			Map<String, Scene> changed = new HashMap<>();
+			List<String> block = new ArrayList<>();
+			int line = 3;
+			for (int x = 2; x < lines.size(); x++) {
+				if (!lines.get(x).equals(Game.SCENE_SEPARATOR)) {
+					block.add(lines.get(x));
+					continue;
+				}
+				String scene = block.get(0).substring("Name: ".length());
+				if (!now.get(scene).equals(hashes.get(scene))) {
+					changed.put(scene, Game.parseScene(block, line, pool));
+				}
+				line += block.size() + 1;
+				block.clear();
+			}
+			Set<String> removed = new HashSet<>(hashes.keySet());
+			removed.removeAll(now.keySet());
+			Reload reload = new Reload(name, start, changed, removed);
+			synchronized (this) {
+				// If the game saved while the file was read, the file is the
+				// game again, and what was read is out of date
+				if (gen == generation) {
+					hashes = now;
+					pending.accumulateAndGet(reload, (old, later) -> old == null || !old.adventureName.equals(later.adventureName) ? later : old.then(later));
+					problem.set(null);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			problem(gen, "Could not read the changed adventure: " + e.getMessage());
+		} catch (SyntaxError e) {
+			problem(gen, "The changed adventure was not loaded: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Effect: keeps a problem with the file to tell the player, unless the
+	 * game has read or saved the file since it was checked.
+	 *
+	 * @param gen
+	 *            the generation the file was checked in
+	 * @param message
+	 *            the problem
+	 */
+	private synchronized void problem(long gen, String message) {
+		if (gen == generation) {
+			problem.set(message);
+		}
+	}
+
+	/**
+	 * @param name
+	 *            the name of an adventure
+	 * @return the lines of its world file
+	 * @throws IOException
+	 *             if it cannot be read
+	 */
+	private List<String> read(String name) throws IOException {
+		List<String> lines = new ArrayList<>();
+		try (Scanner in = new Scanner(source.open(name))) {
+			while (in.hasNextLine()) {
+				lines.add(in.nextLine());
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Hashes each scene block of a world file, and the start scene.
+	 *
+	 * @param lines
+	 *            the lines of the file
+	 * @return the hash of each block, by the name of its scene, and of the
+	 *         header, by the empty string
+	 * @throws SyntaxError
+	 *             if the blocks are not well formed, or two scenes have the
+	 *             same name
+	 */
+	private static Map<String, Long> hash(List<String> lines) throws SyntaxError {
+		if (lines.size() < 2) {
+			throw new SyntaxError(lines.size() + 1, "Expected line, but none found.");
+		}
+		Map<String, Long> hashes = new HashMap<>();
+		hashes.put("", hash(hash(FNV_BASIS, lines.get(0)), lines.get(1)));
+		String name = null;
+		long h = FNV_BASIS;
+		for (int x = 2; x < lines.size(); x++) {
+			String str = lines.get(x);
+			if (str.equals(Game.SCENE_SEPARATOR)) {
+				if (name == null) {
+					throw new SyntaxError(x + 1, "Expected line, but none found.");
+				}
+				if (hashes.put(name, h) != null) {
+					throw new SyntaxError(-1, "Duplicate scene: " + name);
+				}
+				name = null;
+				h = FNV_BASIS;
+			} else {
+				if (name == null) {
+					name = Game.extract("Name: ", str, x + 1);
+				}
+				h = hash(h, str);
+			}
+		}
+		if (name != null) {
+			throw new SyntaxError(lines.size(), "Expected line, but none found.");
+		}
+		return hashes;
+	}
+
+	/**
+	 * @param h
+	 *            the hash so far
+	 * @param line
+	 *            a line
+	 * @return the 64 bit FNV-1a hash of what was hashed so far followed by the
+	 *         characters of the line and a line break
+	 */
+	private static long hash(long h, String line) {
+		for (int x = 0; x < line.length(); x++) {
+			h = (h ^ line.charAt(x)) * 0x100000001b3L;
+		}
+		return (h ^ '\n') * 0x100000001b3L;
+	}
+}
@@ -1,11 +1,12 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
+import grow.StringPool;
 
 /**
  * Represents: an action that can be taken by a grow scene.
@@ -41,7 +42,42 @@ public abstract class Action {
 	 * @return the scene after the action. If the scene is null, the game is
 	 *         over.
 	 */
-	public abstract Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector);
+	public abstract Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector);
+
+	/**
+	 * Effect: starts the action without blocking for input. Just like
+	 * {@link #act(Scene, Game, Scanner, Output, Consumer)}, except that
+	 * any input the action needs is fed to the returned dialog one line at a
+	 * time. By default, runs
+	 * {@link #act(Scene, Game, Scanner, Output, Consumer)} with no input
+	 * available, which is correct for every action that does not read from the
+	 * user. Actions which do read from the user must override this method (see
+	 * {@link InteractiveAction}).
+	 *
+	 * @param current
+	 *            the current scene
+	 * @param world
+	 *            the world in which the action is occurring
+	 * @param output
+	 *            the output from performing the action
+	 * @param injector
+	 *            the injector used to prompt the user
+	 * @return the dialog which receives the rest of the input for this action.
+	 *         If the action needs no input, the dialog is already done.
+	 */
+	public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
+		return Dialog.finish(act(current, world, new Scanner(""), output, injector));
+	}
+
+	/**
+	 * By default, returns the simple name of the class. Actions which are
+	 * anonymous classes should override this.
+	 *
+	 * @return the name of this type of action, used in statistics.
+	 */
+	public String name() {
+		return getClass().getSimpleName();
+	}
 
 	/**
 	 * By default, returns {@code '-'}. You should override this for an action
@@ -81,17 +117,31 @@ public abstract class Action {
 	 * @return the action, or null if unable to parse
 	 */
 	public static Action parseAction(String action) {
+		return parseAction(action, null);
+	}
+
+	/**
+	 * Just like {@link #parseAction(String)}, but keeps the text of print
+	 * actions and the names of the scenes of go actions in a pool.
+	 *
+	 * @param action
+	 *            the action string to parse
+	 * @param pool
+	 *            the pool, or null to not pool the strings
+	 * @return the action, or null if unable to parse
+	 */
+	public static Action parseAction(String action, StringPool pool) {
 		if (action.length() == 0) {
 			return null;
 		} else {
 			switch (action.charAt(0)) {
 			case Print.PREFIX:
-				return new Print(action.substring(1));
+				return new Print(body(action, pool));
 			case Extend.PREFIX:
 				if (action.length() != 1) {
 					break;
 				}
-				return new Extend();
+				return Extend.INSTANCE;
 			case ScoreChange.POSITIVE:
 				int up = tryParse(action.substring(1));
 				if (up >= 0) {
@@ -112,32 +162,44 @@ public abstract class Action {
 				if (action.length() < 2) {
 					break;
 				}
-				return new Go(action.substring(1));
+				return new Go(body(action, pool));
 			case Quit.PREFIX:
 				if (action.length() != 1) {
 					break;
 				}
-				return new Quit();
+				return Quit.INSTANCE;
 			case Restart.PREFIX:
 				if (action.length() != 1) {
 					break;
 				}
-				return new Restart();
+				return Restart.INSTANCE;
 			case View.PREFIX:
 				if (action.length() != 1) {
 					break;
 				}
-				return new View();
+				return View.INSTANCE;
 			case ScoreDisplay.PREFIX:
 				if (action.length() != 1) {
 					break;
 				}
-				return new ScoreDisplay();
+				return ScoreDisplay.INSTANCE;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * @param action
+	 *            an action string
+	 * @param pool
+	 *            the pool, or null to not pool the strings
+	 * @return the action string without its prefix, from the pool
+	 */
+	private static String body(String action, StringPool pool) {
+		String body = action.substring(1);
+		return pool == null ? body : pool.intern(body);
+	}
+
 	/**
 	 * Tries to parse a positive integer from the string. Returns a negative
 	 * number if failed.
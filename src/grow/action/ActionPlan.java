@@ -0,0 +1,180 @@
+package grow.action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.Consumer;
+
+import grow.Game;
+import grow.Output;
+import grow.Scene;
+
+/**
+ * Represents: the actions of a rule, compiled into an immutable array of
+ * steps which the game runs one after another. Runs of {@link Print} actions
+ * become one step which prints each text in turn, and runs of
+ * {@link ScoreChange} actions become one step which changes the score once,
+ * but still tells the user about each change, with the score after it, so a
+ * plan does exactly what its actions do. The other actions are steps as they
+ * are; {@link Go} actions keep the scene they go to once they have looked it
+ * up, and the actions with no state are shared (see
+ * {@link Action#parseAction(String)}).
+ *
+ * A plan does not change when the actions it was made from do, so a turn which
+ * is waiting for input finishes the actions it started with. See
+ * {@link grow.Rule#plan()} for the plan of a rule, which is made again when
+ * its actions change.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public final class ActionPlan {
+
+	/**
+	 * The steps
+	 */
+	private final Action[] steps;
+
+	/**
+	 * Creates: a plan with some steps.
+	 *
+	 * @param steps
+	 *            the steps
+	 */
+	private ActionPlan(Action[] steps) {
+		this.steps = steps;
+	}
+
+	/**
+	 * Creates: the plan for some actions.
+	 *
+	 * @param actions
+	 *            the actions
+	 * @return the plan
+	 */
+	public static ActionPlan compile(List<Action> actions) {
+		List<Action> steps = new ArrayList<>(actions.size());
+		int x = 0;
+		while (x < actions.size()) {
+			Class<?> type = actions.get(x).getClass();
+			int end = x + 1;
+			if (type == Print.class || type == ScoreChange.class) {
+				while (end < actions.size() && actions.get(end).getClass() == type) {
+					end++;
+				}
+			}
+			if (end - x == 1) {
+				steps.add(actions.get(x));
+			} else if (type == Print.class) {
+				steps.add(new Prints(actions.subList(x, end)));
+			} else {
+				steps.add(new ScoreChanges(actions.subList(x, end)));
+			}
+			x = end;
+		}
+		return new ActionPlan(steps.toArray(new Action[steps.size()]));
+	}
+
+	/**
+	 * @return the number of steps
+	 */
+	public int size() {
+		return steps.length;
+	}
+
+	/**
+	 * @param index
+	 *            the index of a step
+	 * @return the step
+	 */
+	public Action step(int index) {
+		return steps[index];
+	}
+
+	/**
+	 * Represents: a step which prints several texts, one after another.
+	 *
+	 * @author Jacob Glueck
+	 */
+	private static class Prints extends Action {
+
+		/**
+		 * The texts
+		 */
+		private final String[] texts;
+
+		/**
+		 * Creates: a step for a run of print actions.
+		 *
+		 * @param prints
+		 *            the print actions
+		 */
+		Prints(List<Action> prints) {
+			texts = new String[prints.size()];
+			for (int x = 0; x < texts.length; x++) {
+				texts[x] = ((Print) prints.get(x)).toPrint();
+			}
+		}
+
+		@Override
+		public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
+			for (String text : texts) {
+				output.println(text);
+			}
+			return current;
+		}
+
+		@Override
+		public String name() {
+			return Print.class.getSimpleName();
+		}
+	}
+
+	/**
+	 * Represents: a step which changes the score several times at once.
+	 *
+	 * @author Jacob Glueck
+	 */
+	private static class ScoreChanges extends Action {
+
+		/**
+		 * The changes
+		 */
+		private final int[] changes;
+		/**
+		 * The sum of the changes
+		 */
+		private final int total;
+
+		/**
+		 * Creates: a step for a run of score change actions.
+		 *
+		 * @param scoreChanges
+		 *            the score change actions
+		 */
+		ScoreChanges(List<Action> scoreChanges) {
+			changes = new int[scoreChanges.size()];
+			int sum = 0;
+			for (int x = 0; x < changes.length; x++) {
+				changes[x] = ((ScoreChange) scoreChanges.get(x)).change();
+				sum += changes[x];
+			}
+			total = sum;
+		}
+
+		@Override
+		public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
+			int score = world.score().increment(total) - total;
+			for (int change : changes) {
+				score += change;
+				output.score(ScoreChange.describe(change), score);
+			}
+			return current;
+		}
+
+		@Override
+		public String name() {
+			return ScoreChange.class.getSimpleName();
+		}
+	}
+}
@@ -1,10 +1,9 @@
 package grow.action;
 
-import java.io.PrintStream;
-import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -13,17 +12,18 @@ import grow.Scene;
  * @author Jacob Glueck
  *
  */
-public class ChangeDescription extends Action {
+public class ChangeDescription extends InteractiveAction {
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
 		return Util.handleCancel(current, output, () -> {
 			injector.accept(current.description());
-			String description = Util.read(output, input, "What would you like the new description for scene \"" + current.name() + "\" to be?", "Bad description", (s) -> s);
-			current.setDescription(description);
-			output.println("Description set.");
-			// Re-enter the room with the new description
-			return new Go(current.name()).act(current, world, input, output, injector);
+			return Util.read(output, "What would you like the new description for scene \"" + current.name() + "\" to be?", "Bad description", (s) -> s, (description) -> {
+				current.setDescription(world.pool().intern(description));
+				output.println("Description set.");
+				// Re-enter the room with the new description
+				return new Go(current.name()).begin(current, world, output, injector);
+			});
 		});
 	}
 
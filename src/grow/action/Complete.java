@@ -0,0 +1,54 @@
+package grow.action;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import grow.Game;
+import grow.Output;
+import grow.Scene;
+
+/**
+ * Represents: an action which asks for the start of a line of input, and lists
+ * the commands and patterns of the current scene which it could be completed
+ * to. This is how completions are shown in text mode, where there is no input
+ * area to complete in.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class Complete extends InteractiveAction {
+
+	/**
+	 * Finds the completions of the start of a line
+	 */
+	private final Function<String, List<String>> completer;
+
+	/**
+	 * Creates: a new action which finds completions with a function.
+	 *
+	 * @param completer
+	 *            the function, which takes the start of a line and returns
+	 *            what it could be completed to
+	 */
+	public Complete(Function<String, List<String>> completer) {
+		this.completer = completer;
+	}
+
+	@Override
+	public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
+		return Util.handleCancel(current, output, () -> {
+			return Util.read(output, "What have you typed so far?", "Type the start of a command.", (s) -> s.length() == 0 ? null : s, (prefix) -> {
+				List<String> completions = completer.apply(prefix);
+				if (completions.isEmpty()) {
+					output.println("Nothing starts with \"" + prefix + "\".");
+				} else {
+					for (String c : completions) {
+						output.println(c);
+					}
+				}
+				return Dialog.finish(current);
+			});
+		});
+	}
+}
@@ -0,0 +1,93 @@
+package grow.action;
+
+import java.util.Scanner;
+
+import exceptions.CanceledException;
+import grow.Scene;
+
+/**
+ * Represents: an exchange with the user which does not block waiting for
+ * input. Instead of reading from a {@link Scanner}, a dialog is fed one line of
+ * input at a time, and each line produces the dialog which should receive the
+ * next line. A dialog which is done holds the scene that resulted from the
+ * exchange.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public interface Dialog {
+
+	/**
+	 * Effect: processes one line of input from the user.
+	 *
+	 * @param line
+	 *            the line, without the trailing new line
+	 * @return the dialog which should receive the next line. May be
+	 *         {@code this}.
+	 * @throws CanceledException
+	 *             if the user typed {@code :cancel}.
+	 */
+	Dialog feed(String line) throws CanceledException;
+
+	/**
+	 * @return true only if this dialog needs no more input.
+	 */
+	default boolean done() {
+		return false;
+	}
+
+	/**
+	 * Throws an {@link IllegalStateException} if this dialog is not done.
+	 *
+	 * @return the scene after the dialog. If the scene is null, the game is
+	 *         over.
+	 */
+	default Scene result() {
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Creates: a dialog which is done and needs no input.
+	 *
+	 * @param result
+	 *            the scene after the dialog
+	 * @return the dialog
+	 */
+	static Dialog finish(Scene result) {
+		return new Dialog() {
+			@Override
+			public Dialog feed(String line) {
+				throw new IllegalStateException();
+			}
+
+			@Override
+			public boolean done() {
+				return true;
+			}
+
+			@Override
+			public Scene result() {
+				return result;
+			}
+		};
+	}
+
+	/**
+	 * Effect: feeds lines from {@code input} to the dialog until it is done.
+	 * Blocks while waiting for input.
+	 *
+	 * @param d
+	 *            the dialog
+	 * @param input
+	 *            the input
+	 * @return the scene after the dialog
+	 * @throws CanceledException
+	 *             if the user typed {@code :cancel}.
+	 */
+	static Scene run(Dialog d, Scanner input) throws CanceledException {
+		while (!d.done()) {
+			d = d.feed(input.nextLine());
+		}
+		return d.result();
+	}
+}
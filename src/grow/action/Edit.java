@@ -1,15 +1,15 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import exceptions.CanceledException;
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -17,84 +17,106 @@ import grow.Scene;
  *
  * @author Jacob Glueck
  */
-public class Edit extends Action {
+public class Edit extends InteractiveAction {
 
 	/**
 	 * Used to indicate no action
 	 */
 	private static final Action noAction = new Action() {
 		@Override
-		public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+		public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 			return null;
 		}
 	};
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
-		return Util.handleCancel(current, output, () -> {
-			int num = Util.getRuleNumber("What rule would you like to edit?", output, input, world);
-			output.println("What would you like to do?");
+	public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
+		return Util.handleCancel(current, output, () -> Util.getRuleNumber("What rule would you like to edit?", output, world, (num) -> {
+			output.prompt("What would you like to do?");
 			List<String> choices = Arrays.asList("Edit patterns", "Edit actions", "Reorder actions");
 			Util.printNumberedList("", ".", 0, 5, output, choices);
-			// Subtract 1 because the numbering starts at 1.
-			int option = Util.readInt(output, input, "", "Not a valid choice", 0, choices.size()) - 1;
-			switch (option) {
-			case 0:
-				editPatterns(current, world, input, output, injector, num);
-				break;
-			case 1:
-				editActions(current, world, input, output, injector, num);
-				break;
-			case 2:
-				reorderActions(current, world, input, output, num);
-				break;
-			}
-			output.println("Edit complete.");
-			return current;
-		});
+			Supplier<Dialog> complete = () -> {
+				output.println("Edit complete.");
+				return Dialog.finish(current);
+			};
+			return Util.readInt(output, "", "Not a valid choice", 0, choices.size(), (choice) -> {
+				// Subtract 1 because the numbering starts at 1.
+				int option = choice - 1;
+				switch (option) {
+				case 0:
+					return editPatterns(world, output, injector, num, complete);
+				case 1:
+					return editActions(world, output, injector, num, complete);
+				case 2:
+					return reorderActions(world, output, num, complete);
+				}
+				return complete.get();
+			});
+		}));
 	}
 
 	/**
 	 * Allows the user to remove and add patterns.
 	 *
-	 * @param current
-	 *            the current scene
 	 * @param world
 	 *            the world
-	 * @param input
-	 *            the input
 	 * @param output
 	 *            the output
 	 * @param injector
 	 *            the injector used to prompt the user
 	 * @param index
 	 *            the index of the rule to edit
-	 * @throws CanceledException
-	 *             if the user cancels the edit
+	 * @param then
+	 *            the rest of the edit, once the patterns have been edited
+	 * @return the dialog which edits the patterns
 	 */
-	private static void editPatterns(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector, int index) throws CanceledException {
+	private static Dialog editPatterns(Game world, Output output, Consumer<String> injector, int index, Supplier<Dialog> then) {
 		// Make sure there are some patterns
-		while (world.current().rules().get(index).patterns().size() != 0) {
-			output.println("Which pattern would you like to edit? (Hit enter if you do not want to edit.)");
-			Util.printNumberedList("", ".", 0, 5, output, world.current().rules().get(index).patterns());
-			List<Integer> toEdit = Util.readInts(output, input, "Bad pattern number.", 1, world.current().rules().get(index).patterns().size(), 0, 1);
-			if (!toEdit.isEmpty()) {
-				// Subtract 1 because we have to edit
-				String pattern = getAtIndex(world.current().rules().get(index).patterns(), toEdit.get(0) - 1);
-				injector.accept(pattern);
-				String newPattern = Util.read(output, input, "Editing: " + pattern, "Bad pattern.", (s) -> s);
-				world.current().rules().get(index).patterns().remove(pattern);
+		if (world.current().rules().get(index).patterns().size() == 0) {
+			return addPatterns(world, output, index, then);
+		}
+		output.prompt("Which pattern would you like to edit? (Hit enter if you do not want to edit.)");
+		Util.printNumberedList("", ".", 0, 5, output, world.current().rules().get(index).patterns());
+		return Util.readInts(output, "Bad pattern number.", 1, world.current().rules().get(index).patterns().size(), 0, 1, (toEdit) -> {
+			if (toEdit.isEmpty()) {
+				return addPatterns(world, output, index, then);
+			}
+			// Subtract 1 because we have to edit
+			String pattern = getAtIndex(world.current().rules().get(index).patterns(), toEdit.get(0) - 1);
+			injector.accept(pattern);
+			return Util.read(output, "Editing: " + pattern, "Bad pattern.", Util.patternConverter(output, world.pool()), (newPattern) -> {
+				world.current().removePattern(world.current().rules().get(index), pattern);
 				if (newPattern.length() != 0) {
-					world.current().rules().get(index).patterns().add(newPattern);
+					world.current().addPattern(world.current().rules().get(index), newPattern);
 					output.println("Changed \"" + pattern + "\" to \"" + newPattern + "\".");
 				} else {
 					output.println("Removed: " + pattern);
 				}
-			} else {
-				break;
+				return editPatterns(world, output, injector, index, then);
+			});
+		});
+	}
+
+	/**
+	 * Allows the user to add patterns.
+	 *
+	 * @param world
+	 *            the world
+	 * @param output
+	 *            the output
+	 * @param index
+	 *            the index of the rule to edit
+	 * @param then
+	 *            the rest of the edit, once the patterns have been added
+	 * @return the dialog which adds the patterns
+	 */
+	private static Dialog addPatterns(Game world, Output output, int index, Supplier<Dialog> then) {
+		return Util.readList(output, "Enter patterns to add: ", "Bad pattern!", Util.patternConverter(output, world.pool()), "List error.", (l) -> true, (l) -> {
+			for (String pattern : l) {
+				world.current().addPattern(world.current().rules().get(index), pattern);
 			}
-		}
-		world.current().rules().get(index).patterns().addAll(Util.readList(output, input, "Enter patterns to add: ", "Bad pattern!", (s) -> s, "List error.", (l) -> true));
+			return then.get();
+		});
 	}
 
 	/**
@@ -126,78 +148,97 @@ public class Edit extends Action {
 	/**
 	 * Allows the user to remove and add actions
 	 *
-	 * @param current
-	 *            the current scene
 	 * @param world
 	 *            the world
-	 * @param input
-	 *            the input
 	 * @param output
 	 *            the output
 	 * @param injector
 	 *            the injector for prompting the user
 	 * @param index
 	 *            the index of the rule to edit
-	 * @throws CanceledException
-	 *             if the user cancels the edit
+	 * @param then
+	 *            the rest of the edit, once the actions have been edited
+	 * @return the dialog which edits the actions
 	 */
-	private static void editActions(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector, int index) throws CanceledException {
+	private static Dialog editActions(Game world, Output output, Consumer<String> injector, int index, Supplier<Dialog> then) {
 		// Make sure there are some patterns
-		while (world.current().rules().get(index).actions().size() != 0) {
-			output.println("Which action would you like to edit? (Hit enter if you do not want to edit.)");
-			Util.printNumberedList("", ".", 0, 5, output, world.current().rules().get(index).actions());
-			List<Integer> toEdit = Util.readInts(output, input, "Bad action number.", 1, world.current().rules().get(index).actions().size(), 0, 1);
-			if (!toEdit.isEmpty()) {
-				// Subtract 1 because we have to edit
-				int actionIndex = toEdit.get(0) - 1;
-				Action action = world.current().rules().get(index).actions().get(actionIndex);
-				injector.accept(action.toString());
-				Action newAction = Util.read(output, input, "Editing: " + action, "Bad action.", (str) -> {
-					if (str.length() == 0) {
-						return noAction;
-					} else {
-						return Util.actionConverter.apply(str);
-					}
-				});
-				world.current().rules().get(index).actions().remove(actionIndex);
+		if (world.current().rules().get(index).actions().size() == 0) {
+			return addActions(world, output, index, then);
+		}
+		output.prompt("Which action would you like to edit? (Hit enter if you do not want to edit.)");
+		Util.printNumberedList("", ".", 0, 5, output, world.current().rules().get(index).actions());
+		return Util.readInts(output, "Bad action number.", 1, world.current().rules().get(index).actions().size(), 0, 1, (toEdit) -> {
+			if (toEdit.isEmpty()) {
+				return addActions(world, output, index, then);
+			}
+			// Subtract 1 because we have to edit
+			int actionIndex = toEdit.get(0) - 1;
+			Action action = world.current().rules().get(index).actions().get(actionIndex);
+			injector.accept(action.toString());
+			return Util.read(output, "Editing: " + action, "Bad action.", (str) -> {
+				if (str.length() == 0) {
+					return noAction;
+				} else {
+					return Util.actionConverter(world.pool()).apply(str);
+				}
+			}, (newAction) -> {
+				world.current().removeAction(world.current().rules().get(index), actionIndex);
 				if (newAction != noAction) {
-					world.current().rules().get(index).actions().add(newAction);
+					world.current().addAction(world.current().rules().get(index), newAction);
 					output.println("Changed \"" + action + "\" to \"" + newAction + "\".");
 				} else {
 					output.println("Removed: " + action);
 				}
-			} else {
-				break;
+				return editActions(world, output, injector, index, then);
+			});
+		});
+	}
+
+	/**
+	 * Allows the user to add actions.
+	 *
+	 * @param world
+	 *            the world
+	 * @param output
+	 *            the output
+	 * @param index
+	 *            the index of the rule to edit
+	 * @param then
+	 *            the rest of the edit, once the actions have been added
+	 * @return the dialog which adds the actions
+	 */
+	private static Dialog addActions(Game world, Output output, int index, Supplier<Dialog> then) {
+		return Util.readList(output, "Actions to add: ", "Bad pattern!", Util.actionConverter(world.pool()), "List error.", (l) -> true, (l) -> {
+			for (Action a : l) {
+				world.current().addAction(world.current().rules().get(index), a);
 			}
-		}
-		world.current().rules().get(index).actions().addAll(Util.readList(output, input, "Actions to add: ", "Bad pattern!", Util.actionConverter, "List error.", (l) -> true));
+			return then.get();
+		});
 	}
 
 	/**
 	 * Allows the user to change the order of the actions
 	 *
-	 * @param current
-	 *            the current scene
 	 * @param world
 	 *            the world
-	 * @param input
-	 *            the input stream
 	 * @param output
 	 *            the output stream
 	 * @param index
 	 *            the index of the rule to edit
-	 * @throws CanceledException
-	 *             if the user cancels the edit
+	 * @param then
+	 *            the rest of the edit, once the actions have been reordered
+	 * @return the dialog which reorders the actions
 	 */
-	private static void reorderActions(Scene current, Game world, Scanner input, PrintStream output, int index) throws CanceledException {
-		output.println("Enter the new action order as a list of space-separated integers.");
+	private static Dialog reorderActions(Game world, Output output, int index, Supplier<Dialog> then) {
+		output.prompt("Enter the new action order as a list of space-separated integers.");
 		Util.printNumberedList("", ".", 0, 5, output, world.current().rules().get(index).actions());
-		List<Integer> order = Util.readInts(output, input, "Bad list!", 1, world.current().rules().get(index).actions().size(), world.current().rules().get(index).actions().size());
-		ArrayList<Action> newActions = new ArrayList<>(world.current().rules().get(index).actions().size());
-		for (Integer i : order) {
-			newActions.add(world.current().rules().get(index).actions().get(i - 1));
-		}
-		world.current().rules().get(index).actions().clear();
-		world.current().rules().get(index).actions().addAll(newActions);
+		return Util.readInts(output, "Bad list!", 1, world.current().rules().get(index).actions().size(), world.current().rules().get(index).actions().size(), (order) -> {
+			List<Integer> indexes = new ArrayList<>(order.size());
+			for (Integer i : order) {
+				indexes.add(i - 1);
+			}
+			world.current().rules().get(index).reorderActions(indexes);
+			return then.get();
+		});
 	}
 }
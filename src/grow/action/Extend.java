@@ -1,15 +1,13 @@
 package grow.action;
 
-import java.io.PrintStream;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Rule;
 import grow.Scene;
+import util.ArraySet;
 
 /**
  * Represents: an action that allows the user to add a rule to a scene.
@@ -17,22 +15,36 @@ import grow.Scene;
  * @author Jacob Glueck
  *
  */
-public class Extend extends Action {
+public class Extend extends InteractiveAction {
 
 	/**
 	 * The action prefix
 	 */
 	public static final char PREFIX = 'x';
 
+	/**
+	 * The extend action, which is shared by every rule which extends a scene
+	 */
+	public static final Extend INSTANCE = new Extend();
+
+	/**
+	 * Creates: the extend action.
+	 */
+	private Extend() {
+	}
+
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
 		return Util.handleCancel(current, output, () -> {
-			Set<String> toMatch = new HashSet<>();
-			toMatch.addAll(Util.readList(output, input, "Patterns to match (case insensitive, regex supported): ", "Bad pattern!", (s) -> s, "List error?", (l) -> true));
-			List<Action> a = Util.readList(output, input, "Actions: ", "Bad action!", Util.actionConverter, "List error?", (l) -> true);
-			current.rules().add(new Rule(a, toMatch));
-			output.println("Extension complete.");
-			return new Go(current.name()).act(current, world, input, output, injector);
+			Set<String> toMatch = new ArraySet<>();
+			return Util.readList(output, "Patterns to match (case insensitive, regex supported): ", "Bad pattern!", Util.patternConverter(output, world.pool()), "List error?", (l) -> true, (patterns) -> {
+				toMatch.addAll(patterns);
+				return Util.readList(output, "Actions: ", "Bad action!", Util.actionConverter(world.pool()), "List error?", (l) -> true, (a) -> {
+					current.addRule(new Rule(a, toMatch));
+					output.println("Extension complete.");
+					return new Go(current.name()).begin(current, world, output, injector);
+				});
+			});
 		});
 	}
 
@@ -1,11 +1,10 @@
 package grow.action;
 
-import java.io.PrintStream;
-import java.util.Scanner;
 import java.util.function.Consumer;
 
 import exceptions.SceneExists;
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -13,7 +12,7 @@ import grow.Scene;
  *
  * @author Jacob Glueck
  */
-public class Go extends Action {
+public class Go extends InteractiveAction {
 
 	/**
 	 * The prefix
@@ -25,10 +24,18 @@ public class Go extends Action {
 	 */
 	private final String next;
 
+	/**
+	 * The version of the game the next node was last looked up in (see
+	 * {@link Game#version()}) in the high 32 bits, and its ID (or -1 if it did
+	 * not exist) in the low 32 bits. Both are kept in one field so that they
+	 * are always read together.
+	 */
+	private long resolved;
+
 	/**
 	 * Creates: a new action that goes to the specified node. If the node is
-	 * empty, {@link #act(Scene, Game, Scanner, PrintStream, Consumer)} will
-	 * make an empty node.
+	 * empty, {@link #begin(Scene, Game, Output, Consumer)} will make an
+	 * empty node.
 	 *
 	 * @param next
 	 *            the next node.
@@ -38,24 +45,67 @@ public class Go extends Action {
 	}
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
-		if (world.getScene(next) == null) {
+	public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
+		Scene toGo = resolve(world);
+		if (toGo == null) {
 			output.println("Creating new scene: " + next);
-			output.println("Description: ");
-			Scene empty = new Scene(next, input.nextLine());
-			try {
-				world.addScene(empty);
-			} catch (SceneExists e) {
-				// This should never happen.
-				throw new Error();
-			}
-			// output.println("Your new scene is empty. Extend it!");
-			// Give the user a chance to extend the scene if it is empty
-			// new Extend().act(empty, world, input, output);
+			output.prompt("Description: ");
+			return (line) -> {
+				Scene empty = new Scene(next, world.pool().intern(line));
+				try {
+					world.addScene(empty);
+				} catch (SceneExists e) {
+					// This should never happen.
+					throw new Error();
+				}
+				// output.println("Your new scene is empty. Extend it!");
+				// Give the user a chance to extend the scene if it is empty
+				// new Extend().act(empty, world, input, output);
+				return enter(empty, output);
+			};
+		}
+		return enter(toGo, output);
+	}
+
+	/**
+	 * Finds the next node, looking it up by name only the first time and after
+	 * the scenes of the game change.
+	 *
+	 * @param world
+	 *            the world
+	 * @return the next node, or null if it does not exist
+	 */
+	private Scene resolve(Game world) {
+		long r = resolved;
+		int id;
+		if ((int) (r >>> 32) == world.version()) {
+			id = (int) r;
+		} else {
+			id = world.id(next);
+			resolved = ((long) world.version() << 32) | (id & 0xFFFFFFFFL);
 		}
-		Scene toGo = world.getScene(next);
-		output.println(toGo.description());
-		return toGo;
+		return world.scene(id);
+	}
+
+	/**
+	 * @return the name of the scene to go to
+	 */
+	public String target() {
+		return next;
+	}
+
+	/**
+	 * Effect: prints the description of the next scene.
+	 *
+	 * @param toGo
+	 *            the next scene
+	 * @param output
+	 *            the output
+	 * @return a finished dialog which goes to the next scene
+	 */
+	private Dialog enter(Scene toGo, Output output) {
+		output.enter(toGo);
+		return Dialog.finish(toGo);
 	}
 
 	@Override
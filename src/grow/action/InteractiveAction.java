@@ -0,0 +1,34 @@
+package grow.action;
+
+import java.util.Scanner;
+import java.util.function.Consumer;
+
+import exceptions.CanceledException;
+import grow.Game;
+import grow.Output;
+import grow.Scene;
+
+/**
+ * Represents: an action which needs input from the user. The action is written
+ * once, as a {@link Dialog}, and the blocking
+ * {@link #act(Scene, Game, Scanner, Output, Consumer)} simply feeds the
+ * dialog lines from the scanner.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public abstract class InteractiveAction extends Action {
+
+	@Override
+	public final Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
+		try {
+			return Dialog.run(begin(current, world, output, injector), input);
+		} catch (CanceledException e) {
+			output.println("Canceled.");
+			return current;
+		}
+	}
+
+	@Override
+	public abstract Dialog begin(Scene current, Game world, Output output, Consumer<String> injector);
+}
@@ -1,10 +1,10 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -42,7 +42,7 @@ public class Print extends Action {
 	}
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 		output.println(toPrint);
 		return current;
 	}
@@ -0,0 +1,29 @@
+package grow.action;
+
+import java.util.Scanner;
+import java.util.function.Consumer;
+
+import grow.Game;
+import grow.Output;
+import grow.ProfileReport;
+import grow.Scene;
+
+/**
+ * Represents: an action which prints out the profile report (see
+ * {@link ProfileReport}) for the rules of the current scene.
+ *
+ * @author Jacob Glueck
+ */
+public class ProfileDisplay extends Action {
+
+	/**
+	 * The number of rules to list in each ranking
+	 */
+	public static final int TOP = 10;
+
+	@Override
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
+		ProfileReport.printScene(current, TOP, output);
+		return current;
+	}
+}
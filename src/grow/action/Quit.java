@@ -1,10 +1,10 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -19,10 +19,21 @@ public class Quit extends Action {
 	 */
 	public static final char PREFIX = 'q';
 
+	/**
+	 * The quit action. It has no state, so one is shared by every rule.
+	 */
+	public static final Quit INSTANCE = new Quit();
+
+	/**
+	 * Creates: the quit action.
+	 */
+	private Quit() {
+	}
+
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 		// Display the score
-		new ScoreDisplay().act(current, world, input, output, injector);
+		ScoreDisplay.INSTANCE.act(current, world, input, output, injector);
 		// Null means that the game is over!
 		return null;
 	}
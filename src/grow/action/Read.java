@@ -1,12 +1,12 @@
 package grow.action;
 
 import java.io.InputStream;
-import java.io.PrintStream;
 import java.util.Scanner;
 import java.util.function.Consumer;
 
 import exceptions.GrowException;
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -44,7 +44,7 @@ public class Read extends Action {
 	}
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 		try {
 			Scanner adventure = new Scanner(adventureFile);
 			if (stateFile != null) {
@@ -58,8 +58,7 @@ public class Read extends Action {
 			}
 			adventure.close();
 		} catch (GrowException e) {
-			output.printf("Problem with reading state (%s) or adventure (%s): %s", stateFile.toString(), adventureFile.toString(), e.getMessage());
-			output.println();
+			output.error(String.format("Problem with reading state (%s) or adventure (%s): %s", stateFile.toString(), adventureFile.toString(), e.getMessage()));
 		}
 		return world.current();
 	}
@@ -1,28 +1,27 @@
 package grow.action;
 
-import java.io.PrintStream;
-import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
- * Represents: an action that allows the user to remove a single rule from a
- * scene.
+ * Represents: an action that allows the user to remove one or more rules
+ * from a scene.
  *
  * @author Jacob Glueck
  *
  */
-public class Remove extends Action {
+public class Remove extends InteractiveAction {
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
-		return Util.handleCancel(current, output, () -> {
-			current.rules().remove(Util.getRuleNumber("What rule would you like to remove?", output, input, world));
+	public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
+		return Util.handleCancel(current, output, () -> Util.getRuleNumbers("What rules would you like to remove? Enter their numbers, separated by spaces.", output, world, (nums) -> {
+			current.removeRules(nums);
 			output.println("Done.");
-			return new Go(current.name()).act(current, world, input, output, injector);
-		});
+			return new Go(current.name()).begin(current, world, output, injector);
+		}));
 	}
 
 }
@@ -1,13 +1,11 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
-import grow.Rule;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -17,22 +15,22 @@ import grow.Scene;
  * @author Jacob Glueck
  *
  */
-public class Reorder extends Action {
+public class Reorder extends InteractiveAction {
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Dialog begin(Scene current, Game world, Output output, Consumer<String> injector) {
 		return Util.handleCancel(current, output, () -> {
-			output.println("Enter the new rule order as a list of space-seperated integers.");
-			new View().act(current, world, input, output, injector);
-			List<Integer> order = Util.readInts(output, input, "Bad list!", 1, world.current().rules().size(), world.current().rules().size());
-			ArrayList<Rule> newRules = new ArrayList<>(world.current().rules().size());
-			for (Integer i : order) {
-				newRules.add(world.current().rules().get(i - 1));
-			}
-			world.current().rules().clear();
-			world.current().rules().addAll(newRules);
-			output.println("Reorder complete.");
-			return new Go(current.name()).act(current, world, input, output, injector);
+			output.prompt("Enter the new rule order as a list of space-seperated integers.");
+			View.INSTANCE.begin(current, world, output, injector);
+			return Util.readInts(output, "Bad list!", 1, world.current().rules().size(), world.current().rules().size(), (order) -> {
+				List<Integer> indexes = new ArrayList<>(order.size());
+				for (Integer i : order) {
+					indexes.add(i - 1);
+				}
+				world.current().reorderRules(indexes);
+				output.println("Reorder complete.");
+				return new Go(current.name()).begin(current, world, output, injector);
+			});
 		});
 	}
 }
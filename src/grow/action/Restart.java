@@ -1,10 +1,10 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -21,8 +21,19 @@ public class Restart extends Action {
 	 */
 	public static final char PREFIX = 'r';
 
+	/**
+	 * The restart action, which is shared by every rule which restarts
+	 */
+	public static final Restart INSTANCE = new Restart();
+
+	/**
+	 * Creates: the restart action.
+	 */
+	private Restart() {
+	}
+
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 		world.restart();
 		// Go to the starting stage.
 		return new Go(world.current().name()).act(null, world, input, output, injector);
@@ -6,6 +6,7 @@ import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -41,7 +42,7 @@ public class Save extends Action {
 	}
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 		PrintStream adventureOut = new PrintStream(adventureFile);
 		world.saveWorld(adventureOut);
 		adventureOut.close();
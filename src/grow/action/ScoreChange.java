@@ -1,10 +1,10 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -41,12 +41,28 @@ public class ScoreChange extends Action {
 	}
 
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
-		world.score().increment(change);
-		output.println((change >= 0 ? POSITIVE : NEGATIVE) + " " + Math.abs(change));
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
+		int score = world.score().increment(change);
+		output.score(describe(change), score);
 		return current;
 	}
 
+	/**
+	 * @return the amount to change the score by
+	 */
+	public int change() {
+		return change;
+	}
+
+	/**
+	 * @param change
+	 *            a change in the score
+	 * @return the text which tells the user about it
+	 */
+	static String describe(int change) {
+		return (change >= 0 ? POSITIVE : NEGATIVE) + " " + Math.abs(change);
+	}
+
 	@Override
 	public char commandPrefix() {
 		if (change >= 0) {
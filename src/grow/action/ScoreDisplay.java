@@ -1,10 +1,10 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.Scanner;
 import java.util.function.Consumer;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -19,8 +19,20 @@ public class ScoreDisplay extends Action {
 	 */
 	public static final char PREFIX = 's';
 
+	/**
+	 * The score display action, which is shared by every rule which shows
+	 * the score
+	 */
+	public static final ScoreDisplay INSTANCE = new ScoreDisplay();
+
+	/**
+	 * Creates: the score display action.
+	 */
+	private ScoreDisplay() {
+	}
+
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 		output.println("Your score is: " + world.score().score());
 		return current;
 	}
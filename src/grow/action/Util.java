@@ -7,15 +7,17 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import exceptions.CanceledException;
 import grow.Game;
+import grow.Output;
 import grow.Rule;
 import grow.Scene;
+import grow.StringPool;
 
 /**
  * A utility class, full of only static methods, that simplifies collecting user
@@ -32,10 +34,41 @@ public class Util {
 	public static final char RESERVED_SEPERATOR = '`';
 
 	/**
-	 * A converter which converts a string to an action, and is null if the
-	 * string is not a valid action.
+	 * Creates: a converter which converts a string to an action, and is null
+	 * if the string is not a valid action.
+	 *
+	 * @param pool
+	 *            the pool to keep the text of the action in
+	 * @return the converter
 	 */
-	public static final Function<String, Action> actionConverter = (str) -> Action.parseAction(str);
+	public static Function<String, Action> actionConverter(StringPool pool) {
+		return (str) -> Action.parseAction(str, pool);
+	}
+
+	/**
+	 * Creates: a converter for patterns, which rejects patterns which are not
+	 * valid (see {@link Rule#valid(String)}), and warns the user about patterns
+	 * which may take a very long time to match (see
+	 * {@link Rule#warning(String)}).
+	 *
+	 * @param output
+	 *            the output to print the warnings to
+	 * @param pool
+	 *            the pool to keep the patterns in
+	 * @return the converter
+	 */
+	public static Function<String, String> patternConverter(Output output, StringPool pool) {
+		return (str) -> {
+			if (!Rule.valid(str)) {
+				return null;
+			}
+			String warning = Rule.warning(str);
+			if (warning != null) {
+				output.error("Warning: the pattern \"" + str + "\" " + warning);
+			}
+			return pool.intern(str);
+		};
+	}
 
 	/**
 	 * Effect: prints to the output stream a numbered list of things. Each line
@@ -139,15 +172,34 @@ public class Util {
 	}
 
 	/**
-	 * Effect: tries to read from the input, with a prompt, until the user
-	 * cancels or produces valid input
+	 * Represents: the rest of a dialog, which continues once a value has been
+	 * read from the user.
+	 *
+	 * @param <T>
+	 *            the type of the value
+	 * @author Jacob Glueck
+	 */
+	public interface Then<T> {
+		/**
+		 * Effect: continues the dialog with the value the user typed.
+		 *
+		 * @param value
+		 *            the value
+		 * @return the dialog which receives the next line of input
+		 * @throws CanceledException
+		 *             if the user typed {@code :cancel}.
+		 */
+		Dialog then(T value) throws CanceledException;
+	}
+
+	/**
+	 * Effect: prints the prompt, and creates a dialog which tries to read from
+	 * the input until the user cancels or produces valid input.
 	 *
 	 * @param <T>
 	 *            the type of input from the user
 	 * @param output
 	 *            the output stream
-	 * @param input
-	 *            the input stream
 	 * @param prompt
 	 *            the prompt to display the first time
 	 * @param onError
@@ -155,42 +207,43 @@ public class Util {
 	 * @param converter
 	 *            a function which parses a string into a T. Returns null if the
 	 *            string is invalid.
-	 * @return the T the user typed.
-	 * @throws CanceledException
-	 *             if the user typed {@code :cancel}.
+	 * @param then
+	 *            the rest of the dialog, which gets the T the user typed
+	 * @return the dialog
 	 */
-	public static <T> T read(PrintStream output, Scanner input, String prompt, String onError, Function<String, T> converter) throws CanceledException {
-		T result = null;
+	public static <T> Dialog read(Output output, String prompt, String onError, Function<String, T> converter, Then<T> then) {
 		// Print nothing if there is not prompt
 		if (prompt.length() != 0) {
-			output.println(prompt);
+			output.prompt(prompt);
 		}
-		while (result == null) {
-			String line = input.nextLine().trim();
-			if (line.equals(":cancel")) {
-				throw new CanceledException();
-			} else if (line.contains(Character.toString(RESERVED_SEPERATOR))) {
-				output.println("Your input may not contain " + RESERVED_SEPERATOR + ".");
-			} else {
-				result = converter.apply(line);
+		return new Dialog() {
+			@Override
+			public Dialog feed(String line) throws CanceledException {
+				line = line.trim();
+				if (line.equals(":cancel")) {
+					throw new CanceledException();
+				} else if (line.contains(Character.toString(RESERVED_SEPERATOR))) {
+					output.error("Your input may not contain " + RESERVED_SEPERATOR + ".");
+					return this;
+				}
+				T result = converter.apply(line);
 				if (result == null) {
-					output.println(onError);
+					output.error(onError);
+					return this;
 				}
+				return then.then(result);
 			}
-		}
-		return result;
+		};
 	}
 
 	/**
-	 * Effect: reads a list of things from the input stream. Each thing is on
-	 * its own line. Tries to end the list when the user enters a blank line.
+	 * Effect: reads a list of things from the input. Each thing is on its own
+	 * line. Tries to end the list when the user enters a blank line.
 	 *
 	 * @param <T>
 	 *            the type of thing in the list
 	 * @param output
 	 *            the output stream
-	 * @param input
-	 *            the input stream
 	 * @param prompt
 	 *            the prompt to display the first time
 	 * @param onError
@@ -202,66 +255,72 @@ public class Util {
 	 *            list), but the list does not pass the predicate.
 	 * @param checker
 	 *            the predicate which checks the list for completeness.
-	 * @return the list
-	 * @throws CanceledException
-	 *             if the user typed {@code :cancel}.
+	 * @param then
+	 *            the rest of the dialog, which gets the list
+	 * @return the dialog
 	 */
-	public static <T> List<T> readList(PrintStream output, Scanner input, String prompt, String onError, Function<String, T> converter, String onListError, Predicate<List<T>> checker)
-			throws CanceledException {
-		List<T> result = new LinkedList<>();
+	public static <T> Dialog readList(Output output, String prompt, String onError, Function<String, T> converter, String onListError, Predicate<List<T>> checker, Then<List<T>> then) {
+		return readList(output, prompt, onError, converter, onListError, checker, new LinkedList<>(), then);
+	}
 
-		// Modify the converter to return null when it gets a blank line.
-		Function<String, T> modConverter = (str) -> {
+	/**
+	 * Effect: just like
+	 * {@link #readList(Output, String, String, Function, String, Predicate, Then)}
+	 * , but adds the items to an existing list.
+	 *
+	 * @param <T>
+	 *            the type of thing in the list
+	 * @param output
+	 *            the output stream
+	 * @param prompt
+	 *            the prompt to display the first time
+	 * @param onError
+	 *            the text to display if one of the items has a bad format
+	 * @param converter
+	 *            the converter which converts the items
+	 * @param onListError
+	 *            the text to display if the list does not pass the predicate.
+	 * @param checker
+	 *            the predicate which checks the list for completeness.
+	 * @param result
+	 *            the items read so far
+	 * @param then
+	 *            the rest of the dialog, which gets the list
+	 * @return the dialog
+	 */
+	private static <T> Dialog readList(Output output, String prompt, String onError, Function<String, T> converter, String onListError, Predicate<List<T>> checker, List<T> result,
+			Then<List<T>> then) {
+		// Modify the converter to return an empty optional when it gets a blank
+		// line.
+		Function<String, Optional<T>> modConverter = (str) -> {
 			if (str.length() == 0) {
-				throw new Blank();
+				return Optional.empty();
 			} else {
-				return converter.apply(str);
+				T converted = converter.apply(str);
+				return converted == null ? null : Optional.of(converted);
 			}
 		};
-
-		while (true) {
-			T toAdd = null;
-			try {
-				toAdd = read(output, input, prompt, onError, modConverter);
-			} catch (Blank b) {
-
-			}
-			if (toAdd == null) {
+		return read(output, prompt, onError, modConverter, (toAdd) -> {
+			if (!toAdd.isPresent()) {
 				if (checker.test(result)) {
-					return result;
+					return then.then(result);
 				} else {
-					output.println(onListError);
+					output.error(onListError);
 				}
 			} else {
-				result.add(toAdd);
+				result.add(toAdd.get());
 			}
 			// Make sure the prompt is only displayed the first time
-			prompt = "";
-
-		}
-	}
-
-	/**
-	 * Represents: an exception thrown when the user types a blank line.
-	 *
-	 * @author Jacob Glueck
-	 */
-	private static class Blank extends RuntimeException {
-		/**
-		 * Default UID.
-		 */
-		private static final long serialVersionUID = 1L;
-
+			return readList(output, "", onError, converter, onListError, checker, result, then);
+		});
 	}
 
 	/**
-	 * Effect: reads an int from the input stream and keeps asking until the int
-	 * is in the specified range.
+	 * Effect: reads an int from the input and keeps asking until the int is in
+	 * the specified range.
 	 *
 	 * @param output
 	 *            the output stream
-	 * @param input
-	 *            the input stream
 	 * @param prompt
 	 *            the prompt
 	 * @param onError
@@ -270,12 +329,12 @@ public class Util {
 	 *            the minimum allowable value
 	 * @param max
 	 *            the maximum allowable value
-	 * @return the int
-	 * @throws CanceledException
-	 *             if the user typed {@code :cancel}.
+	 * @param then
+	 *            the rest of the dialog, which gets the int
+	 * @return the dialog
 	 */
-	public static int readInt(PrintStream output, Scanner input, String prompt, String onError, int min, int max) throws CanceledException {
-		return read(output, input, prompt, onError, (str) -> {
+	public static Dialog readInt(Output output, String prompt, String onError, int min, int max, Then<Integer> then) {
+		return read(output, prompt, onError, (str) -> {
 			try {
 				int i = Integer.parseInt(str);
 				if (i >= min && i <= max) {
@@ -286,7 +345,7 @@ public class Util {
 			} catch (NumberFormatException e) {
 				return null;
 			}
-		});
+		}, then);
 	}
 
 	/**
@@ -296,41 +355,60 @@ public class Util {
 	 *            the prompt
 	 * @param output
 	 *            the output stream
-	 * @param input
-	 *            the input stream
 	 * @param world
 	 *            the world
-	 * @return the rule number
-	 * @throws CanceledException
-	 *             if the user typed {@code :cancel}.
+	 * @param then
+	 *            the rest of the dialog, which gets the rule number
+	 * @return the dialog
 	 */
-	public static int getRuleNumber(String prompt, PrintStream output, Scanner input, Game world) throws CanceledException {
-		output.println(prompt);
+	public static Dialog getRuleNumber(String prompt, Output output, Game world, Then<Integer> then) {
+		output.prompt(prompt);
 		Util.printNumberedList("", ".", 0, 5, output, world.current().rules().stream().map(r -> Util.prettyRule(r)).collect(Collectors.toList()));
-		int num = Util.readInt(output, input, "", "Not a valid rule number.", 1, world.current().rules().size());
-		return num - 1;
+		return Util.readInt(output, "", "Not a valid rule number.", 1, world.current().rules().size(), (num) -> then.then(num - 1));
 	}
 
 	/**
-	 * Effect: reads a list of space-separated integers from the input stream,
-	 * and checks them for validity.
+	 * Effect: gets one or more rule numbers (indexes) for the current scene
+	 *
+	 * @param prompt
+	 *            the prompt
+	 * @param output
+	 *            the output stream
+	 * @param world
+	 *            the world
+	 * @param then
+	 *            the rest of the dialog, which gets the rule numbers
+	 * @return the dialog
+	 */
+	public static Dialog getRuleNumbers(String prompt, Output output, Game world, Then<List<Integer>> then) {
+		output.prompt(prompt);
+		Util.printNumberedList("", ".", 0, 5, output, world.current().rules().stream().map(r -> Util.prettyRule(r)).collect(Collectors.toList()));
+		return Util.readInts(output, "Not a valid list of rule numbers.", intListMinMax(1, world.current().rules().size()).and((l) -> !l.isEmpty()), (nums) -> {
+			List<Integer> indexes = new ArrayList<>(nums.size());
+			for (Integer i : nums) {
+				indexes.add(i - 1);
+			}
+			return then.then(indexes);
+		});
+	}
+
+	/**
+	 * Effect: reads a list of space-separated integers from the input, and
+	 * checks them for validity.
 	 *
 	 * @param output
 	 *            the output stream
-	 * @param input
-	 *            the input stream
 	 * @param onError
 	 *            the text to print if the list fails the validity check
 	 * @param checker
 	 *            the checker which checks the list for validity
-	 * @return the integers
-	 * @throws CanceledException
-	 *             if the user typed {@code :cancel}.
+	 * @param then
+	 *            the rest of the dialog, which gets the integers
+	 * @return the dialog
 	 */
-	public static List<Integer> readInts(PrintStream output, Scanner input, String onError, Predicate<List<Integer>> checker) throws CanceledException {
-		List<Integer> result = null;
-		while (result == null) {
-			String str = read(output, input, "", onError, (s) -> s);
+	public static Dialog readInts(Output output, String onError, Predicate<List<Integer>> checker, Then<List<Integer>> then) {
+		return read(output, "", onError, (s) -> s, (str) -> {
+			List<Integer> result;
 			if (str.length() == 0) {
 				result = new ArrayList<>();
 			} else {
@@ -340,18 +418,17 @@ public class Util {
 					try {
 						result.add(Integer.parseInt(element));
 					} catch (NumberFormatException e) {
-						result = null;
-						output.println(onError);
-						break;
+						output.error(onError);
+						return readInts(output, onError, checker, then);
 					}
 				}
 			}
-			if (result != null && !checker.test(result)) {
-				result = null;
-				output.println(onError);
+			if (!checker.test(result)) {
+				output.error(onError);
+				return readInts(output, onError, checker, then);
 			}
-		}
-		return result;
+			return then.then(result);
+		});
 	}
 
 	/**
@@ -379,38 +456,33 @@ public class Util {
 	}
 
 	/**
-	 * Effect: just like
-	 * {@link #readInts(PrintStream, Scanner, String, Predicate)}, but with a
-	 * predicate that ensures that all the ints are unique and between a
-	 * specified min and max.
+	 * Effect: just like {@link #readInts(Output, String, Predicate, Then)}
+	 * , but with a predicate that ensures that all the ints are unique and
+	 * between a specified min and max.
 	 *
 	 * @param output
 	 *            the output stream
-	 * @param input
-	 *            the input stream
 	 * @param onError
 	 *            the text to display if the list does not pass the checks.
 	 * @param min
 	 *            the minimum value
 	 * @param max
 	 *            the maximum value
-	 * @return the list of integers
-	 * @throws CanceledException
-	 *             if the user typed {@code :cancel}.
+	 * @param then
+	 *            the rest of the dialog, which gets the integers
+	 * @return the dialog
 	 */
-	public static List<Integer> readInts(PrintStream output, Scanner input, String onError, int min, int max) throws CanceledException {
-		return readInts(output, input, onError, intListMinMax(min, max));
+	public static Dialog readInts(Output output, String onError, int min, int max, Then<List<Integer>> then) {
+		return readInts(output, onError, intListMinMax(min, max), then);
 	}
 
 	/**
 	 * Effect: just like
-	 * {@link #readInts(PrintStream, Scanner, String, int, int)}, but also makes
+	 * {@link #readInts(Output, String, int, int, Then)}, but also makes
 	 * sure the number of integers is a certain value.
 	 *
 	 * @param output
 	 *            the output stream
-	 * @param input
-	 *            the input stream
 	 * @param onError
 	 *            the text to display if the list does not pass the checks.
 	 * @param min
@@ -419,23 +491,21 @@ public class Util {
 	 *            the maximum value
 	 * @param count
 	 *            the number of values required
-	 * @return the list of integers
-	 * @throws CanceledException
-	 *             if the user typed {@code :cancel}.
+	 * @param then
+	 *            the rest of the dialog, which gets the integers
+	 * @return the dialog
 	 */
-	public static List<Integer> readInts(PrintStream output, Scanner input, String onError, int min, int max, int count) throws CanceledException {
-		return readInts(output, input, onError, min, max, count, count);
+	public static Dialog readInts(Output output, String onError, int min, int max, int count, Then<List<Integer>> then) {
+		return readInts(output, onError, min, max, count, count, then);
 	}
 
 	/**
 	 * Effect: just like
-	 * {@link #readInts(PrintStream, Scanner, String, int, int)}, but also makes
+	 * {@link #readInts(Output, String, int, int, Then)}, but also makes
 	 * sure the number of integers is in the range {@code [minCount, maxCount]}.
 	 *
 	 * @param output
 	 *            the output stream
-	 * @param input
-	 *            the input stream
 	 * @param onError
 	 *            the text to display if the list does not pass the checks.
 	 * @param min
@@ -446,14 +516,14 @@ public class Util {
 	 *            the minimum number of values permitted
 	 * @param maxCount
 	 *            the maximum number of values permitted
-	 * @return the list of integers
-	 * @throws CanceledException
-	 *             if the user typed {@code :cancel}.
+	 * @param then
+	 *            the rest of the dialog, which gets the integers
+	 * @return the dialog
 	 */
-	public static List<Integer> readInts(PrintStream output, Scanner input, String onError, int min, int max, int minCount, int maxCount) throws CanceledException {
-		return readInts(output, input, onError, (l) -> {
+	public static Dialog readInts(Output output, String onError, int min, int max, int minCount, int maxCount, Then<List<Integer>> then) {
+		return readInts(output, onError, (l) -> {
 			return intListMinMax(min, max).test(l) && l.size() >= minCount && l.size() <= maxCount;
-		});
+		}, then);
 	}
 
 	/**
@@ -464,19 +534,20 @@ public class Util {
 	 */
 	public interface CancelTask {
 		/**
-		 * Effect: runs the task.
+		 * Effect: starts the task.
 		 *
-		 * @return the scene as a result of the task
+		 * @return the dialog which runs the rest of the task
 		 * @throws CanceledException
 		 *             if the task was canceled. The program must be in a valid
 		 *             state.
 		 */
-		Scene run() throws CanceledException;
+		Dialog run() throws CanceledException;
 	}
 
 	/**
 	 * Runs a task that can be canceled, and prints out {@code "Canceled."} and
-	 * returns {@code current} if the task is canceled.
+	 * finishes with {@code current} if the task is canceled, either when it
+	 * starts or while it is being fed input.
 	 *
 	 * @param current
 	 *            the current scene
@@ -484,14 +555,19 @@ public class Util {
 	 *            the output stream
 	 * @param c
 	 *            the task
-	 * @return the scene after the task has finished
+	 * @return the dialog which runs the task
 	 */
-	public static Scene handleCancel(Scene current, PrintStream output, CancelTask c) {
+	public static Dialog handleCancel(Scene current, Output output, CancelTask c) {
+		Dialog d;
 		try {
-			return c.run();
+			d = c.run();
 		} catch (CanceledException e) {
 			output.println("Canceled.");
-			return current;
+			return Dialog.finish(current);
+		}
+		if (d.done()) {
+			return d;
 		}
+		return (line) -> handleCancel(current, output, () -> d.feed(line));
 	}
 }
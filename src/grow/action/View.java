@@ -1,11 +1,11 @@
 package grow.action;
 
-import java.io.PrintStream;
 import java.util.Scanner;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import grow.Game;
+import grow.Output;
 import grow.Scene;
 
 /**
@@ -22,8 +22,19 @@ public class View extends Action {
 	 */
 	public static final char PREFIX = 'l';
 
+	/**
+	 * The view action, which is shared by every rule which lists the rules
+	 */
+	public static final View INSTANCE = new View();
+
+	/**
+	 * Creates: the view action.
+	 */
+	private View() {
+	}
+
 	@Override
-	public Scene act(Scene current, Game world, Scanner input, PrintStream output, Consumer<String> injector) {
+	public Scene act(Scene current, Game world, Scanner input, Output output, Consumer<String> injector) {
 		output.println("Scene: " + current.name());
 		output.println("Description: " + current.description());
 		Util.printNumberedList("", ".", 0, 5, output, current.rules().stream().map(r -> Util.prettyRule(r)).collect(Collectors.toList()));
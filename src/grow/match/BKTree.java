@@ -0,0 +1,420 @@
+package grow.match;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents: a BK-tree of words, which finds the word closest to a given word
+ * by edit distance (the number of characters which must be inserted, deleted,
+ * or changed to turn one into the other) without comparing it to every word.
+ * Searches rank words by typos, which also count swapped characters as one
+ * (see {@link #nearest(char[], int, int, int)}).
+ * Each node keeps its children by their distance from it; since edit distance
+ * is a metric, a search for words within {@code k} of a word at distance
+ * {@code d} from a node only has to visit the children at distances
+ * {@code d - k} to {@code d + k}.
+ *
+ * Words can be added and removed one at a time. Each word is counted, so the
+ * same word can be added more than once, and is only removed once it has been
+ * removed as many times. A removed word stays in the tree, but is skipped, until
+ * there are more removed words than words, at which point the tree is rebuilt.
+ *
+ * The nodes are kept in arrays, and a search reuses the same scratch space, so
+ * searching does not allocate anything. A tree is not thread safe.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class BKTree {
+
+	/**
+	 * The word of each node
+	 */
+	private String[] words;
+	/**
+	 * The number of times the word of each node has been added and not removed
+	 */
+	private int[] counts;
+	/**
+	 * The distance of each node from its parent
+	 */
+	private int[] distances;
+	/**
+	 * The first child of each node, or -1
+	 */
+	private int[] firstChildren;
+	/**
+	 * The next child of the parent of each node, or -1
+	 */
+	private int[] nextSiblings;
+	/**
+	 * The number of nodes
+	 */
+	private int size;
+	/**
+	 * The number of words with a count above 0
+	 */
+	private int live;
+	/**
+	 * The stack of nodes left to visit in a search
+	 */
+	private int[] stack;
+	/**
+	 * The row of the edit distance table before {@link #previous}
+	 */
+	private int[] older;
+	/**
+	 * The last row of the edit distance table
+	 */
+	private int[] previous;
+	/**
+	 * The row of the edit distance table being filled in
+	 */
+	private int[] row;
+
+	/**
+	 * Creates: a new, empty tree.
+	 */
+	public BKTree() {
+		clear();
+	}
+
+	/**
+	 * Effect: removes all the words.
+	 */
+	private void clear() {
+		words = new String[16];
+		counts = new int[16];
+		distances = new int[16];
+		firstChildren = new int[16];
+		nextSiblings = new int[16];
+		stack = new int[16];
+		older = new int[16];
+		previous = new int[16];
+		row = new int[16];
+		size = 0;
+		live = 0;
+	}
+
+	/**
+	 * @return the number of different words in the tree
+	 */
+	public int size() {
+		return live;
+	}
+
+	/**
+	 * Effect: adds a word to the tree, or counts it again if it is already in
+	 * the tree.
+	 *
+	 * @param word
+	 *            the word
+	 */
+	public void add(String word) {
+		if (size == 0) {
+			node(word, 0);
+			return;
+		}
+		char[] chars = word.toCharArray();
+		int n = 0;
+		while (true) {
+			int d = distance(chars, 0, chars.length, words[n]);
+			if (d == 0) {
+				if (counts[n]++ == 0) {
+					live++;
+				}
+				return;
+			}
+			int child = child(n, d);
+			if (child == -1) {
+				int added = node(word, d);
+				nextSiblings[added] = firstChildren[n];
+				firstChildren[n] = added;
+				return;
+			}
+			n = child;
+		}
+	}
+
+	/**
+	 * Effect: removes a word from the tree once. If it has been added more
+	 * times than it has been removed, it stays in the tree.
+	 *
+	 * @param word
+	 *            the word
+	 */
+	public void remove(String word) {
+		int n = find(word);
+		if (n == -1 || counts[n] == 0) {
+			return;
+		}
+		if (--counts[n] == 0) {
+			live--;
+			if (size - live > live) {
+				rebuild();
+			}
+		}
+	}
+
+	/**
+	 * @param word
+	 *            a word
+	 * @return true if the word is in the tree
+	 */
+	public boolean contains(String word) {
+		int n = find(word);
+		return n != -1 && counts[n] != 0;
+	}
+
+	/**
+	 * Finds the word in the tree closest to some characters, by the number of
+	 * typos (see {@link #typos(char[], int, int, String)}), so that swapped
+	 * characters count as one typo. Since a word with {@code max} typos is at
+	 * most {@code 2 * max} edits away, the tree is searched for words that
+	 * many edits away, and then the typos of each are counted. If more than
+	 * one word is just as close, the one which was added the most times wins,
+	 * and then the one which comes first alphabetically, so that the result
+	 * does not depend on the order in which words were added.
+	 *
+	 * @param text
+	 *            the text
+	 * @param start
+	 *            the index of the first character
+	 * @param end
+	 *            the index after the last character
+	 * @param max
+	 *            the most typos allowed
+	 * @return the closest word, which is the characters themselves if they
+	 *         are in the tree, or null if there is no word within {@code max}
+	 */
+	public String nearest(char[] text, int start, int end, int max) {
+		if (size == 0) {
+			return null;
+		}
+		int radius = 2 * max;
+		int best = -1;
+		int bestTypos = max + 1;
+		int top = 0;
+		stack = fit(stack, 1);
+		stack[top++] = 0;
+		while (top != 0) {
+			int n = stack[--top];
+			int d = distance(text, start, end, words[n]);
+			if (counts[n] != 0 && d <= radius) {
+				int t = d <= 1 ? d : typos(text, start, end, words[n]);
+				if (t <= max && better(n, t, best, bestTypos)) {
+					best = n;
+					bestTypos = t;
+				}
+			}
+			for (int c = firstChildren[n]; c != -1; c = nextSiblings[c]) {
+				if (distances[c] >= d - radius && distances[c] <= d + radius) {
+					stack = fit(stack, top + 1);
+					stack[top++] = c;
+				}
+			}
+		}
+		return best == -1 ? null : words[best];
+	}
+
+	/**
+	 * @param n
+	 *            a node
+	 * @param t
+	 *            its typos
+	 * @param best
+	 *            the best node so far, or -1
+	 * @param bestTypos
+	 *            its typos
+	 * @return true if {@code n} is better than {@code best}
+	 */
+	private boolean better(int n, int t, int best, int bestTypos) {
+		if (best == -1 || t != bestTypos) {
+			return t < bestTypos;
+		}
+		if (counts[n] != counts[best]) {
+			return counts[n] > counts[best];
+		}
+		return words[n].compareTo(words[best]) < 0;
+	}
+
+	/**
+	 * @param word
+	 *            a word
+	 * @return the node of the word, or -1 if it has no node
+	 */
+	private int find(String word) {
+		if (size == 0) {
+			return -1;
+		}
+		char[] chars = word.toCharArray();
+		int n = 0;
+		while (n != -1) {
+			int d = distance(chars, 0, chars.length, words[n]);
+			if (d == 0) {
+				return n;
+			}
+			n = child(n, d);
+		}
+		return -1;
+	}
+
+	/**
+	 * @param n
+	 *            a node
+	 * @param d
+	 *            a distance
+	 * @return the child of the node at the distance, or -1 if there is none
+	 */
+	private int child(int n, int d) {
+		for (int c = firstChildren[n]; c != -1; c = nextSiblings[c]) {
+			if (distances[c] == d) {
+				return c;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Effect: adds a node with a count of 1 and no children.
+	 *
+	 * @param word
+	 *            the word
+	 * @param distance
+	 *            its distance from its parent
+	 * @return the node
+	 */
+	private int node(String word, int distance) {
+		if (size == words.length) {
+			int length = 2 * size;
+			String[] biggerWords = new String[length];
+			System.arraycopy(words, 0, biggerWords, 0, size);
+			words = biggerWords;
+			counts = fit(counts, length);
+			distances = fit(distances, length);
+			firstChildren = fit(firstChildren, length);
+			nextSiblings = fit(nextSiblings, length);
+		}
+		words[size] = word;
+		counts[size] = 1;
+		distances[size] = distance;
+		firstChildren[size] = -1;
+		nextSiblings[size] = -1;
+		live++;
+		return size++;
+	}
+
+	/**
+	 * Effect: rebuilds the tree with only the words which have not been
+	 * removed.
+	 */
+	private void rebuild() {
+		List<String> keep = new ArrayList<>();
+		List<Integer> times = new ArrayList<>();
+		for (int n = 0; n < size; n++) {
+			if (counts[n] != 0) {
+				keep.add(words[n]);
+				times.add(counts[n]);
+			}
+		}
+		clear();
+		for (int x = 0; x < keep.size(); x++) {
+			for (int t = 0; t < times.get(x); t++) {
+				add(keep.get(x));
+			}
+		}
+	}
+
+	/**
+	 * Computes the edit distance between some characters and a word.
+	 *
+	 * @param text
+	 *            the text
+	 * @param start
+	 *            the index of the first character
+	 * @param end
+	 *            the index after the last character
+	 * @param word
+	 *            the word
+	 * @return the edit distance
+	 */
+	private int distance(char[] text, int start, int end, String word) {
+		int length = word.length();
+		previous = fit(previous, length + 1);
+		row = fit(row, length + 1);
+		for (int y = 0; y <= length; y++) {
+			previous[y] = y;
+		}
+		for (int x = start; x < end; x++) {
+			row[0] = x - start + 1;
+			char c = text[x];
+			for (int y = 1; y <= length; y++) {
+				int change = previous[y - 1] + (word.charAt(y - 1) == c ? 0 : 1);
+				row[y] = Math.min(change, Math.min(previous[y], row[y - 1]) + 1);
+			}
+			int[] temp = previous;
+			previous = row;
+			row = temp;
+		}
+		return previous[length];
+	}
+
+	/**
+	 * Computes the number of typos between some characters and a word: just
+	 * like the edit distance, except that swapping two characters which are
+	 * next to each other counts as one typo instead of two edits. This is not
+	 * a metric, so the tree cannot be searched by it, but it is never more
+	 * than the edit distance, and never less than half of it.
+	 *
+	 * @param text
+	 *            the text
+	 * @param start
+	 *            the index of the first character
+	 * @param end
+	 *            the index after the last character
+	 * @param word
+	 *            the word
+	 * @return the number of typos
+	 */
+	private int typos(char[] text, int start, int end, String word) {
+		int length = word.length();
+		older = fit(older, length + 1);
+		previous = fit(previous, length + 1);
+		row = fit(row, length + 1);
+		for (int y = 0; y <= length; y++) {
+			previous[y] = y;
+		}
+		for (int x = start; x < end; x++) {
+			row[0] = x - start + 1;
+			char c = text[x];
+			for (int y = 1; y <= length; y++) {
+				int change = previous[y - 1] + (word.charAt(y - 1) == c ? 0 : 1);
+				row[y] = Math.min(change, Math.min(previous[y], row[y - 1]) + 1);
+				if (x > start && y > 1 && c == word.charAt(y - 2) && text[x - 1] == word.charAt(y - 1)) {
+					row[y] = Math.min(row[y], older[y - 2] + 1);
+				}
+			}
+			int[] temp = older;
+			older = previous;
+			previous = row;
+			row = temp;
+		}
+		return previous[length];
+	}
+
+	/**
+	 * @param array
+	 *            an array
+	 * @param size
+	 *            the size needed
+	 * @return the array, or a bigger copy of it if it is not big enough
+	 */
+	private static int[] fit(int[] array, int size) {
+		if (array.length >= size) {
+			return array;
+		}
+		int[] bigger = new int[Math.max(size, 2 * array.length)];
+		System.arraycopy(array, 0, bigger, 0, array.length);
+		return bigger;
+	}
+}
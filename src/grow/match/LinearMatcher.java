@@ -0,0 +1,406 @@
+package grow.match;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import grow.match.LinearPattern.Node;
+
+/**
+ * Represents: a matcher which finds which of a list of patterns (see
+ * {@link LinearPattern}) match a line of input, in time linear in the length
+ * of the input, no matter what the patterns are. Just like the rules of a
+ * scene, a pattern {@code P} matches if {@code .*\b(P)\b.*} matches the whole
+ * input.
+ *
+ * All the patterns are compiled into one nondeterministic finite automaton
+ * (a Thompson NFA), which is simulated one character at a time, keeping track
+ * of every state it could be in. This means that each character of the input
+ * is read once, for all the patterns at once, instead of once per pattern (or
+ * exponentially many times, like a backtracking matcher can).
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class LinearMatcher {
+
+	/**
+	 * Matches one character in a set, and goes to the next state
+	 */
+	private static final int SET = 0;
+	/**
+	 * Goes to the next state if at a word boundary
+	 */
+	private static final int BOUNDARY = 1;
+	/**
+	 * Goes to the next state if not at a word boundary
+	 */
+	private static final int NOT_BOUNDARY = 2;
+	/**
+	 * Goes to two states at once
+	 */
+	private static final int SPLIT = 3;
+	/**
+	 * Goes to another state
+	 */
+	private static final int JUMP = 4;
+	/**
+	 * Marks a pattern as matched
+	 */
+	private static final int MATCH = 5;
+
+	/**
+	 * The characters which are part of words
+	 */
+	private static final long[] WORD = LinearPattern.word();
+
+	/**
+	 * The operation of each state
+	 */
+	private int[] ops;
+	/**
+	 * The first argument of each state: the set for {@link #SET}, the first
+	 * state for {@link #SPLIT}, the state for {@link #JUMP}, or the pattern
+	 * for {@link #MATCH}
+	 */
+	private int[] firsts;
+	/**
+	 * The second argument of each state: the second state for {@link #SPLIT}
+	 */
+	private int[] seconds;
+	/**
+	 * The number of states
+	 */
+	private int size;
+	/**
+	 * The sets of characters, two longs per set
+	 */
+	private long[] sets;
+	/**
+	 * The number of sets
+	 */
+	private int setCount;
+	/**
+	 * The first state of each pattern
+	 */
+	private final int[] starts;
+
+	/**
+	 * Creates: a new matcher for some patterns. The patterns are numbered by
+	 * their index in the list.
+	 *
+	 * @param patterns
+	 *            the patterns
+	 */
+	public LinearMatcher(List<LinearPattern> patterns) {
+		ops = new int[16];
+		firsts = new int[16];
+		seconds = new int[16];
+		sets = new long[16];
+		starts = new int[patterns.size()];
+		for (int x = 0; x < patterns.size(); x++) {
+			starts[x] = size;
+			emit(BOUNDARY, 0, 0);
+			compile(patterns.get(x).root);
+			emit(BOUNDARY, 0, 0);
+			emit(MATCH, x, 0);
+		}
+	}
+
+	/**
+	 * @return the number of states
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determines if the matcher can match an input. It can only match inputs
+	 * which are all ASCII, and have no line breaks, so that {@code .} and
+	 * word boundaries work just like they do in {@link java.util.regex}.
+	 *
+	 * @param input
+	 *            the input
+	 * @return true if the input can be matched
+	 */
+	public static boolean supports(CharSequence input) {
+		for (int x = 0; x < input.length(); x++) {
+			char c = input.charAt(x);
+			if (c >= 128 || c == '\n' || c == '\r') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Effect: finds which patterns match the input, and sets their numbers in
+	 * {@code matched}.
+	 *
+	 * @param input
+	 *            the input
+	 * @param matched
+	 *            the set of the patterns which match
+	 * @return false if the input is not supported (see
+	 *         {@link #supports(CharSequence)}), in which case nothing is set
+	 */
+	public boolean match(CharSequence input, BitSet matched) {
+		return match(input, matched, new int[scratchSize()]);
+	}
+
+	/**
+	 * @return the size of the scratch space needed by
+	 *         {@link #match(CharSequence, BitSet, int[])}
+	 */
+	public int scratchSize() {
+		return 5 * size + 1;
+	}
+
+	/**
+	 * Just like {@link #match(CharSequence, BitSet)}, but uses the scratch
+	 * space it is given instead of allocating its own, so that matching
+	 * allocates nothing.
+	 *
+	 * @param input
+	 *            the input
+	 * @param matched
+	 *            the set of the patterns which match
+	 * @param scratch
+	 *            scratch space, at least {@link #scratchSize()} long, whose
+	 *            contents do not matter
+	 * @return false if the input is not supported (see
+	 *         {@link #supports(CharSequence)}), in which case nothing is set
+	 */
+	public boolean match(CharSequence input, BitSet matched, int[] scratch) {
+		if (!supports(input)) {
+			return false;
+		}
+		// The scratch space holds, one after another, the current list, the
+		// next list, the marks, and the stack
+		int current = 0;
+		int next = size;
+		// scratch[2 * size + s] == mark if s is already in the list being built
+		int marks = 2 * size;
+		int stack = 3 * size;
+		Arrays.fill(scratch, marks, marks + size, 0);
+		int mark = 1;
+		int count = 0;
+		int length = input.length();
+		for (int x = 0; x <= length; x++) {
+			for (int start : starts) {
+				count = add(scratch, current, count, start, input, x, marks, mark, stack, matched);
+			}
+			if (x == length) {
+				break;
+			}
+			char c = input.charAt(x);
+			mark++;
+			int nextCount = 0;
+			for (int y = 0; y < count; y++) {
+				int s = scratch[current + y];
+				if (contains(firsts[s], c)) {
+					nextCount = add(scratch, next, nextCount, s + 1, input, x + 1, marks, mark, stack, matched);
+				}
+			}
+			int temp = current;
+			current = next;
+			next = temp;
+			count = nextCount;
+		}
+		return true;
+	}
+
+	/**
+	 * Effect: adds a state to a list, following every state which does not
+	 * read a character, so that only {@link #SET} states end up in the list.
+	 *
+	 * @param scratch
+	 *            the scratch space, which holds the list, the marks, and the
+	 *            stack
+	 * @param list
+	 *            the index of the list in the scratch space
+	 * @param count
+	 *            the number of states in the list
+	 * @param state
+	 *            the state to add
+	 * @param input
+	 *            the input
+	 * @param index
+	 *            the index of the next character of the input
+	 * @param marks
+	 *            the index of the marks of the states already in the list
+	 * @param mark
+	 *            the mark for this list
+	 * @param stack
+	 *            the index of the stack
+	 * @param matched
+	 *            the set of the patterns which match
+	 * @return the new number of states in the list
+	 */
+	private int add(int[] scratch, int list, int count, int state, CharSequence input, int index, int marks, int mark, int stack, BitSet matched) {
+		int top = stack;
+		scratch[top++] = state;
+		while (top != stack) {
+			int s = scratch[--top];
+			if (scratch[marks + s] == mark) {
+				continue;
+			}
+			scratch[marks + s] = mark;
+			switch (ops[s]) {
+			case SET:
+				scratch[list + count++] = s;
+				break;
+			case BOUNDARY:
+				if (boundary(input, index)) {
+					scratch[top++] = s + 1;
+				}
+				break;
+			case NOT_BOUNDARY:
+				if (!boundary(input, index)) {
+					scratch[top++] = s + 1;
+				}
+				break;
+			case SPLIT:
+				scratch[top++] = seconds[s];
+				scratch[top++] = firsts[s];
+				break;
+			case JUMP:
+				scratch[top++] = firsts[s];
+				break;
+			case MATCH:
+				matched.set(firsts[s]);
+				break;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param input
+	 *            the input
+	 * @param index
+	 *            an index between 0 and the length of the input
+	 * @return true if there is a word boundary before the character at the
+	 *         index
+	 */
+	private static boolean boundary(CharSequence input, int index) {
+		boolean before = index > 0 && word(input.charAt(index - 1));
+		boolean after = index < input.length() && word(input.charAt(index));
+		return before != after;
+	}
+
+	/**
+	 * @param c
+	 *            an ASCII character
+	 * @return true if the character is part of a word
+	 */
+	private static boolean word(char c) {
+		return (WORD[c >> 6] & (1L << c)) != 0;
+	}
+
+	/**
+	 * @param set
+	 *            the number of the set
+	 * @param c
+	 *            an ASCII character
+	 * @return true if the set contains the character
+	 */
+	private boolean contains(int set, char c) {
+		return (sets[2 * set + (c >> 6)] & (1L << c)) != 0;
+	}
+
+	/**
+	 * Effect: adds the states for a node.
+	 *
+	 * @param node
+	 *            the node
+	 */
+	private void compile(Node node) {
+		switch (node.type) {
+		case SET:
+			if (2 * setCount + 2 > sets.length) {
+				long[] bigger = new long[2 * sets.length];
+				System.arraycopy(sets, 0, bigger, 0, sets.length);
+				sets = bigger;
+			}
+			sets[2 * setCount] = node.set[0];
+			sets[2 * setCount + 1] = node.set[1];
+			emit(SET, setCount++, 0);
+			break;
+		case BOUNDARY:
+			emit(BOUNDARY, 0, 0);
+			break;
+		case NOT_BOUNDARY:
+			emit(NOT_BOUNDARY, 0, 0);
+			break;
+		case CONCATENATE:
+			for (Node child : node.children) {
+				compile(child);
+			}
+			break;
+		case ALTERNATE:
+			int[] jumps = new int[node.children.size() - 1];
+			for (int x = 0; x < jumps.length; x++) {
+				int split = emit(SPLIT, size + 1, 0);
+				compile(node.children.get(x));
+				jumps[x] = emit(JUMP, 0, 0);
+				seconds[split] = size;
+			}
+			compile(node.children.get(jumps.length));
+			for (int jump : jumps) {
+				firsts[jump] = size;
+			}
+			break;
+		case STAR:
+			int loop = emit(SPLIT, size + 1, 0);
+			compile(node.children.get(0));
+			emit(JUMP, loop, 0);
+			seconds[loop] = size;
+			break;
+		case PLUS:
+			int first = size;
+			compile(node.children.get(0));
+			emit(SPLIT, first, size + 1);
+			break;
+		case OPTIONAL:
+			int skip = emit(SPLIT, size + 1, 0);
+			compile(node.children.get(0));
+			seconds[skip] = size;
+			break;
+		}
+	}
+
+	/**
+	 * Effect: adds a state.
+	 *
+	 * @param op
+	 *            the operation
+	 * @param first
+	 *            the first argument
+	 * @param second
+	 *            the second argument
+	 * @return the number of the state
+	 */
+	private int emit(int op, int first, int second) {
+		if (size == ops.length) {
+			ops = grow(ops);
+			firsts = grow(firsts);
+			seconds = grow(seconds);
+		}
+		ops[size] = op;
+		firsts[size] = first;
+		seconds[size] = second;
+		return size++;
+	}
+
+	/**
+	 * @param array
+	 *            an array
+	 * @return a copy of the array, twice as long
+	 */
+	private static int[] grow(int[] array) {
+		int[] bigger = new int[2 * array.length];
+		System.arraycopy(array, 0, bigger, 0, array.length);
+		return bigger;
+	}
+}
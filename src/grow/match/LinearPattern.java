@@ -0,0 +1,472 @@
+package grow.match;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents: a pattern which can be matched in linear time by a
+ * {@link LinearMatcher}. Only a subset of regular expressions is supported:
+ * literal characters, escaped characters, {@code .}, character classes (with
+ * ranges, negation, and {@code \D}, {@code \W}, and {@code \S}), groups,
+ * alternation, the quantifiers {@code *}, {@code +}, and {@code ?} (greedy or
+ * lazy, which makes no difference to whether a pattern matches), and the word
+ * boundaries {@code \b} and {@code \B}. Anything else, like anchors, counted
+ * repeats, back references, look arounds, and possessive quantifiers, is not
+ * supported; patterns which use them must be matched with
+ * {@link java.util.regex}.
+ *
+ * Patterns are parsed just like {@link java.util.regex.Pattern} would parse
+ * them. A pattern which is not a valid regular expression is not supported,
+ * so it need not be compiled as one first.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class LinearPattern {
+
+	/**
+	 * Represents: a node of the syntax tree of a pattern.
+	 *
+	 * @author Jacob Glueck
+	 */
+	static class Node {
+		/**
+		 * The type of the node
+		 */
+		final Type type;
+		/**
+		 * The children: the alternatives of an {@link Type#ALTERNATE}, the
+		 * parts of a {@link Type#CONCATENATE}, or the repeated node of a
+		 * {@link Type#STAR}, {@link Type#PLUS}, or {@link Type#OPTIONAL}.
+		 */
+		final List<Node> children;
+		/**
+		 * The characters matched by a {@link Type#SET}, as a bit set of ASCII
+		 * characters
+		 */
+		final long[] set;
+
+		/**
+		 * Creates: a new node.
+		 *
+		 * @param type
+		 *            the type
+		 * @param children
+		 *            the children
+		 * @param set
+		 *            the characters matched by a {@link Type#SET}
+		 */
+		Node(Type type, List<Node> children, long[] set) {
+			this.type = type;
+			this.children = children;
+			this.set = set;
+		}
+	}
+
+	/**
+	 * The types of nodes
+	 */
+	enum Type {
+		/**
+		 * Matches one character in a set
+		 */
+		SET,
+		/**
+		 * Matches a word boundary
+		 */
+		BOUNDARY,
+		/**
+		 * Matches anything but a word boundary
+		 */
+		NOT_BOUNDARY,
+		/**
+		 * Matches one of the children
+		 */
+		ALTERNATE,
+		/**
+		 * Matches all the children, one after another
+		 */
+		CONCATENATE,
+		/**
+		 * Matches the child any number of times
+		 */
+		STAR,
+		/**
+		 * Matches the child at least once
+		 */
+		PLUS,
+		/**
+		 * Matches the child at most once
+		 */
+		OPTIONAL
+	}
+
+	/**
+	 * Thrown while parsing a pattern which is not supported.
+	 */
+	private static class Unsupported extends Exception {
+		/**
+		 * Default UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Creates: a new exception, without a stack trace.
+		 */
+		Unsupported() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * The syntax tree
+	 */
+	final Node root;
+
+	/**
+	 * The pattern being parsed
+	 */
+	private final String pattern;
+	/**
+	 * The index of the next character to parse
+	 */
+	private int next;
+
+	/**
+	 * Creates: a new pattern, and parses it.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @throws Unsupported
+	 *             if the pattern is not supported
+	 */
+	private LinearPattern(String pattern) throws Unsupported {
+		this.pattern = pattern;
+		next = 0;
+		root = alternation();
+		if (next != pattern.length()) {
+			throw new Unsupported();
+		}
+	}
+
+	/**
+	 * Parses a pattern.
+	 *
+	 * @param pattern
+	 *            the pattern
+	 * @return the pattern, or null if it uses something which is not
+	 *         supported or is not a valid regular expression
+	 */
+	public static LinearPattern parse(String pattern) {
+		try {
+			return new LinearPattern(pattern);
+		} catch (Unsupported e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if there are more characters to parse
+	 */
+	private boolean more() {
+		return next < pattern.length();
+	}
+
+	/**
+	 * @return the next character to parse, without consuming it
+	 */
+	private char peek() {
+		return pattern.charAt(next);
+	}
+
+	/**
+	 * Parses alternatives separated by {@code |}.
+	 *
+	 * @return the node
+	 * @throws Unsupported
+	 *             if the pattern is not supported
+	 */
+	private Node alternation() throws Unsupported {
+		List<Node> alternatives = new ArrayList<>();
+		alternatives.add(concatenation());
+		while (more() && peek() == '|') {
+			next++;
+			alternatives.add(concatenation());
+		}
+		return alternatives.size() == 1 ? alternatives.get(0) : new Node(Type.ALTERNATE, alternatives, null);
+	}
+
+	/**
+	 * Parses a sequence of repeated atoms, up to the next {@code |} or
+	 * {@code )}.
+	 *
+	 * @return the node
+	 * @throws Unsupported
+	 *             if the pattern is not supported
+	 */
+	private Node concatenation() throws Unsupported {
+		List<Node> parts = new ArrayList<>();
+		while (more() && peek() != '|' && peek() != ')') {
+			parts.add(repeat());
+		}
+		return new Node(Type.CONCATENATE, parts, null);
+	}
+
+	/**
+	 * Parses an atom and its quantifiers.
+	 *
+	 * @return the node
+	 * @throws Unsupported
+	 *             if the pattern is not supported
+	 */
+	private Node repeat() throws Unsupported {
+		Node atom = atom();
+		if (more()) {
+			Type type;
+			switch (peek()) {
+			case '*':
+				type = Type.STAR;
+				break;
+			case '+':
+				type = Type.PLUS;
+				break;
+			case '?':
+				type = Type.OPTIONAL;
+				break;
+			case '{':
+				throw new Unsupported();
+			default:
+				return atom;
+			}
+			next++;
+			if (more() && peek() == '?') {
+				// Lazy quantifiers match the same strings as greedy ones
+				next++;
+			} else if (more() && peek() == '+') {
+				// Possessive quantifiers do not
+				throw new Unsupported();
+			}
+			List<Node> child = new ArrayList<>();
+			child.add(atom);
+			return new Node(type, child, null);
+		}
+		return atom;
+	}
+
+	/**
+	 * Parses a character, a class, an escape, or a group.
+	 *
+	 * @return the node
+	 * @throws Unsupported
+	 *             if the pattern is not supported
+	 */
+	private Node atom() throws Unsupported {
+		char c = pattern.charAt(next++);
+		switch (c) {
+		case '(':
+			if (more() && peek() == '?') {
+				if (next + 1 < pattern.length() && pattern.charAt(next + 1) == ':') {
+					next += 2;
+				} else {
+					throw new Unsupported();
+				}
+			}
+			Node group = alternation();
+			if (!more() || peek() != ')') {
+				throw new Unsupported();
+			}
+			next++;
+			return group;
+		case '[':
+			return set(charClass());
+		case '.':
+			// Matches everything but line terminators, which are never in the
+			// input (see LinearMatcher#supports)
+			return set(all());
+		case '\\':
+			if (!more()) {
+				throw new Unsupported();
+			}
+			c = pattern.charAt(next++);
+			if (c == 'b') {
+				return new Node(Type.BOUNDARY, null, null);
+			} else if (c == 'B') {
+				return new Node(Type.NOT_BOUNDARY, null, null);
+			}
+			return set(escape(c));
+		case '^':
+		case '$':
+		case '*':
+		case '+':
+		case '?':
+		case '{':
+			throw new Unsupported();
+		default:
+			return set(single(c));
+		}
+	}
+
+	/**
+	 * Parses a character class, after the {@code [}.
+	 *
+	 * @return the characters in the class
+	 * @throws Unsupported
+	 *             if the pattern is not supported
+	 */
+	private long[] charClass() throws Unsupported {
+		boolean negate = false;
+		if (more() && peek() == '^') {
+			negate = true;
+			next++;
+		}
+		long[] set = new long[2];
+		boolean first = true;
+		while (true) {
+			if (!more()) {
+				throw new Unsupported();
+			}
+			char c = pattern.charAt(next++);
+			if (c == ']' && !first) {
+				break;
+			}
+			if (c == '[' || c == ']' || (c == '&' && more() && peek() == '&')) {
+				// Nested classes and intersections
+				throw new Unsupported();
+			}
+			first = false;
+			long[] item;
+			char low = c;
+			if (c == '\\') {
+				if (!more()) {
+					throw new Unsupported();
+				}
+				low = pattern.charAt(next++);
+				item = escape(low);
+				if (Character.isLetter(low)) {
+					// A predefined class, which cannot start a range
+					union(set, item);
+					continue;
+				}
+			}
+			if (more() && peek() == '-' && next + 1 < pattern.length() && pattern.charAt(next + 1) != ']') {
+				next++;
+				char high = pattern.charAt(next++);
+				if (high == '\\' || high == '[' || high < low) {
+					throw new Unsupported();
+				}
+				item = range(low, high);
+			} else {
+				item = single(low);
+			}
+			union(set, item);
+		}
+		if (negate) {
+			set[0] = ~set[0];
+			set[1] = ~set[1];
+		}
+		return set;
+	}
+
+	/**
+	 * Parses an escape, after the {@code \}.
+	 *
+	 * @param c
+	 *            the escaped character
+	 * @return the characters matched by the escape
+	 * @throws Unsupported
+	 *             if the escape is not supported
+	 */
+	private static long[] escape(char c) throws Unsupported {
+		switch (c) {
+		case 'D':
+			return not(range('0', '9'));
+		case 'W':
+			return not(word());
+		case 'S':
+			long[] space = single(' ');
+			union(space, range('\t', '\r'));
+			return not(space);
+		default:
+			// Escaped letters and digits have special meanings; everything
+			// else is literal
+			if (Character.isLetterOrDigit(c)) {
+				throw new Unsupported();
+			}
+			return single(c);
+		}
+	}
+
+	/**
+	 * @return the characters which are part of words
+	 */
+	static long[] word() {
+		long[] word = range('0', '9');
+		union(word, range('A', 'Z'));
+		union(word, range('a', 'z'));
+		union(word, single('_'));
+		return word;
+	}
+
+	/**
+	 * @param c
+	 *            a character
+	 * @return the set of just that character, which is empty if the character
+	 *         is not ASCII
+	 */
+	private static long[] single(char c) {
+		return range(c, c);
+	}
+
+	/**
+	 * @param low
+	 *            the first character
+	 * @param high
+	 *            the last character
+	 * @return the set of ASCII characters from {@code low} to {@code high}
+	 */
+	private static long[] range(char low, char high) {
+		long[] set = new long[2];
+		for (int c = low; c <= high && c < 128; c++) {
+			set[c >> 6] |= 1L << c;
+		}
+		return set;
+	}
+
+	/**
+	 * @return the set of all ASCII characters
+	 */
+	private static long[] all() {
+		return new long[] { -1L, -1L };
+	}
+
+	/**
+	 * @param set
+	 *            a set
+	 * @return the ASCII characters not in the set
+	 */
+	private static long[] not(long[] set) {
+		return new long[] { ~set[0], ~set[1] };
+	}
+
+	/**
+	 * Effect: adds the characters in {@code other} to {@code set}.
+	 *
+	 * @param set
+	 *            the set
+	 * @param other
+	 *            the other set
+	 */
+	private static void union(long[] set, long[] other) {
+		set[0] |= other[0];
+		set[1] |= other[1];
+	}
+
+	/**
+	 * @param set
+	 *            the characters
+	 * @return a node which matches one of the characters
+	 */
+	private static Node set(long[] set) {
+		return new Node(Type.SET, null, set);
+	}
+}
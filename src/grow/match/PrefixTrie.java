@@ -0,0 +1,368 @@
+package grow.match;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents: a trie of phrases, which finds the phrases which start with a
+ * prefix in time proportional to the length of the prefix and the number of
+ * phrases found, no matter how many phrases there are. Phrases are kept in
+ * lower case, and prefixes are looked up without regard to case.
+ *
+ * Phrases can be added and removed one at a time. Each phrase is counted, so
+ * the same phrase can be added more than once, and is only removed once it
+ * has been removed as many times. Each node also counts the phrases below it,
+ * so a search never walks into a branch whose phrases have all been removed.
+ * The nodes of removed phrases are kept, to be used again if the phrase comes
+ * back, until there are more empty nodes than full ones, at which point the
+ * trie is rebuilt.
+ *
+ * The nodes are kept in arrays, with the children of each node in order, so
+ * phrases are found in alphabetical order. A trie is not thread safe.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class PrefixTrie {
+
+	/**
+	 * The character of each node
+	 */
+	private char[] labels;
+	/**
+	 * The number of times the phrase which ends at each node has been added and
+	 * not removed
+	 */
+	private int[] counts;
+	/**
+	 * The number of phrases which end at or below each node
+	 */
+	private int[] below;
+	/**
+	 * The first child of each node, or -1
+	 */
+	private int[] firstChildren;
+	/**
+	 * The next child of the parent of each node, or -1
+	 */
+	private int[] nextSiblings;
+	/**
+	 * The number of nodes, including the root
+	 */
+	private int size;
+	/**
+	 * The number of nodes with no phrases at or below them
+	 */
+	private int empty;
+	/**
+	 * The number of phrases with a count above 0
+	 */
+	private int live;
+
+	/**
+	 * Creates: a new, empty trie.
+	 */
+	public PrefixTrie() {
+		clear();
+	}
+
+	/**
+	 * Effect: removes all the phrases.
+	 */
+	public void clear() {
+		labels = new char[16];
+		counts = new int[16];
+		below = new int[16];
+		firstChildren = new int[16];
+		nextSiblings = new int[16];
+		size = 0;
+		empty = 0;
+		live = 0;
+		// The root
+		node((char) 0);
+	}
+
+	/**
+	 * @return the number of different phrases in the trie
+	 */
+	public int size() {
+		return live;
+	}
+
+	/**
+	 * Effect: adds a phrase to the trie, or counts it again if it is already in
+	 * the trie.
+	 *
+	 * @param phrase
+	 *            the phrase
+	 */
+	public void add(String phrase) {
+		int n = 0;
+		count(n);
+		for (int x = 0; x < phrase.length(); x++) {
+			char c = Character.toLowerCase(phrase.charAt(x));
+			int child = child(n, c);
+			if (child == -1) {
+				child = insert(n, c);
+			}
+			n = child;
+			count(n);
+		}
+		if (counts[n]++ == 0) {
+			live++;
+		}
+	}
+
+	/**
+	 * Effect: counts one more phrase at or below a node.
+	 *
+	 * @param n
+	 *            the node
+	 */
+	private void count(int n) {
+		if (below[n]++ == 0) {
+			empty--;
+		}
+	}
+
+	/**
+	 * Effect: counts one less phrase at or below a node.
+	 *
+	 * @param n
+	 *            the node
+	 */
+	private void uncount(int n) {
+		if (--below[n] == 0) {
+			empty++;
+		}
+	}
+
+	/**
+	 * Effect: removes a phrase from the trie once. If it has been added more
+	 * times than it has been removed, it stays in the trie.
+	 *
+	 * @param phrase
+	 *            the phrase
+	 */
+	public void remove(String phrase) {
+		int n = find(phrase);
+		if (n == -1 || counts[n] == 0) {
+			return;
+		}
+		if (--counts[n] == 0) {
+			live--;
+		}
+		n = 0;
+		uncount(n);
+		for (int x = 0; x < phrase.length(); x++) {
+			n = child(n, Character.toLowerCase(phrase.charAt(x)));
+			uncount(n);
+		}
+		if (empty > size - empty) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * @param phrase
+	 *            a phrase
+	 * @return true if the phrase is in the trie
+	 */
+	public boolean contains(String phrase) {
+		int n = find(phrase);
+		return n != -1 && counts[n] != 0;
+	}
+
+	/**
+	 * Finds the phrases which start with a prefix, in alphabetical order.
+	 *
+	 * @param prefix
+	 *            the prefix, in any case
+	 * @param limit
+	 *            the most phrases to find
+	 * @return the phrases, in lower case
+	 */
+	public List<String> complete(CharSequence prefix, int limit) {
+		List<String> found = new ArrayList<>();
+		int n = 0;
+		for (int x = 0; x < prefix.length() && n != -1; x++) {
+			n = child(n, Character.toLowerCase(prefix.charAt(x)));
+		}
+		if (n == -1 || below[n] == 0 || limit <= 0) {
+			return found;
+		}
+		StringBuilder phrase = new StringBuilder(prefix.length() + 16);
+		for (int x = 0; x < prefix.length(); x++) {
+			phrase.append(Character.toLowerCase(prefix.charAt(x)));
+		}
+		collect(n, phrase, found, limit);
+		return found;
+	}
+
+	/**
+	 * Effect: adds the phrases which end at or below a node to a list, in
+	 * alphabetical order, until the list is full.
+	 *
+	 * @param n
+	 *            the node
+	 * @param phrase
+	 *            the phrase which ends at the node, which is left as it was
+	 * @param found
+	 *            the list
+	 * @param limit
+	 *            the most phrases the list may hold
+	 */
+	private void collect(int n, StringBuilder phrase, List<String> found, int limit) {
+		if (counts[n] != 0) {
+			found.add(phrase.toString());
+		}
+		for (int c = firstChildren[n]; c != -1 && found.size() < limit; c = nextSiblings[c]) {
+			if (below[c] != 0) {
+				phrase.append(labels[c]);
+				collect(c, phrase, found, limit);
+				phrase.setLength(phrase.length() - 1);
+			}
+		}
+	}
+
+	/**
+	 * @param phrase
+	 *            a phrase
+	 * @return the node at which the phrase ends, or -1 if it has no node
+	 */
+	private int find(String phrase) {
+		int n = 0;
+		for (int x = 0; x < phrase.length() && n != -1; x++) {
+			n = child(n, Character.toLowerCase(phrase.charAt(x)));
+		}
+		return n;
+	}
+
+	/**
+	 * @param n
+	 *            a node
+	 * @param c
+	 *            a character
+	 * @return the child of the node with the character, or -1 if there is none
+	 */
+	private int child(int n, char c) {
+		for (int child = firstChildren[n]; child != -1 && labels[child] <= c; child = nextSiblings[child]) {
+			if (labels[child] == c) {
+				return child;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Effect: adds a child to a node, keeping the children in order.
+	 *
+	 * @param n
+	 *            the node
+	 * @param c
+	 *            the character of the child, which the node does not have yet
+	 * @return the child
+	 */
+	private int insert(int n, char c) {
+		int added = node(c);
+		int before = -1;
+		int after = firstChildren[n];
+		while (after != -1 && labels[after] < c) {
+			before = after;
+			after = nextSiblings[after];
+		}
+		nextSiblings[added] = after;
+		if (before == -1) {
+			firstChildren[n] = added;
+		} else {
+			nextSiblings[before] = added;
+		}
+		return added;
+	}
+
+	/**
+	 * Effect: adds a node with no children.
+	 *
+	 * @param c
+	 *            the character of the node
+	 * @return the node
+	 */
+	private int node(char c) {
+		if (size == labels.length) {
+			int length = 2 * size;
+			char[] biggerLabels = new char[length];
+			System.arraycopy(labels, 0, biggerLabels, 0, size);
+			labels = biggerLabels;
+			counts = fit(counts, length);
+			below = fit(below, length);
+			firstChildren = fit(firstChildren, length);
+			nextSiblings = fit(nextSiblings, length);
+		}
+		labels[size] = c;
+		counts[size] = 0;
+		below[size] = 0;
+		firstChildren[size] = -1;
+		nextSiblings[size] = -1;
+		empty++;
+		return size++;
+	}
+
+	/**
+	 * Effect: rebuilds the trie with only the phrases which have not been
+	 * removed.
+	 */
+	private void rebuild() {
+		List<String> keep = new ArrayList<>();
+		List<Integer> times = new ArrayList<>();
+		gather(0, new StringBuilder(), keep, times);
+		clear();
+		for (int x = 0; x < keep.size(); x++) {
+			for (int t = 0; t < times.get(x); t++) {
+				add(keep.get(x));
+			}
+		}
+	}
+
+	/**
+	 * Effect: adds the phrases which end at or below a node, and their counts,
+	 * to lists.
+	 *
+	 * @param n
+	 *            the node
+	 * @param phrase
+	 *            the phrase which ends at the node, which is left as it was
+	 * @param keep
+	 *            the list of phrases
+	 * @param times
+	 *            the list of counts
+	 */
+	private void gather(int n, StringBuilder phrase, List<String> keep, List<Integer> times) {
+		if (counts[n] != 0) {
+			keep.add(phrase.toString());
+			times.add(counts[n]);
+		}
+		for (int c = firstChildren[n]; c != -1; c = nextSiblings[c]) {
+			if (below[c] != 0) {
+				phrase.append(labels[c]);
+				gather(c, phrase, keep, times);
+				phrase.setLength(phrase.length() - 1);
+			}
+		}
+	}
+
+	/**
+	 * @param array
+	 *            an array
+	 * @param size
+	 *            the size needed
+	 * @return the array, or a bigger copy of it if it is not big enough
+	 */
+	private static int[] fit(int[] array, int size) {
+		if (array.length >= size) {
+			return array;
+		}
+		int[] bigger = new int[Math.max(size, 2 * array.length)];
+		System.arraycopy(array, 0, bigger, 0, array.length);
+		return bigger;
+	}
+}
@@ -0,0 +1,9 @@
+/**
+ * Contains the linear-time matcher, which can match the patterns of rules
+ * which use only a subset of regular expressions without backtracking, so
+ * that no pattern in the subset can ever be slow.
+ *
+ * @author Jacob Glueck
+ *
+ */
+package grow.match;
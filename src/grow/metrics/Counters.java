@@ -0,0 +1,158 @@
+package grow.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents: the counters kept about all the games of grow running in this
+ * program.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class Counters implements CountersMBean {
+
+	/**
+	 * The number of lines of input handled
+	 */
+	private final LongAdder lines;
+	/**
+	 * The number of lines which matched no rule
+	 */
+	private final LongAdder unmatched;
+	/**
+	 * The number of saves
+	 */
+	private final LongAdder saves;
+	/**
+	 * The number of bytes saved
+	 */
+	private final LongAdder saved;
+	/**
+	 * The number of bytes loaded
+	 */
+	private final LongAdder loaded;
+	/**
+	 * The number of patterns which were stopped for taking too long
+	 */
+	private final LongAdder timeouts;
+	/**
+	 * The number of lines which only matched once misspelled words were
+	 * corrected
+	 */
+	private final LongAdder corrected;
+
+	/**
+	 * Creates: new counters, all 0.
+	 */
+	Counters() {
+		lines = new LongAdder();
+		unmatched = new LongAdder();
+		saves = new LongAdder();
+		saved = new LongAdder();
+		loaded = new LongAdder();
+		timeouts = new LongAdder();
+		corrected = new LongAdder();
+	}
+
+	/**
+	 * Effect: counts a line of input.
+	 */
+	public void line() {
+		lines.increment();
+	}
+
+	/**
+	 * Effect: counts a line which matched no rule.
+	 */
+	public void unmatched() {
+		unmatched.increment();
+	}
+
+	/**
+	 * Effect: counts a save.
+	 */
+	public void save() {
+		saves.increment();
+	}
+
+	/**
+	 * Effect: counts bytes written.
+	 *
+	 * @param bytes
+	 *            the number of bytes
+	 */
+	public void saved(long bytes) {
+		saved.add(bytes);
+	}
+
+	/**
+	 * Effect: counts bytes read.
+	 *
+	 * @param bytes
+	 *            the number of bytes
+	 */
+	public void loaded(long bytes) {
+		loaded.add(bytes);
+	}
+
+	/**
+	 * Effect: counts a pattern which was stopped for taking too long.
+	 */
+	public void timeout() {
+		timeouts.increment();
+	}
+
+	/**
+	 * Effect: counts a line which only matched once misspelled words were
+	 * corrected.
+	 */
+	public void corrected() {
+		corrected.increment();
+	}
+
+	@Override
+	public long getLines() {
+		return lines.sum();
+	}
+
+	@Override
+	public long getUnmatchedInputs() {
+		return unmatched.sum();
+	}
+
+	@Override
+	public long getSaves() {
+		return saves.sum();
+	}
+
+	@Override
+	public long getBytesSaved() {
+		return saved.sum();
+	}
+
+	@Override
+	public long getBytesLoaded() {
+		return loaded.sum();
+	}
+
+	@Override
+	public long getMatchTimeouts() {
+		return timeouts.sum();
+	}
+
+	@Override
+	public long getCorrectedInputs() {
+		return corrected.sum();
+	}
+
+	@Override
+	public void reset() {
+		lines.reset();
+		unmatched.reset();
+		saves.reset();
+		saved.reset();
+		loaded.reset();
+		timeouts.reset();
+		corrected.reset();
+	}
+}
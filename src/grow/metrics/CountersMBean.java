@@ -0,0 +1,52 @@
+package grow.metrics;
+
+/**
+ * The management interface of {@link Counters}.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public interface CountersMBean {
+
+	/**
+	 * @return the number of lines of input handled
+	 */
+	long getLines();
+
+	/**
+	 * @return the number of lines which matched no rule
+	 */
+	long getUnmatchedInputs();
+
+	/**
+	 * @return the number of times an adventure was saved
+	 */
+	long getSaves();
+
+	/**
+	 * @return the number of bytes written to adventure and state files
+	 */
+	long getBytesSaved();
+
+	/**
+	 * @return the number of bytes read from adventure and state files
+	 */
+	long getBytesLoaded();
+
+	/**
+	 * @return the number of patterns which were stopped for taking longer than
+	 *         the time limit
+	 */
+	long getMatchTimeouts();
+
+	/**
+	 * @return the number of lines which only matched a rule once misspelled
+	 *         words were corrected
+	 */
+	long getCorrectedInputs();
+
+	/**
+	 * Effect: sets all the counters to 0.
+	 */
+	void reset();
+}
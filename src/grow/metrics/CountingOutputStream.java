@@ -0,0 +1,48 @@
+package grow.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Represents: a stream which counts the bytes written through it.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+	/**
+	 * The number of bytes written
+	 */
+	private long count;
+
+	/**
+	 * Creates: a new stream which writes to {@code out}.
+	 *
+	 * @param out
+	 *            the stream
+	 */
+	public CountingOutputStream(OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		count++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		count += len;
+	}
+
+	/**
+	 * @return the number of bytes written
+	 */
+	public long count() {
+		return count;
+	}
+}
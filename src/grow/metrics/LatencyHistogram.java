@@ -0,0 +1,184 @@
+package grow.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents: a histogram of times, in the style of an HDR histogram. The
+ * buckets are log-linear: every power of two is split into {@value #HALF}
+ * equal buckets, so every time is kept to within about one percent, from one
+ * nanosecond to hundreds of years, in a fixed amount of memory. Recording a
+ * time never blocks and never allocates, so it can be done on every turn by
+ * many threads at once.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+	/**
+	 * The number of bits used to pick the bucket within a power of two
+	 */
+	private static final int SUB_BITS = 7;
+	/**
+	 * The number of buckets which cover the times below
+	 * {@code 2^SUB_BITS}; every power of two above that has half as many.
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/**
+	 * Half of {@link #SUB_BUCKETS}
+	 */
+	private static final int HALF = SUB_BUCKETS / 2;
+
+	/**
+	 * The number of times in each bucket
+	 */
+	private final AtomicLongArray counts;
+	/**
+	 * The number of times recorded
+	 */
+	private final LongAdder count;
+	/**
+	 * The sum of the times recorded
+	 */
+	private final LongAdder total;
+	/**
+	 * The longest time recorded
+	 */
+	private final AtomicLong max;
+
+	/**
+	 * Creates: a new, empty histogram.
+	 */
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(index(Long.MAX_VALUE) + 1);
+		count = new LongAdder();
+		total = new LongAdder();
+		max = new AtomicLong();
+	}
+
+	/**
+	 * @param nanos
+	 *            a time, in nanoseconds
+	 * @return the bucket which holds the time
+	 */
+	private static int index(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS + 1;
+		return shift * HALF + (int) (nanos >>> shift);
+	}
+
+	/**
+	 * @param index
+	 *            a bucket
+	 * @return the time in the middle of the bucket, in nanoseconds
+	 */
+	private static long value(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / HALF - 1;
+		long low = (long) (index - shift * HALF) << shift;
+		return low + (1L << shift) / 2;
+	}
+
+	/**
+	 * Effect: records a time.
+	 *
+	 * @param nanos
+	 *            the time, in nanoseconds. Negative times are recorded as 0.
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(nanos, 0);
+		counts.incrementAndGet(index(nanos));
+		count.increment();
+		total.add(nanos);
+		max.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * Effect: records the time since {@code start}.
+	 *
+	 * @param start
+	 *            the start time, from {@link System#nanoTime()}
+	 */
+	public void since(long start) {
+		record(System.nanoTime() - start);
+	}
+
+	/**
+	 * @param p
+	 *            the percentile, between 0 and 100
+	 * @return the time at the percentile, in nanoseconds
+	 */
+	public long percentile(double p) {
+		long n = count.sum();
+		if (n == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(p / 100 * n));
+		long seen = 0;
+		for (int x = 0; x < counts.length(); x++) {
+			seen += counts.get(x);
+			if (seen >= target) {
+				return Math.min(value(x), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	@Override
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : total.sum() / (double) n / 1000;
+	}
+
+	@Override
+	public double getP50() {
+		return percentile(50) / 1000.0;
+	}
+
+	@Override
+	public double getP90() {
+		return percentile(90) / 1000.0;
+	}
+
+	@Override
+	public double getP99() {
+		return percentile(99) / 1000.0;
+	}
+
+	@Override
+	public double getP999() {
+		return percentile(99.9) / 1000.0;
+	}
+
+	@Override
+	public double getMax() {
+		return max.get() / 1000.0;
+	}
+
+	@Override
+	public void reset() {
+		for (int x = 0; x < counts.length(); x++) {
+			counts.set(x, 0);
+		}
+		count.reset();
+		total.reset();
+		max.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count %d, mean %.1f us, p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us", getCount(), getMean(), getP50(), getP90(), getP99(),
+				getP999(), getMax());
+	}
+}
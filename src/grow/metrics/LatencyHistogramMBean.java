@@ -0,0 +1,51 @@
+package grow.metrics;
+
+/**
+ * The management interface of a {@link LatencyHistogram}. All times are in
+ * microseconds.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public interface LatencyHistogramMBean {
+
+	/**
+	 * @return the number of times recorded
+	 */
+	long getCount();
+
+	/**
+	 * @return the mean time
+	 */
+	double getMean();
+
+	/**
+	 * @return the median time
+	 */
+	double getP50();
+
+	/**
+	 * @return the 90th percentile
+	 */
+	double getP90();
+
+	/**
+	 * @return the 99th percentile
+	 */
+	double getP99();
+
+	/**
+	 * @return the 99.9th percentile
+	 */
+	double getP999();
+
+	/**
+	 * @return the longest time
+	 */
+	double getMax();
+
+	/**
+	 * Effect: forgets all the times recorded so far.
+	 */
+	void reset();
+}
@@ -0,0 +1,64 @@
+package grow.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Represents: a Java Flight Recorder event for decoding the image of a scene,
+ * or encoding it to save it.
+ *
+ * @author Jacob Glueck
+ *
+ */
+@Name("grow.MediaDecode")
+@Label("Media Decode")
+@Category("Grow")
+@Description("Decoding or encoding the image of a scene")
+public class MediaDecodeEvent extends Event {
+
+	/**
+	 * The name of the scene
+	 */
+	@Label("Scene")
+	private String scene;
+	/**
+	 * True if the image was encoded, false if it was decoded
+	 */
+	@Label("Encode")
+	private boolean encode;
+	/**
+	 * The width of the image
+	 */
+	@Label("Width")
+	private int width;
+	/**
+	 * The height of the image
+	 */
+	@Label("Height")
+	private int height;
+
+	/**
+	 * Effect: ends the event, and records it if it is being recorded.
+	 *
+	 * @param scene
+	 *            the name of the scene
+	 * @param encode
+	 *            true if the image was encoded, false if it was decoded
+	 * @param width
+	 *            the width of the image
+	 * @param height
+	 *            the height of the image
+	 */
+	public void commit(String scene, boolean encode, double width, double height) {
+		if (shouldCommit()) {
+			this.scene = scene;
+			this.encode = encode;
+			this.width = (int) width;
+			this.height = (int) height;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package grow.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Represents: the statistics kept about all the games of grow running in this
+ * program. Every histogram and the counters are registered with the platform
+ * MBean server, under the domain {@value #DOMAIN}: the histograms as
+ * {@code grow:type=Latency,name=<name>}, and the counters as
+ * {@code grow:type=Counters}.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public final class Metrics {
+
+	/**
+	 * The JMX domain
+	 */
+	public static final String DOMAIN = "grow";
+
+	/**
+	 * The histograms, by name
+	 */
+	private static final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+	/**
+	 * The counters
+	 */
+	private static final Counters counters = register(new Counters(), DOMAIN + ":type=Counters");
+
+	/**
+	 * Not instantiable.
+	 */
+	private Metrics() {
+	}
+
+	/**
+	 * Gets the histogram with the specified name, and makes it if needed.
+	 *
+	 * @param name
+	 *            the name
+	 * @return the histogram
+	 */
+	public static LatencyHistogram latency(String name) {
+		LatencyHistogram h = latencies.get(name);
+		if (h == null) {
+			h = latencies.computeIfAbsent(name, (n) -> register(new LatencyHistogram(), DOMAIN + ":type=Latency,name=" + n));
+		}
+		return h;
+	}
+
+	/**
+	 * @return an unmodifiable view of all the histograms, by name
+	 */
+	public static Map<String, LatencyHistogram> latencies() {
+		return Collections.unmodifiableMap(latencies);
+	}
+
+	/**
+	 * @return the counters
+	 */
+	public static Counters counters() {
+		return counters;
+	}
+
+	/**
+	 * Effect: registers an MBean. If it cannot be registered, the statistics
+	 * are still kept; they just cannot be seen with JMX.
+	 *
+	 * @param bean
+	 *            the bean
+	 * @param name
+	 *            the object name
+	 * @param <T>
+	 *            the type of the bean
+	 * @return the bean
+	 */
+	private static <T> T register(T bean, String name) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(bean, new ObjectName(name));
+		} catch (JMException | SecurityException e) {
+			System.err.println("Cannot register " + name + ": " + e.getMessage());
+		}
+		return bean;
+	}
+
+	/**
+	 * Creates: a stream which counts the bytes read from {@code in} as loaded.
+	 *
+	 * @param in
+	 *            the stream
+	 * @return the counting stream
+	 */
+	public static InputStream loading(InputStream in) {
+		return new FilterInputStream(in) {
+			@Override
+			public int read() throws IOException {
+				int r = super.read();
+				if (r != -1) {
+					counters.loaded(1);
+				}
+				return r;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int r = super.read(b, off, len);
+				if (r > 0) {
+					counters.loaded(r);
+				}
+				return r;
+			}
+		};
+	}
+
+	/**
+	 * Creates: a stream which counts the bytes written to {@code out} as
+	 * saved.
+	 *
+	 * @param out
+	 *            the stream
+	 * @return the counting stream
+	 */
+	public static OutputStream saving(OutputStream out) {
+		return new FilterOutputStream(out) {
+			@Override
+			public void write(int b) throws IOException {
+				out.write(b);
+				counters.saved(1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+				counters.saved(len);
+			}
+		};
+	}
+}
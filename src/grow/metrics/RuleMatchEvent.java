@@ -0,0 +1,65 @@
+package grow.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Represents: a Java Flight Recorder event for matching a line of input
+ * against the rules of a scene. Like all the events in this package, it costs
+ * almost nothing when it is not being recorded, so it is always compiled in:
+ *
+ * <pre>
+ * RuleMatchEvent e = new RuleMatchEvent();
+ * e.begin();
+ * // match
+ * e.commit(scene, rule, patterns);
+ * </pre>
+ *
+ * @author Jacob Glueck
+ *
+ */
+@Name("grow.RuleMatch")
+@Label("Rule Match")
+@Category("Grow")
+@Description("Matching a line of input against the rules of a scene")
+public class RuleMatchEvent extends Event {
+
+	/**
+	 * The name of the scene
+	 */
+	@Label("Scene")
+	private String scene;
+	/**
+	 * The index of the rule which matched, or -1
+	 */
+	@Label("Rule")
+	@Description("The index of the rule which matched, or -1 if none did")
+	private int rule;
+	/**
+	 * The number of patterns tried
+	 */
+	@Label("Patterns Tried")
+	private int patterns;
+
+	/**
+	 * Effect: ends the event, and records it if it is being recorded.
+	 *
+	 * @param scene
+	 *            the name of the scene
+	 * @param rule
+	 *            the index of the rule which matched, or -1 if none did
+	 * @param patterns
+	 *            the number of patterns tried
+	 */
+	public void commit(String scene, int rule, int patterns) {
+		if (shouldCommit()) {
+			this.scene = scene;
+			this.rule = rule;
+			this.patterns = patterns;
+			commit();
+		}
+	}
+}
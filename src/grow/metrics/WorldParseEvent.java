@@ -0,0 +1,57 @@
+package grow.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Represents: a Java Flight Recorder event for parsing an adventure.
+ *
+ * @author Jacob Glueck
+ *
+ */
+@Name("grow.WorldParse")
+@Label("World Parse")
+@Category("Grow")
+@Description("Parsing an adventure")
+public class WorldParseEvent extends Event {
+
+	/**
+	 * The name of the adventure
+	 */
+	@Label("Adventure")
+	private String adventure;
+	/**
+	 * The size of the adventure
+	 */
+	@Label("Size")
+	@DataAmount
+	private long size;
+	/**
+	 * The number of scenes
+	 */
+	@Label("Scenes")
+	private int scenes;
+
+	/**
+	 * Effect: ends the event, and records it if it is being recorded.
+	 *
+	 * @param adventure
+	 *            the name of the adventure
+	 * @param size
+	 *            the number of characters parsed
+	 * @param scenes
+	 *            the number of scenes
+	 */
+	public void commit(String adventure, long size, int scenes) {
+		if (shouldCommit()) {
+			this.adventure = adventure;
+			this.size = size;
+			this.scenes = scenes;
+			commit();
+		}
+	}
+}
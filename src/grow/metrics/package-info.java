@@ -0,0 +1,9 @@
+/**
+ * Contains the statistics kept about games of grow, which are published as
+ * MBeans so that they can be watched with JConsole or any other JMX client,
+ * and the Java Flight Recorder events emitted by games of grow.
+ *
+ * @author Jacob Glueck
+ *
+ */
+package grow.metrics;
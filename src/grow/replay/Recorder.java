@@ -0,0 +1,122 @@
+package grow.replay;
+
+import java.io.PrintStream;
+import java.util.function.Consumer;
+
+import grow.GrowGame;
+import grow.OutputEvent;
+import grow.OutputSink;
+
+/**
+ * Represents: a recorder of a game of grow. The recorder is an output sink
+ * which passes everything on to another sink, and writes the transcript of the
+ * game (see {@link Transcript}) to a stream as the game goes. Since the
+ * transcript is written as the game goes, a game which is killed still leaves
+ * a usable transcript. To record a game:
+ *
+ * <pre>
+ * Recorder r = new Recorder(sink, new PrintStream(file));
+ * GrowGame g = new GrowGame(input, r, root);
+ * g.record(r);
+ * </pre>
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class Recorder implements OutputSink {
+
+	/**
+	 * The sink which gets the output
+	 */
+	private final OutputSink out;
+	/**
+	 * The stream which gets the transcript
+	 */
+	private final PrintStream transcript;
+	/**
+	 * The time of the last step, from {@link System#nanoTime()}
+	 */
+	private long last;
+
+	/**
+	 * Creates: a new recorder.
+	 *
+	 * @param out
+	 *            the sink which gets the output
+	 * @param transcript
+	 *            the stream which gets the transcript
+	 */
+	public Recorder(OutputSink out, PrintStream transcript) {
+		this.out = out;
+		this.transcript = transcript;
+	}
+
+	/**
+	 * Effect: records the start of the game. Called by
+	 * {@link GrowGame#start(Consumer, grow.MediaProcessor, grow.StatusUpdater)}
+	 * .
+	 *
+	 * @param seed
+	 *            the seed of the game
+	 */
+	public synchronized void start(long seed) {
+		transcript.println(Transcript.SEED + seed);
+		transcript.println(Transcript.START);
+		last = System.nanoTime();
+	}
+
+	/**
+	 * Effect: records a line of input. Called by the game for every line it
+	 * handles.
+	 *
+	 * @param line
+	 *            the line
+	 */
+	public synchronized void input(String line) {
+		long now = System.nanoTime();
+		transcript.println(Transcript.INPUT + (now - last) / 1000000 + ": " + line);
+		last = now;
+	}
+
+	/**
+	 * Creates: an injector which records everything injected, and passes it on
+	 * to the specified injector.
+	 *
+	 * @param injector
+	 *            the injector
+	 * @return the recording injector
+	 */
+	public Consumer<String> injector(Consumer<String> injector) {
+		return (s) -> {
+			synchronized (this) {
+				transcript.println(Transcript.INJECTED + s);
+			}
+			injector.accept(s);
+		};
+	}
+
+	@Override
+	public void accept(OutputEvent e) {
+		synchronized (this) {
+			for (String line : e.text().split("\n", -1)) {
+				transcript.println(Transcript.OUTPUT + line);
+			}
+		}
+		out.accept(e);
+	}
+
+	@Override
+	public void flush() {
+		synchronized (this) {
+			transcript.flush();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Effect: closes the stream which gets the transcript.
+	 */
+	public synchronized void close() {
+		transcript.close();
+	}
+}
@@ -0,0 +1,537 @@
+package grow.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import exceptions.SyntaxError;
+import grow.GrowGame;
+import grow.MediaProcessor;
+import grow.StatusUpdater;
+import grow.replay.Transcript.Step;
+
+/**
+ * Represents: a driver which replays many transcripts at the same time, and
+ * reports how fast the game handled them and whether the game still behaves
+ * the way it did when they were recorded. Each transcript is replayed in its
+ * own copy of a grow root, which should be a copy of the root the transcript
+ * was recorded in, so that the game starts in the same state. The game is
+ * given the recorded seed, so a game which behaves the same produces exactly
+ * the recorded output.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class Replay {
+
+	/**
+	 * A status updater which does nothing.
+	 */
+	private static final StatusUpdater NO_STATUS = (a, s) -> {
+	};
+
+	/**
+	 * The grow root copied for each transcript
+	 */
+	private final File template;
+	/**
+	 * The number of threads
+	 */
+	private final int threads;
+	/**
+	 * True if the lines should be sent with the recorded delays, false if they
+	 * should be sent as fast as possible
+	 */
+	private final boolean paced;
+
+	/**
+	 * Creates: a new replay driver.
+	 *
+	 * @param template
+	 *            the grow root copied for each transcript
+	 * @param threads
+	 *            the number of threads which run the games
+	 * @param paced
+	 *            true if the lines should be sent with the recorded delays,
+	 *            false if they should be sent as fast as possible
+	 */
+	public Replay(File template, int threads, boolean paced) {
+		this.template = template;
+		this.threads = threads;
+		this.paced = paced;
+	}
+
+	/**
+	 * Effect: replays all the transcripts at the same time, and waits for them
+	 * to finish.
+	 *
+	 * @param transcripts
+	 *            the transcripts
+	 * @return the report
+	 * @throws IOException
+	 *             if the grow roots cannot be made
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 * @throws ExecutionException
+	 *             if the game threw an exception in a session. The cause is
+	 *             the first one; those of the other sessions are suppressed.
+	 */
+	public Report run(List<Transcript> transcripts) throws IOException, InterruptedException, ExecutionException {
+		File work = Files.createTempDirectory("grow_replay").toFile();
+		try {
+			List<Session> sessions = new ArrayList<>();
+			for (int x = 0; x < transcripts.size(); x++) {
+				File root = new File(work, Integer.toString(x));
+				copy(template.toPath(), root.toPath());
+				sessions.add(new Session(x, transcripts.get(x), root));
+			}
+
+			ScheduledExecutorService pool = Executors.newScheduledThreadPool(threads);
+			CountDownLatch done = new CountDownLatch(sessions.size());
+			long start = System.nanoTime();
+			long elapsed;
+			try {
+				for (Session s : sessions) {
+					s.schedule(pool, done);
+				}
+				done.await();
+				elapsed = System.nanoTime() - start;
+			} finally {
+				pool.shutdownNow();
+			}
+
+			ExecutionException failed = null;
+			for (Session s : sessions) {
+				if (s.failure == null) {
+					continue;
+				}
+				if (failed == null) {
+					failed = new ExecutionException("Session " + s.number + " failed", s.failure);
+				} else {
+					failed.addSuppressed(s.failure);
+				}
+			}
+			if (failed != null) {
+				throw failed;
+			}
+			return new Report(sessions, elapsed);
+		} finally {
+			delete(work.toPath());
+		}
+	}
+
+	/**
+	 * Represents: a transcript being replayed.
+	 *
+	 * @author Jacob Glueck
+	 */
+	private class Session implements Runnable {
+		/**
+		 * The number of the session, used in the report
+		 */
+		private final int number;
+		/**
+		 * The transcript
+		 */
+		private final Transcript transcript;
+		/**
+		 * The game
+		 */
+		private final GrowGame game;
+		/**
+		 * The strings injected in the current step
+		 */
+		private final List<String> injected;
+		/**
+		 * The lines of output of the current step
+		 */
+		private final List<String> output;
+		/**
+		 * The injector, which records what is injected
+		 */
+		private final Consumer<String> injector;
+		/**
+		 * The latency of each line, in nanoseconds
+		 */
+		private final long[] latencies;
+		/**
+		 * The index of the next step
+		 */
+		private int next;
+		/**
+		 * The first difference from the transcript, or null if there is none
+		 */
+		private String divergence;
+		/**
+		 * The pool
+		 */
+		private ScheduledExecutorService pool;
+		/**
+		 * Counted down when the session is done
+		 */
+		private CountDownLatch done;
+		/**
+		 * What the game threw, or null if it did not throw anything
+		 */
+		private volatile Throwable failure;
+
+		/**
+		 * Creates: a new session.
+		 *
+		 * @param number
+		 *            the number of the session
+		 * @param transcript
+		 *            the transcript
+		 * @param root
+		 *            the grow root
+		 */
+		public Session(int number, Transcript transcript, File root) {
+			this.number = number;
+			this.transcript = transcript;
+			injected = new ArrayList<>();
+			output = new ArrayList<>();
+			injector = injected::add;
+			game = new GrowGame((e) -> output.addAll(Arrays.asList(e.text().split("\n", -1))), root);
+			game.setSeed(transcript.seed());
+			latencies = new long[transcript.steps().size() - 1];
+			next = 0;
+			divergence = null;
+		}
+
+		/**
+		 * Effect: schedules the next step, or finishes the session.
+		 *
+		 * @param pool
+		 *            the pool
+		 * @param done
+		 *            counted down when the session is done
+		 */
+		public void schedule(ScheduledExecutorService pool, CountDownLatch done) {
+			this.pool = pool;
+			this.done = done;
+			if (!scheduleNext()) {
+				done.countDown();
+			}
+		}
+
+		/**
+		 * Effect: schedules the next step, if there is one.
+		 *
+		 * @return true if a step was scheduled, false if the session is done
+		 */
+		private boolean scheduleNext() {
+			if (next == transcript.steps().size()) {
+				return false;
+			} else if (paced) {
+				pool.schedule(this, transcript.steps().get(next).delay(), TimeUnit.MILLISECONDS);
+			} else {
+				pool.execute(this);
+			}
+			return true;
+		}
+
+		@Override
+		public void run() {
+			boolean scheduled = false;
+			try {
+				step();
+				scheduled = scheduleNext();
+			} catch (RuntimeException | Error e) {
+				failure = e;
+			} finally {
+				// Whatever happens, the session is done unless another step
+				// is coming, so the driver does not wait for it forever
+				if (!scheduled) {
+					done.countDown();
+				}
+			}
+		}
+
+		/**
+		 * Effect: sends the next line of the transcript to the game, and
+		 * compares what the game does with the recording.
+		 */
+		private void step() {
+			Step step = transcript.steps().get(next);
+			injected.clear();
+			output.clear();
+			boolean running;
+			if (step.line() == null) {
+				game.start(injector, MediaProcessor.EMPTY, NO_STATUS);
+				running = true;
+			} else {
+				long start = System.nanoTime();
+				running = game.feed(step.line(), injector, MediaProcessor.EMPTY, NO_STATUS);
+				latencies[next - 1] = System.nanoTime() - start;
+			}
+			if (divergence == null) {
+				if (!output.equals(step.output())) {
+					divergence = describe(step, "output", step.output(), output);
+				} else if (!injected.equals(step.injected())) {
+					divergence = describe(step, "injections", step.injected(), injected);
+				}
+			}
+			next++;
+			if (!running && next != transcript.steps().size()) {
+				if (divergence == null) {
+					divergence = "Session " + number + ": the game ended " + (transcript.steps().size() - next) + " lines early.";
+				}
+				next = transcript.steps().size();
+			}
+		}
+
+		/**
+		 * @param step
+		 *            the step
+		 * @param what
+		 *            what is different
+		 * @param expected
+		 *            the recorded lines
+		 * @param actual
+		 *            the lines from the replay
+		 * @return a description of the first difference
+		 */
+		private String describe(Step step, String what, List<String> expected, List<String> actual) {
+			int x = 0;
+			while (x < expected.size() && x < actual.size() && expected.get(x).equals(actual.get(x))) {
+				x++;
+			}
+			return String.format("Session %d, line %d (%s): different %s. Expected: %s. Was: %s.", number, next, step.line() == null ? "start" : step.line(), what,
+					x < expected.size() ? "\"" + expected.get(x) + "\"" : "nothing", x < actual.size() ? "\"" + actual.get(x) + "\"" : "nothing");
+		}
+	}
+
+	/**
+	 * Represents: the results of a replay.
+	 *
+	 * @author Jacob Glueck
+	 */
+	public static class Report {
+		/**
+		 * The number of sessions
+		 */
+		private final int sessions;
+		/**
+		 * The latency of every line, in nanoseconds, sorted
+		 */
+		private final long[] latencies;
+		/**
+		 * The time the replay took, in nanoseconds
+		 */
+		private final long elapsed;
+		/**
+		 * The first difference from the transcript of every session which
+		 * diverged
+		 */
+		private final List<String> divergences;
+
+		/**
+		 * Creates: the report for the sessions.
+		 *
+		 * @param sessions
+		 *            the sessions
+		 * @param elapsed
+		 *            the time the replay took, in nanoseconds
+		 */
+		private Report(List<Session> sessions, long elapsed) {
+			this.sessions = sessions.size();
+			this.elapsed = elapsed;
+			int count = 0;
+			for (Session s : sessions) {
+				count += s.latencies.length;
+			}
+			latencies = new long[count];
+			divergences = new ArrayList<>();
+			int x = 0;
+			for (Session s : sessions) {
+				System.arraycopy(s.latencies, 0, latencies, x, s.latencies.length);
+				x += s.latencies.length;
+				if (s.divergence != null) {
+					divergences.add(s.divergence);
+				}
+			}
+			Arrays.sort(latencies);
+		}
+
+		/**
+		 * @return the number of lines handled
+		 */
+		public int turns() {
+			return latencies.length;
+		}
+
+		/**
+		 * @return the number of lines handled per second
+		 */
+		public double turnsPerSecond() {
+			return latencies.length / (elapsed / 1e9);
+		}
+
+		/**
+		 * @param p
+		 *            the percentile, between 0 and 100
+		 * @return the latency at the percentile, in nanoseconds
+		 */
+		public long percentile(double p) {
+			if (latencies.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(p / 100 * latencies.length) - 1;
+			return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+		}
+
+		/**
+		 * @return the first difference from the transcript of every session
+		 *         which diverged
+		 */
+		public List<String> divergences() {
+			return Collections.unmodifiableList(divergences);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder b = new StringBuilder();
+			b.append(String.format("Sessions: %d%n", sessions));
+			b.append(String.format("Lines: %d in %.3f s (%.1f lines/s)%n", turns(), elapsed / 1e9, turnsPerSecond()));
+			b.append(String.format("Latency (us): p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n", percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3,
+					percentile(99.9) / 1e3, percentile(100) / 1e3));
+			b.append(String.format("Diverged: %d of %d sessions%n", divergences.size(), sessions));
+			for (String d : divergences) {
+				b.append(d).append(String.format("%n"));
+			}
+			return b.toString();
+		}
+	}
+
+	/**
+	 * Effect: recursively copies a directory.
+	 *
+	 * @param from
+	 *            the directory to copy
+	 * @param to
+	 *            the copy, which must not exist
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	private static void copy(Path from, Path to) throws IOException {
+		Files.walkFileTree(from, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				Files.createDirectories(to.resolve(from.relativize(dir)));
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.copy(file, to.resolve(from.relativize(file)));
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Effect: recursively deletes a directory.
+	 *
+	 * @param p
+	 *            the directory
+	 * @throws IOException
+	 *             if there is a problem
+	 */
+	private static void delete(Path p) throws IOException {
+		Files.walkFileTree(p, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Replays transcripts. The arguments are:
+	 * <ul>
+	 * <li>{@code --root <dir>}: the grow root to copy for each transcript
+	 * (required)</li>
+	 * <li>{@code --threads <n>}: the number of threads (the number of
+	 * processors by default)</li>
+	 * <li>{@code --repeat <n>}: replay every transcript {@code n} times</li>
+	 * <li>{@code --paced}: send the lines with the recorded delays</li>
+	 * <li>anything else: a transcript, or a directory of transcripts (files
+	 * ending with {@code .txt})</li>
+	 * </ul>
+	 *
+	 * @param args
+	 *            the arguments
+	 * @throws Exception
+	 *             if there is a problem
+	 */
+	public static void main(String[] args) throws Exception {
+		File root = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int repeat = 1;
+		boolean paced = false;
+		List<File> files = new ArrayList<>();
+		for (int x = 0; x < args.length; x++) {
+			switch (args[x]) {
+			case "--root":
+				root = new File(args[++x]);
+				break;
+			case "--threads":
+				threads = Integer.parseInt(args[++x]);
+				break;
+			case "--repeat":
+				repeat = Integer.parseInt(args[++x]);
+				break;
+			case "--paced":
+				paced = true;
+				break;
+			default:
+				File f = new File(args[x]);
+				if (f.isDirectory()) {
+					File[] children = f.listFiles((c) -> c.getName().endsWith(".txt"));
+					Arrays.sort(children);
+					files.addAll(Arrays.asList(children));
+				} else {
+					files.add(f);
+				}
+			}
+		}
+		if (root == null || files.isEmpty()) {
+			System.err.println("Usage: --root <grow root> [--threads <n>] [--repeat <n>] [--paced] <transcripts>");
+			return;
+		}
+
+		List<Transcript> transcripts = new ArrayList<>();
+		for (File f : files) {
+			try {
+				Transcript t = Transcript.read(f);
+				for (int x = 0; x < repeat; x++) {
+					transcripts.add(t);
+				}
+			} catch (SyntaxError e) {
+				System.err.println(f + ": " + e.errorMessage());
+			}
+		}
+		System.out.print(new Replay(root, threads, paced).run(transcripts));
+	}
+}
@@ -0,0 +1,272 @@
+package grow.replay;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import exceptions.SyntaxError;
+import grow.Game;
+
+/**
+ * Represents: a recording of a game of grow. A transcript holds the seed of
+ * the game, and a list of steps. The first step is starting the game, and
+ * every other step is a line of input. Each step holds everything the game
+ * injected and printed while handling it. A transcript is saved as text:
+ *
+ * <pre>
+ * Seed: 42
+ * Start
+ * Output: Welcome to grow!
+ * Input 1500: go north
+ * Injected: north
+ * Output: You are in a forest.
+ * </pre>
+ *
+ * The number after {@code Input} is the number of milliseconds since the
+ * previous step.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class Transcript {
+
+	/**
+	 * Represents: a step of a game: either starting the game or handling a
+	 * line of input.
+	 *
+	 * @author Jacob Glueck
+	 */
+	public static class Step {
+		/**
+		 * The line, or null if this step starts the game
+		 */
+		private final String line;
+		/**
+		 * The number of milliseconds between the previous step and this step
+		 */
+		private final long delay;
+		/**
+		 * The strings injected during the step
+		 */
+		private final List<String> injected;
+		/**
+		 * The lines of output printed during the step
+		 */
+		private final List<String> output;
+
+		/**
+		 * Creates: a new step with no injections or output.
+		 *
+		 * @param line
+		 *            the line, or null if this step starts the game
+		 * @param delay
+		 *            the number of milliseconds between the previous step
+		 *            and this step
+		 */
+		public Step(String line, long delay) {
+			this.line = line;
+			this.delay = delay;
+			injected = new ArrayList<>();
+			output = new ArrayList<>();
+		}
+
+		/**
+		 * @return the line, or null if this step starts the game
+		 */
+		public String line() {
+			return line;
+		}
+
+		/**
+		 * @return the number of milliseconds between the previous step and
+		 *         this step
+		 */
+		public long delay() {
+			return delay;
+		}
+
+		/**
+		 * @return the strings injected during the step
+		 */
+		public List<String> injected() {
+			return injected;
+		}
+
+		/**
+		 * @return the lines of output printed during the step
+		 */
+		public List<String> output() {
+			return output;
+		}
+
+		/**
+		 * Effect: saves this step.
+		 *
+		 * @param out
+		 *            the stream
+		 */
+		public void save(PrintStream out) {
+			out.println(header());
+			for (String i : injected) {
+				out.println(INJECTED + i);
+			}
+			for (String o : output) {
+				out.println(OUTPUT + o);
+			}
+		}
+
+		/**
+		 * @return the first line of this step, when saved
+		 */
+		private String header() {
+			return line == null ? START : INPUT + delay + ": " + line;
+		}
+	}
+
+	/**
+	 * The prefix of the seed line
+	 */
+	static final String SEED = "Seed: ";
+	/**
+	 * The line which starts the first step
+	 */
+	static final String START = "Start";
+	/**
+	 * The prefix of a line of input
+	 */
+	static final String INPUT = "Input ";
+	/**
+	 * The prefix of an injection
+	 */
+	static final String INJECTED = "Injected: ";
+	/**
+	 * The prefix of a line of output
+	 */
+	static final String OUTPUT = "Output: ";
+
+	/**
+	 * The seed
+	 */
+	private final long seed;
+	/**
+	 * The steps
+	 */
+	private final List<Step> steps;
+
+	/**
+	 * Creates: a new transcript.
+	 *
+	 * @param seed
+	 *            the seed of the game
+	 * @param steps
+	 *            the steps. The first must start the game.
+	 */
+	public Transcript(long seed, List<Step> steps) {
+		this.seed = seed;
+		this.steps = steps;
+	}
+
+	/**
+	 * @return the seed of the game
+	 */
+	public long seed() {
+		return seed;
+	}
+
+	/**
+	 * @return an unmodifiable view of the steps
+	 */
+	public List<Step> steps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * Effect: saves this transcript.
+	 *
+	 * @param out
+	 *            the stream
+	 */
+	public void save(PrintStream out) {
+		out.println(SEED + seed);
+		for (Step s : steps) {
+			s.save(out);
+		}
+	}
+
+	/**
+	 * Parses a transcript. A transcript which was cut off (because the game
+	 * was killed while recording) is fine; it simply ends early.
+	 *
+	 * @param in
+	 *            the input
+	 * @return the transcript
+	 * @throws SyntaxError
+	 *             if there is a problem
+	 */
+	public static Transcript parse(Scanner in) throws SyntaxError {
+		int line = 1;
+		long seed;
+		try {
+			seed = Long.parseLong(Game.extract(SEED, in.nextLine(), line));
+			line++;
+			if (!in.nextLine().equals(START)) {
+				throw new SyntaxError(line, "Expected: " + START);
+			}
+		} catch (NoSuchElementException e) {
+			throw new SyntaxError(line, "Expected line, but none found.");
+		} catch (NumberFormatException e) {
+			throw new SyntaxError(line, "Bad seed.");
+		}
+		List<Step> steps = new ArrayList<>();
+		Step current = new Step(null, 0);
+		steps.add(current);
+		while (in.hasNextLine()) {
+			line++;
+			String str = in.nextLine();
+			if (str.startsWith(OUTPUT)) {
+				current.output.add(str.substring(OUTPUT.length()));
+			} else if (str.startsWith(INJECTED)) {
+				current.injected.add(str.substring(INJECTED.length()));
+			} else if (str.startsWith(INPUT)) {
+				int colon = str.indexOf(": ");
+				if (colon == -1) {
+					throw new SyntaxError(line, "No : after the delay.");
+				}
+				try {
+					current = new Step(str.substring(colon + 2), Long.parseLong(str.substring(INPUT.length(), colon)));
+				} catch (NumberFormatException e) {
+					throw new SyntaxError(line, "Bad delay.");
+				}
+				steps.add(current);
+			} else {
+				throw new SyntaxError(line, "Unknown line: " + str);
+			}
+		}
+		return new Transcript(seed, steps);
+	}
+
+	/**
+	 * Reads a transcript from a file.
+	 *
+	 * @param f
+	 *            the file
+	 * @return the transcript
+	 * @throws FileNotFoundException
+	 *             if the file does not exist
+	 * @throws SyntaxError
+	 *             if there is a problem
+	 */
+	public static Transcript read(File f) throws FileNotFoundException, SyntaxError {
+		Scanner in = new Scanner(f);
+		try {
+			return parse(in);
+		} finally {
+			in.close();
+		}
+	}
+}
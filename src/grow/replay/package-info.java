@@ -0,0 +1,7 @@
+/**
+ * Contains the classes which record games of grow and replay them.
+ *
+ * @author Jacob Glueck
+ *
+ */
+package grow.replay;
\ No newline at end of file
@@ -4,16 +4,24 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
 
+import grow.OutputEvent;
+import grow.OutputSink;
 import javafx.application.Platform;
 import javafx.geometry.Orientation;
+import javafx.scene.control.Label;
 import javafx.scene.control.SplitPane;
 import javafx.scene.control.TextArea;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
@@ -59,6 +67,12 @@ public class Console extends SplitPane {
 	 */
 	private final PrintStream outputPrint;
 
+	/**
+	 * The sink that the client uses. Collects events, and writes them all to
+	 * the window at once when flushed.
+	 */
+	private final OutputSink sink;
+
 	/**
 	 * The input stream which the client can read
 	 */
@@ -85,6 +99,14 @@ public class Console extends SplitPane {
 	 * The field in which the client types input
 	 */
 	private final TextArea inputArea;
+	/**
+	 * The label which shows what the input could be completed to
+	 */
+	private final Label hints;
+	/**
+	 * Finds what the input could be completed to
+	 */
+	private Function<String, List<String>> completer;
 
 	/**
 	 * An object used to ensure that only one thread writes to the view at the
@@ -105,9 +127,12 @@ public class Console extends SplitPane {
 		inputArea.setWrapText(true);
 		inputArea.setMaxHeight(USE_PREF_SIZE);
 		inputArea.setPrefHeight(150);
+		hints = new Label();
+		hints.setFont(font);
+		completer = (s) -> Collections.emptyList();
 		getItems().add(view);
 		// VBox.setVgrow(view, Priority.ALWAYS);
-		getItems().add(inputArea);
+		getItems().add(new VBox(inputArea, hints));
 		// VBox.setVgrow(inputArea, Priority.NEVER);
 		setOrientation(Orientation.VERTICAL);
 		// setDividerPositions(.7, .3);
@@ -155,6 +180,45 @@ public class Console extends SplitPane {
 		outputPrint = new PrintStream(output);
 		// Creates the initial HTML paragraph.
 		outputPrint.println();
+		sink = new OutputSink() {
+			/**
+			 * The lines which have not been written yet
+			 */
+			private final List<String> lines = new ArrayList<>();
+
+			@Override
+			public void accept(OutputEvent e) {
+				synchronized (lines) {
+					lines.add(e.text());
+				}
+			}
+
+			@Override
+			public void flush() {
+				StringBuilder script = new StringBuilder();
+				synchronized (lines) {
+					if (lines.isEmpty()) {
+						return;
+					}
+					String color = Console.toRGBCode(normalColor);
+					script.append("var content = document.getElementById('content');");
+					for (String line : lines) {
+						// Fill the current paragraph, then start a new one, just
+						// like printing the line followed by a new line.
+						script.append("if(content.lastChild==null){content.appendChild(document.createElement('pre'));}");
+						script.append("content.lastChild.style.color = '" + color + "';");
+						script.append("content.lastChild.appendChild(document.createTextNode(" + toJavaScript(line) + "));");
+						script.append("var para = document.createElement('pre'); para.appendChild(document.createTextNode('')); para.style.color = '" + color
+								+ "'; content.appendChild(para);");
+					}
+					script.append("window.scrollTo(0, document.body.scrollHeight);");
+					lines.clear();
+				}
+				synchronized (viewLock) {
+					Platform.runLater(() -> view.getEngine().executeScript(script.toString()));
+				}
+			}
+		};
 
 		inputBuffer = new LinkedBlockingQueue<>();
 		input = new InputStream() {
@@ -226,6 +290,65 @@ public class Console extends SplitPane {
 				keyEvent.consume();
 			}
 		});
+		// Show the completions as the user types, and complete on tab
+		inputArea.textProperty().addListener((observable, oldText, newText) -> {
+			hints.setText(String.join("   ", completer.apply(newText)));
+		});
+		inputArea.addEventFilter(KeyEvent.KEY_PRESSED, keyEvent -> {
+			if (keyEvent.getCode() == KeyCode.TAB) {
+				complete();
+				keyEvent.consume();
+			}
+		});
+	}
+
+	/**
+	 * Effect: completes the text in the input area as far as all of its
+	 * completions agree.
+	 */
+	private void complete() {
+		String text = inputArea.getText();
+		List<String> completions = completer.apply(text);
+		if (completions.isEmpty()) {
+			return;
+		}
+		String common = completions.get(0);
+		for (String c : completions) {
+			int x = 0;
+			while (x < common.length() && x < c.length() && common.charAt(x) == c.charAt(x)) {
+				x++;
+			}
+			common = common.substring(0, x);
+		}
+		// The completions do not include any leading space
+		String start = text.substring(0, text.length() - text.replaceAll("^\\s+", "").length());
+		if (start.length() + common.length() > text.length()) {
+			inputArea.setText(start + common);
+			inputArea.positionCaret(inputArea.getLength());
+		}
+	}
+
+	/**
+	 * Effect: sets the function which finds what the input could be completed
+	 * to. The completions are shown under the input area as the user types,
+	 * and pressing tab completes the input as far as they all agree. This is
+	 * called on the JavaFX application thread on every key stroke, so it must
+	 * be fast.
+	 *
+	 * @param completer
+	 *            the function, which takes the input and returns its
+	 *            completions
+	 */
+	public void setCompleter(Function<String, List<String>> completer) {
+		this.completer = completer;
+	}
+
+	/**
+	 * @return a sink which writes to the console. All the events since the last
+	 *         flush are written to the window at once.
+	 */
+	public OutputSink sink() {
+		return sink;
 	}
 
 	/**
@@ -278,6 +401,27 @@ public class Console extends SplitPane {
 		});
 	}
 
+	/**
+	 * Converts a string to a JavaScript string literal.
+	 *
+	 * @param str
+	 *            the string
+	 * @return the literal, including the quotes
+	 */
+	private static String toJavaScript(String str) {
+		StringBuilder result = new StringBuilder("'");
+		for (int x = 0; x < str.length(); x++) {
+			char c = str.charAt(x);
+			if (c < ' ' || c > '~' || c == '\\' || c == '\'') {
+				// The unicode escape handles special characters properly.
+				result.append(String.format("\\u%04x", (int) c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.append("'").toString();
+	}
+
 	/**
 	 * Converts a color to a hex code. From:
 	 *
@@ -1,6 +1,7 @@
 package gui;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.reflect.Field;
 import java.net.URI;
@@ -26,9 +27,13 @@ import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
 
 import grow.GrowGame;
+import grow.ImportProgress;
 import grow.MediaProcessor;
+import grow.OutputEvent;
+import grow.OutputSink;
 import grow.StatusUpdater;
 import grow.action.Action;
+import grow.replay.Recorder;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -40,6 +45,7 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.SplitPane;
 import javafx.scene.control.ToolBar;
 import javafx.scene.effect.DropShadow;
@@ -102,10 +108,33 @@ public class Grow extends Application {
 	 * The label for the drag and drop
 	 */
 	private Label dragAndDrop;
+	/**
+	 * The tool bar which shows the adventure being imported, which is only
+	 * visible while one is
+	 */
+	private ToolBar importBar;
+	/**
+	 * The label for the adventure being imported
+	 */
+	private Label importName;
+	/**
+	 * How much of the adventure being imported has been read
+	 */
+	private ProgressBar importProgress;
 	/**
 	 * The game thread
 	 */
 	private GameThread gameThread;
+	/**
+	 * The directory in which to save the transcript of the game, or null if
+	 * the game should not be recorded.
+	 */
+	private static File recordDir;
+	/**
+	 * True if the game should watch the file of the adventure being played
+	 * for changes made outside the game.
+	 */
+	private static boolean watch;
 
 	@Override
 	public void start(Stage primaryStage) {
@@ -126,6 +155,13 @@ public class Grow extends Application {
 		bottomGrid.add(new ToolBar(labeledLabel("Adventure", adventureName)), 0, 0);
 		bottomGrid.add(new ToolBar(labeledLabel("Scene", adventureScene)), 1, 0);
 		bottomGrid.add(new ToolBar(labeledLabel("Share", dragAndDrop)), 2, 0);
+		importName = new Label();
+		importProgress = new ProgressBar(0);
+		importBar = new ToolBar(labeledLabel("Importing", importName), importProgress);
+		importBar.managedProperty().bind(importBar.visibleProperty());
+		importBar.setVisible(false);
+		// Its own row, so it takes no room from the others while it is hidden
+		bottomGrid.add(importBar, 0, 1, 3, 1);
 		ColumnConstraints cons = new ColumnConstraints(0, 100, Double.MAX_VALUE);
 		cons.setHgrow(Priority.ALWAYS);
 		bottomGrid.getColumnConstraints().addAll(cons, cons, cons);
@@ -169,7 +205,33 @@ public class Grow extends Application {
 			}
 		}
 
-		g = new GrowGame(c.input(), c.output(), getRoot());
+		g = newGame(c.input(), c.sink(), getRoot());
+		c.setCompleter(g::complete);
+		g.setImportProgress(new ImportProgress() {
+			@Override
+			public void update(String adventureName, long read, long total) {
+				Platform.runLater(() -> {
+					importName.setText(adventureName);
+					importProgress.setProgress(total == 0 ? ProgressBar.INDETERMINATE_PROGRESS : (double) read / total);
+					importBar.setVisible(true);
+				});
+			}
+
+			@Override
+			public void finished(String adventureName, boolean imported) {
+				Platform.runLater(() -> importBar.setVisible(false));
+				// The game switches to the adventure, or says what went
+				// wrong, at the start of the next turn
+				tell(imported ? adventureName + " is imported, and will open after your next command." : "There was a problem importing " + adventureName
+						+ "; it will be shown after your next command.");
+			}
+
+			@Override
+			public void finishedImage(String sceneName, boolean imported) {
+				tell(imported ? "The image of " + sceneName + " is ready, and will be shown after your next command."
+						: "There was a problem importing the image of " + sceneName + "; it will be shown after your next command.");
+			}
+		});
 
 		gameThread = new GameThread();
 		gameThread.start();
@@ -220,6 +282,21 @@ public class Grow extends Application {
 		primaryStage.show();
 	}
 
+	/**
+	 * Effect: prints a line in the console, without waiting for the game.
+	 * Used for news from the threads which work in the background, which
+	 * must not be passed to the game as input, since the game would take it
+	 * as something the player typed.
+	 *
+	 * @param line
+	 *            the line
+	 */
+	private void tell(String line) {
+		OutputSink sink = c.sink();
+		sink.accept(OutputEvent.of(OutputEvent.Type.TEXT, line));
+		sink.flush();
+	}
+
 	/**
 	 * Effect: configures the region to accept a file dropped onto it by
 	 * executing the specified command in the grow game with the dropped file's
@@ -350,7 +427,7 @@ public class Grow extends Application {
 		}
 
 		try {
-			Map<String, List<String>> a = processArgs(args, "-t", "--grow-root", "--reset-root", "--set-root", "--help");
+			Map<String, List<String>> a = processArgs(args, "-t", "--grow-root", "--record", "--watch", "--reset-root", "--set-root", "--help");
 
 			if (a.containsKey("--set-root")) {
 				testSize(a, 1, "--set-root must be the only flag.");
@@ -382,6 +459,10 @@ public class Grow extends Application {
 				System.out.println("\tStarts grow in text mode.");
 				System.out.println("--grow-root <path to root folder>");
 				System.out.println("\tSets the grow root to the specified folder for the current session.");
+				System.out.println("--record <path to transcript folder>");
+				System.out.println("\tRecords a transcript of the game in the specified folder, so that it can be replayed by grow.replay.Replay.");
+				System.out.println("--watch");
+				System.out.println("\tReloads the scenes of the adventure being played when its file is changed outside grow.");
 				return;
 			}
 
@@ -391,6 +472,15 @@ public class Grow extends Application {
 				growRoot = new File(a.get("--grow-root").get(0));
 				growRoot.mkdirs();
 			}
+			if (a.containsKey("--record")) {
+				testSize(a.get("--record"), 1, "--record can only have one argument");
+				recordDir = new File(a.get("--record").get(0));
+				recordDir.mkdirs();
+			}
+			if (a.containsKey("--watch")) {
+				testSize(a.get("--watch"), 0, "--watch takes no arguments");
+				watch = true;
+			}
 			if (a.containsKey("-t")) {
 				growRoot = growRoot == null ? getRoot() : growRoot;
 				if (growRoot == null) {
@@ -399,7 +489,7 @@ public class Grow extends Application {
 					growRoot.mkdirs();
 					System.out.println("Using " + growRoot + " to store grow files..");
 				}
-				GrowGame g = new GrowGame(new Scanner(System.in), new PrintStream(System.out), growRoot);
+				GrowGame g = newGame(new Scanner(System.in), OutputSink.print(new PrintStream(System.out)), growRoot);
 				g.init(Action.EMPTY_INJECTOR);
 				g.play(Action.EMPTY_INJECTOR);
 			} else {
@@ -434,6 +524,43 @@ public class Grow extends Application {
 		pref.flush();
 	}
 
+	/**
+	 * Creates: a new game, which is recorded if {@link #recordDir} is not null,
+	 * and watches its adventure if {@link #watch} is true.
+	 *
+	 * @param input
+	 *            the input
+	 * @param sink
+	 *            the sink which gets the output
+	 * @param root
+	 *            the grow root
+	 * @return the game
+	 */
+	private static GrowGame newGame(Scanner input, OutputSink sink, File root) {
+		GrowGame g = null;
+		if (recordDir != null) {
+			File f = new File(recordDir, "transcript_" + System.currentTimeMillis() + ".txt");
+			try {
+				Recorder r = new Recorder(sink, new PrintStream(f, "UTF-8"));
+				g = new GrowGame(input, r, root);
+				g.record(r);
+			} catch (IOException e) {
+				System.err.println("Cannot record to " + f + ": " + e.getMessage());
+			}
+		}
+		if (g == null) {
+			g = new GrowGame(input, sink, root);
+		}
+		if (watch) {
+			try {
+				g.watch();
+			} catch (IOException e) {
+				System.err.println("Cannot watch the adventures in " + root + ": " + e.getMessage());
+			}
+		}
+		return g;
+	}
+
 	/**
 	 * Effect: gets the root file from persistent storage.
 	 *
@@ -0,0 +1,201 @@
+package util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents: a set which keeps its elements in an array exactly as long as
+ * the set, in the order they were added. Finding an element takes time
+ * linear in the size of the set, so this is only for small sets, like the
+ * patterns of a rule, which usually has one or two. An empty set holds no
+ * array of its own, and a set of one element costs one object and an array of
+ * one, where a {@link java.util.HashSet} costs a map, a table of 16, and an
+ * entry for each element.
+ *
+ * @author Jacob Glueck
+ *
+ * @param <E>
+ *            the type of the elements
+ */
+public class ArraySet<E> extends AbstractSet<E> {
+
+	/**
+	 * The array of every empty set
+	 */
+	private static final Object[] EMPTY = {};
+
+	/**
+	 * The elements
+	 */
+	private Object[] elements;
+	/**
+	 * The number of times the set has been changed, to catch changes made
+	 * while iterating (see {@link #version()})
+	 */
+	private int changes;
+
+	/**
+	 * Creates: a new, empty set.
+	 */
+	public ArraySet() {
+		elements = EMPTY;
+	}
+
+	/**
+	 * Creates: a new set with the elements of a collection, in order.
+	 *
+	 * @param c
+	 *            the collection
+	 */
+	public ArraySet(Collection<? extends E> c) {
+		Object[] all = c.toArray();
+		int size = 0;
+		for (Object o : all) {
+			if (indexOf(all, size, o) == -1) {
+				all[size++] = o;
+			}
+		}
+		elements = size == 0 ? EMPTY : Arrays.copyOf(all, size, Object[].class);
+	}
+
+	/**
+	 * @param array
+	 *            an array
+	 * @param size
+	 *            the number of elements of the array to look at
+	 * @param o
+	 *            an object
+	 * @return the index of the first element equal to the object, or -1 if
+	 *         there is none
+	 */
+	private static int indexOf(Object[] array, int size, Object o) {
+		for (int x = 0; x < size; x++) {
+			if (o == null ? array[x] == null : o.equals(array[x])) {
+				return x;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int size() {
+		return elements.length;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(elements, elements.length, o) != -1;
+	}
+
+	@Override
+	public boolean add(E e) {
+		if (contains(e)) {
+			return false;
+		}
+		Object[] bigger = Arrays.copyOf(elements, elements.length + 1);
+		bigger[elements.length] = e;
+		elements = bigger;
+		changes++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(elements, elements.length, o);
+		if (index == -1) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	/**
+	 * Effect: removes the element at an index.
+	 *
+	 * @param index
+	 *            the index
+	 */
+	private void removeAt(int index) {
+		if (elements.length == 1) {
+			elements = EMPTY;
+		} else {
+			Object[] smaller = new Object[elements.length - 1];
+			System.arraycopy(elements, 0, smaller, 0, index);
+			System.arraycopy(elements, index + 1, smaller, index, smaller.length - index);
+			elements = smaller;
+		}
+		changes++;
+	}
+
+	@Override
+	public void clear() {
+		if (elements.length != 0) {
+			elements = EMPTY;
+			changes++;
+		}
+	}
+
+	/**
+	 * @return a number which changes each time the set is changed, so that
+	 *         something made from the set can tell when to make it again
+	 */
+	public int version() {
+		return changes;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+
+			/**
+			 * The index of the next element
+			 */
+			private int next;
+			/**
+			 * The index of the last element returned, or -1 if it has been
+			 * removed or none has been returned
+			 */
+			private int last = -1;
+			/**
+			 * The changes which this iterator expects
+			 */
+			private int expected = changes;
+
+			@Override
+			public boolean hasNext() {
+				return next < elements.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public E next() {
+				if (expected != changes) {
+					throw new ConcurrentModificationException();
+				}
+				if (next >= elements.length) {
+					throw new NoSuchElementException();
+				}
+				last = next++;
+				return (E) elements[last];
+			}
+
+			@Override
+			public void remove() {
+				if (last == -1) {
+					throw new IllegalStateException();
+				}
+				if (expected != changes) {
+					throw new ConcurrentModificationException();
+				}
+				removeAt(last);
+				next = last;
+				last = -1;
+				expected = changes;
+			}
+		};
+	}
+}
@@ -0,0 +1,138 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Represents: a list which keeps its elements in an array exactly as long as
+ * the list. Adding or removing an element copies the array, so this is only
+ * for short lists which are read much more often than they are changed, like
+ * the actions of a rule. An empty list holds no array of its own, and there is
+ * no room kept for elements which have not been added, as there is in an
+ * {@link java.util.ArrayList}.
+ *
+ * @author Jacob Glueck
+ *
+ * @param <E>
+ *            the type of the elements
+ */
+public class CompactList<E> extends AbstractList<E> implements RandomAccess {
+
+	/**
+	 * The array of every empty list
+	 */
+	private static final Object[] EMPTY = {};
+
+	/**
+	 * The elements
+	 */
+	private Object[] elements;
+	/**
+	 * The number of times the list has been changed, including by
+	 * {@link #set(int, Object)}
+	 */
+	private int version;
+
+	/**
+	 * Creates: a new, empty list.
+	 */
+	public CompactList() {
+		elements = EMPTY;
+	}
+
+	/**
+	 * Creates: a new list with the elements of a collection, in order.
+	 *
+	 * @param c
+	 *            the collection
+	 */
+	public CompactList(Collection<? extends E> c) {
+		Object[] all = c.toArray();
+		elements = all.length == 0 ? EMPTY : Arrays.copyOf(all, all.length, Object[].class);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public E get(int index) {
+		check(index, elements.length);
+		return (E) elements[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public E set(int index, E element) {
+		check(index, elements.length);
+		E old = (E) elements[index];
+		elements[index] = element;
+		version++;
+		return old;
+	}
+
+	@Override
+	public void add(int index, E element) {
+		check(index, elements.length + 1);
+		Object[] bigger = new Object[elements.length + 1];
+		System.arraycopy(elements, 0, bigger, 0, index);
+		bigger[index] = element;
+		System.arraycopy(elements, index, bigger, index + 1, elements.length - index);
+		elements = bigger;
+		modCount++;
+		version++;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public E remove(int index) {
+		check(index, elements.length);
+		E old = (E) elements[index];
+		if (elements.length == 1) {
+			elements = EMPTY;
+		} else {
+			Object[] smaller = new Object[elements.length - 1];
+			System.arraycopy(elements, 0, smaller, 0, index);
+			System.arraycopy(elements, index + 1, smaller, index, smaller.length - index);
+			elements = smaller;
+		}
+		modCount++;
+		version++;
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		if (elements.length != 0) {
+			elements = EMPTY;
+			modCount++;
+			version++;
+		}
+	}
+
+	@Override
+	public int size() {
+		return elements.length;
+	}
+
+	/**
+	 * @return a number which changes each time the list is changed, so that
+	 *         something made from the list can tell when to make it again
+	 */
+	public int version() {
+		return version;
+	}
+
+	/**
+	 * Effect: throws an exception if an index is out of bounds.
+	 *
+	 * @param index
+	 *            the index
+	 * @param bound
+	 *            one more than the biggest index allowed
+	 */
+	private static void check(int index, int bound) {
+		if (index < 0 || index >= bound) {
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+	}
+}
@@ -49,11 +49,15 @@ public class ZipLocker {
 	 *             if there is a problem
 	 */
 	public ZipLocker(File root) throws IOException {
+		ZipMountEvent event = new ZipMountEvent();
+		event.begin();
+		boolean created = !root.exists();
 		// Makes it create the file if it is not there.
 		Map<String, String> env = new HashMap<>();
 		env.put("create", "true");
 		fs = FileSystems.newFileSystem(URI.create("jar:" + root.toURI().toString()), env);
 		this.root = root;
+		event.commit(root, created);
 	}
 
 	/**
@@ -153,6 +157,19 @@ public class ZipLocker {
 		return Files.newInputStream(fs.getPath(rootFileName(), more));
 	}
 
+	/**
+	 * @param more
+	 *            the parts of the file path.
+	 * @return the size of the internal file, in bytes
+	 * @throws IOException
+	 *             if there is a problem
+	 * @throws NoSuchFileException
+	 *             if the file could not be found.
+	 */
+	public long size(String... more) throws IOException {
+		return Files.size(fs.getPath(rootFileName(), more));
+	}
+
 	/**
 	 * Constructs a URI to a specified file. The file may or may not exist.
 	 *
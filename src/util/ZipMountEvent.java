@@ -0,0 +1,58 @@
+package util;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Represents: a Java Flight Recorder event for mounting a zip file as a
+ * {@link ZipLocker}.
+ *
+ * @author Jacob Glueck
+ *
+ */
+@Name("grow.ZipMount")
+@Label("Zip Mount")
+@Category("Grow")
+@Description("Mounting a zip file")
+class ZipMountEvent extends Event {
+
+	/**
+	 * The path of the zip file
+	 */
+	@Label("Path")
+	private String path;
+	/**
+	 * The size of the zip file
+	 */
+	@Label("Size")
+	@DataAmount
+	private long size;
+	/**
+	 * True if the zip file was created
+	 */
+	@Label("Created")
+	private boolean created;
+
+	/**
+	 * Effect: ends the event, and records it if it is being recorded.
+	 *
+	 * @param zip
+	 *            the zip file
+	 * @param created
+	 *            true if the zip file was created
+	 */
+	void commit(File zip, boolean created) {
+		if (shouldCommit()) {
+			path = zip.getPath();
+			size = zip.length();
+			this.created = created;
+			commit();
+		}
+	}
+}
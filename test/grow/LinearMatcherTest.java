@@ -0,0 +1,170 @@
+package grow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import grow.action.Action;
+import grow.action.Print;
+import grow.match.LinearMatcher;
+import grow.match.LinearPattern;
+
+/**
+ * Checks that {@link LinearMatcher} matches exactly the same input as
+ * {@link java.util.regex}, the way rules use them: the pattern in upper case,
+ * as a whole word anywhere in the input. Run with {@code ant test}.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class LinearMatcherTest {
+
+	/**
+	 * Patterns which are supported by {@link LinearMatcher}
+	 */
+	private static final String[] PATTERNS = { "look", "look around", "look|see", "go (north|south)", "go (n|north)?",
+			"take.*key", "take (the )?key", "x+", "(ab)*c", "colou?r", "[a-c]at", "[^a-c]at", "\\d\\D", "\\w+\\W\\w+",
+			"a\\.b", "[.]", "\\bend", "in\\Bside", "(?:open|unlock) door", "a*?b", "", " ", "hello there.*", ".*" };
+	/**
+	 * The input to try each pattern on
+	 */
+	private static final String[] INPUT = { "look", "LOOK around", "look  around", "looking", "see", "go north",
+			"go south now", "go", "go n", "take the key", "take key", "take red key", "take keys", "xxx", "x", "ababc",
+			"c", "color", "colour", "colouur", "bat", "dat", "cat", "1a", "12", "a,b", "a b", "a.b", "axb", ".", "end",
+			"the end", "bend", "inside", "in side", "open door", "unlock door", "aaab", "b", "hello there", "hello",
+			"", " " };
+
+	/**
+	 * Runs the checks.
+	 *
+	 * @param args
+	 *            not used
+	 */
+	public static void main(String[] args) {
+		samePatterns();
+		sameRules();
+		randomPatterns();
+		System.out.println("LinearMatcherTest passed");
+	}
+
+	/**
+	 * Checks each of {@link #PATTERNS} on each of {@link #INPUT}.
+	 */
+	private static void samePatterns() {
+		for (String pattern : PATTERNS) {
+			check(LinearPattern.parse(pattern.toUpperCase()) != null, pattern + " is not supported");
+			for (String line : INPUT) {
+				same(pattern, line);
+			}
+		}
+	}
+
+	/**
+	 * Checks that a scene picks the same rule whether or not it matches with a
+	 * {@link LinearMatcher}, with patterns which are supported and patterns
+	 * which are not mixed together.
+	 */
+	private static void sameRules() {
+		Scene scene = new Scene("test", "A scene to test.");
+		List<String> patterns = new ArrayList<>(Arrays.asList(PATTERNS));
+		// Not supported: anchors, counted repeats, back references, look
+		// arounds, and patterns which are not valid at all, which never match
+		patterns.addAll(Arrays.asList("^go$", "x{2}", "(a)\\1", "take(?= key)", "(unclosed", "[z-a]"));
+		for (String pattern : patterns) {
+			List<Action> print = new ArrayList<>();
+			print.add(new Print(pattern));
+			scene.addRule(new Rule(print, pattern));
+		}
+		boolean linear = Scene.linear();
+		try {
+			for (String line : INPUT) {
+				Scene.setLinear(false);
+				Rule regex = scene.match(new TurnInput(line));
+				Scene.setLinear(true);
+				Rule nfa = scene.match(new TurnInput(line));
+				check(regex == nfa, "a different rule matched " + line);
+			}
+		} finally {
+			Scene.setLinear(linear);
+		}
+	}
+
+	/**
+	 * Checks that random patterns which {@link LinearPattern} parses are valid
+	 * regular expressions, and match the same input.
+	 */
+	private static void randomPatterns() {
+		Random random = new Random(0);
+		String symbols = "AB .|()*+?[]^-\\{}$:bBDWSw&1";
+		String letters = "AB1 .,";
+		for (int x = 0; x < 200000; x++) {
+			String pattern = random(random, symbols, 1 + random.nextInt(7));
+			if (LinearPattern.parse(pattern) == null) {
+				continue;
+			}
+			for (int y = 0; y < 4; y++) {
+				same(pattern, random(random, letters, random.nextInt(8)));
+			}
+		}
+	}
+
+	/**
+	 * Effect: checks that a pattern matches an input with a
+	 * {@link LinearMatcher} only if it does with {@link java.util.regex}.
+	 *
+	 * @param pattern
+	 *            the pattern, which must be supported
+	 * @param line
+	 *            the input
+	 */
+	private static void same(String pattern, String line) {
+		String upper = pattern.toUpperCase();
+		Pattern regex;
+		try {
+			regex = Pattern.compile(".*\\b(" + upper + ")\\b.*");
+		} catch (PatternSyntaxException e) {
+			throw new AssertionError(pattern + " is supported, but is not a valid regular expression", e);
+		}
+		TurnInput input = new TurnInput(line);
+		BitSet matched = new BitSet();
+		LinearMatcher matcher = new LinearMatcher(Collections.singletonList(LinearPattern.parse(upper)));
+		check(matcher.match(input, matched), line + " is not supported");
+		check(matched.get(0) == regex.matcher(input).matches(), pattern + " matches " + line + " differently");
+	}
+
+	/**
+	 * @param random
+	 *            the random numbers
+	 * @param characters
+	 *            the characters to use
+	 * @param length
+	 *            the length
+	 * @return a random string of the characters
+	 */
+	private static String random(Random random, String characters, int length) {
+		StringBuilder result = new StringBuilder(length);
+		for (int x = 0; x < length; x++) {
+			result.append(characters.charAt(random.nextInt(characters.length())));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Effect: fails if a condition does not hold.
+	 *
+	 * @param condition
+	 *            the condition
+	 * @param message
+	 *            what went wrong, if it does not hold
+	 */
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}
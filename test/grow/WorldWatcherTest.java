@@ -0,0 +1,165 @@
+package grow;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import util.ZipLocker;
+
+/**
+ * Checks that the watch on an adventure does not load the game's own saves
+ * back into it, and does not get in the way of the game thread's use of the
+ * adventure file. Run with {@code ant test}.
+ *
+ * @author Jacob Glueck
+ *
+ */
+public class WorldWatcherTest {
+
+	/**
+	 * Runs the checks.
+	 *
+	 * @param args
+	 *            not used
+	 * @throws Exception
+	 *             if a check fails
+	 */
+	public static void main(String[] args) throws Exception {
+		saveDuringCheck();
+		readWhileMounted();
+		System.out.println("WorldWatcherTest passed");
+	}
+
+	/**
+	 * Checks that a save which happens while the watch is reading an outside
+	 * change to the file throws away what was read, so the scenes the player
+	 * just saved are not reloaded, and the player is not told the adventure
+	 * changed.
+	 *
+	 * @throws Exception
+	 *             if the check fails
+	 */
+	private static void saveDuringCheck() throws Exception {
+		File dir = Files.createTempDirectory("grow-watch").toFile();
+		File zip = new File(dir, "a.zip");
+		Files.write(zip.toPath(), new byte[] { 0 });
+		AtomicReference<String> file = new AtomicReference<>(world("one"));
+		AtomicBoolean block = new AtomicBoolean();
+		AtomicInteger reads = new AtomicInteger();
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		WorldWatcher watcher = new WorldWatcher(dir, (name) -> {
+			String now = file.get();
+			if (block.getAndSet(false)) {
+				reading.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+			}
+			reads.incrementAndGet();
+			return new ByteArrayInputStream(now.getBytes(StandardCharsets.UTF_8));
+		});
+
+		watcher.follow("a");
+		waitFor(() -> reads.get() == 1, "the first read");
+
+		// Something else changes the file, and the watch starts to read it
+		file.set(world("two"));
+		block.set(true);
+		Files.write(zip.toPath(), new byte[] { 1 });
+		check(reading.await(10, TimeUnit.SECONDS), "the check never started");
+
+		// The player saves while the check is reading
+		file.set(world("three"));
+		watcher.follow("a");
+		Files.write(zip.toPath(), new byte[] { 2 });
+		release.countDown();
+
+		// Wait for the baseline of the save and the check of its own change
+		waitFor(() -> reads.get() >= 4, "the reads after the save");
+		Thread.sleep(500);
+		check(watcher.take() == null, "the save was loaded back as a change");
+		check(watcher.takeProblem() == null, "the save was reported as a problem");
+	}
+
+	/**
+	 * Checks that the watch can read the world file while the game thread has
+	 * the adventure file mounted, as it does while it saves.
+	 *
+	 * @throws Exception
+	 *             if the check fails
+	 */
+	private static void readWhileMounted() throws Exception {
+		File root = Files.createTempDirectory("grow-root").toFile();
+		SaveManager saveManager = new SaveManager(root, new Random(0));
+		ZipLocker zip = new ZipLocker(saveManager.adventureFile("a"));
+		try {
+			try (OutputStream out = zip.write("a_world.txt")) {
+				out.write(world("one").getBytes(StandardCharsets.UTF_8));
+			}
+		} finally {
+			zip.close();
+		}
+		ZipLocker mounted = new ZipLocker(saveManager.adventureFile("a"));
+		try (InputStream in = saveManager.readWorldSnapshot("a"); Scanner lines = new Scanner(in, "UTF-8")) {
+			check(lines.nextLine().equals("Name: a"), "the world file was not read");
+		} finally {
+			mounted.close();
+		}
+	}
+
+	/**
+	 * @param description
+	 *            the description of the start scene
+	 * @return the world file of an adventure called a with one scene
+	 */
+	private static String world(String description) {
+		return "Name: a\nStart: start\nName: start\nDescription: " + description + "\n" + Game.SCENE_SEPARATOR + "\n";
+	}
+
+	/**
+	 * Effect: waits up to ten seconds for a condition to hold.
+	 *
+	 * @param condition
+	 *            the condition
+	 * @param what
+	 *            what is being waited for, for the failure message
+	 * @throws InterruptedException
+	 *             if the wait is interrupted
+	 */
+	private static void waitFor(BooleanSupplier condition, String what) throws InterruptedException {
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			check(System.nanoTime() < end, "timed out waiting for " + what);
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * Effect: fails if a condition does not hold.
+	 *
+	 * @param condition
+	 *            the condition
+	 * @param message
+	 *            what went wrong, if it does not hold
+	 */
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}